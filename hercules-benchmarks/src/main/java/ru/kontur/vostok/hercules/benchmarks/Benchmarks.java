@@ -0,0 +1,24 @@
+package ru.kontur.vostok.hercules.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run benchmarks with GC profiler, thus allocation rate is reported along with the time.
+ * Accepts the same command line options as JMH does.
+ */
+public class Benchmarks {
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        new Runner(
+                new OptionsBuilder()
+                        .parent(commandLineOptions)
+                        .addProfiler(GCProfiler.class)
+                        .build()
+        ).run();
+    }
+}
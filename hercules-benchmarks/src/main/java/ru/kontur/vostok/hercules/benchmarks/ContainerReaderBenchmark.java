@@ -0,0 +1,87 @@
+package ru.kontur.vostok.hercules.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.kontur.vostok.hercules.protocol.Container;
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.decoder.ContainerReader;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.LazyContainerReader;
+import ru.kontur.vostok.hercules.protocol.decoder.SizeOf;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read event payload entirely, partially and lazily
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContainerReaderBenchmark {
+    private static final int PAYLOAD_OFFSET = SizeOf.BYTE + SizeOf.LONG + SizeOf.UUID;
+
+    private static final ContainerReader ALL_TAGS_READER = ContainerReader.readAllTags();
+    /**
+     * Tags are used to route and partition events
+     */
+    private static final ContainerReader SELECTED_TAGS_READER = ContainerReader.readTags(new HashSet<>(Arrays.asList(
+            "properties.project",
+            "properties.environment",
+            "tagsHash",
+            "traceId")));
+    private static final LazyContainerReader LAZY_READER = LazyContainerReader.INSTANCE;
+
+    @Param({"LOG", "METRIC", "TRACE_SPAN"})
+    public EventShapes.Shape shape;
+
+    private byte[] bytes;
+    private String firstTag;
+
+    @Setup
+    public void setup() {
+        Event event = EventShapes.create(shape);
+        bytes = event.getBytes();
+        firstTag = event.getPayload().iterator().next().getKey();
+    }
+
+    @Benchmark
+    public Container readAllTags() {
+        return ALL_TAGS_READER.read(decoder());
+    }
+
+    @Benchmark
+    public Container readSelectedTags() {
+        return SELECTED_TAGS_READER.read(decoder());
+    }
+
+    @Benchmark
+    public Variant readLazilyOneTag() {
+        return LAZY_READER.read(decoder()).get(firstTag);
+    }
+
+    @Benchmark
+    public int skip() {
+        return ALL_TAGS_READER.skip(decoder());
+    }
+
+    private Decoder decoder() {
+        Decoder decoder = new Decoder(bytes);
+        decoder.position(PAYLOAD_OFFSET);
+        return decoder;
+    }
+}
@@ -0,0 +1,75 @@
+package ru.kontur.vostok.hercules.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.decoder.ArrayReader;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.EventReader;
+import ru.kontur.vostok.hercules.protocol.encoder.ArrayWriter;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+import ru.kontur.vostok.hercules.protocol.encoder.EventWriter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read batch of events as the gate and sinks do
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecoderBenchmark {
+    private static final int BATCH_SIZE = 100;
+
+    private static final ArrayReader<Event> ALL_TAGS_READER = new ArrayReader<>(EventReader.readAllTags(), Event.class);
+    private static final ArrayReader<Event> NO_TAGS_READER = new ArrayReader<>(EventReader.readNoTags(), Event.class);
+    private static final EventReader EVENT_READER = EventReader.readAllTags();
+
+    @Param({"LOG", "METRIC", "TRACE_SPAN"})
+    public EventShapes.Shape shape;
+
+    private byte[] batch;
+
+    @Setup
+    public void setup() {
+        Event[] events = new Event[BATCH_SIZE];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = EventShapes.create(shape);
+        }
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        new ArrayWriter<>(new EventWriter()).write(encoder, events);
+        batch = encoder.toByteArray();
+    }
+
+    @Benchmark
+    public Event[] readAllTags() {
+        return ALL_TAGS_READER.read(new Decoder(batch));
+    }
+
+    @Benchmark
+    public Event[] readNoTags() {
+        return NO_TAGS_READER.read(new Decoder(batch));
+    }
+
+    @Benchmark
+    public void skip(Blackhole blackhole) {
+        Decoder decoder = new Decoder(batch);
+        int count = decoder.readInteger();
+        while (0 <= --count) {
+            blackhole.consume(EVENT_READER.skip(decoder));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ru.kontur.vostok.hercules.benchmarks;
+
+import ru.kontur.vostok.hercules.protocol.Container;
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.Vector;
+import ru.kontur.vostok.hercules.protocol.util.ContainerBuilder;
+import ru.kontur.vostok.hercules.protocol.util.EventBuilder;
+
+import java.util.UUID;
+
+/**
+ * Events of typical shapes, see doc/event-schema
+ */
+public final class EventShapes {
+    private static final long TIMESTAMP = 15_464_736_000_000_000L;
+    private static final long UTC_OFFSET = 18_000_000_000L;
+
+    public static Event create(Shape shape) {
+        switch (shape) {
+            case LOG:
+                return log();
+            case METRIC:
+                return metric();
+            case TRACE_SPAN:
+                return traceSpan();
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+    }
+
+    /**
+     * Log event with properties and exception with stack frames
+     */
+    public static Event log() {
+        Container[] stackFrames = new Container[10];
+        for (int i = 0; i < stackFrames.length; i++) {
+            stackFrames[i] = ContainerBuilder.create()
+                    .tag("function", Variant.ofString("processRequest" + i))
+                    .tag("type", Variant.ofString("ru.kontur.vostok.hercules.gate.SendRequestProcessor"))
+                    .tag("file", Variant.ofString("SendRequestProcessor.java"))
+                    .tag("line", Variant.ofInteger(100 + i))
+                    .tag("column", Variant.ofShort((short) 17))
+                    .build();
+        }
+        Container exception = ContainerBuilder.create()
+                .tag("type", Variant.ofString("java.lang.IllegalStateException"))
+                .tag("message", Variant.ofString("Cannot process request"))
+                .tag("stackFrames", Variant.ofVector(Vector.ofContainers(stackFrames)))
+                .build();
+        Container properties = ContainerBuilder.create()
+                .tag("project", Variant.ofString("hercules"))
+                .tag("environment", Variant.ofString("production"))
+                .tag("service", Variant.ofString("gate"))
+                .tag("host", Variant.ofString("hercules-gate-01.example.com"))
+                .tag("thread", Variant.ofString("XNIO-1 task-12"))
+                .tag("SourceContext", Variant.ofString("ru.kontur.vostok.hercules.gate.SendRequestProcessor"))
+                .tag("RequestId", Variant.ofString(UUID.randomUUID().toString()))
+                .build();
+
+        return EventBuilder.create(TIMESTAMP, UUID.randomUUID())
+                .tag("utcOffset", Variant.ofLong(UTC_OFFSET))
+                .tag("level", Variant.ofString("Error"))
+                .tag("messageTemplate", Variant.ofString("Request {RequestId} failed in {ElapsedMilliseconds} ms"))
+                .tag("message", Variant.ofString("Request 1b4e28ba-2fa1-11d2-883f-0016d3cca427 failed in 125 ms"))
+                .tag("exception", Variant.ofContainer(exception))
+                .tag("properties", Variant.ofContainer(properties))
+                .build();
+    }
+
+    /**
+     * Metric event with tags
+     */
+    public static Event metric() {
+        String[][] tags = {
+                {"project", "hercules"},
+                {"environment", "production"},
+                {"application", "gate"},
+                {"instance", "hercules-gate-01"},
+                {"metric", "requests"},
+                {"status", "200"}
+        };
+        Container[] metricTags = new Container[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            metricTags[i] = ContainerBuilder.create()
+                    .tag("key", Variant.ofString(tags[i][0]))
+                    .tag("value", Variant.ofString(tags[i][1]))
+                    .build();
+        }
+
+        return EventBuilder.create(TIMESTAMP, UUID.randomUUID())
+                .tag("value", Variant.ofDouble(123.456))
+                .tag("tags", Variant.ofVector(Vector.ofContainers(metricTags)))
+                .tag("tagsHash", Variant.ofInteger(-1_234_567_890))
+                .tag("unit", Variant.ofString("requests"))
+                .tag("aggregationType", Variant.ofString("counter"))
+                .build();
+    }
+
+    /**
+     * Trace span event with annotations
+     */
+    public static Event traceSpan() {
+        Container annotations = ContainerBuilder.create()
+                .tag("kind", Variant.ofString("http-request-server"))
+                .tag("operation", Variant.ofString("POST /stream/send"))
+                .tag("host", Variant.ofString("hercules-gate-01.example.com"))
+                .tag("http.request.url", Variant.ofString("http://hercules-gate/stream/send?stream=logs_hercules_production"))
+                .tag("http.request.size", Variant.ofLong(1_048_576L))
+                .tag("http.response.code", Variant.ofInteger(200))
+                .build();
+
+        return EventBuilder.create(TIMESTAMP, UUID.randomUUID())
+                .tag("traceId", Variant.ofUuid(UUID.randomUUID()))
+                .tag("spanId", Variant.ofUuid(UUID.randomUUID()))
+                .tag("parentSpanId", Variant.ofUuid(UUID.randomUUID()))
+                .tag("beginTimestampUtc", Variant.ofLong(TIMESTAMP))
+                .tag("beginTimestampUtcOffset", Variant.ofLong(UTC_OFFSET))
+                .tag("endTimestampUtc", Variant.ofLong(TIMESTAMP + 1_250_000L))
+                .tag("endTimestampUtcOffset", Variant.ofLong(UTC_OFFSET))
+                .tag("annotations", Variant.ofContainer(annotations))
+                .build();
+    }
+
+    public enum Shape {
+        LOG,
+        METRIC,
+        TRACE_SPAN
+    }
+
+    private EventShapes() {
+        /* static class */
+    }
+}
@@ -0,0 +1,69 @@
+package ru.kontur.vostok.hercules.benchmarks;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.kontur.vostok.hercules.json.EventToJsonTranscoder;
+import ru.kontur.vostok.hercules.json.EventToJsonWriter;
+import ru.kontur.vostok.hercules.protocol.Container;
+import ru.kontur.vostok.hercules.protocol.Event;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write event payload as JSON as sinks do, either from decoded container or directly from event bytes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventToJsonWriterBenchmark {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    @Param({"LOG", "METRIC", "TRACE_SPAN"})
+    public EventShapes.Shape shape;
+
+    private Event event;
+    private Container payload;
+    private ByteArrayOutputStream stream;
+
+    @Setup
+    public void setup() {
+        event = EventShapes.create(shape);
+        payload = event.getPayload();
+        stream = new ByteArrayOutputStream();
+    }
+
+    @Benchmark
+    public int writeContainer() throws IOException {
+        stream.reset();
+        try (JsonGenerator generator = FACTORY.createGenerator(stream, JsonEncoding.UTF8)) {
+            EventToJsonWriter.writeContainer(generator, payload);
+        }
+        return stream.size();
+    }
+
+    @Benchmark
+    public int transcodePayload() throws IOException {
+        stream.reset();
+        try (JsonGenerator generator = FACTORY.createGenerator(stream, JsonEncoding.UTF8)) {
+            EventToJsonTranscoder.transcodePayload(generator, event);
+        }
+        return stream.size();
+    }
+}
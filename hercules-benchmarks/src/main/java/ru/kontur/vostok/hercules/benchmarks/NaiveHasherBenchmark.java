@@ -0,0 +1,60 @@
+package ru.kontur.vostok.hercules.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.kontur.vostok.hercules.partitioner.NaiveHasher;
+import ru.kontur.vostok.hercules.partitioner.ShardingKey;
+import ru.kontur.vostok.hercules.protocol.Event;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hash event by typical sharding keys
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NaiveHasherBenchmark {
+    private static final NaiveHasher HASHER = new NaiveHasher();
+
+    @Param({"LOG", "METRIC", "TRACE_SPAN"})
+    public EventShapes.Shape shape;
+
+    private Event event;
+    private ShardingKey shardingKey;
+
+    @Setup
+    public void setup() {
+        event = EventShapes.create(shape);
+        switch (shape) {
+            case LOG:
+                shardingKey = ShardingKey.fromKeyPaths("properties.project", "properties.environment", "level");
+                break;
+            case METRIC:
+                shardingKey = ShardingKey.fromKeyPaths("tagsHash");
+                break;
+            case TRACE_SPAN:
+                shardingKey = ShardingKey.fromKeyPaths("traceId");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+    }
+
+    @Benchmark
+    public int hash() {
+        return HASHER.hash(event, shardingKey);
+    }
+}
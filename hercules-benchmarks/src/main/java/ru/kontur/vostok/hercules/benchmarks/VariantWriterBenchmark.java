@@ -0,0 +1,74 @@
+package ru.kontur.vostok.hercules.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.kontur.vostok.hercules.protocol.Container;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+import ru.kontur.vostok.hercules.protocol.encoder.ContainerWriter;
+import ru.kontur.vostok.hercules.protocol.encoder.CountingEncoder;
+import ru.kontur.vostok.hercules.protocol.encoder.Encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write event payload with different encoders
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariantWriterBenchmark {
+    private static final ContainerWriter CONTAINER_WRITER = ContainerWriter.INSTANCE;
+
+    @Param({"LOG", "METRIC", "TRACE_SPAN"})
+    public EventShapes.Shape shape;
+
+    private Container payload;
+    private ByteArrayEncoder reusableEncoder;
+    private ByteArrayOutputStream reusableStream;
+
+    @Setup
+    public void setup() {
+        payload = EventShapes.create(shape).getPayload();
+        reusableEncoder = new ByteArrayEncoder();
+        reusableStream = new ByteArrayOutputStream();
+    }
+
+    @Benchmark
+    public byte[] writeWithStreamEncoder() {
+        reusableStream.reset();
+        CONTAINER_WRITER.write(new Encoder(reusableStream), payload);
+        return reusableStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] writeWithByteArrayEncoder() {
+        ByteArrayEncoder encoder = new ByteArrayEncoder(CountingEncoder.sizeOf(CONTAINER_WRITER, payload));
+        CONTAINER_WRITER.write(encoder, payload);
+        return encoder.array();
+    }
+
+    @Benchmark
+    public int writeWithReusableEncoder() {
+        reusableEncoder.reset();
+        CONTAINER_WRITER.write(reusableEncoder, payload);
+        return reusableEncoder.size();
+    }
+
+    @Benchmark
+    public int computeSize() {
+        return CountingEncoder.sizeOf(CONTAINER_WRITER, payload);
+    }
+}
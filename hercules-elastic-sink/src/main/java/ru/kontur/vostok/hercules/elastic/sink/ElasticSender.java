@@ -13,6 +13,8 @@ import org.slf4j.LoggerFactory;
 import ru.kontur.vostok.hercules.health.MetricsCollector;
 import ru.kontur.vostok.hercules.kafka.util.processing.BackendServiceFailedException;
 import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.EventReader;
 import ru.kontur.vostok.hercules.protocol.format.EventFormatter;
 import ru.kontur.vostok.hercules.protocol.util.EventUtil;
 import ru.kontur.vostok.hercules.sink.Sender;
@@ -31,6 +33,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import static ru.kontur.vostok.hercules.util.throwable.ThrowableUtil.toUnchecked;
@@ -47,6 +50,11 @@ public class ElasticSender extends Sender {
 
     private static final int EXPECTED_EVENT_SIZE_BYTES = 2_048;
 
+    /**
+     * Events are deserialized partially, see {@link #tags()}, thus they are read entirely to be logged
+     */
+    private static final EventReader FULL_EVENT_READER = EventReader.readAllTags();
+
     private final RestClient restClient;
     private final ElasticResponseHandler elasticResponseHandler;
 
@@ -92,6 +100,14 @@ public class ElasticSender extends Sender {
         this.elasticsearchRequestErrorsMeter = metricsCollector.meter("elasticsearchRequestErrors");
     }
 
+    /**
+     * Events are written to JSON from their bytes, thus only tags of the index name are deserialized
+     */
+    @Override
+    public Set<String> tags() {
+        return IndexToElasticJsonWriter.TAGS;
+    }
+
     @Override
     public SenderStatus ping() {
         try {
@@ -151,7 +167,7 @@ public class ElasticSender extends Sender {
                 if (result.hasUnknownErrors() && LOGGER.isInfoEnabled()) {
                     for (Event event : events) {
                         if (result.getBadIds().contains(EventUtil.extractStringId(event))) {
-                            LOGGER.info("Event caused unknown error: {}", EventFormatter.format(event, false));
+                            LOGGER.info("Event caused unknown error: {}", EventFormatter.format(FULL_EVENT_READER.read(new Decoder(event.getBytes())), false));
                         }
                     }
                 }
@@ -3,13 +3,11 @@ package ru.kontur.vostok.hercules.elastic.sink;
 import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
-import ru.kontur.vostok.hercules.json.EventToJsonWriter;
-import ru.kontur.vostok.hercules.protocol.Container;
+import ru.kontur.vostok.hercules.json.EventToJsonTranscoder;
 import ru.kontur.vostok.hercules.protocol.Event;
 import ru.kontur.vostok.hercules.protocol.Type;
-import ru.kontur.vostok.hercules.protocol.Variant;
-import ru.kontur.vostok.hercules.protocol.Vector;
-import ru.kontur.vostok.hercules.protocol.util.ContainerUtil;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.VariantReader;
 import ru.kontur.vostok.hercules.tags.CommonTags;
 import ru.kontur.vostok.hercules.tags.ElasticSearchTags;
 import ru.kontur.vostok.hercules.util.time.TimeUtil;
@@ -19,23 +17,22 @@ import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
-import java.util.UUID;
 
 public final class EventToElasticJsonWriter {
     private static final String TIMESTAMP_TAG_NAME = "@timestamp";
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.nnnnnnnnnX")
             .withZone(ZoneOffset.UTC);
 
-    private static final Set<String> IGNORED_TAGS = new HashSet<>(Arrays.asList(
-            TIMESTAMP_TAG_NAME,
-            ElasticSearchTags.INDEX_PATTERN_TAG.getName()
-    ));
+    private static final VariantReader VARIANT_READER = VariantReader.INSTANCE;
+
+    /**
+     * Tag names are encoded as tiny strings to be matched against encoded event directly
+     */
+    private static final byte[][] IGNORED_TAGS = new byte[][]{
+            encodeTagName(TIMESTAMP_TAG_NAME),
+            encodeTagName(ElasticSearchTags.INDEX_PATTERN_TAG.getName())
+    };
+    private static final byte[] PROPERTIES_TAG = encodeTagName(CommonTags.PROPERTIES_TAG.getName());
 
     private static final JsonFactory FACTORY = new JsonFactory();
 
@@ -44,28 +41,56 @@ public final class EventToElasticJsonWriter {
             generator.writeStartObject();
             generator.writeStringField(TIMESTAMP_TAG_NAME, FORMATTER.format(TimeUtil.unixTicksToInstant(event.getTimestamp())));
 
+            Decoder decoder = EventToJsonTranscoder.payloadDecoder(event);
+            int payloadPosition = decoder.position();
+
             if (mergePropertiesToRoot) {
-                final Optional<Container> properties = ContainerUtil.extract(event.getPayload(), CommonTags.PROPERTIES_TAG);
-                if (properties.isPresent()) {
-                    for (Map.Entry<String, Variant> tag : properties.get()) {
-                        EventToJsonWriter.writeVariantAsField(generator, tag.getKey(), tag.getValue());
+                int properties = -1;
+                int size = decoder.readContainerSize();
+                for (int i = 0; i < size; i++) {
+                    if (decoder.matches(PROPERTIES_TAG)) {
+                        properties = decoder.position();
                     }
+                    decoder.skipTinyString();
+                    VARIANT_READER.skip(decoder);
                 }
-            }
-
-            for (Map.Entry<String, Variant> tag : event.getPayload()) {
-                if (IGNORED_TAGS.contains(tag.getKey())
-                    || (mergePropertiesToRoot && CommonTags.PROPERTIES_TAG.getName().equals(tag.getKey()))
-                ) {
-                    continue;
+                if (properties >= 0) {
+                    // The last one is taken if properties tag is duplicated
+                    decoder.position(properties);
+                    decoder.skipTinyString();
+                    if (decoder.readUnsignedByte() == Type.CONTAINER.code) {
+                        EventToJsonTranscoder.transcodeTags(generator, decoder);
+                    }
                 }
-                EventToJsonWriter.writeVariantAsField(generator, tag.getKey(), tag.getValue());
+                decoder.position(payloadPosition);
             }
 
+            EventToJsonTranscoder.transcodeTags(
+                    generator,
+                    decoder,
+                    d -> !isIgnored(d) && !(mergePropertiesToRoot && d.matches(PROPERTIES_TAG)));
+
             generator.writeEndObject();
         }
     }
 
+    private static boolean isIgnored(Decoder decoder) {
+        for (byte[] tag : IGNORED_TAGS) {
+            if (decoder.matches(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] encodeTagName(String tagName) {
+        byte[] bytes = tagName.getBytes(StandardCharsets.UTF_8);
+        byte[] encoded = new byte[bytes.length + 1];
+        encoded[0] = (byte) bytes.length;
+        System.arraycopy(bytes, 0, encoded, 1, bytes.length);
+        return encoded;
+    }
+
     private EventToElasticJsonWriter() {
         /* static class */
     }
@@ -1,8 +1,10 @@
 package ru.kontur.vostok.hercules.elastic.sink;
 
+import ru.kontur.vostok.hercules.protocol.Container;
 import ru.kontur.vostok.hercules.protocol.Event;
-import ru.kontur.vostok.hercules.protocol.util.ContainerUtil;
 import ru.kontur.vostok.hercules.protocol.util.EventUtil;
+import ru.kontur.vostok.hercules.protocol.util.TagAccessor;
+import ru.kontur.vostok.hercules.protocol.util.TagDescription;
 import ru.kontur.vostok.hercules.tags.CommonTags;
 import ru.kontur.vostok.hercules.tags.ElasticSearchTags;
 import ru.kontur.vostok.hercules.util.time.TimeUtil;
@@ -13,9 +15,10 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 public final class IndexToElasticJsonWriter {
 
@@ -27,11 +30,26 @@ public final class IndexToElasticJsonWriter {
     private static final byte[] MIDDLE_BYTES = "\",\"_type\":\"LogEvent\",\"_id\":\"".getBytes(ENCODING);
     private static final byte[] END_BYTES = "\"}}".getBytes(ENCODING);
 
+    private static final TagAccessor PROPERTIES = CommonTags.PROPERTIES_TAG.accessor();
+    private static final TagAccessor INDEX_PATTERN = ElasticSearchTags.INDEX_PATTERN_TAG.accessor();
+    private static final TagAccessor PROJECT = CommonTags.PROJECT_TAG.accessor();
+    private static final TagAccessor ELK_SCOPE = ElasticSearchTags.ELK_SCOPE_TAG.accessor();
+    private static final TagAccessor ENVIRONMENT = CommonTags.ENVIRONMENT_TAG.accessor();
+
+    /**
+     * Tag paths which are used to build the index name, other tags are written to JSON from bytes of the event
+     */
+    static final Set<String> TAGS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            path(CommonTags.PROPERTIES_TAG, ElasticSearchTags.INDEX_PATTERN_TAG),
+            path(CommonTags.PROPERTIES_TAG, CommonTags.PROJECT_TAG),
+            path(CommonTags.PROPERTIES_TAG, ElasticSearchTags.ELK_SCOPE_TAG),
+            path(CommonTags.PROPERTIES_TAG, CommonTags.ENVIRONMENT_TAG))));
+
     public static boolean tryWriteIndex(OutputStream stream, Event event) throws IOException {
-        final Optional<String> index = extractIndex(event);
-        if (index.isPresent()) {
+        final String index = extractIndex(event);
+        if (index != null) {
             stream.write(START_BYTES);
-            stream.write(index.get().getBytes(ENCODING));
+            stream.write(index.getBytes(ENCODING));
             stream.write(MIDDLE_BYTES);
             stream.write(EventUtil.extractStringId(event).getBytes(ENCODING));
             stream.write(END_BYTES);
@@ -41,30 +59,38 @@ public final class IndexToElasticJsonWriter {
         }
     }
 
-    private static Optional<String> extractIndex(final Event event) {
-        return ContainerUtil.extract(event.getPayload(), CommonTags.PROPERTIES_TAG)
-                .flatMap(properties -> {
-                    final List<String> parts = new ArrayList<>(4);
+    private static String extractIndex(final Event event) {
+        final Container properties = PROPERTIES.getContainer(event.getPayload(), null);
+        if (properties == null) {
+            return null;
+        }
+
+        final StringBuilder index = new StringBuilder(64);
+        final String indexPattern = INDEX_PATTERN.getString(properties, null);
+        if (indexPattern != null) {
+            index.append(indexPattern);
+        } else {
+            final String project = PROJECT.getString(properties, null);
+            if (project == null) {
+                return null;
+            }
+            index.append(project);
+            appendPart(index, ELK_SCOPE.getString(properties, null));
+            appendPart(index, ENVIRONMENT.getString(properties, null));
+        }
+
+        appendPart(index, DATE_FORMATTER.format(TimeUtil.unixTicksToInstant(event.getTimestamp())));
+        return index.toString().toLowerCase();
+    }
 
-                    final Optional<String> index = ContainerUtil.extract(properties, ElasticSearchTags.INDEX_PATTERN_TAG);
-                    if (index.isPresent()) {
-                        parts.add(index.get());
-                    } else {
-                        final Optional<String> project = ContainerUtil.extract(properties, CommonTags.PROJECT_TAG);
-                        if (project.isPresent()) {
-                            parts.add(project.get());
-                            ContainerUtil.extract(properties, ElasticSearchTags.ELK_SCOPE_TAG).ifPresent(parts::add);
-                            ContainerUtil.extract(properties, CommonTags.ENVIRONMENT_TAG).ifPresent(parts::add);
-                        }
-                    }
+    private static void appendPart(StringBuilder index, String part) {
+        if (part != null) {
+            index.append('-').append(part);
+        }
+    }
 
-                    if (parts.size() != 0) {
-                        parts.add(DATE_FORMATTER.format(TimeUtil.unixTicksToInstant(event.getTimestamp())));
-                        return Optional.of(String.join("-", parts).toLowerCase());
-                    }  else {
-                        return Optional.empty();
-                    }
-                });
+    private static String path(TagDescription<?> container, TagDescription<?> tag) {
+        return container.getName() + '.' + tag.getName();
     }
 
     private IndexToElasticJsonWriter() {
@@ -3,6 +3,8 @@ package ru.kontur.vostok.hercules.elastic.sink;
 import org.junit.Test;
 import ru.kontur.vostok.hercules.protocol.Event;
 import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.EventReader;
 import ru.kontur.vostok.hercules.protocol.util.ContainerBuilder;
 import ru.kontur.vostok.hercules.protocol.util.EventBuilder;
 import ru.kontur.vostok.hercules.tags.ElasticSearchTags;
@@ -90,6 +92,29 @@ public class IndexToElasticJsonWriterTest {
         );
     }
 
+    @Test
+    public void shouldWriteIndexOfProjectedEvent() throws Exception {
+        final Event event = EventBuilder.create(TimeUtil.UNIX_EPOCH, "00000000-0000-1000-994f-8fcf383f0000")
+            .tag("properties", Variant.ofContainer(ContainerBuilder.create()
+                .tag("project", Variant.ofString("awesome-project"))
+                .tag(ElasticSearchTags.ELK_SCOPE_TAG, Variant.ofString("scope"))
+                .tag("environment", Variant.ofString("production"))
+                .tag("service", Variant.ofString("skipped"))
+                .build()
+            ))
+            .tag("message", Variant.ofString("skipped"))
+            .build();
+        final Event projected = EventReader.readTags(IndexToElasticJsonWriter.TAGS).read(new Decoder(event.getBytes()));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        IndexToElasticJsonWriter.tryWriteIndex(expected, event);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        IndexToElasticJsonWriter.tryWriteIndex(stream, projected);
+
+        assertEquals(1, projected.getPayload().size());
+        assertEquals(expected.toString(), stream.toString());
+    }
+
     @Test
     public void shouldReturnFalseIfNoSuitableTags() throws Exception {
         final Event event = EventBuilder.create(0, "00000000-0000-1000-994f-8fcf383f0000") //TODO: fix me!
@@ -1,11 +1,13 @@
 package ru.kontur.vostok.hercules.gate.client;
 
+import org.apache.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.kontur.vostok.hercules.configuration.Scopes;
 import ru.kontur.vostok.hercules.configuration.util.PropertiesUtil;
 import ru.kontur.vostok.hercules.gate.client.exception.BadRequestException;
 import ru.kontur.vostok.hercules.gate.client.exception.UnavailableClusterException;
+import ru.kontur.vostok.hercules.gate.client.exception.UnsupportedMediaTypeException;
 import ru.kontur.vostok.hercules.gate.client.util.EventWriterUtil;
 import ru.kontur.vostok.hercules.protocol.CommonConstants;
 import ru.kontur.vostok.hercules.protocol.Event;
@@ -39,6 +41,12 @@ public class EventPublisher {
     private final ScheduledThreadPoolExecutor executor;
     private final String[] urls;
     private final String apiKey;
+    private volatile boolean compact;
+    /**
+     * Compact event batch is confirmed if gate has accepted it at least once. Gates which do not support it
+     * ignore content type and reject the batch as invalid
+     */
+    private volatile boolean compactConfirmed;
 
     /**
      * Note that <code>threadFactory</code> should create daemon-thread. It's needing for correct stopping.
@@ -53,10 +61,12 @@ public class EventPublisher {
         final int threads = Props.THREAD_COUNT.extract(properties);
         final String[] urls = Props.URLS.extract(properties);
         final String apiKey = Props.API_KEY.extract(properties);
+        final boolean compact = Props.COMPACT.extract(properties);
         final Properties gateClientProperties = PropertiesUtil.ofScope(properties, Scopes.GATE_CLIENT);
 
         this.urls = urls;
         this.apiKey = apiKey;
+        this.compact = compact;
         this.executor = new ScheduledThreadPoolExecutor(threads, threadFactory);
 
         this.gateClient = new GateClient(gateClientProperties);
@@ -173,18 +183,18 @@ public class EventPublisher {
         int lastUnprocessedIndex = 0;
 
         for (int index = 0; index < events.size(); index++) {
-            if (events.get(index).getBytes().length >= CommonConstants.MAX_MESSAGE_SIZE) {
+            if (events.get(index).getSize() >= CommonConstants.MAX_MESSAGE_SIZE) {
                 continue;
             }
 
-            if (size + events.get(index).getBytes().length >= CommonConstants.MAX_MESSAGE_SIZE) {
+            if (size + events.get(index).getSize() >= CommonConstants.MAX_MESSAGE_SIZE) {
                 sendSliceEvents(events, eventQueue.getStream(), size, lastUnprocessedIndex, index);
 
                 size = 0;
                 lastUnprocessedIndex = index;
             }
 
-            size += events.get(index).getBytes().length;
+            size += events.get(index).getSize();
         }
 
         sendSliceEvents(events, eventQueue.getStream(), size, lastUnprocessedIndex, events.size());
@@ -211,6 +221,23 @@ public class EventPublisher {
                 .toArray(new Event[endSlice - startSlice]);
 
         try {
+            if (compact) {
+                try {
+                    gateClient.sendAsyncCompact(this.urls, this.apiKey, stream, EventWriterUtil.toCompactBytes(eventsArray));
+                    compactConfirmed = true;
+                    return;
+                } catch (UnsupportedMediaTypeException e) {
+                    LOGGER.warn("Gate does not support compact event batch, fall back to default one");
+                    compact = false;
+                } catch (BadRequestException e) {
+                    // Other client errors (e.g. authorization or throttling) do not depend on the batch format
+                    if (compactConfirmed || e.getStatusCode() != HttpStatus.SC_BAD_REQUEST) {
+                        throw e;
+                    }
+                    LOGGER.warn("Gate has rejected compact event batch, fall back to default one");
+                    compact = false;
+                }
+            }
             gateClient.sendAsync(
                     this.urls,
                     this.apiKey,
@@ -251,5 +278,11 @@ public class EventPublisher {
                 PropertyDescriptions
                         .stringProperty("apiKey")
                         .build();
+
+        static final PropertyDescription<Boolean> COMPACT =
+                PropertyDescriptions
+                        .booleanProperty("compact")
+                        .withDefaultValue(false)
+                        .build();
     }
 }
@@ -41,7 +41,7 @@ public class EventQueue {
     public int drainTo(Collection<Event> collection, int maxElements) {
         int actual = blockingQueue.drainTo(collection, maxElements);
 
-        collection.forEach(event -> currentBytesSize.addAndGet(-event.getBytes().length));
+        collection.forEach(event -> currentBytesSize.addAndGet(-event.getSize()));
 
         return actual;
     }
@@ -56,12 +56,12 @@ public class EventQueue {
 
     public void add(Event event) {
         blockingQueue.add(event);
-        currentBytesSize.addAndGet(event.getBytes().length);
+        currentBytesSize.addAndGet(event.getSize());
     }
 
     public void put(Event event) throws InterruptedException {
         blockingQueue.put(event);
-        currentBytesSize.addAndGet(event.getBytes().length);
+        currentBytesSize.addAndGet(event.getSize());
     }
 
     public String getName() {
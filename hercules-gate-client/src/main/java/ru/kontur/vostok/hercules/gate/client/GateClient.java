@@ -13,12 +13,19 @@ import org.apache.http.entity.ContentType;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.kontur.vostok.hercules.gate.client.exception.BadRequestException;
 import ru.kontur.vostok.hercules.gate.client.exception.HttpProtocolException;
 import ru.kontur.vostok.hercules.gate.client.exception.UnavailableClusterException;
 import ru.kontur.vostok.hercules.gate.client.exception.UnavailableHostException;
+import ru.kontur.vostok.hercules.gate.client.exception.UnsupportedMediaTypeException;
+import ru.kontur.vostok.hercules.gate.client.util.EventWriterUtil;
+import ru.kontur.vostok.hercules.protocol.CommonConstants;
+import ru.kontur.vostok.hercules.protocol.FailedEvents;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.FailedEventsReader;
 import ru.kontur.vostok.hercules.util.properties.PropertyDescription;
 import ru.kontur.vostok.hercules.util.properties.PropertyDescriptions;
 import ru.kontur.vostok.hercules.util.validation.IntegerValidators;
@@ -41,6 +48,11 @@ public class GateClient implements Closeable {
     private static final String SEND_ACK = "/stream/send";
     private static final String SEND_ASYNC = "/stream/sendAsync";
 
+    private static final ContentType COMPACT_EVENT_BATCH_CONTENT_TYPE =
+            ContentType.create(CommonConstants.COMPACT_EVENT_BATCH_CONTENT_TYPE);
+
+    private static final FailedEventsReader FAILED_EVENTS_READER = new FailedEventsReader();
+
     private final CloseableHttpClient client;
 
     public GateClient(CloseableHttpClient client) {
@@ -82,7 +94,27 @@ public class GateClient implements Closeable {
     public void sendAsync(String url, String apiKey, String stream, final byte[] data)
             throws BadRequestException, UnavailableHostException, HttpProtocolException {
         sendToHost(url, urlParam -> {
-            HttpPost httpPost = buildRequest(url, apiKey, SEND_ASYNC, stream, data);
+            HttpPost httpPost = buildRequest(url, apiKey, SEND_ASYNC, stream, data, ContentType.APPLICATION_OCTET_STREAM);
+            return sendRequest(httpPost);
+        });
+    }
+
+    /**
+     * Request to {@value #SEND_ASYNC} with the compact event batch
+     * (see {@link ru.kontur.vostok.hercules.protocol.encoder.CompactBatchWriter})
+     *
+     * @param url Gate url
+     * @param apiKey key for sending
+     * @param stream topic name in kafka
+     * @param data compact event batch
+     * @throws UnsupportedMediaTypeException throws if gate does not support the compact event batch
+     * @throws BadRequestException throws if was error on client side: 4xx errors or http protocol errors
+     * @throws UnavailableHostException throws if was error on server side: 5xx errors or connection errors
+     */
+    public void sendAsyncCompact(String url, String apiKey, String stream, final byte[] data)
+            throws BadRequestException, UnavailableHostException, HttpProtocolException {
+        sendToHost(url, urlParam -> {
+            HttpPost httpPost = buildRequest(url, apiKey, SEND_ASYNC, stream, data, COMPACT_EVENT_BATCH_CONTENT_TYPE);
             return sendRequest(httpPost);
         });
     }
@@ -100,7 +132,7 @@ public class GateClient implements Closeable {
     public void send(String url, String apiKey, String stream, final byte[] data)
             throws BadRequestException, UnavailableHostException, HttpProtocolException {
         sendToHost(url, urlParam -> {
-            HttpPost httpPost = buildRequest(url, apiKey, SEND_ACK, stream, data);
+            HttpPost httpPost = buildRequest(url, apiKey, SEND_ACK, stream, data, ContentType.APPLICATION_OCTET_STREAM);
             return sendRequest(httpPost);
         });
     }
@@ -135,19 +167,67 @@ public class GateClient implements Closeable {
     }
 
     /**
-     * Request to {@value #SEND_ACK}
+     * Request to {@value #SEND_ASYNC} with the compact event batch. Count of retry is <code>urls.length + 1</code>
+     *
+     * @param urls addresses pool of gate
+     * @param apiKey key for sending
+     * @param stream topic name in kafka
+     * @param data compact event batch
+     * @throws UnsupportedMediaTypeException throws if gate does not support the compact event batch
+     * @throws BadRequestException throws if was error on client side: 4xx errors or http protocol errors
+     * @throws UnavailableClusterException throws if was error on addresses pool side: no one of address is unavailable
+     */
+    public void sendAsyncCompact(String[] urls, String apiKey, String stream, final byte[] data)
+            throws BadRequestException, UnavailableClusterException {
+        sendToPool(urls, urls.length + 1, url -> sendAsyncCompact(url, apiKey, stream, data));
+    }
+
+    /**
+     * Request to {@value #SEND_ACK}. If gate responds with indices of events which have not been sent,
+     * then only failed events are resent. Invalid events are not resent
      *
      * @param urls addresses pool of gate
      * @param retryLimit count of attempt to send data to one of the <code>urls</code>' hosts
      * @param apiKey key for sending
      * @param stream topic name in kafka
      * @param data payload
-     * @throws BadRequestException throws if was error on client side: 4xx errors or http protocol errors
+     * @throws BadRequestException throws if was error on client side: 4xx errors or http protocol errors,
+     *                             or if some events are invalid (other events are sent anyway)
      * @throws UnavailableClusterException throws if was error on addresses pool side: no one of address is unavailable
      */
     public void send(String[] urls, int retryLimit, String apiKey, String stream, final byte[] data)
             throws BadRequestException, UnavailableClusterException {
-        sendToPool(urls, retryLimit, url -> send(url, apiKey, stream, data));
+        int seed = RANDOM.nextInt(urls.length);
+
+        byte[] batch = data;
+        boolean rejected = false;
+        for (int i = seed, count = 0;
+             count < retryLimit;
+             count++, i = (i + 1) % urls.length) {
+
+            try {
+                FailedEvents failedEvents = sendAck(urls[i], apiKey, stream, batch);
+                if (failedEvents != null) {
+                    rejected |= failedEvents.getRejected().length > 0;
+                }
+                if (failedEvents == null || failedEvents.getFailed().length == 0) {
+                    if (rejected) {
+                        throw new BadRequestException(HttpStatus.SC_UNPROCESSABLE_ENTITY);
+                    }
+                    return;
+                }
+                batch = EventWriterUtil.select(batch, failedEvents.getFailed());
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Send fails for " + failedEvents.getFailed().length + " events");
+                }
+            } catch (HttpProtocolException | UnavailableHostException e) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Send fails", e);
+                }
+            }
+        }
+
+        throw new UnavailableClusterException();
     }
 
     /**
@@ -234,11 +314,33 @@ public class GateClient implements Closeable {
         try {
             int statusCode = sender.send(url);
 
-            if (statusCode >= 400 && statusCode < 500) {
-                throw new BadRequestException(statusCode);
-            } else if (statusCode >= 500) {
-                throw new UnavailableHostException(url);
+            checkStatusCode(url, statusCode);
+        } catch (ClientProtocolException e) {
+            throw new HttpProtocolException(e);
+        } catch (IOException e) {
+            throw new UnavailableHostException(url, e);
+        }
+    }
+
+    /**
+     * Request to {@value #SEND_ACK} with reading indices of events which have not been sent
+     *
+     * @return indices of events which have not been sent or {@code null} if all events have been sent
+     */
+    private FailedEvents sendAck(String url, String apiKey, String stream, byte[] data)
+            throws BadRequestException, UnavailableHostException, HttpProtocolException {
+        HttpPost httpPost = buildRequest(url, apiKey, SEND_ACK, stream, data, ContentType.APPLICATION_OCTET_STREAM);
+        try (CloseableHttpResponse response = client.execute(httpPost)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+
+            HttpEntity entity = response.getEntity();
+            if (statusCode == HttpStatus.SC_UNPROCESSABLE_ENTITY && entity != null
+                    && CommonConstants.FAILED_EVENTS_CONTENT_TYPE.equals(ContentType.getOrDefault(entity).getMimeType())) {
+                return FAILED_EVENTS_READER.read(new Decoder(EntityUtils.toByteArray(entity)));
             }
+
+            checkStatusCode(url, statusCode);
+            return null;
         } catch (ClientProtocolException e) {
             throw new HttpProtocolException(e);
         } catch (IOException e) {
@@ -246,6 +348,16 @@ public class GateClient implements Closeable {
         }
     }
 
+    private static void checkStatusCode(String url, int statusCode) throws BadRequestException, UnavailableHostException {
+        if (statusCode == HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE) {
+            throw new UnsupportedMediaTypeException();
+        } else if (statusCode >= 400 && statusCode < 500) {
+            throw new BadRequestException(statusCode);
+        } else if (statusCode >= 500) {
+            throw new UnavailableHostException(url);
+        }
+    }
+
     private int sendRequest(HttpUriRequest request) throws IOException {
         CloseableHttpResponse response = client.execute(request);
         int statusCode = response.getStatusLine().getStatusCode();
@@ -261,14 +373,15 @@ public class GateClient implements Closeable {
      * @param action Command in Hercules Gateway
      * @param stream topic name in kafka
      * @param data   payload
+     * @param contentType content type of payload
      * @return formatted http post request
      */
-    private HttpPost buildRequest(String url, String apiKey, String action, String stream, byte[] data) {
+    private HttpPost buildRequest(String url, String apiKey, String action, String stream, byte[] data, ContentType contentType) {
         HttpPost httpPost = new HttpPost(url + action + "?stream=" + stream);
 
         httpPost.addHeader("apiKey", apiKey);
 
-        HttpEntity entity = new ByteArrayEntity(data, ContentType.APPLICATION_OCTET_STREAM);
+        HttpEntity entity = new ByteArrayEntity(data, contentType);
         httpPost.setEntity(entity);
 
         return httpPost;
@@ -6,28 +6,46 @@ package ru.kontur.vostok.hercules.gate.client.exception;
 public class BadRequestException extends HerculesGateClientException {
     private static final String MESSAGE = "Bad request from client";
     private static final String STATUS_CODE_TEMPLATE = "Response was taken with status code %d";
+    private static final int BAD_REQUEST_STATUS_CODE = 400;
+
+    private final int statusCode;
 
     public BadRequestException() {
-        super(MESSAGE);
+        this(BAD_REQUEST_STATUS_CODE, MESSAGE);
     }
 
     public BadRequestException(Exception cause) {
         super(MESSAGE, cause);
+        this.statusCode = BAD_REQUEST_STATUS_CODE;
     }
 
     public BadRequestException(String message, Exception cause) {
         super(message, cause);
+        this.statusCode = BAD_REQUEST_STATUS_CODE;
     }
 
     public BadRequestException(String message) {
-        super(message);
+        this(BAD_REQUEST_STATUS_CODE, message);
     }
 
     public BadRequestException(int statusCode) {
-        super(String.format(STATUS_CODE_TEMPLATE, statusCode));
+        this(statusCode, String.format(STATUS_CODE_TEMPLATE, statusCode));
     }
 
     public BadRequestException(int statusCode, Exception cause) {
         super(String.format(STATUS_CODE_TEMPLATE, statusCode), cause);
+        this.statusCode = statusCode;
+    }
+
+    protected BadRequestException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * @return HTTP status code of the response, it is {@code 400} if the request has been rejected by the client itself
+     */
+    public int getStatusCode() {
+        return statusCode;
     }
 }
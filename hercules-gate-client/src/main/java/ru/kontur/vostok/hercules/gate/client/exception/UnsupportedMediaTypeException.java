@@ -0,0 +1,13 @@
+package ru.kontur.vostok.hercules.gate.client.exception;
+
+/**
+ * Gate does not support format of sent data
+ */
+public class UnsupportedMediaTypeException extends BadRequestException {
+    private static final String MESSAGE = "Unsupported media type";
+    private static final int UNSUPPORTED_MEDIA_TYPE_STATUS_CODE = 415;
+
+    public UnsupportedMediaTypeException() {
+        super(UNSUPPORTED_MEDIA_TYPE_STATUS_CODE, MESSAGE);
+    }
+}
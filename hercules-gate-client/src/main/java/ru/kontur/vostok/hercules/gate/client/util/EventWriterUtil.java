@@ -1,17 +1,20 @@
 package ru.kontur.vostok.hercules.gate.client.util;
 
 import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.EventReader;
+import ru.kontur.vostok.hercules.protocol.decoder.SizeOf;
 import ru.kontur.vostok.hercules.protocol.encoder.ArrayWriter;
-import ru.kontur.vostok.hercules.protocol.encoder.Encoder;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+import ru.kontur.vostok.hercules.protocol.encoder.CompactBatchWriter;
 import ru.kontur.vostok.hercules.protocol.encoder.EventWriter;
 
-import java.io.ByteArrayOutputStream;
-
 /**
  * @author Daniil Zhenikhov
  */
 public class EventWriterUtil {
     private static final ArrayWriter<Event> ARRAY_WRITER = new ArrayWriter<>(new EventWriter());
+    private static final EventReader EVENT_READER = EventReader.readNoTags();
 
     /**
      * Convert array of events to byte array
@@ -21,11 +24,10 @@ public class EventWriterUtil {
      * @return bytes of events after converting
      */
     public static byte[] toBytes(int size, Event[] events) {
-        ByteArrayOutputStream byteStream = new ByteArrayOutputStream(size);
-        Encoder encoder = new Encoder(byteStream);
+        ByteArrayEncoder encoder = new ByteArrayEncoder(size);
         ARRAY_WRITER.write(encoder, events);
 
-        return byteStream.toByteArray();
+        return (encoder.size() == encoder.array().length) ? encoder.array() : encoder.toByteArray();
     }
 
     /**
@@ -38,11 +40,54 @@ public class EventWriterUtil {
         return toBytes(calculateSize(events), events);
     }
 
+    /**
+     * Convert array of events to the compact event batch
+     *
+     * @param events array of events to convert
+     * @return bytes of the compact event batch
+     */
+    public static byte[] toCompactBytes(Event[] events) {
+        ByteArrayEncoder encoder = new ByteArrayEncoder(calculateSize(events));
+        CompactBatchWriter.INSTANCE.write(encoder, events);
+
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Select events from the event batch. Events are copied as is without decoding
+     *
+     * @param data    bytes of the event batch
+     * @param indices ascending indices of events to select
+     * @return bytes of the event batch with selected events only
+     */
+    public static byte[] select(byte[] data, int[] indices) {
+        Decoder decoder = new Decoder(data);
+        int count = decoder.readInteger();
+
+        ByteArrayEncoder encoder = new ByteArrayEncoder(data.length);
+        encoder.writeInteger(indices.length);
+
+        int next = 0;
+        for (int i = 0; i < count && next < indices.length; i++) {
+            int from = decoder.position();
+            int size = EVENT_READER.skip(decoder);
+            if (i == indices[next]) {
+                encoder.writeRawBytes(data, from, size);
+                next++;
+            }
+        }
+        if (next < indices.length) {
+            throw new IllegalArgumentException("Index " + indices[next] + " is out of the batch of " + count + " events");
+        }
+
+        return encoder.toByteArray();
+    }
+
     private static int calculateSize(Event[] events) {
-        int total = 0;
+        int total = SizeOf.INTEGER;
 
         for (Event event : events) {
-            total += event.getBytes().length;
+            total += event.getSize();
         }
 
         return total;
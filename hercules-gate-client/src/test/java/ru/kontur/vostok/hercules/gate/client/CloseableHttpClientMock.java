@@ -1,15 +1,24 @@
 package ru.kontur.vostok.hercules.gate.client;
 
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.StatusLine;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.params.HttpParams;
 import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
 import org.mockito.Mockito;
+import ru.kontur.vostok.hercules.protocol.CommonConstants;
+import ru.kontur.vostok.hercules.protocol.FailedEvents;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+import ru.kontur.vostok.hercules.protocol.encoder.FailedEventsWriter;
 
 import java.io.IOException;
 
@@ -23,10 +32,15 @@ public class CloseableHttpClientMock extends CloseableHttpClient {
     private static final String ERROR_503_ADDR = "error_host_2" + PING_METHOD;
     private static final String CLIENT_PROTOCOL_EXC_ADDR = "error_client_2" + PING_METHOD;
     private static final String IOEXC_ADDR = "error_host_3" + PING_METHOD;
+    private static final String PARTIAL_FAILURE_ADDR = "partial_failure/stream/send?stream=test";
 
     private static final CloseableHttpResponse ERROR_4XX;
     private static final CloseableHttpResponse ERROR_5XX;
     private static final CloseableHttpResponse ERROR_503;
+    private static final CloseableHttpResponse OK;
+    private static final CloseableHttpResponse PARTIAL_FAILURE;
+
+    private byte[] lastSentData;
 
     static {
         ERROR_4XX = Mockito.mock(CloseableHttpResponse.class);
@@ -42,6 +56,27 @@ public class CloseableHttpClientMock extends CloseableHttpClient {
         Mockito.when(statusLine5xx.getStatusCode()).thenReturn(500);
         Mockito.when(ERROR_503.getStatusLine()).thenReturn(statusLine503);
         Mockito.when(statusLine503.getStatusCode()).thenReturn(503);
+
+        OK = Mockito.mock(CloseableHttpResponse.class);
+        StatusLine statusLineOk = Mockito.mock(StatusLine.class);
+        Mockito.when(OK.getStatusLine()).thenReturn(statusLineOk);
+        Mockito.when(statusLineOk.getStatusCode()).thenReturn(200);
+
+        PARTIAL_FAILURE = Mockito.mock(CloseableHttpResponse.class);
+        StatusLine statusLine422 = Mockito.mock(StatusLine.class);
+        Mockito.when(PARTIAL_FAILURE.getStatusLine()).thenReturn(statusLine422);
+        Mockito.when(statusLine422.getStatusCode()).thenReturn(422);
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        new FailedEventsWriter().write(encoder, new FailedEvents(new int[]{0}, new int[]{1}));
+        Mockito.when(PARTIAL_FAILURE.getEntity()).thenReturn(
+                new ByteArrayEntity(encoder.toByteArray(), ContentType.create(CommonConstants.FAILED_EVENTS_CONTENT_TYPE)));
+    }
+
+    /**
+     * @return the last event batch which has been sent successfully to {@value #PARTIAL_FAILURE_ADDR}
+     */
+    public byte[] getLastSentData() {
+        return lastSentData;
     }
 
     @Override
@@ -55,6 +90,13 @@ public class CloseableHttpClientMock extends CloseableHttpClient {
                 return ERROR_503;
             case CLIENT_PROTOCOL_EXC_ADDR:
                 throw new ClientProtocolException();
+            case PARTIAL_FAILURE_ADDR:
+                byte[] data = EntityUtils.toByteArray(((HttpEntityEnclosingRequest) request).getEntity());
+                if (new Decoder(data).readInteger() > 1) {
+                    return PARTIAL_FAILURE;
+                }
+                lastSentData = data;
+                return OK;
             case IOEXC_ADDR:
             default:
                 throw new IOException();
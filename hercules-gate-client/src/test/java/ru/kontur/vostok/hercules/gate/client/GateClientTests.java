@@ -1,11 +1,18 @@
 package ru.kontur.vostok.hercules.gate.client;
 
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.Assert;
 import org.junit.Test;
 import ru.kontur.vostok.hercules.gate.client.exception.BadRequestException;
 import ru.kontur.vostok.hercules.gate.client.exception.HttpProtocolException;
 import ru.kontur.vostok.hercules.gate.client.exception.UnavailableClusterException;
 import ru.kontur.vostok.hercules.gate.client.exception.UnavailableHostException;
+import ru.kontur.vostok.hercules.gate.client.util.EventWriterUtil;
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.util.EventBuilder;
+
+import java.util.UUID;
 
 /**
  * @author Daniil Zhenikhov
@@ -16,6 +23,7 @@ public class GateClientTests {
     private static final String ERROR_503_ADDR = "error_host_2";
     private static final String CLIENT_PROTOCOL_EXC_ADDR = "error_client_2";
     private static final String IOEXC_ADDR = "error_host_3";
+    private static final String PARTIAL_FAILURE_ADDR = "partial_failure";
 
     private static final CloseableHttpClient HTTP_CLIENT = new CloseableHttpClientMock();
     private static final GateClient GATE_CLIENT = new GateClient(HTTP_CLIENT);
@@ -25,6 +33,16 @@ public class GateClientTests {
         GATE_CLIENT.ping(ERROR_4XX_ADDR);
     }
 
+    @Test
+    public void shouldKeepStatusCode_Host_Return4xx() throws UnavailableHostException, HttpProtocolException {
+        try {
+            GATE_CLIENT.ping(ERROR_4XX_ADDR);
+            Assert.fail("BadRequestException is expected");
+        } catch (BadRequestException e) {
+            Assert.assertEquals(400, e.getStatusCode());
+        }
+    }
+
     @Test(expected = UnavailableHostException.class)
     public void shouldThrow_Hots_return5xx() throws BadRequestException, UnavailableHostException, HttpProtocolException {
         GATE_CLIENT.ping(ERROR_5XX_ADDR);
@@ -49,4 +67,23 @@ public class GateClientTests {
     public void shouldThrow_Host_throwIOException() throws BadRequestException, UnavailableHostException, HttpProtocolException {
         GATE_CLIENT.ping(IOEXC_ADDR);
     }
+
+    @Test
+    public void shouldResendFailedEventsOnly() throws UnavailableClusterException {
+        Event[] events = new Event[3];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = EventBuilder.create(i, UUID.randomUUID()).tag("index", Variant.ofInteger(i)).build();
+        }
+        CloseableHttpClientMock httpClient = new CloseableHttpClientMock();
+        GateClient gateClient = new GateClient(httpClient);
+
+        try {
+            gateClient.send(new String[]{PARTIAL_FAILURE_ADDR}, 2, "apiKey", "test", EventWriterUtil.toBytes(events));
+            Assert.fail("Rejected events should be reported");
+        } catch (BadRequestException e) {
+            // First event is rejected by the mock as invalid
+        }
+
+        Assert.assertArrayEquals(EventWriterUtil.toBytes(new Event[]{events[1]}), httpClient.getLastSentData());
+    }
 }
@@ -4,21 +4,29 @@ import ru.kontur.vostok.hercules.meta.auth.validation.Validation;
 import ru.kontur.vostok.hercules.meta.filter.Filter;
 import ru.kontur.vostok.hercules.protocol.Event;
 import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.util.ContainerUtil;
 
 /**
+ * Filter tags are resolved by dotted paths, the same way as they are projected by the event reader
+ *
  * @author Gregory Koshelev
  */
 public class ContentValidator {
-    private final Validation validation;
+    private final Filter[] filters;
+    private final String[][] filterPaths;
 
     public ContentValidator(Validation validation) {
-        this.validation = validation;
+        this.filters = validation.getFilters();
+        this.filterPaths = new String[filters.length][];
+        for (int i = 0; i < filters.length; i++) {
+            filterPaths[i] = ContainerUtil.splitPath(filters[i].getTag());
+        }
     }
 
     public boolean validate(Event event) {
-        for (Filter filter : validation.getFilters()) {
-            Variant value = event.getPayload().get(filter.getTag());
-            if (!filter.getCondition().test(value)) {
+        for (int i = 0; i < filters.length; i++) {
+            Variant value = ContainerUtil.get(event.getPayload(), filterPaths[i]);
+            if (!filters[i].getCondition().test(value)) {
                 return false;
             }
         }
@@ -0,0 +1,98 @@
+package ru.kontur.vostok.hercules.gate;
+
+import ru.kontur.vostok.hercules.kafka.util.serialization.PackedRecord;
+import ru.kontur.vostok.hercules.protocol.Event;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups events of the packed stream by partition. Pack is sent as soon as it reaches the max record size,
+ * the rest of packs are sent on {@link #flush()}.
+ * <p>
+ * Packer is not thread-safe, since events of the request are received sequentially.
+ */
+final class EventPacker {
+    private final int maxRecordSize;
+    private final PackSender sender;
+
+    private final Map<Integer, Pack> packs = new HashMap<>();
+
+    /**
+     * @param maxRecordSize is the max size in bytes of Kafka record with packed events
+     * @param sender        sends packs
+     */
+    EventPacker(int maxRecordSize, PackSender sender) {
+        this.maxRecordSize = maxRecordSize;
+        this.sender = sender;
+    }
+
+    /**
+     * Add event to the pack of the partition
+     *
+     * @param partition is the partition of the event
+     * @param event     the event
+     * @param index     is the index of the event in the batch
+     */
+    void add(Integer partition, Event event, int index) {
+        Pack pack = packs.computeIfAbsent(partition, p -> new Pack());
+        pack.add(event, index);
+        if (pack.size >= maxRecordSize) {
+            packs.remove(partition);
+            send(partition, pack);
+        }
+    }
+
+    /**
+     * Send all packs
+     */
+    void flush() {
+        for (Map.Entry<Integer, Pack> entry : packs.entrySet()) {
+            send(entry.getKey(), entry.getValue());
+        }
+        packs.clear();
+    }
+
+    /**
+     * Drop all packs without sending
+     */
+    void clear() {
+        packs.clear();
+    }
+
+    private void send(Integer partition, Pack pack) {
+        sender.send(
+                partition,
+                pack.events.toArray(new Event[0]),
+                pack.indices.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    @FunctionalInterface
+    interface PackSender {
+        /**
+         * Send events of the same partition as the single packed record
+         *
+         * @param partition is the partition
+         * @param events    the events
+         * @param indices   are indices of events in the batch
+         */
+        void send(Integer partition, Event[] events, int[] indices);
+    }
+
+    /**
+     * Events of the same partition which are sent as the single packed record
+     */
+    private static final class Pack {
+        private final List<Event> events = new ArrayList<>();
+        private final List<Integer> indices = new ArrayList<>();
+        private int size = PackedRecord.OVERHEAD_SIZE;
+
+        void add(Event event, int index) {
+            events.add(event);
+            indices.add(index);
+            size += event.getSize();
+        }
+    }
+}
@@ -1,53 +1,131 @@
 package ru.kontur.vostok.hercules.gate;
 
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.serialization.ByteBufferSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.kontur.vostok.hercules.health.MetricsCollector;
+import ru.kontur.vostok.hercules.kafka.util.serialization.PackedRecord;
 import ru.kontur.vostok.hercules.kafka.util.serialization.UuidSerializer;
 import ru.kontur.vostok.hercules.partitioner.Partitioner;
 import ru.kontur.vostok.hercules.partitioner.ShardingKey;
+import ru.kontur.vostok.hercules.partitioner.StickyPartitioner;
 import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.util.properties.PropertyDescription;
+import ru.kontur.vostok.hercules.util.properties.PropertyDescriptions;
 import ru.kontur.vostok.hercules.util.time.TimeUtil;
+import ru.kontur.vostok.hercules.util.validation.IntegerValidators;
 
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Event sender uses the pool of Kafka producers, thus sending is not limited by the single producer I/O thread.
+ * <p>
+ * Records of the same topic partition are always sent by the same producer to preserve their order.
+ * Records without partition are distributed among producers in round-robin fashion.
+ *
  * @author Gregory Koshelev
  */
 public class EventSender {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EventSender.class);
 
-    private final KafkaProducer<UUID, byte[]> producer;
-    private final Partitioner partitioner;
+    /**
+     * Kafka producer metrics which are reported for each producer of the pool
+     */
+    private static final String[][] PRODUCER_METRICS = {
+            {"record-send-rate", "recordSendRate"},
+            {"record-queue-time-avg", "recordQueueTimeAvgMs"},
+            {"request-latency-avg", "requestLatencyAvgMs"},
+            {"batch-size-avg", "batchSizeAvgBytes"},
+            {"buffer-available-bytes", "bufferAvailableBytes"},
+            {"io-wait-ratio", "ioWaitRatio"}
+    };
 
-    public EventSender(Map<String, Object> config, Partitioner partitioner) {
-        this.producer = new KafkaProducer<>(config, new UuidSerializer(), new ByteArraySerializer());
-        this.partitioner = partitioner;
-    }
+    private final KafkaProducer<UUID, ByteBuffer>[] producers;
+    private final AtomicInteger nextProducer = new AtomicInteger();
+    private final Partitioner partitioner;
+    private final StickyPartitioner stickyPartitioner;
+    private final boolean sendEventKey;
 
-    public EventSender(Properties properties, Partitioner partitioner) {
-        this.producer = new KafkaProducer<>(properties, new UuidSerializer(), new ByteArraySerializer());
+    /**
+     * @param properties         are sender properties
+     * @param producerProperties are Kafka producer properties, they are applied to each producer of the pool
+     * @param partitioner        is partitioner for events with sharding key
+     * @param metricsCollector   is metrics collector
+     */
+    @SuppressWarnings("unchecked")
+    public EventSender(Properties properties, Properties producerProperties, Partitioner partitioner, MetricsCollector metricsCollector) {
+        int poolSize = Props.PRODUCER_POOL_SIZE.extract(properties);
+        this.producers = new KafkaProducer[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            producers[i] = new KafkaProducer<>(producerProperties(producerProperties, i, poolSize), new UuidSerializer(), new ByteBufferSerializer());
+            registerMetrics(metricsCollector, "eventSender.producer" + i, producers[i]);
+        }
         this.partitioner = partitioner;
+        this.stickyPartitioner = Props.STICKY_PARTITIONING.extract(properties)
+                ? new StickyPartitioner(Props.BATCH_SIZE.extract(producerProperties), Props.LINGER_MS.extract(producerProperties))
+                : null;
+        this.sendEventKey = Props.SEND_EVENT_KEY.extract(properties);
     }
 
     public void send(Event event, UUID eventId, String topic, int partitions, ShardingKey shardingKey, Callback callback, Callback errorCallback) {
-        Integer partition = (!shardingKey.isEmpty()) ? partitioner.partition(event, shardingKey, partitions) : null;
+        ProducerRecord<UUID, ByteBuffer> record =
+                new ProducerRecord<>(
+                        topic,
+                        partition(event, topic, shardingKey, partitions),
+                        System.currentTimeMillis(),// Use current timestamp of the Gate
+                        sendEventKey ? eventId : null,
+                        event.toByteBuffer()
+                );
+        send(record, callback, errorCallback);
+    }
 
-        ProducerRecord<UUID, byte[]> record =
+    /**
+     * Send events of the same partition as the single packed record, see {@link PackedRecord}
+     *
+     * @param events        the events
+     * @param topic         the topic
+     * @param partition     the partition or {@code null} if any partition can be used
+     * @param callback      is called when record is sent
+     * @param errorCallback is called when record is not sent
+     */
+    public void sendPacked(Event[] events, String topic, Integer partition, Callback callback, Callback errorCallback) {
+        ProducerRecord<UUID, ByteBuffer> record =
                 new ProducerRecord<>(
                         topic,
                         partition,
                         System.currentTimeMillis(),// Use current timestamp of the Gate
-                        eventId,
-                        event.getBytes()
+                        null,
+                        PackedRecord.pack(events),
+                        PackedRecord.headers()
                 );
-        producer.send(record, (metadata, exception) -> {
+        send(record, callback, errorCallback);
+    }
+
+    /**
+     * Partition of the event. If stream has no sharding key, then the sticky partition is used if it is enabled
+     *
+     * @return partition of the event or {@code null} if any partition can be used
+     */
+    public Integer partition(Event event, String topic, ShardingKey shardingKey, int partitions) {
+        if (!shardingKey.isEmpty()) {
+            return partitioner.partition(event, shardingKey, partitions);
+        }
+        return (stickyPartitioner != null) ? stickyPartitioner.partition(topic, partitions, event.getSize()) : null;
+    }
+
+    private void send(ProducerRecord<UUID, ByteBuffer> record, Callback callback, Callback errorCallback) {
+        producer(record.topic(), record.partition()).send(record, (metadata, exception) -> {
             if (exception == null) {
                 if (callback != null) {
                     callback.call();
@@ -63,7 +141,90 @@ public class EventSender {
         });
     }
 
+    /**
+     * Close producers. Producers are closed one by one within the common timeout
+     *
+     * @param timeout  the timeout
+     * @param timeUnit the time unit of the timeout
+     */
     public void stop(long timeout, TimeUnit timeUnit) {
-        producer.close(timeout, timeUnit);
+        long deadlineMs = System.currentTimeMillis() + timeUnit.toMillis(timeout);
+        for (KafkaProducer<UUID, ByteBuffer> producer : producers) {
+            try {
+                producer.close(Math.max(deadlineMs - System.currentTimeMillis(), 0L), TimeUnit.MILLISECONDS);
+            } catch (Exception ex) {
+                LOGGER.error("Error on producer close", ex);
+            }
+        }
+    }
+
+    private KafkaProducer<UUID, ByteBuffer> producer(String topic, Integer partition) {
+        if (producers.length == 1) {
+            return producers[0];
+        }
+        int index = (partition != null)
+                ? (31 * topic.hashCode() + partition) & 0x7FFFFFFF
+                : nextProducer.getAndIncrement() & 0x7FFFFFFF;
+        return producers[index % producers.length];
+    }
+
+    /**
+     * Properties of the producer of the pool. Producers should have different client ids if it is specified
+     */
+    private static Properties producerProperties(Properties producerProperties, int index, int poolSize) {
+        String clientId = producerProperties.getProperty(ProducerConfig.CLIENT_ID_CONFIG);
+        if (poolSize == 1 || clientId == null) {
+            return producerProperties;
+        }
+        Properties properties = new Properties();
+        properties.putAll(producerProperties);
+        properties.setProperty(ProducerConfig.CLIENT_ID_CONFIG, clientId + "-" + index);
+        return properties;
+    }
+
+    private static void registerMetrics(MetricsCollector metricsCollector, String prefix, KafkaProducer<?, ?> producer) {
+        for (String[] metric : PRODUCER_METRICS) {
+            String kafkaName = metric[0];
+            metricsCollector.gauge(prefix + "." + metric[1], () -> metricValue(producer, kafkaName));
+        }
+    }
+
+    private static double metricValue(KafkaProducer<?, ?> producer, String name) {
+        for (Map.Entry<MetricName, ? extends Metric> entry : producer.metrics().entrySet()) {
+            MetricName metricName = entry.getKey();
+            if ("producer-metrics".equals(metricName.group()) && name.equals(metricName.name())) {
+                Object value = entry.getValue().metricValue();
+                return (value instanceof Number) ? ((Number) value).doubleValue() : Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static class Props {
+        static final PropertyDescription<Integer> PRODUCER_POOL_SIZE = PropertyDescriptions
+                .integerProperty("producerPoolSize")
+                .withDefaultValue(1)
+                .withValidator(IntegerValidators.positive())
+                .build();
+
+        static final PropertyDescription<Boolean> STICKY_PARTITIONING = PropertyDescriptions
+                .booleanProperty("stickyPartitioning")
+                .withDefaultValue(GateDefaults.DEFAULT_STICKY_PARTITIONING)
+                .build();
+
+        static final PropertyDescription<Boolean> SEND_EVENT_KEY = PropertyDescriptions
+                .booleanProperty("sendEventKey")
+                .withDefaultValue(true)
+                .build();
+
+        static final PropertyDescription<Integer> BATCH_SIZE = PropertyDescriptions
+                .integerProperty(ProducerConfig.BATCH_SIZE_CONFIG)
+                .withDefaultValue(16_384)
+                .build();
+
+        static final PropertyDescription<Long> LINGER_MS = PropertyDescriptions
+                .longProperty(ProducerConfig.LINGER_MS_CONFIG)
+                .withDefaultValue(0L)
+                .build();
     }
 }
@@ -33,6 +33,7 @@ public class GateApplication {
     private static CuratorClient curatorClient;
     private static AuthManager authManager;
     private static AuthValidationManager authValidationManager;
+    private static QuotaManager quotaManager;
 
     public static void main(String[] args) {
         long start = System.currentTimeMillis();
@@ -44,6 +45,7 @@ public class GateApplication {
 
             Properties httpserverProperties = PropertiesUtil.ofScope(properties, Scopes.HTTP_SERVER);
             Properties producerProperties = PropertiesUtil.ofScope(properties, Scopes.PRODUCER);
+            Properties senderProperties = PropertiesUtil.ofScope(properties, Scopes.SENDER);
             Properties curatorProperties = PropertiesUtil.ofScope(properties, Scopes.CURATOR);
             Properties metricsProperties = PropertiesUtil.ofScope(properties, Scopes.METRICS);
             Properties contextProperties = PropertiesUtil.ofScope(properties, Scopes.CONTEXT);
@@ -54,7 +56,7 @@ public class GateApplication {
             metricsCollector.start();
             CommonMetrics.registerCommonMetrics(metricsCollector);
 
-            eventSender = new EventSender(producerProperties, new HashPartitioner(new NaiveHasher()));
+            eventSender = new EventSender(senderProperties, producerProperties, new HashPartitioner(new NaiveHasher()), metricsCollector);
 
             curatorClient = new CuratorClient(curatorProperties);
             curatorClient.start();
@@ -68,7 +70,11 @@ public class GateApplication {
             authValidationManager = new AuthValidationManager(curatorClient);
             authValidationManager.start();
 
-            server = new HttpServer(metricsCollector, httpserverProperties, authManager, authValidationManager, eventSender, streamStorage);
+            Properties quotaProperties = PropertiesUtil.ofScope(PropertiesUtil.ofScope(httpserverProperties, Scopes.THROTTLING), "quota");
+            quotaManager = new QuotaManager(quotaProperties, curatorClient, metricsCollector);
+            quotaManager.start();
+
+            server = new HttpServer(metricsCollector, httpserverProperties, authManager, authValidationManager, eventSender, streamStorage, quotaManager);
             server.start();
         } catch (Throwable t) {
             LOGGER.error("Cannot start application due to", t);
@@ -118,6 +124,14 @@ public class GateApplication {
             LOGGER.error("Error on stopping auth validation manager", t);
         }
 
+        try {
+            if (quotaManager != null) {
+                quotaManager.stop();
+            }
+        } catch (Throwable t) {
+            LOGGER.error("Error on stopping quota manager", t);
+        }
+
         try {
             if (curatorClient != null) {
                 curatorClient.stop();
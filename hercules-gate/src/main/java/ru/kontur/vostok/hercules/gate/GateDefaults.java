@@ -9,6 +9,18 @@ public final class GateDefaults {
     public static final String DEFAULT_HOST = "0.0.0.0";
     public static final int DEFAULT_PORT = 6306;
     public static final long MAX_CONTENT_LENGTH = SizeUnit.MEGABYTES.toBytes(4);
+    public static final int DEFAULT_DECODING_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    public static final int DEFAULT_DECODING_CHUNK_SIZE = (int) SizeUnit.KILOBYTES.toBytes(256);
+    public static final boolean DEFAULT_DECODING_STREAMING = false;
+    public static final int DEFAULT_PACKING_MAX_RECORD_SIZE = (int) SizeUnit.KILOBYTES.toBytes(256);
+    public static final boolean DEFAULT_STICKY_PARTITIONING = false;
+    public static final boolean DEFAULT_DEDUPLICATION_ENABLED = false;
+    public static final int DEFAULT_DEDUPLICATION_CAPACITY = 1_000_000;
+    public static final long DEFAULT_DEDUPLICATION_WINDOW_MS = 60_000L;
+    public static final int DEFAULT_DEDUPLICATION_SHARDS = 16;
+    public static final boolean DEFAULT_THROTTLING_QUOTA_ENABLED = false;
+    public static final boolean DEFAULT_QUOTA_LEASING_ENABLED = false;
+    public static final long DEFAULT_QUOTA_LEASING_PERIOD_MS = 10_000L;
 
     private GateDefaults() {
     }
@@ -3,6 +3,8 @@ package ru.kontur.vostok.hercules.gate;
 import com.codahale.metrics.Meter;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Headers;
+import io.undertow.util.SameThreadExecutor;
 import ru.kontur.vostok.hercules.auth.AuthManager;
 import ru.kontur.vostok.hercules.auth.AuthResult;
 import ru.kontur.vostok.hercules.health.MetricsCollector;
@@ -10,12 +12,14 @@ import ru.kontur.vostok.hercules.meta.stream.BaseStream;
 import ru.kontur.vostok.hercules.meta.stream.Stream;
 import ru.kontur.vostok.hercules.meta.stream.StreamStorage;
 import ru.kontur.vostok.hercules.partitioner.ShardingKey;
+import ru.kontur.vostok.hercules.protocol.CommonConstants;
 import ru.kontur.vostok.hercules.throttling.Throttle;
 import ru.kontur.vostok.hercules.undertow.util.ExchangeUtil;
 import ru.kontur.vostok.hercules.undertow.util.ResponseUtil;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
 
@@ -23,6 +27,8 @@ import java.util.Set;
  * @author Gregory Koshelev
  */
 public class GateHandler implements HttpHandler {
+    private static final String HERCULES_CONTENT_TYPE_PREFIX = "application/vnd.hercules.";
+
     private final MetricsCollector metricsCollector;
 
     private final AuthManager authManager;
@@ -103,6 +109,15 @@ public class GateHandler implements HttpHandler {
             return;
         }
 
+        Optional<String> optionalContentType = ExchangeUtil.extractHeaderValue(exchange, Headers.CONTENT_TYPE_STRING).map(GateHandler::mimeType);
+        boolean compact = optionalContentType.isPresent()
+                && CommonConstants.COMPACT_EVENT_BATCH_CONTENT_TYPE.equals(optionalContentType.get());
+        if (!compact && optionalContentType.isPresent() && optionalContentType.get().startsWith(HERCULES_CONTENT_TYPE_PREFIX)) {
+            // Client should fall back to the default event batch if format is not supported
+            ResponseUtil.unsupportedMediaType(exchange);
+            return;
+        }
+
         requestSizeMeter.mark(contentLength);
 
         Optional<Stream> optionalBaseStream = streamStorage.read(stream);
@@ -123,13 +138,18 @@ public class GateHandler implements HttpHandler {
         String topic = baseStream.getName();
 
         Set<String> tags = new HashSet<>(shardingKey.length + tagsToValidate.size());
-        tags.addAll(Arrays.asList(shardingKey));//TODO: shardingKey is actually set of key paths
+        tags.addAll(Arrays.asList(shardingKey));
         tags.addAll(tagsToValidate);
 
         ContentValidator validator = authValidationManager.validator(apiKey, stream);
 
-        SendContext context = new SendContext(async, topic, tags, partitions, ShardingKey.fromKeyPaths(shardingKey), validator);
-        throttle.throttleAsync(exchange, context);
+        boolean packed = ((BaseStream) baseStream).isPacked();
+        boolean deduplicated = ((BaseStream) baseStream).isDeduplicated();
+
+        SendContext context =
+                new SendContext(apiKey, async, compact, topic, tags, partitions, ShardingKey.fromKeyPaths(shardingKey), validator, packed, deduplicated);
+        // Request may be parked by the throttle, thus exchange is dispatched to be kept open after the handler returns
+        exchange.dispatch(SameThreadExecutor.INSTANCE, () -> throttle.throttleAsync(exchange, context));
     }
 
     private boolean auth(HttpServerExchange exchange, String apiKey, String stream) {
@@ -147,4 +167,13 @@ public class GateHandler implements HttpHandler {
         ResponseUtil.forbidden(exchange);
         return false;
     }
+
+    /**
+     * Extract MIME type from the content type, thus parameters (e.g. {@code charset}) are ignored
+     */
+    private static String mimeType(String contentType) {
+        int semicolon = contentType.indexOf(';');
+        String mimeType = (semicolon < 0) ? contentType : contentType.substring(0, semicolon);
+        return mimeType.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -8,17 +8,23 @@ import ru.kontur.vostok.hercules.configuration.Scopes;
 import ru.kontur.vostok.hercules.configuration.util.PropertiesUtil;
 import ru.kontur.vostok.hercules.health.MetricsCollector;
 import ru.kontur.vostok.hercules.meta.stream.StreamStorage;
+import ru.kontur.vostok.hercules.protocol.decoder.CompactBatchTranscoder;
 import ru.kontur.vostok.hercules.throttling.CapacityThrottle;
+import ru.kontur.vostok.hercules.throttling.QuotaThrottle;
 import ru.kontur.vostok.hercules.throttling.Throttle;
 import ru.kontur.vostok.hercules.undertow.util.DefaultUndertowRequestWeigher;
 import ru.kontur.vostok.hercules.undertow.util.DefaultUndertowThrottledRequestProcessor;
 import ru.kontur.vostok.hercules.undertow.util.handlers.HerculesRoutingHandler;
+import ru.kontur.vostok.hercules.util.cache.DeduplicationCache;
 import ru.kontur.vostok.hercules.util.properties.PropertyDescription;
 import ru.kontur.vostok.hercules.util.properties.PropertyDescriptions;
+import ru.kontur.vostok.hercules.util.validation.IntegerValidators;
 import ru.kontur.vostok.hercules.util.validation.LongValidators;
 import ru.kontur.vostok.hercules.util.validation.Validators;
 
 import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Gregory Koshelev
@@ -26,6 +32,7 @@ import java.util.Properties;
 public class HttpServer {
     private final Undertow undertow;
     private final Throttle<HttpServerExchange, SendContext> throttle;
+    private final ForkJoinPool decodingPool;
 
     public HttpServer(
             MetricsCollector metricsCollector,
@@ -33,23 +40,57 @@ public class HttpServer {
             AuthManager authManager,
             AuthValidationManager authValidationManager,
             EventSender eventSender,
-            StreamStorage streamStorage
+            StreamStorage streamStorage,
+            QuotaManager quotaManager
     ) {
         String host = Props.HOST.extract(properties);
         int port = Props.PORT.extract(properties);
 
         Properties throttlingProperties = PropertiesUtil.ofScope(properties, Scopes.THROTTLING);
 
-        SendRequestProcessor sendRequestProcessor = new SendRequestProcessor(metricsCollector, eventSender);
-        this.throttle = new CapacityThrottle<>(
-                throttlingProperties,
-                new DefaultUndertowRequestWeigher(),
-                sendRequestProcessor,
-                new DefaultUndertowThrottledRequestProcessor()
-        );
+        this.decodingPool = new ForkJoinPool(Props.DECODING_PARALLELISM.extract(properties));
+        int decodingChunkSize = Props.DECODING_CHUNK_SIZE.extract(properties);
+        boolean decodingStreaming = Props.DECODING_STREAMING.extract(properties);
+        int packingMaxRecordSize = Props.PACKING_MAX_RECORD_SIZE.extract(properties);
+        DeduplicationCache deduplicationCache = Props.DEDUPLICATION_ENABLED.extract(properties)
+                ? new DeduplicationCache(
+                        Props.DEDUPLICATION_CAPACITY.extract(properties),
+                        Props.DEDUPLICATION_WINDOW_MS.extract(properties),
+                        Props.DEDUPLICATION_SHARDS.extract(properties))
+                : null;
 
         long maxContentLength = Props.MAX_CONTENT_LENGTH.extract(properties);
 
+        SendRequestProcessor sendRequestProcessor = new SendRequestProcessor(
+                metricsCollector,
+                eventSender,
+                // Compact batch cannot be expanded beyond the max size of the default one
+                new CompactBatchTranscoder((int) Math.min(maxContentLength, Integer.MAX_VALUE)),
+                decodingPool,
+                decodingChunkSize,
+                decodingStreaming,
+                packingMaxRecordSize,
+                deduplicationCache);
+        if (Props.THROTTLING_QUOTA_ENABLED.extract(properties)) {
+            this.throttle = new QuotaThrottle<>(
+                    throttlingProperties,
+                    new DefaultUndertowRequestWeigher(),
+                    new SendRequestClassifier(),
+                    quotaManager,
+                    sendRequestProcessor,
+                    new DefaultUndertowThrottledRequestProcessor(),
+                    metricsCollector
+            );
+        } else {
+            this.throttle = new CapacityThrottle<>(
+                    throttlingProperties,
+                    new DefaultUndertowRequestWeigher(),
+                    sendRequestProcessor,
+                    new DefaultUndertowThrottledRequestProcessor(),
+                    metricsCollector
+            );
+        }
+
         HttpHandler sendAsyncHandler = new GateHandler(metricsCollector, authManager, throttle, authValidationManager, streamStorage, true, maxContentLength);
         HttpHandler sendHandler = new GateHandler(metricsCollector, authManager, throttle, authValidationManager, streamStorage, false, maxContentLength);
 
@@ -70,6 +111,8 @@ public class HttpServer {
 
     public void stop() {
         undertow.stop();
+        throttle.shutdown(0, TimeUnit.MILLISECONDS);
+        decodingPool.shutdown();
     }
 
     private static class Props {
@@ -84,6 +127,57 @@ public class HttpServer {
                 .withValidator(Validators.portValidator())
                 .build();
 
+        static final PropertyDescription<Integer> DECODING_PARALLELISM = PropertyDescriptions
+                .integerProperty("decoding.parallelism")
+                .withDefaultValue(GateDefaults.DEFAULT_DECODING_PARALLELISM)
+                .withValidator(IntegerValidators.positive())
+                .build();
+
+        static final PropertyDescription<Integer> DECODING_CHUNK_SIZE = PropertyDescriptions
+                .integerProperty("decoding.chunkSize")
+                .withDefaultValue(GateDefaults.DEFAULT_DECODING_CHUNK_SIZE)
+                .withValidator(IntegerValidators.positive())
+                .build();
+
+        static final PropertyDescription<Boolean> DECODING_STREAMING = PropertyDescriptions
+                .booleanProperty("decoding.streaming")
+                .withDefaultValue(GateDefaults.DEFAULT_DECODING_STREAMING)
+                .build();
+
+        static final PropertyDescription<Integer> PACKING_MAX_RECORD_SIZE = PropertyDescriptions
+                .integerProperty("packing.maxRecordSize")
+                .withDefaultValue(GateDefaults.DEFAULT_PACKING_MAX_RECORD_SIZE)
+                .withValidator(IntegerValidators.positive())
+                .build();
+
+        static final PropertyDescription<Boolean> DEDUPLICATION_ENABLED = PropertyDescriptions
+                .booleanProperty("deduplication.enabled")
+                .withDefaultValue(GateDefaults.DEFAULT_DEDUPLICATION_ENABLED)
+                .build();
+
+        static final PropertyDescription<Integer> DEDUPLICATION_CAPACITY = PropertyDescriptions
+                .integerProperty("deduplication.capacity")
+                .withDefaultValue(GateDefaults.DEFAULT_DEDUPLICATION_CAPACITY)
+                .withValidator(IntegerValidators.positive())
+                .build();
+
+        static final PropertyDescription<Long> DEDUPLICATION_WINDOW_MS = PropertyDescriptions
+                .longProperty("deduplication.windowMs")
+                .withDefaultValue(GateDefaults.DEFAULT_DEDUPLICATION_WINDOW_MS)
+                .withValidator(LongValidators.positive())
+                .build();
+
+        static final PropertyDescription<Integer> DEDUPLICATION_SHARDS = PropertyDescriptions
+                .integerProperty("deduplication.shards")
+                .withDefaultValue(GateDefaults.DEFAULT_DEDUPLICATION_SHARDS)
+                .withValidator(IntegerValidators.positive())
+                .build();
+
+        static final PropertyDescription<Boolean> THROTTLING_QUOTA_ENABLED = PropertyDescriptions
+                .booleanProperty("throttling.quota.enabled")
+                .withDefaultValue(GateDefaults.DEFAULT_THROTTLING_QUOTA_ENABLED)
+                .build();
+
         static final PropertyDescription<Long> MAX_CONTENT_LENGTH = PropertyDescriptions
                 .longProperty("maxContentLength")
                 .withDefaultValue(GateDefaults.MAX_CONTENT_LENGTH)
@@ -0,0 +1,382 @@
+package ru.kontur.vostok.hercules.gate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.kontur.vostok.hercules.curator.CuratorClient;
+import ru.kontur.vostok.hercules.curator.result.CreationResult;
+import ru.kontur.vostok.hercules.curator.result.UpdateResult;
+import ru.kontur.vostok.hercules.health.MetricsCollector;
+import ru.kontur.vostok.hercules.meta.quota.Quota;
+import ru.kontur.vostok.hercules.meta.quota.QuotaDemand;
+import ru.kontur.vostok.hercules.meta.quota.QuotaLeaseRepository;
+import ru.kontur.vostok.hercules.meta.quota.QuotaRepository;
+import ru.kontur.vostok.hercules.throttling.RateLimit;
+import ru.kontur.vostok.hercules.throttling.RateLimitProvider;
+import ru.kontur.vostok.hercules.util.properties.PropertyDescription;
+import ru.kontur.vostok.hercules.util.properties.PropertyDescriptions;
+import ru.kontur.vostok.hercules.util.validation.LongValidators;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Quota manager periodically reads quotas of API keys and streams from ZooKeeper
+ * <p>
+ * If leasing is enabled, quotas are cluster-wide. Each gate periodically publishes its demand on quotas into the ephemeral lease node
+ * and takes the share of each quota. The half of the quota is split equally between gates, the other half is split in proportion to demand.
+ * Shares are enforced locally, thus requests are not coordinated through ZooKeeper.
+ * If the lease cannot be renewed for 3 periods, the gate falls back to the guaranteed part of its share.
+ */
+public class QuotaManager implements RateLimitProvider {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuotaManager.class);
+
+    private static final long UPDATE_PERIOD_MS = 60_000L;
+    private static final int LEASE_EXPIRATION_PERIODS = 3;
+
+    private final boolean leasingEnabled;
+    private final long leasingPeriodMs;
+
+    private final QuotaRepository apiKeyQuotaRepository;
+    private final QuotaRepository streamQuotaRepository;
+    private final QuotaLeaseRepository leaseRepository;
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Quotas as they are stored in ZooKeeper
+     */
+    private final AtomicReference<Map<String, RateLimit>> apiKeyQuotas = new AtomicReference<>(new HashMap<>());
+    private final AtomicReference<Map<String, RateLimit>> streamQuotas = new AtomicReference<>(new HashMap<>());
+
+    /**
+     * Limits are enforced by this gate. These are shares of quotas if leasing is enabled
+     */
+    private final AtomicReference<Map<String, RateLimit>> apiKeyLimits = new AtomicReference<>(new HashMap<>());
+    private final AtomicReference<Map<String, RateLimit>> streamLimits = new AtomicReference<>(new HashMap<>());
+
+    private final ConcurrentHashMap<String, Demand> apiKeyDemands = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Demand> streamDemands = new ConcurrentHashMap<>();
+
+    private volatile String leaseNode;
+    private long lastDemandMs;
+    private long lastLeaseMs;
+    private volatile int gates = 1;
+
+    public QuotaManager(Properties properties, CuratorClient curatorClient, MetricsCollector metricsCollector) {
+        this.leasingEnabled = Props.LEASING_ENABLED.extract(properties);
+        this.leasingPeriodMs = Props.LEASING_PERIOD_MS.extract(properties);
+
+        this.apiKeyQuotaRepository = QuotaRepository.forApiKeys(curatorClient);
+        this.streamQuotaRepository = QuotaRepository.forStreams(curatorClient);
+        this.leaseRepository = new QuotaLeaseRepository(curatorClient);
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quota-manager");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        metricsCollector.gauge("quotaManager.gates", () -> gates);
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::update, 0, UPDATE_PERIOD_MS, TimeUnit.MILLISECONDS);
+        if (leasingEnabled) {
+            long now = System.currentTimeMillis();
+            lastDemandMs = now;
+            lastLeaseMs = now;
+            executor.scheduleWithFixedDelay(this::lease, 0, leasingPeriodMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void stop() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5_000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            LOGGER.warn("Quota manager shutdown interrupted", e);
+            Thread.currentThread().interrupt();
+        }
+        if (leaseNode != null) {
+            try {
+                leaseRepository.delete(leaseNode);
+            } catch (Exception e) {
+                LOGGER.warn("Cannot delete lease node", e);
+            }
+        }
+    }
+
+    @Override
+    public RateLimit apiKeyLimit(String apiKey) {
+        return apiKeyLimits.get().getOrDefault(apiKey, RateLimit.UNLIMITED);
+    }
+
+    @Override
+    public RateLimit streamLimit(String stream) {
+        return streamLimits.get().getOrDefault(stream, RateLimit.UNLIMITED);
+    }
+
+    @Override
+    public void observe(String apiKey, String stream, int weight) {
+        if (!leasingEnabled) {
+            return;
+        }
+        if (apiKeyQuotas.get().containsKey(apiKey)) {
+            apiKeyDemands.computeIfAbsent(apiKey, k -> new Demand()).add(weight);
+        }
+        if (streamQuotas.get().containsKey(stream)) {
+            streamDemands.computeIfAbsent(stream, k -> new Demand()).add(weight);
+        }
+    }
+
+    private void update() {
+        Map<String, RateLimit> newApiKeyQuotas = read(apiKeyQuotaRepository);
+        if (newApiKeyQuotas != null) {
+            apiKeyQuotas.set(newApiKeyQuotas);
+            if (!leasingEnabled) {
+                apiKeyLimits.set(newApiKeyQuotas);
+            }
+        }
+        Map<String, RateLimit> newStreamQuotas = read(streamQuotaRepository);
+        if (newStreamQuotas != null) {
+            streamQuotas.set(newStreamQuotas);
+            if (!leasingEnabled) {
+                streamLimits.set(newStreamQuotas);
+            }
+        }
+    }
+
+    /**
+     * Publish demand of this gate and take shares of quotas
+     */
+    private void lease() {
+        long now = System.currentTimeMillis();
+        long elapsedMs = Math.max(1L, now - lastDemandMs);
+        lastDemandMs = now;
+        QuotaDemand demand = new QuotaDemand(drain(apiKeyDemands, elapsedMs), drain(streamDemands, elapsedMs));
+
+        List<QuotaDemand> otherDemands;
+        try {
+            publish(demand);
+            otherDemands = readOtherDemands();
+        } catch (Exception e) {
+            LOGGER.warn("Cannot renew quota lease", e);
+            if (isLeaseExpired(now, lastLeaseMs, leasingPeriodMs)) {
+                // Lease is expired, thus only guaranteed part of shares is used
+                apiKeyLimits.set(guaranteedShares(apiKeyQuotas.get(), gates));
+                streamLimits.set(guaranteedShares(streamQuotas.get(), gates));
+            }
+            return;
+        }
+        lastLeaseMs = now;
+        gates = otherDemands.size() + 1;
+
+        List<Map<String, QuotaDemand.Rate>> otherApiKeyDemands = new ArrayList<>(otherDemands.size());
+        List<Map<String, QuotaDemand.Rate>> otherStreamDemands = new ArrayList<>(otherDemands.size());
+        for (QuotaDemand other : otherDemands) {
+            otherApiKeyDemands.add(other.getApiKeys());
+            otherStreamDemands.add(other.getStreams());
+        }
+        apiKeyLimits.set(shares(apiKeyQuotas.get(), demand.getApiKeys(), otherApiKeyDemands, gates));
+        streamLimits.set(shares(streamQuotas.get(), demand.getStreams(), otherStreamDemands, gates));
+    }
+
+    /**
+     * Lease is expired if it has not been renewed for {@link #LEASE_EXPIRATION_PERIODS} periods
+     */
+    static boolean isLeaseExpired(long nowMs, long lastLeaseMs, long leasingPeriodMs) {
+        return nowMs - lastLeaseMs > LEASE_EXPIRATION_PERIODS * leasingPeriodMs;
+    }
+
+    private void publish(QuotaDemand demand) throws Exception {
+        if (leaseNode != null) {
+            UpdateResult result = leaseRepository.update(leaseNode, demand);
+            if (result.isSuccess()) {
+                return;
+            }
+            // Lease node has been removed due to session expiration
+        }
+        CreationResult result = leaseRepository.register(demand);
+        leaseNode = result.node();
+    }
+
+    private List<QuotaDemand> readOtherDemands() throws Exception {
+        List<String> nodes = leaseRepository.list();
+        List<QuotaDemand> demands = new ArrayList<>(nodes.size());
+        for (String node : nodes) {
+            if (node.equals(leaseNode)) {
+                continue;
+            }
+            Optional<QuotaDemand> demand = leaseRepository.read(node);
+            demand.ifPresent(demands::add);
+        }
+        return demands;
+    }
+
+    private static Map<String, QuotaDemand.Rate> drain(ConcurrentHashMap<String, Demand> demands, long elapsedMs) {
+        Map<String, QuotaDemand.Rate> rates = new HashMap<>(demands.size());
+        for (Map.Entry<String, Demand> entry : demands.entrySet()) {
+            Demand demand = entry.getValue();
+            long bytes = demand.bytes.sumThenReset();
+            long requests = demand.requests.sumThenReset();
+            if (requests == 0) {
+                demands.remove(entry.getKey(), demand);
+                continue;
+            }
+            rates.put(entry.getKey(), new QuotaDemand.Rate(bytes * 1_000L / elapsedMs, requests * 1_000L / elapsedMs));
+        }
+        return rates;
+    }
+
+    /**
+     * Compute shares of quotas for this gate
+     *
+     * @param quotas       are cluster-wide quotas
+     * @param demands      are demands of this gate
+     * @param otherDemands are demands of other gates
+     * @param gates        is the count of gates
+     * @return limits for this gate
+     */
+    static Map<String, RateLimit> shares(
+            Map<String, RateLimit> quotas,
+            Map<String, QuotaDemand.Rate> demands,
+            List<Map<String, QuotaDemand.Rate>> otherDemands,
+            int gates) {
+        Map<String, RateLimit> shares = new HashMap<>(quotas.size());
+        for (Map.Entry<String, RateLimit> entry : quotas.entrySet()) {
+            String name = entry.getKey();
+            RateLimit quota = entry.getValue();
+
+            QuotaDemand.Rate demand = demands.get(name);
+            long bytes = (demand != null) ? demand.getBytesPerSecond() : 0L;
+            long requests = (demand != null) ? demand.getRequestsPerSecond() : 0L;
+            long totalBytes = bytes;
+            long totalRequests = requests;
+            for (Map<String, QuotaDemand.Rate> other : otherDemands) {
+                QuotaDemand.Rate otherDemand = other.get(name);
+                if (otherDemand != null) {
+                    totalBytes += otherDemand.getBytesPerSecond();
+                    totalRequests += otherDemand.getRequestsPerSecond();
+                }
+            }
+
+            shares.put(
+                    name,
+                    new RateLimit(
+                            share(quota.getBytesPerSecond(), bytes, totalBytes, gates),
+                            share(quota.getRequestsPerSecond(), requests, totalRequests, gates),
+                            quota.getWeight()));
+        }
+        return shares;
+    }
+
+    /**
+     * Share of the quota is the equal part of the half of the quota plus the part of the other half in proportion to demand
+     *
+     * @param quota  is the cluster-wide quota, non-positive quota is unlimited
+     * @param demand is the demand of this gate
+     * @param total  is the total demand of all gates
+     * @param gates  is the count of gates
+     * @return share of the quota
+     */
+    static long share(long quota, long demand, long total, int gates) {
+        if (quota <= 0) {
+            return 0L;
+        }
+        if (total <= 0) {
+            return Math.max(1L, quota / gates);
+        }
+        long guaranteed = quota / (2L * gates);
+        long proportional = (long) ((double) (quota - guaranteed * gates) * demand / total);
+        return Math.max(1L, guaranteed + proportional);
+    }
+
+    /**
+     * Shares of quotas which are used if the lease is expired, see {@link #isLeaseExpired(long, long, long)}
+     *
+     * @param quotas are cluster-wide quotas
+     * @param gates  is the last known count of gates
+     * @return limits for this gate
+     */
+    static Map<String, RateLimit> guaranteedShares(Map<String, RateLimit> quotas, int gates) {
+        Map<String, RateLimit> shares = new HashMap<>(quotas.size());
+        for (Map.Entry<String, RateLimit> entry : quotas.entrySet()) {
+            RateLimit quota = entry.getValue();
+            shares.put(
+                    entry.getKey(),
+                    new RateLimit(
+                            share(quota.getBytesPerSecond(), 0L, 1L, gates),
+                            share(quota.getRequestsPerSecond(), 0L, 1L, gates),
+                            quota.getWeight()));
+        }
+        return shares;
+    }
+
+    /**
+     * Read all quotas from the repository
+     *
+     * @return rate limits by names or {@code null} if quotas cannot be read
+     */
+    private static Map<String, RateLimit> read(QuotaRepository repository) {
+        List<String> names;
+        try {
+            names = repository.list();
+        } catch (Exception e) {
+            LOGGER.error("Error on getting quotas", e);
+            return null;
+        }
+
+        Map<String, RateLimit> limits = new HashMap<>(names.size());
+        for (String name : names) {
+            try {
+                Optional<Quota> quota = repository.read(name);
+                if (quota.isPresent() && quota.get().getWeight() > 0) {
+                    limits.put(name, toRateLimit(quota.get()));
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Cannot read quota '" + name + "'", e);
+            }
+        }
+        return limits;
+    }
+
+    private static RateLimit toRateLimit(Quota quota) {
+        return new RateLimit(quota.getBytesPerSecond(), quota.getRequestsPerSecond(), quota.getWeight());
+    }
+
+    /**
+     * Demand of the single API key or stream since the last lease
+     */
+    private static final class Demand {
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder requests = new LongAdder();
+
+        void add(int weight) {
+            bytes.add(weight);
+            requests.increment();
+        }
+    }
+
+    private static class Props {
+        static final PropertyDescription<Boolean> LEASING_ENABLED = PropertyDescriptions
+                .booleanProperty("leasing.enabled")
+                .withDefaultValue(GateDefaults.DEFAULT_QUOTA_LEASING_ENABLED)
+                .build();
+
+        static final PropertyDescription<Long> LEASING_PERIOD_MS = PropertyDescriptions
+                .longProperty("leasing.periodMs")
+                .withDefaultValue(GateDefaults.DEFAULT_QUOTA_LEASING_PERIOD_MS)
+                .withValidator(LongValidators.positive())
+                .build();
+    }
+}
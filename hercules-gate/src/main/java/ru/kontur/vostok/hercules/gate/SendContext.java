@@ -8,33 +8,58 @@ import java.util.Set;
  * @author Gregory Koshelev
  */
 public class SendContext {
+    private final String apiKey;
     private final boolean async;
+    private final boolean compact;
     private final String topic;
     private final Set<String> tags;
     private final int partitions;
     private final ShardingKey shardingKey;
     private final ContentValidator validator;
+    private final boolean packed;
+    private final boolean deduplicated;
 
     public SendContext(
+            String apiKey,
             boolean async,
+            boolean compact,
             String topic,
             Set<String> tags,
             int partitions,
             ShardingKey shardingKey,
-            ContentValidator validator
+            ContentValidator validator,
+            boolean packed,
+            boolean deduplicated
     ) {
+        this.apiKey = apiKey;
         this.async = async;
+        this.compact = compact;
         this.topic = topic;
         this.tags = tags;
         this.partitions = partitions;
         this.shardingKey = shardingKey;
         this.validator = validator;
+        this.packed = packed;
+        this.deduplicated = deduplicated;
+    }
+
+    public String getApiKey() {
+        return apiKey;
     }
 
     public boolean isAsync() {
         return async;
     }
 
+    /**
+     * Request body is the compact event batch, see {@link ru.kontur.vostok.hercules.protocol.encoder.CompactBatchWriter}
+     *
+     * @return {@code true} if request body is the compact event batch
+     */
+    public boolean isCompact() {
+        return compact;
+    }
+
     public String getTopic() {
         return topic;
     }
@@ -54,4 +79,31 @@ public class SendContext {
     public ContentValidator getValidator() {
         return validator;
     }
+
+    /**
+     * Events of the packed stream are sent in batches, see {@link ru.kontur.vostok.hercules.kafka.util.serialization.PackedRecord}
+     *
+     * @return {@code true} if events should be packed
+     */
+    public boolean isPacked() {
+        return packed;
+    }
+
+    /**
+     * Recently sent events of the deduplicated stream are dropped, see {@link ru.kontur.vostok.hercules.util.cache.DeduplicationCache}
+     *
+     * @return {@code true} if repeated events should be dropped
+     */
+    public boolean isDeduplicated() {
+        return deduplicated;
+    }
+
+    /**
+     * Events are passed through without payload decoding if stream has no sharding key and events are not validated by content
+     *
+     * @return {@code true} if no tags should be read from events
+     */
+    public boolean isPassThrough() {
+        return tags.isEmpty();
+    }
 }
@@ -0,0 +1,18 @@
+package ru.kontur.vostok.hercules.gate;
+
+import ru.kontur.vostok.hercules.throttling.RequestClassifier;
+
+/**
+ * Send request is classified by API key and destination stream
+ */
+public class SendRequestClassifier implements RequestClassifier<SendContext> {
+    @Override
+    public String apiKey(SendContext context) {
+        return context.getApiKey();
+    }
+
+    @Override
+    public String stream(SendContext context) {
+        return context.getTopic();
+    }
+}
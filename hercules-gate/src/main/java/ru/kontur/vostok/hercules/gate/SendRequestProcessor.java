@@ -1,21 +1,36 @@
 package ru.kontur.vostok.hercules.gate;
 
 import com.codahale.metrics.Meter;
+import io.undertow.io.Receiver;
 import io.undertow.server.HttpServerExchange;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.kontur.vostok.hercules.gate.validation.EventValidator;
 import ru.kontur.vostok.hercules.health.MetricsCollector;
+import ru.kontur.vostok.hercules.protocol.CommonConstants;
 import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.FailedEvents;
+import ru.kontur.vostok.hercules.protocol.decoder.CompactBatchTranscoder;
 import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
 import ru.kontur.vostok.hercules.protocol.decoder.EventReader;
-import ru.kontur.vostok.hercules.protocol.decoder.ReaderIterator;
+import ru.kontur.vostok.hercules.protocol.decoder.ParallelArrayReader;
+import ru.kontur.vostok.hercules.protocol.decoder.StreamingArrayReader;
 import ru.kontur.vostok.hercules.protocol.decoder.exceptions.InvalidDataException;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+import ru.kontur.vostok.hercules.protocol.encoder.CountingEncoder;
+import ru.kontur.vostok.hercules.protocol.encoder.FailedEventsWriter;
 import ru.kontur.vostok.hercules.throttling.RequestProcessor;
 import ru.kontur.vostok.hercules.throttling.ThrottleCallback;
 import ru.kontur.vostok.hercules.undertow.util.ResponseUtil;
+import ru.kontur.vostok.hercules.util.cache.DeduplicationCache;
 import ru.kontur.vostok.hercules.util.logging.LoggingConstants;
 
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -29,44 +44,112 @@ public class SendRequestProcessor implements RequestProcessor<HttpServerExchange
     private static final Logger DROPPED_EVENT_LOGGER = LoggerFactory.getLogger(LoggingConstants.DROPPED_EVENT_LOGGER_NAME);
     private static final Logger RECEIVED_EVENT_LOGGER = LoggerFactory.getLogger(LoggingConstants.RECEIVED_EVENT_LOGGER_NAME);
 
+    private static final FailedEventsWriter FAILED_EVENTS_WRITER = new FailedEventsWriter();
+
+    private static final EventReader PASS_THROUGH_READER = EventReader.readNoTags();
+    /**
+     * Cache of event readers is cleared if it is overflowed, e.g. due to frequent changes of validation rules
+     */
+    private static final int MAX_CACHED_EVENT_READERS = 10_000;
+    /**
+     * Events are read sequentially in the single pass, since their boundaries are found by skipping anyway
+     */
+    private static final ParallelArrayReader<Event> PASS_THROUGH_BATCH_READER =
+            new ParallelArrayReader<>(PASS_THROUGH_READER, Event.class, null, Integer.MAX_VALUE);
+
     private final EventSender eventSender;
+    private final CompactBatchTranscoder compactBatchTranscoder;
+    private final ForkJoinPool decodingPool;
+    private final int decodingChunkSize;
+    private final boolean streaming;
+    private final int packingMaxRecordSize;
+    private final DeduplicationCache deduplicationCache;
 
     private final Meter sentEventsMeter;
+    private final Meter duplicatedEventsMeter;
 
     private final EventValidator eventValidator = new EventValidator();
 
-    public SendRequestProcessor(MetricsCollector metricsCollector, EventSender eventSender) {
+    /**
+     * Event readers are compiled once per tag set. Tag sets depend on streams and API keys only, thus their count is limited
+     */
+    private final ConcurrentHashMap<Set<String>, EventReader> eventReaders = new ConcurrentHashMap<>();
+
+    /**
+     * @param metricsCollector  is metrics collector
+     * @param eventSender       is event sender
+     * @param compactBatchTranscoder is transcoder of compact event batches
+     * @param decodingPool      is fork-join pool to read large batches of events in parallel
+     * @param decodingChunkSize is the size in bytes of the range of events read by single task
+     * @param streaming         is {@code true} if events should be read and sent as soon as request body chunks are received,
+     *                          compact event batches are always read when the request body is received completely
+     * @param packingMaxRecordSize is the max size in bytes of Kafka record with packed events
+     * @param deduplicationCache   is the cache of recently sent events, {@code null} if deduplication is disabled
+     */
+    public SendRequestProcessor(
+            MetricsCollector metricsCollector,
+            EventSender eventSender,
+            CompactBatchTranscoder compactBatchTranscoder,
+            ForkJoinPool decodingPool,
+            int decodingChunkSize,
+            boolean streaming,
+            int packingMaxRecordSize,
+            DeduplicationCache deduplicationCache
+    ) {
         this.eventSender = eventSender;
+        this.compactBatchTranscoder = compactBatchTranscoder;
+        this.decodingPool = decodingPool;
+        this.decodingChunkSize = decodingChunkSize;
+        this.streaming = streaming;
+        this.packingMaxRecordSize = packingMaxRecordSize;
+        this.deduplicationCache = deduplicationCache;
 
         this.sentEventsMeter = metricsCollector.meter(this.getClass().getSimpleName() + ".sentEvents");
+        this.duplicatedEventsMeter = metricsCollector.meter(this.getClass().getSimpleName() + ".duplicatedEvents");
+        if (deduplicationCache != null) {
+            metricsCollector.gauge(this.getClass().getSimpleName() + ".deduplicationCacheSize", deduplicationCache::size);
+        }
     }
 
     @Override
     public void processAsync(HttpServerExchange request, SendContext context, ThrottleCallback callback) {
+        if (!request.isInIoThread()) {
+            // Parked request is resumed in the thread which has released the throttle capacity
+            request.getIoThread().execute(() -> processAsync(request, context, callback));
+            return;
+        }
+        if (streaming && !context.isCompact()) {
+            processStreaming(request, context, callback);
+            return;
+        }
         try {
             request.getRequestReceiver().receiveFullBytes(
                     (exchange, bytes) -> exchange.dispatch(() -> {
-                        ReaderIterator<Event> reader;
+                        Event[] events;
                         try {
-                            reader = new ReaderIterator<>(new Decoder(bytes), EventReader.readTags(context.getTags()));
+                            byte[] data = context.isCompact() ? compactBatchTranscoder.transcode(new Decoder(bytes)) : bytes;
+                            ParallelArrayReader<Event> reader = context.isPassThrough()
+                                    ? PASS_THROUGH_BATCH_READER
+                                    : new ParallelArrayReader<>(eventReader(context), Event.class, decodingPool, decodingChunkSize);
+                            events = reader.read(new Decoder(data));
                         } catch (RuntimeException exception) {
                             ResponseUtil.badRequest(exchange);
                             callback.call();
-                            LOGGER.error("Cannot create ReaderIterator", exception);
+                            LOGGER.error("Cannot read events", exception);
                             throw exception; //TODO: Process exception
                         } catch (InvalidDataException e) {
                             ResponseUtil.badRequest(exchange);
                             callback.call();
-                            LOGGER.error("Cannot create ReaderIterator", e);
+                            LOGGER.error("Cannot read events", e);
                             throw new RuntimeException(e); //TODO: Process exception
                         }
-                        if (reader.getTotal() == 0) {
+                        if (events.length == 0) {
                             ResponseUtil.ok(exchange);
                             callback.call();
                             return;
                         }
 
-                        send(exchange, reader, context, callback);
+                        send(exchange, events, context, callback);
                     }),
                     (exchange, e) -> {
                         try {
@@ -83,43 +166,189 @@ public class SendRequestProcessor implements RequestProcessor<HttpServerExchange
         }
     }
 
-    public void send(HttpServerExchange exchange, ReaderIterator<Event> reader, SendContext context, ThrottleCallback callback) {
-        AtomicInteger pendingEvents = new AtomicInteger(reader.getTotal());
-        AtomicBoolean processed = new AtomicBoolean(false);
-        while (reader.hasNext()) {
-            Event event;
+    public void send(HttpServerExchange exchange, Event[] events, SendContext context, ThrottleCallback callback) {
+        SendRequest request = new SendRequest(exchange, context, callback);
+        for (Event event : events) {
+            if (!request.send(event)) {
+                return;
+            }
+        }
+        request.complete();
+    }
+
+    /**
+     * Read request body in chunks and send events as soon as they are received
+     * <p>
+     * Chunks are received on the IO thread, but events are read and sent by the worker thread, since sending may block.
+     * Receiver is paused until the chunk is processed, thus chunks are processed sequentially and are not piled up in memory.
+     * Chunk is dispatched to the worker rather than just executed, otherwise Undertow ends the exchange
+     * as soon as the chunk callback returns.
+     */
+    private void processStreaming(HttpServerExchange request, SendContext context, ThrottleCallback callback) {
+        SendRequest sendRequest = new SendRequest(request, context, callback);
+        StreamingArrayReader<Event> reader = new StreamingArrayReader<>(
+                eventReader(context),
+                event -> {
+                    if (!sendRequest.isProcessed()) {
+                        sendRequest.send(event);
+                    }
+                });
+        try {
+            request.getRequestReceiver().receivePartialBytes(
+                    (exchange, bytes, last) -> {
+                        if (sendRequest.isProcessed()) {
+                            return;
+                        }
+                        Receiver receiver = exchange.getRequestReceiver();
+                        if (!last) {
+                            receiver.pause();
+                        }
+                        exchange.dispatch(() -> {
+                            try {
+                                reader.feed(bytes);
+                                if (last) {
+                                    reader.finish();
+                                    sendRequest.complete();
+                                }
+                            } catch (InvalidDataException | RuntimeException e) {
+                                LOGGER.error("Cannot read events", e);
+                                sendRequest.reject();
+                            }
+                            if (!last) {
+                                exchange.getIoThread().execute(receiver::resume);
+                            }
+                        });
+                    },
+                    (exchange, e) -> {
+                        LOGGER.error("Request body was read with exception", e);
+                        sendRequest.error();
+                    });
+        } catch (Throwable throwable) {
+            sendRequest.releaseThrottle();
+            LOGGER.error("Error on request body read partial bytes", throwable);
+            throw throwable;
+        }
+    }
+
+    /**
+     * Fingerprint of the event in the stream. Retried event has the same timestamp and UUID
+     */
+    private static long fingerprint(SendContext context, Event event) {
+        UUID uuid = event.getUuid();
+        long hash = DeduplicationCache.fingerprint(context.getTopic().hashCode() ^ uuid.getMostSignificantBits());
+        hash = DeduplicationCache.fingerprint(hash ^ uuid.getLeastSignificantBits());
+        return DeduplicationCache.fingerprint(hash ^ event.getTimestamp());
+    }
+
+    private EventReader eventReader(SendContext context) {
+        if (context.isPassThrough()) {
+            return PASS_THROUGH_READER;
+        }
+        if (eventReaders.size() >= MAX_CACHED_EVENT_READERS) {
+            eventReaders.clear();
+        }
+        return eventReaders.computeIfAbsent(context.getTags(), EventReader::readTags);
+    }
+
+    private static int[] toSortedArray(Queue<Integer> indices) {
+        return indices.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /**
+     * State of the send request. Response is sent and throttle callback is called exactly once.
+     * They are guarded separately, since the request may be finished by an error while the rest of events are still received.
+     * <p>
+     * In the sync mode, response is sent when all events are processed. If some events are invalid or have not been sent,
+     * then their indices are returned in the response body, thus the client resends only failed events.
+     * In the async mode, response is sent when all events are received, and the first error finishes processing.
+     */
+    private final class SendRequest {
+        private final HttpServerExchange exchange;
+        private final SendContext context;
+        private final ThrottleCallback callback;
+
+        /**
+         * Count of events which are not sent yet plus the guard which is released when all events are received
+         */
+        private final AtomicInteger pendingEvents = new AtomicInteger(1);
+        /**
+         * Response is sent
+         */
+        private final AtomicBoolean responded = new AtomicBoolean(false);
+        /**
+         * Throttle callback is called
+         */
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        /**
+         * Index of the next received event in the batch. Events are received sequentially
+         */
+        private int received;
+        /**
+         * Indices of invalid events and events which have not been sent, they are collected in the sync mode only
+         */
+        private final Queue<Integer> rejectedEvents = new ConcurrentLinkedQueue<>();
+        private final Queue<Integer> failedEvents = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Packer of events of the packed stream, {@code null} if the stream is not packed
+         */
+        private final EventPacker packer;
+
+        /**
+         * Repeated events are dropped if the stream is deduplicated. Event is remembered as soon as it is acknowledged by Kafka,
+         * thus the retry of the event which is still being sent is sent again rather than lost if the first attempt fails
+         */
+        private final boolean deduplicated;
+
+        SendRequest(HttpServerExchange exchange, SendContext context, ThrottleCallback callback) {
+            this.exchange = exchange;
+            this.context = context;
+            this.callback = callback;
+            this.packer = context.isPacked() ? new EventPacker(packingMaxRecordSize, this::sendPack) : null;
+            this.deduplicated = deduplicationCache != null && context.isDeduplicated();
+        }
+
+        /**
+         * Validate and send the event
+         *
+         * @param event the event
+         * @return {@code false} if the event is invalid and request is rejected, otherwise {@code true}
+         */
+        boolean send(Event event) {
+            int index = received++;
             try {
-                event = reader.next();
                 RECEIVED_EVENT_LOGGER.trace("{}", event.getUuid());
                 if (!eventValidator.validate(event)) {
                     //TODO: Metrics are coming!
                     LOGGER.warn("Invalid event data");
                     DROPPED_EVENT_LOGGER.trace("{}", event.getUuid());
-                    if (processed.compareAndSet(false, true)) {
-                        ResponseUtil.badRequest(exchange);
-                        callback.call();
-                    }
-                    return;
+                    return reject(index);
                 }
             } catch (Exception e) {
                 LOGGER.error("Exception on validation event", e);
                 //TODO: Metrics are coming!
-                if (processed.compareAndSet(false, true)) {
-                    ResponseUtil.badRequest(exchange);
-                    callback.call();
-                }
-                return;
+                return reject(index);
             }
-            if (!context.getValidator().validate(event)) {
+            pendingEvents.incrementAndGet();
+            if (!context.isPassThrough() && !context.getValidator().validate(event)) {
                 //TODO: should to log filtered events
-                if (pendingEvents.decrementAndGet() == 0 && processed.compareAndSet(false, true)) {
-                    if (!context.isAsync()) {
-                        ResponseUtil.ok(exchange);
-                    }
-                    callback.call();
-                }
+                release();
                 DROPPED_EVENT_LOGGER.trace("{}", event.getUuid());
-                continue;
+                return true;
+            }
+            if (deduplicated && deduplicationCache.contains(fingerprint(context, event), System.currentTimeMillis())) {
+                release();
+                duplicatedEventsMeter.mark();
+                DROPPED_EVENT_LOGGER.trace("{}", event.getUuid());
+                return true;
+            }
+            if (packer != null) {
+                packer.add(
+                        eventSender.partition(event, context.getTopic(), context.getShardingKey(), context.getPartitions()),
+                        event,
+                        index);
+                return true;
             }
             eventSender.send(
                     event,
@@ -128,29 +357,168 @@ public class SendRequestProcessor implements RequestProcessor<HttpServerExchange
                     context.getPartitions(),
                     context.getShardingKey(),
                     () -> {
-                        if (pendingEvents.decrementAndGet() == 0 && processed.compareAndSet(false, true)) {
-                            if (!context.isAsync()) {
-                                ResponseUtil.ok(exchange);
-                            }
-                            callback.call();
-                        }
+                        remember(event);
+                        release();
                         PROCESSED_EVENT_LOGGER.trace("{}", event.getUuid());
                         sentEventsMeter.mark(1);
                     },
                     () -> {
-                        //TODO: Metrics are coming!
-                        if (processed.compareAndSet(false, true)) {
-                            if (!context.isAsync()) {
-                                ResponseUtil.unprocessableEntity(exchange);
-                            }
-                            callback.call();
-                        }
+                        fail(index);
                         DROPPED_EVENT_LOGGER.trace("{}", event.getUuid());
                     }
             );
+            return true;
+        }
+
+        /**
+         * All events are received. Does nothing if the request has already been finished by an error
+         */
+        void complete() {
+            if (isProcessed()) {
+                return;
+            }
+            if (packer != null) {
+                packer.flush();
+            }
+            if (context.isAsync() && responded.compareAndSet(false, true)) {
+                ResponseUtil.ok(exchange);
+            }
+            release();
         }
-        if (context.isAsync()) {
-            ResponseUtil.ok(exchange);
+
+        /**
+         * Reject the request with Bad Request
+         */
+        void reject() {
+            if (packer != null) {
+                packer.clear();
+            }
+            if (responded.compareAndSet(false, true)) {
+                ResponseUtil.badRequest(exchange);
+            }
+            releaseThrottle();
+        }
+
+        /**
+         * Finish the request with Internal Server Error, since the request body cannot be received
+         */
+        void error() {
+            if (packer != null) {
+                packer.clear();
+            }
+            if (responded.compareAndSet(false, true)) {
+                ResponseUtil.internalServerError(exchange);
+            }
+            releaseThrottle();
+        }
+
+        /**
+         * Invalid event rejects the request in the async mode. Otherwise, the event is reported as rejected in the response
+         *
+         * @param index is the index of the invalid event
+         * @return {@code false} if request is rejected, otherwise {@code true}
+         */
+        private boolean reject(int index) {
+            if (context.isAsync()) {
+                reject();
+                return false;
+            }
+            rejectedEvents.add(index);
+            return true;
+        }
+
+        /**
+         * @return {@code true} if response has been sent, thus the rest of events should be ignored
+         */
+        boolean isProcessed() {
+            return responded.get();
+        }
+
+        private void sendPack(Integer partition, Event[] events, int[] indices) {
+            eventSender.sendPacked(
+                    events,
+                    context.getTopic(),
+                    partition,
+                    () -> {
+                        for (Event event : events) {
+                            remember(event);
+                        }
+                        release(events.length);
+                        for (Event event : events) {
+                            PROCESSED_EVENT_LOGGER.trace("{}", event.getUuid());
+                        }
+                        sentEventsMeter.mark(events.length);
+                    },
+                    () -> {
+                        fail(indices);
+                        for (Event event : events) {
+                            DROPPED_EVENT_LOGGER.trace("{}", event.getUuid());
+                        }
+                    }
+            );
+        }
+
+        /**
+         * Event is sent, thus it should be treated as repeated when client retries it
+         */
+        private void remember(Event event) {
+            if (deduplicated) {
+                deduplicationCache.add(fingerprint(context, event), System.currentTimeMillis());
+            }
+        }
+
+        /**
+         * Events are not sent due to Kafka error
+         *
+         * @param indices are indices of events in the batch
+         */
+        private void fail(int... indices) {
+            //TODO: Metrics are coming!
+            if (context.isAsync()) {
+                // Async client does not wait for events to be sent, thus the request is finished without receiving the rest of events
+                if (responded.compareAndSet(false, true)) {
+                    ResponseUtil.ok(exchange);
+                }
+                releaseThrottle();
+                return;
+            }
+            for (int index : indices) {
+                failedEvents.add(index);
+            }
+            release(indices.length);
+        }
+
+        private void release() {
+            release(1);
+        }
+
+        private void release(int count) {
+            if (pendingEvents.addAndGet(-count) == 0) {
+                if (!context.isAsync() && responded.compareAndSet(false, true)) {
+                    respond();
+                }
+                releaseThrottle();
+            }
+        }
+
+        void releaseThrottle() {
+            if (released.compareAndSet(false, true)) {
+                callback.call();
+            }
+        }
+
+        /**
+         * Respond with indices of events which have not been sent if any
+         */
+        private void respond() {
+            if (rejectedEvents.isEmpty() && failedEvents.isEmpty()) {
+                ResponseUtil.ok(exchange);
+                return;
+            }
+            FailedEvents result = new FailedEvents(toSortedArray(rejectedEvents), toSortedArray(failedEvents));
+            ByteArrayEncoder encoder = new ByteArrayEncoder(CountingEncoder.sizeOf(FAILED_EVENTS_WRITER, result));
+            FAILED_EVENTS_WRITER.write(encoder, result);
+            ResponseUtil.unprocessableEntity(exchange, CommonConstants.FAILED_EVENTS_CONTENT_TYPE, encoder.toByteBuffer());
         }
     }
 }
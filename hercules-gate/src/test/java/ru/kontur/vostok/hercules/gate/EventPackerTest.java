@@ -0,0 +1,100 @@
+package ru.kontur.vostok.hercules.gate;
+
+import org.junit.Test;
+import ru.kontur.vostok.hercules.kafka.util.serialization.PackedRecord;
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.util.EventBuilder;
+import ru.kontur.vostok.hercules.uuid.UuidGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EventPackerTest {
+
+    @Test
+    public void shouldSendPackWhenMaxRecordSizeIsReached() {
+        List<SentPack> sent = new ArrayList<>();
+        Event first = createEvent();
+        Event second = createEvent();
+        EventPacker packer = new EventPacker(PackedRecord.OVERHEAD_SIZE + first.getSize() + second.getSize(), collect(sent));
+
+        packer.add(1, first, 0);
+        assertTrue(sent.isEmpty());
+
+        packer.add(1, second, 1);
+        assertEquals(1, sent.size());
+        assertEquals(Integer.valueOf(1), sent.get(0).partition);
+        assertSame(first, sent.get(0).events[0]);
+        assertSame(second, sent.get(0).events[1]);
+        assertArrayEquals(new int[]{0, 1}, sent.get(0).indices);
+
+        packer.flush();
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void shouldGroupEventsByPartitionOnFlush() {
+        List<SentPack> sent = new ArrayList<>();
+        EventPacker packer = new EventPacker(Integer.MAX_VALUE, collect(sent));
+
+        packer.add(0, createEvent(), 0);
+        packer.add(1, createEvent(), 1);
+        packer.add(0, createEvent(), 2);
+        assertTrue(sent.isEmpty());
+
+        packer.flush();
+        assertEquals(2, sent.size());
+        for (SentPack pack : sent) {
+            if (pack.partition == 0) {
+                assertArrayEquals(new int[]{0, 2}, pack.indices);
+                assertEquals(2, pack.events.length);
+            } else {
+                assertEquals(Integer.valueOf(1), pack.partition);
+                assertArrayEquals(new int[]{1}, pack.indices);
+            }
+        }
+
+        packer.flush();
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    public void shouldDropPacksOnClear() {
+        List<SentPack> sent = new ArrayList<>();
+        EventPacker packer = new EventPacker(Integer.MAX_VALUE, collect(sent));
+
+        packer.add(0, createEvent(), 0);
+        packer.clear();
+        packer.flush();
+
+        assertTrue(sent.isEmpty());
+    }
+
+    private static EventPacker.PackSender collect(List<SentPack> sent) {
+        return (partition, events, indices) -> sent.add(new SentPack(partition, events, indices));
+    }
+
+    private static Event createEvent() {
+        return EventBuilder.create(0, UuidGenerator.getClientInstance().next())
+                .tag("int-tag", Variant.ofInteger(123))
+                .build();
+    }
+
+    private static final class SentPack {
+        private final Integer partition;
+        private final Event[] events;
+        private final int[] indices;
+
+        SentPack(Integer partition, Event[] events, int[] indices) {
+            this.partition = partition;
+            this.events = events;
+            this.indices = indices;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.kontur.vostok.hercules.gate;
+
+import org.junit.Test;
+import ru.kontur.vostok.hercules.meta.quota.QuotaDemand;
+import ru.kontur.vostok.hercules.throttling.RateLimit;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class QuotaManagerTest {
+
+    @Test
+    public void shouldSplitQuotaEquallyIfThereIsNoDemand() {
+        assertEquals(250L, QuotaManager.share(1_000L, 0L, 0L, 4));
+        assertEquals(1L, QuotaManager.share(3L, 0L, 0L, 4));
+    }
+
+    @Test
+    public void shouldSplitHalfOfQuotaInProportionToDemand() {
+        // Guaranteed part is 1000 / (2 * 2) = 250 per gate, the other 500 is split in proportion to demand
+        assertEquals(250L + 375L, QuotaManager.share(1_000L, 300L, 400L, 2));
+        assertEquals(250L + 125L, QuotaManager.share(1_000L, 100L, 400L, 2));
+    }
+
+    @Test
+    public void shouldGiveGuaranteedPartToGateWithoutDemand() {
+        assertEquals(250L, QuotaManager.share(1_000L, 0L, 400L, 2));
+    }
+
+    @Test
+    public void shouldKeepUnlimitedQuotaUnlimited() {
+        assertEquals(0L, QuotaManager.share(0L, 100L, 400L, 2));
+        assertEquals(0L, QuotaManager.share(-1L, 0L, 0L, 2));
+    }
+
+    @Test
+    public void shouldComputeSharesOfAllQuotas() {
+        Map<String, RateLimit> quotas = new HashMap<>();
+        quotas.put("busy", new RateLimit(1_000L, 0L, 3));
+        quotas.put("idle", new RateLimit(1_000L, 100L, 1));
+
+        Map<String, QuotaDemand.Rate> demands = Collections.singletonMap("busy", new QuotaDemand.Rate(300L, 10L));
+        List<Map<String, QuotaDemand.Rate>> otherDemands =
+                Collections.singletonList(Collections.singletonMap("busy", new QuotaDemand.Rate(100L, 10L)));
+
+        Map<String, RateLimit> shares = QuotaManager.shares(quotas, demands, otherDemands, 2);
+
+        assertEquals(new RateLimit(625L, 0L, 3), shares.get("busy"));
+        assertTrue(shares.get("busy").isBytesLimited());
+        assertFalse("Unlimited dimension stays unlimited", shares.get("busy").isRequestsLimited());
+        assertEquals("Quota without demand is split equally", new RateLimit(500L, 50L, 1), shares.get("idle"));
+    }
+
+    @Test
+    public void shouldFallBackToGuaranteedSharesIfLeaseIsExpired() {
+        Map<String, RateLimit> quotas = new HashMap<>();
+        quotas.put("limited", new RateLimit(1_000L, 100L, 2));
+        quotas.put("unlimited", new RateLimit(0L, 0L, 1));
+
+        Map<String, RateLimit> shares = QuotaManager.guaranteedShares(quotas, 2);
+
+        assertEquals(new RateLimit(250L, 25L, 2), shares.get("limited"));
+        assertTrue(shares.get("unlimited").isUnlimited());
+    }
+
+    @Test
+    public void shouldExpireLeaseAfterThreePeriods() {
+        assertFalse(QuotaManager.isLeaseExpired(30_000L, 0L, 10_000L));
+        assertTrue(QuotaManager.isLeaseExpired(30_001L, 0L, 10_000L));
+    }
+
+    @Test
+    public void shouldShareWholeQuotaBetweenGates() {
+        long quota = 1_000L;
+        List<Long> demands = Arrays.asList(100L, 300L, 600L);
+        long total = demands.stream().mapToLong(Long::longValue).sum();
+
+        long sum = 0L;
+        for (long demand : demands) {
+            sum += QuotaManager.share(quota, demand, total, demands.size());
+        }
+        assertTrue(sum <= quota);
+        assertTrue(sum >= quota - demands.size());
+    }
+}
@@ -0,0 +1,200 @@
+package ru.kontur.vostok.hercules.gate;
+
+import com.codahale.metrics.Meter;
+import io.undertow.Undertow;
+import io.undertow.util.SameThreadExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.kontur.vostok.hercules.health.MetricsCollector;
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+import ru.kontur.vostok.hercules.protocol.encoder.EventWriter;
+import ru.kontur.vostok.hercules.protocol.util.EventBuilder;
+import ru.kontur.vostok.hercules.uuid.UuidGenerator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SendRequestProcessorTest {
+    private static final int SOCKET_TIMEOUT_MS = 5_000;
+
+    private final EventSender eventSender = mock(EventSender.class);
+    private final AtomicInteger releasedRequests = new AtomicInteger();
+
+    private Undertow server;
+    private int port;
+
+    @Before
+    public void setUp() throws IOException {
+        MetricsCollector metricsCollector = mock(MetricsCollector.class);
+        when(metricsCollector.meter(anyString())).thenAnswer(invocation -> new Meter());
+
+        SendRequestProcessor processor = new SendRequestProcessor(
+                metricsCollector,
+                eventSender,
+                null,
+                null,
+                Integer.MAX_VALUE,
+                true,
+                Integer.MAX_VALUE,
+                null);
+        SendContext context = new SendContext(
+                "apiKey",
+                true,
+                false,
+                "topic",
+                Collections.emptySet(),
+                1,
+                null,
+                null,
+                false,
+                false);
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = Undertow.builder()
+                .addHttpListener(port, "localhost")
+                .setHandler(exchange -> exchange.dispatch(
+                        SameThreadExecutor.INSTANCE,
+                        () -> processor.processAsync(exchange, context, releasedRequests::incrementAndGet)))
+                .build();
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldRespondOkIfEventIsNotSentInAsyncMode() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Callback>getArgument(6).call();
+            return null;
+        }).when(eventSender).send(any(), any(), anyString(), anyInt(), any(), any(), any());
+
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            writeHeaders(out);
+            writeChunk(out, count(2), write(createEvent(0)));
+            verify(eventSender, timeout(SOCKET_TIMEOUT_MS)).send(any(), any(), anyString(), anyInt(), any(), any(), any());
+
+            // Request is finished by the first error, the rest of events are ignored
+            writeChunk(out, write(createEvent(0)));
+            writeLastChunk(out);
+
+            assertEquals(200, readStatusCode(socket));
+        }
+        awaitReleased();
+        verify(eventSender).send(any(), any(), anyString(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    public void shouldRespondBadRequestIfLastChunkHasInvalidEventInAsyncMode() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Callback>getArgument(5).call();
+            return null;
+        }).when(eventSender).send(any(), any(), anyString(), anyInt(), any(), any(), any());
+
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            writeHeaders(out);
+            writeChunk(out, count(2), write(createEvent(0)));
+            verify(eventSender, timeout(SOCKET_TIMEOUT_MS)).send(any(), any(), anyString(), anyInt(), any(), any(), any());
+
+            writeChunk(out, write(createEvent(-1)));
+            writeLastChunk(out);
+
+            assertEquals(400, readStatusCode(socket));
+        }
+        awaitReleased();
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("localhost", port);
+        socket.setSoTimeout(SOCKET_TIMEOUT_MS);
+        return socket;
+    }
+
+    private void awaitReleased() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + SOCKET_TIMEOUT_MS;
+        while (releasedRequests.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        assertEquals("Throttle should be released exactly once", 1, releasedRequests.get());
+    }
+
+    private static void writeHeaders(OutputStream out) throws IOException {
+        String headers = "POST /stream/sendAsync HTTP/1.1\r\n" +
+                "Host: localhost\r\n" +
+                "Content-Type: application/octet-stream\r\n" +
+                "Transfer-Encoding: chunked\r\n" +
+                "Connection: close\r\n" +
+                "\r\n";
+        out.write(headers.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static void writeChunk(OutputStream out, byte[]... parts) throws IOException {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        out.write((Integer.toHexString(length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        for (byte[] part : parts) {
+            out.write(part);
+        }
+        out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static void writeLastChunk(OutputStream out) throws IOException {
+        out.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static int readStatusCode(Socket socket) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        String statusLine = reader.readLine();
+        return Integer.parseInt(statusLine.split(" ")[1]);
+    }
+
+    private static byte[] count(int count) {
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        encoder.writeInteger(count);
+        return encoder.toByteArray();
+    }
+
+    private static byte[] write(Event event) {
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        new EventWriter().write(encoder, event);
+        return encoder.toByteArray();
+    }
+
+    private static Event createEvent(long timestamp) {
+        return EventBuilder.create(timestamp, UuidGenerator.getClientInstance().next())
+                .tag("int-tag", Variant.ofInteger(123))
+                .build();
+    }
+}
@@ -9,9 +9,11 @@ import ru.kontur.vostok.hercules.kafka.util.processing.BackendServiceFailedExcep
 import ru.kontur.vostok.hercules.kafka.util.processing.bulk.BulkSender;
 import ru.kontur.vostok.hercules.kafka.util.processing.bulk.BulkSenderStat;
 import ru.kontur.vostok.hercules.health.MetricsCollector;
+import ru.kontur.vostok.hercules.protocol.Container;
 import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.util.TagAccessor;
 import ru.kontur.vostok.hercules.tags.MetricsTags;
-import ru.kontur.vostok.hercules.protocol.util.ContainerUtil;
 import ru.kontur.vostok.hercules.util.properties.PropertyDescription;
 import ru.kontur.vostok.hercules.util.properties.PropertyDescriptions;
 import ru.kontur.vostok.hercules.util.time.TimeUtil;
@@ -21,7 +23,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
 
@@ -38,6 +39,9 @@ public class GraphiteEventSender implements BulkSender<Event> {
                 .build();
     }
 
+    private static final TagAccessor METRIC_NAME = MetricsTags.METRIC_NAME_TAG.accessor();
+    private static final TagAccessor METRIC_VALUE = MetricsTags.METRIC_VALUE_TAG.accessor();
+
     private final GraphiteMetricDataSender sender;
     private final Timer graphiteClientTimer;
 
@@ -65,10 +69,11 @@ public class GraphiteEventSender implements BulkSender<Event> {
         int dropped = 0;
         for (Event event : events) {
             final long timestamp = TimeUtil.unixTicksToUnixTime(event.getTimestamp());
-            Optional<String> name = ContainerUtil.extract(event.getPayload(), MetricsTags.METRIC_NAME_TAG);
-            Optional<Double> value = ContainerUtil.extract(event.getPayload(), MetricsTags.METRIC_VALUE_TAG);
-            if (name.isPresent() && value.isPresent()) {
-                data.add(new GraphiteMetricData(name.get(), timestamp, value.get()));
+            final Container payload = event.getPayload();
+            final String name = METRIC_NAME.getString(payload, null);
+            final Variant value = METRIC_VALUE.get(payload);
+            if (name != null && value != null) {
+                data.add(new GraphiteMetricData(name, timestamp, value.getDouble()));
                 processed++;
             } else {
                 dropped++;
@@ -28,6 +28,10 @@ public class ZooKeeperInitializer {
             curatorClient.createIfAbsent("/hercules/auth/blacklist");
             curatorClient.createIfAbsent("/hercules/auth/rules");
             curatorClient.createIfAbsent("/hercules/auth/validations");
+            curatorClient.createIfAbsent("/hercules/quotas");
+            curatorClient.createIfAbsent("/hercules/quotas/apiKeys");
+            curatorClient.createIfAbsent("/hercules/quotas/streams");
+            curatorClient.createIfAbsent("/hercules/quotas/leases");
             curatorClient.createIfAbsent("/hercules/sink");
             curatorClient.createIfAbsent("/hercules/sink/sentry");
             curatorClient.createIfAbsent("/hercules/sink/sentry/registry");
@@ -0,0 +1,388 @@
+package ru.kontur.vostok.hercules.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.json.UTF8JsonGenerator;
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.Type;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.SizeOf;
+import ru.kontur.vostok.hercules.protocol.decoder.VariantReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Transcodes binary event into JSON directly from encoded bytes
+ * <p>
+ * Unlike {@link EventToJsonWriter}, neither {@link ru.kontur.vostok.hercules.protocol.Container} nor
+ * {@link ru.kontur.vostok.hercules.protocol.Variant} objects are built. ASCII strings are written as raw bytes
+ * if the generator writes UTF-8 bytes, and tag names are written as pre-serialized field names which are cached.
+ * <p>
+ * Transcoder produces the same JSON as {@link EventToJsonWriter} does: invalid UTF-8 is replaced with U+FFFD,
+ * and duplicated tag is written once at the position of its first occurrence with the value of the last one.
+ * Only the order of fields may differ for large containers.
+ */
+public final class EventToJsonTranscoder {
+    private static final int PAYLOAD_OFFSET = SizeOf.BYTE + SizeOf.LONG + SizeOf.UUID;
+
+    private static final FieldNameCache FIELD_NAMES = new FieldNameCache(4096);
+
+    private static final VariantReader VARIANT_READER = VariantReader.INSTANCE;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final TagFilter ALL_TAGS = decoder -> true;
+
+    /**
+     * Filter of tags to be written
+     */
+    @FunctionalInterface
+    public interface TagFilter {
+        /**
+         * @param decoder the decoder positioned on the tag name, the filter should not change its position
+         * @return {@code true} if the tag should be written
+         */
+        boolean test(Decoder decoder);
+    }
+
+    @FunctionalInterface
+    private interface JsonTranscoder {
+        void transcode(JsonGenerator generator, Decoder decoder) throws IOException;
+    }
+
+    private static final JsonTranscoder[] TRANSCODERS = new JsonTranscoder[256];
+    private static final JsonTranscoder[] VECTOR_TRANSCODERS = new JsonTranscoder[256];
+
+    static {
+        Arrays.setAll(TRANSCODERS, idx -> (g, d) -> {
+            throw new IllegalArgumentException("Unknown type with code " + idx);
+        });
+
+        TRANSCODERS[Type.CONTAINER.code] = EventToJsonTranscoder::transcodeContainer;
+        TRANSCODERS[Type.BYTE.code] = (g, d) -> g.writeNumber(d.readByte());
+        TRANSCODERS[Type.SHORT.code] = (g, d) -> g.writeNumber(d.readShort());
+        TRANSCODERS[Type.INTEGER.code] = (g, d) -> g.writeNumber(d.readInteger());
+        TRANSCODERS[Type.LONG.code] = (g, d) -> g.writeNumber(d.readLong());
+        TRANSCODERS[Type.FLAG.code] = (g, d) -> g.writeBoolean(d.readFlag());
+        TRANSCODERS[Type.FLOAT.code] = (g, d) -> g.writeNumber(d.readFloat());
+        TRANSCODERS[Type.DOUBLE.code] = (g, d) -> g.writeNumber(d.readDouble());
+        TRANSCODERS[Type.STRING.code] = EventToJsonTranscoder::transcodeString;
+        TRANSCODERS[Type.UUID.code] = EventToJsonTranscoder::transcodeUuid;
+        TRANSCODERS[Type.NULL.code] = (g, d) -> g.writeNull();
+        TRANSCODERS[Type.VECTOR.code] = EventToJsonTranscoder::transcodeVector;
+    }
+
+    static {
+        Arrays.setAll(VECTOR_TRANSCODERS, idx -> (g, d) -> {
+            throw new IllegalArgumentException("Unknown type with code " + idx);
+        });
+
+        VECTOR_TRANSCODERS[Type.CONTAINER.code] = TRANSCODERS[Type.CONTAINER.code];
+        VECTOR_TRANSCODERS[Type.BYTE.code] = TRANSCODERS[Type.BYTE.code];
+        VECTOR_TRANSCODERS[Type.SHORT.code] = TRANSCODERS[Type.SHORT.code];
+        VECTOR_TRANSCODERS[Type.INTEGER.code] = TRANSCODERS[Type.INTEGER.code];
+        VECTOR_TRANSCODERS[Type.LONG.code] = TRANSCODERS[Type.LONG.code];
+        VECTOR_TRANSCODERS[Type.FLAG.code] = TRANSCODERS[Type.FLAG.code];
+        VECTOR_TRANSCODERS[Type.FLOAT.code] = TRANSCODERS[Type.FLOAT.code];
+        VECTOR_TRANSCODERS[Type.DOUBLE.code] = TRANSCODERS[Type.DOUBLE.code];
+        VECTOR_TRANSCODERS[Type.STRING.code] = TRANSCODERS[Type.STRING.code];
+        VECTOR_TRANSCODERS[Type.UUID.code] = TRANSCODERS[Type.UUID.code];
+        VECTOR_TRANSCODERS[Type.NULL.code] = TRANSCODERS[Type.NULL.code];
+        VECTOR_TRANSCODERS[Type.VECTOR.code] = EventToJsonTranscoder::transcodeVector;
+    }
+
+    /**
+     * Write event payload as JSON object
+     *
+     * @param generator the JSON generator
+     * @param event     the event
+     * @throws IOException in case of I/O errors
+     */
+    public static void transcodePayload(JsonGenerator generator, Event event) throws IOException {
+        transcodeContainer(generator, payloadDecoder(event));
+    }
+
+    /**
+     * Create decoder over event bytes which is positioned on the event payload
+     *
+     * @param event the event
+     * @return decoder positioned on the event payload
+     */
+    public static Decoder payloadDecoder(Event event) {
+        Decoder decoder = new Decoder(event.array());
+        decoder.position(event.getOffset() + PAYLOAD_OFFSET);
+        return decoder;
+    }
+
+    /**
+     * Read container and write it as JSON object
+     *
+     * @param generator the JSON generator
+     * @param decoder   the decoder positioned on the container
+     * @throws IOException in case of I/O errors
+     */
+    public static void transcodeContainer(JsonGenerator generator, Decoder decoder) throws IOException {
+        generator.writeStartObject();
+        transcodeTags(generator, decoder);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Read container and write its tags as fields of the current JSON object
+     *
+     * @param generator the JSON generator
+     * @param decoder   the decoder positioned on the container
+     * @throws IOException in case of I/O errors
+     */
+    public static void transcodeTags(JsonGenerator generator, Decoder decoder) throws IOException {
+        transcodeTags(generator, decoder, ALL_TAGS);
+    }
+
+    /**
+     * Read container and write its tags accepted by the filter as fields of the current JSON object
+     *
+     * @param generator the JSON generator
+     * @param decoder   the decoder positioned on the container
+     * @param filter    the filter of tags
+     * @throws IOException in case of I/O errors
+     */
+    public static void transcodeTags(JsonGenerator generator, Decoder decoder, TagFilter filter) throws IOException {
+        int size = decoder.readContainerSize();
+        byte[] data = decoder.array();
+        int[] positions = tagPositions(decoder, size);
+        int[] lastOccurrences = lastOccurrences(data, positions, size);
+        for (int i = 0; i < size; i++) {
+            int tag = (lastOccurrences == null) ? i : lastOccurrences[i];
+            if (tag < 0) {
+                continue;
+            }
+            decoder.position(positions[i]);
+            if (!filter.test(decoder)) {
+                continue;
+            }
+            generator.writeFieldName(FIELD_NAMES.read(decoder));
+            decoder.position(positions[tag] + SizeOf.BYTE + (data[positions[tag]] & 0xFF));
+            transcodeVariant(generator, decoder);
+        }
+        decoder.position(positions[size]);
+    }
+
+    /**
+     * Read tag and write it as the field of the current JSON object. Use {@link #transcodeTags(JsonGenerator, Decoder, TagFilter)}
+     * to write tags of the container, since it handles duplicated tags
+     *
+     * @param generator the JSON generator
+     * @param decoder   the decoder positioned on the tag name
+     * @throws IOException in case of I/O errors
+     */
+    public static void transcodeTag(JsonGenerator generator, Decoder decoder) throws IOException {
+        generator.writeFieldName(FIELD_NAMES.read(decoder));
+        transcodeVariant(generator, decoder);
+    }
+
+    /**
+     * Read variant and write its value as JSON value
+     *
+     * @param generator the JSON generator
+     * @param decoder   the decoder positioned on the variant type
+     * @throws IOException in case of I/O errors
+     */
+    public static void transcodeVariant(JsonGenerator generator, Decoder decoder) throws IOException {
+        TRANSCODERS[decoder.readUnsignedByte()].transcode(generator, decoder);
+    }
+
+    private static void transcodeString(JsonGenerator generator, Decoder decoder) throws IOException {
+        int length = decoder.readStringLength();
+        byte[] data = decoder.array();
+        int offset = decoder.position();
+        if (generator instanceof UTF8JsonGenerator && isAscii(data, offset, length)) {
+            generator.writeUTF8String(data, offset, length);
+        } else {
+            generator.writeString(new String(data, offset, length, StandardCharsets.UTF_8));
+        }
+        decoder.skip(length);
+    }
+
+    private static void transcodeUuid(JsonGenerator generator, Decoder decoder) throws IOException {
+        long mostSigBits = decoder.readLong();
+        long leastSigBits = decoder.readLong();
+
+        char[] chars = new char[36];
+        formatHex(chars, 0, mostSigBits >>> 32, 8);
+        chars[8] = '-';
+        formatHex(chars, 9, mostSigBits >>> 16, 4);
+        chars[13] = '-';
+        formatHex(chars, 14, mostSigBits, 4);
+        chars[18] = '-';
+        formatHex(chars, 19, leastSigBits >>> 48, 4);
+        chars[23] = '-';
+        formatHex(chars, 24, leastSigBits, 12);
+        generator.writeString(chars, 0, chars.length);
+    }
+
+    private static void transcodeVector(JsonGenerator generator, Decoder decoder) throws IOException {
+        JsonTranscoder elementTranscoder = VECTOR_TRANSCODERS[decoder.readUnsignedByte()];
+        int length = decoder.readVectorLength();
+        generator.writeStartArray();
+        for (int i = 0; i < length; i++) {
+            elementTranscoder.transcode(generator, decoder);
+        }
+        generator.writeEndArray();
+    }
+
+    private static boolean isAscii(byte[] data, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (data[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find positions of tags in the container
+     *
+     * @return positions of tags and the position of the container end as the last element
+     */
+    private static int[] tagPositions(Decoder decoder, int size) {
+        int[] positions = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            positions[i] = decoder.position();
+            decoder.skipTinyString();
+            VARIANT_READER.skip(decoder);
+        }
+        positions[size] = decoder.position();
+        return positions;
+    }
+
+    /**
+     * Find duplicated tags. Tag names are compared as encoded bytes
+     *
+     * @return {@code null} if there are no duplicated tags, otherwise, for each tag, index of the last occurrence of the tag
+     * if it is the first occurrence, and {@code -1} if it is not
+     */
+    private static int[] lastOccurrences(byte[] data, int[] positions, int size) {
+        if (size < 2) {
+            return null;
+        }
+        int mask = (Integer.highestOneBit(size) << 2) - 1;
+        int[] firstOccurrences = new int[mask + 1];
+        int[] lastOccurrences = null;
+        for (int i = 0; i < size; i++) {
+            int slot = hashTagName(data, positions[i]) & mask;
+            int first;
+            while ((first = firstOccurrences[slot] - 1) >= 0 && !equalTagNames(data, positions[first], positions[i])) {
+                slot = (slot + 1) & mask;
+            }
+            if (first < 0) {
+                firstOccurrences[slot] = i + 1;
+                continue;
+            }
+            if (lastOccurrences == null) {
+                lastOccurrences = new int[size];
+                for (int j = 0; j < size; j++) {
+                    lastOccurrences[j] = j;
+                }
+            }
+            lastOccurrences[first] = i;
+            lastOccurrences[i] = -1;
+        }
+        return lastOccurrences;
+    }
+
+    private static int hashTagName(byte[] data, int position) {
+        int hash = 1;
+        for (int i = position; i <= position + (data[position] & 0xFF); i++) {
+            hash = 31 * hash + data[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equalTagNames(byte[] data, int first, int second) {
+        int length = data[first] & 0xFF;
+        for (int i = 0; i <= length; i++) {
+            if (data[first + i] != data[second + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write lowest {@code digits} hex digits of the value
+     */
+    private static void formatHex(char[] chars, int offset, long value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * Direct-mapped cache of serialized field names keyed by UTF-8 bytes of tag name
+     * <p>
+     * Cache entries are immutable, thus concurrent access is safe: a race can only lead to the extra cache miss.
+     */
+    private static final class FieldNameCache {
+        private final Entry[] entries;
+        private final int mask;
+
+        FieldNameCache(int capacity) {
+            this.entries = new Entry[capacity];
+            this.mask = capacity - 1;
+        }
+
+        /**
+         * Read tiny string of tag name and return it as serialized string
+         */
+        SerializableString read(Decoder decoder) {
+            int length = decoder.readUnsignedByte();
+            byte[] data = decoder.array();
+            int offset = decoder.position();
+
+            int hash = 1;
+            for (int i = offset; i < offset + length; i++) {
+                hash = 31 * hash + data[i];
+            }
+            int index = (hash ^ (hash >>> 16)) & mask;
+
+            Entry entry = entries[index];
+            if (entry == null || !entry.matches(data, offset, length)) {
+                byte[] bytes = Arrays.copyOfRange(data, offset, offset + length);
+                entry = new Entry(bytes, new SerializedString(new String(bytes, StandardCharsets.UTF_8)));
+                entries[index] = entry;
+            }
+            decoder.skip(length);
+            return entry.name;
+        }
+
+        private static final class Entry {
+            private final byte[] bytes;
+            private final SerializableString name;
+
+            Entry(byte[] bytes, SerializableString name) {
+                this.bytes = bytes;
+                this.name = name;
+            }
+
+            boolean matches(byte[] data, int offset, int length) {
+                if (bytes.length != length) {
+                    return false;
+                }
+                for (int i = 0; i < length; i++) {
+                    if (bytes[i] != data[offset + i]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+    }
+
+    private EventToJsonTranscoder() {
+        /* static class */
+    }
+}
@@ -7,10 +7,9 @@ import ru.kontur.vostok.hercules.protocol.Variant;
 import ru.kontur.vostok.hercules.protocol.Vector;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.Iterator;
-import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -72,7 +71,27 @@ public final class EventToJsonWriter {
     }
 
     public static void writeVariantValue(JsonGenerator generator, Variant variant) throws IOException {
-        TO_JSON_WRITERS[variant.getType().code].write(generator, variant.getValue());
+        switch (variant.getType()) {
+            case BYTE:
+            case SHORT:
+            case INTEGER:
+                generator.writeNumber(variant.getInt());
+                return;
+            case LONG:
+                generator.writeNumber(variant.getLong());
+                return;
+            case FLOAT:
+                generator.writeNumber(variant.getFloat());
+                return;
+            case DOUBLE:
+                generator.writeNumber(variant.getDouble());
+                return;
+            case FLAG:
+                generator.writeBoolean(variant.getFlag());
+                return;
+            default:
+                TO_JSON_WRITERS[variant.getType().code].write(generator, variant.getValue());
+        }
     }
 
     public static void writeByte(JsonGenerator generator, Object value) throws IOException {
@@ -211,11 +230,17 @@ public final class EventToJsonWriter {
 
     public static void writeContainer(JsonGenerator generator, Object value) throws IOException {
         generator.writeStartObject();
-        Iterator<Map.Entry<String, Variant>> iterator = ((Container) value).iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<String, Variant> entry = iterator.next();
-            generator.writeFieldName(entry.getKey());
-            writeVariantValue(generator, entry.getValue());
+        try {
+            ((Container) value).forEach((tagName, variant) -> {
+                try {
+                    generator.writeFieldName(tagName);
+                    writeVariantValue(generator, variant);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
         generator.writeEndObject();
     }
@@ -0,0 +1,155 @@
+package ru.kontur.vostok.hercules.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.junit.Test;
+import ru.kontur.vostok.hercules.protocol.Container;
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.Type;
+import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.Vector;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.EventReader;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+import ru.kontur.vostok.hercules.protocol.util.ContainerBuilder;
+import ru.kontur.vostok.hercules.protocol.util.EventBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+public class EventToJsonTranscoderTest {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    @Test
+    public void shouldTranscodeSameAsWriter() throws Exception {
+        Container nested = ContainerBuilder.create()
+                .tag("a", Variant.ofInteger(123))
+                .tag("Яюё", Variant.ofString("\"quoted\" and\nescaped"))
+                .build();
+
+        Event event = EventBuilder.create(0, "11203800-63fd-11e8-83e2-3a587d902000")
+                .tag("byte", Variant.ofByte((byte) -1))
+                .tag("short", Variant.ofShort((short) 10_000))
+                .tag("int", Variant.ofInteger(123_456_789))
+                .tag("long", Variant.ofLong(Long.MIN_VALUE))
+                .tag("float", Variant.ofFloat(0.123456f))
+                .tag("double", Variant.ofDouble(0.123456789))
+                .tag("flag", Variant.ofFlag(true))
+                .tag("string", Variant.ofString("Test string with json inside {\"a\": {\"b\": [123, true, \"str\"]}}"))
+                .tag("uuid", Variant.ofUuid(UUID.fromString("05bd046a-ecc0-11e8-8eb2-f2801f1b9fd1")))
+                .tag("null", Variant.ofNull())
+                .tag("container", Variant.ofContainer(nested))
+                .tag("strings", Variant.ofVector(Vector.ofStrings(new String[]{"Абв", "Ежз"})))
+                .tag("uuids", Variant.ofVector(Vector.ofUuids(new UUID[]{UUID.fromString("11203800-63fd-11e8-83e2-3a587d902000")})))
+                .tag("nulls", Variant.ofVector(Vector.ofNulls(new Object[]{null, null})))
+                .tag("containers", Variant.ofVector(Vector.ofContainers(new Container[]{nested, nested})))
+                .tag("vectors", Variant.ofVector(Vector.ofVectors(new Vector[]{
+                        Vector.ofIntegers(new int[]{1, 2}),
+                        Vector.ofFlags(new boolean[]{true, false})})))
+                .build();
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (JsonGenerator generator = FACTORY.createGenerator(expected, JsonEncoding.UTF8)) {
+            EventToJsonWriter.writeContainer(generator, event.getPayload());
+        }
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try (JsonGenerator generator = FACTORY.createGenerator(actual, JsonEncoding.UTF8)) {
+            EventToJsonTranscoder.transcodePayload(generator, event);
+        }
+
+        assertEquals(expected.toString(StandardCharsets.UTF_8.name()), actual.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    @Test
+    public void shouldTranscodeEventSlice() throws Exception {
+        byte[] first = EventBuilder.create(0, "11203800-63fd-11e8-83e2-3a587d902000")
+                .tag("a", Variant.ofInteger(1))
+                .build()
+                .getBytes();
+        byte[] second = EventBuilder.create(0, "05bd046a-ecc0-11e8-8eb2-f2801f1b9fd1")
+                .tag("b", Variant.ofString("value"))
+                .build()
+                .getBytes();
+        byte[] bytes = new byte[first.length + second.length];
+        System.arraycopy(first, 0, bytes, 0, first.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+
+        Decoder decoder = new Decoder(bytes);
+        decoder.position(first.length);
+        Event event = EventReader.readNoTags().read(decoder);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (JsonGenerator generator = FACTORY.createGenerator(stream, JsonEncoding.UTF8)) {
+            EventToJsonTranscoder.transcodePayload(generator, event);
+        }
+
+        assertEquals("{\"b\":\"value\"}", stream.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    @Test
+    public void shouldReplaceInvalidUtf8() throws Exception {
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        writeHeader(encoder, 1);
+        encoder.writeTinyString("a");
+        encoder.writeType(Type.STRING);
+        encoder.writeBytesAsString(new byte[]{'x', (byte) 0xFF, 'y'});
+        Event event = EventReader.readNoTags().read(new Decoder(encoder.toByteArray()));
+
+        assertEquals("{\"a\":\"x\uFFFDy\"}", transcodeToUtf8(event));
+        assertEquals("{\"a\":\"x\uFFFDy\"}", transcodeToWriter(event));
+    }
+
+    @Test
+    public void shouldWriteDuplicatedTagOnce() throws Exception {
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        writeHeader(encoder, 3);
+        encoder.writeTinyString("a");
+        encoder.writeType(Type.INTEGER);
+        encoder.writeInteger(1);
+        encoder.writeTinyString("b");
+        encoder.writeType(Type.STRING);
+        encoder.writeString("value");
+        encoder.writeTinyString("a");
+        encoder.writeType(Type.INTEGER);
+        encoder.writeInteger(2);
+        Event event = EventReader.readNoTags().read(new Decoder(encoder.toByteArray()));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (JsonGenerator generator = FACTORY.createGenerator(expected, JsonEncoding.UTF8)) {
+            EventToJsonWriter.writeContainer(generator, EventReader.readAllTags().read(new Decoder(event.getBytes())).getPayload());
+        }
+
+        assertEquals("{\"a\":2,\"b\":\"value\"}", expected.toString(StandardCharsets.UTF_8.name()));
+        assertEquals("{\"a\":2,\"b\":\"value\"}", transcodeToUtf8(event));
+        assertEquals("{\"a\":2,\"b\":\"value\"}", transcodeToWriter(event));
+    }
+
+    private static void writeHeader(ByteArrayEncoder encoder, int tagCount) {
+        encoder.writeUnsignedByte(1);
+        encoder.writeLong(0);
+        encoder.writeUuid(UUID.fromString("11203800-63fd-11e8-83e2-3a587d902000"));
+        encoder.writeContainerSize(tagCount);
+    }
+
+    private static String transcodeToUtf8(Event event) throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (JsonGenerator generator = FACTORY.createGenerator(stream, JsonEncoding.UTF8)) {
+            EventToJsonTranscoder.transcodePayload(generator, event);
+        }
+        return stream.toString(StandardCharsets.UTF_8.name());
+    }
+
+    private static String transcodeToWriter(Event event) throws Exception {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = FACTORY.createGenerator(writer)) {
+            EventToJsonTranscoder.transcodePayload(generator, event);
+        }
+        return writer.toString();
+    }
+}
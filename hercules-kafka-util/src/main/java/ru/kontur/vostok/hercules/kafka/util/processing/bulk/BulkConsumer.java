@@ -13,9 +13,8 @@ import org.slf4j.LoggerFactory;
 import ru.kontur.vostok.hercules.kafka.util.processing.BackendServiceFailedException;
 import ru.kontur.vostok.hercules.kafka.util.processing.SinkStatus;
 import ru.kontur.vostok.hercules.kafka.util.processing.SinkStatusFsm;
+import ru.kontur.vostok.hercules.kafka.util.serialization.EventBatchDeserializer;
 import ru.kontur.vostok.hercules.kafka.util.serialization.EventDeserializer;
-import ru.kontur.vostok.hercules.kafka.util.serialization.EventSerde;
-import ru.kontur.vostok.hercules.kafka.util.serialization.EventSerializer;
 import ru.kontur.vostok.hercules.kafka.util.serialization.UuidSerde;
 import ru.kontur.vostok.hercules.protocol.Event;
 import ru.kontur.vostok.hercules.util.PatternMatcher;
@@ -60,7 +59,7 @@ public class BulkConsumer implements Runnable {
     private static final Logger LOGGER = LoggerFactory.getLogger(BulkConsumer.class);
     private static final Logger DROPPED_EVENTS_LOGGER = LoggerFactory.getLogger(LoggingConstants.DROPPED_EVENT_LOGGER_NAME);
 
-    private final KafkaConsumer<UUID, Event> consumer;
+    private final KafkaConsumer<UUID, Event[]> consumer;
     private final List<PatternMatcher> streamPatterns;
     private final int pollTimeout;
     private final int batchSize;
@@ -88,7 +87,8 @@ public class BulkConsumer implements Runnable {
             Meter receivedEventsSizeMeter,
             Meter processedEventsMeter,
             Meter droppedEventsMeter,
-            com.codahale.metrics.Timer processTimeTimer
+            com.codahale.metrics.Timer processTimeTimer,
+            Meter deserializationErrorsMeter
     ) {
         this.batchSize = Props.BATCH_SIZE.extract(sinkProperties);
         this.pollTimeout = Props.POLL_TIMEOUT_MS.extract(sinkProperties);
@@ -98,13 +98,15 @@ public class BulkConsumer implements Runnable {
         streamsProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
 
         Serde<UUID> keySerde = new UuidSerde();
-        Serde<Event> valueSerde = new EventSerde(new EventSerializer(), EventDeserializer.parseAllTags());
+        // Packed records are expanded into events, see PackedRecord
+        EventBatchDeserializer valueDeserializer = new EventBatchDeserializer(
+                EventDeserializer.parseAllTags().withErrorsMeter(deserializationErrorsMeter));
 
         this.streamPatterns = streamPatterns;
         this.consumer = new KafkaConsumer<>(
             streamsProperties,
             keySerde.deserializer(),
-            valueSerde.deserializer()
+            valueDeserializer
         );
 
         this.status = status;
@@ -168,13 +170,13 @@ public class BulkConsumer implements Runnable {
                     while (current.available() && 0 <= timeLeft) {
                         try {
                             // TODO: use poll(Duration)
-                            ConsumerRecords<UUID, Event> poll = consumer.poll(timeLeft);
-                            for (ConsumerRecord<UUID, Event> record : poll) {
+                            ConsumerRecords<UUID, Event[]> poll = consumer.poll(timeLeft);
+                            for (ConsumerRecord<UUID, Event[]> record : poll) {
                                 if (Objects.nonNull(record.value())) {
                                     if (current.available()) {
-                                        current.add(record);
+                                        current.addAll(record);
                                     } else {
-                                        next.add(record);
+                                        next.addAll(record);
                                     }
                                 } else {
                                     receivedEventsMeter.mark();
@@ -196,7 +198,7 @@ public class BulkConsumer implements Runnable {
                     receivedEventsMeter.mark(count);
                     receivedEventsSizeMeter.mark(
                             current.getRecords().stream().
-                                    mapToInt(event -> event.getBytes().length).
+                                    mapToInt(event -> event.getSize()).
                                     sum());
 
                     /*
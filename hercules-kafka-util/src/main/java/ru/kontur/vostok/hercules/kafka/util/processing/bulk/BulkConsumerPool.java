@@ -87,6 +87,7 @@ public class BulkConsumerPool {
         final Meter processedEventsMeter = metricsCollector.meter("processedEvents");
         final Meter droppedEventsMeter = metricsCollector.meter("droppedEvents");
         final Timer processTimeTimer = metricsCollector.timer("processTimeMs");
+        final Meter deserializationErrorsMeter = metricsCollector.meter("deserializationErrors");
 
         this.pool = Executors.newFixedThreadPool(poolSize, new NamedThreadFactory("consumer-pool"));
         this.consumers = new ArrayList<>(poolSize);
@@ -102,7 +103,8 @@ public class BulkConsumerPool {
                 receivedEventsSizeMeter,
                 processedEventsMeter,
                 droppedEventsMeter,
-                processTimeTimer
+                processTimeTimer,
+                deserializationErrorsMeter
         );
     }
 
@@ -6,6 +6,7 @@ import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -58,6 +59,20 @@ public class RecordStorage<Key, Value> {
         topicOffsets.put(record.partition(), record.offset());
     }
 
+    /**
+     * Add all values of the record to storage, e.g. events of the packed record.
+     * Values of the record are not split between storages and already polled record cannot be skipped,
+     * thus the capacity is not checked and may be exceeded
+     *
+     * @param record record
+     */
+    public void addAll(ConsumerRecord<Key, Value[]> record) {
+        records.addAll(Arrays.asList(record.value()));
+
+        Map<Integer, Long> topicOffsets = offsets.computeIfAbsent(record.topic(), s -> new HashMap<>());
+        topicOffsets.put(record.partition(), record.offset());
+    }
+
     /**
      * @return true if capacity is not exceeded else false
      */
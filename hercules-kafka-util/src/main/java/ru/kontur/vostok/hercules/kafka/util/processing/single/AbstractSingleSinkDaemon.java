@@ -17,6 +17,7 @@ import ru.kontur.vostok.hercules.util.time.SimpleTimer;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -72,6 +73,7 @@ public abstract class AbstractSingleSinkDaemon {
                     sinkProperties,
                     () -> createSender(sinkProperties),
                     () -> createPinger(sinkProperties),
+                    tags(),
                     metricsCollector
             );
             singleSink.start();
@@ -95,6 +97,16 @@ public abstract class AbstractSingleSinkDaemon {
      */
     protected abstract SingleSender<UUID, Event> createSender(Properties sinkProperties);
 
+    /**
+     * Tags of events which are used by the sender, other tags are skipped when events are deserialized.
+     * Nested tags can be specified by dotted paths (e.g. {@code properties.project})
+     *
+     * @return tag paths or {@code null} if sender uses all tags
+     */
+    protected Set<String> tags() {
+        return null;
+    }
+
     /**
      * Create instance of service pinger
      *
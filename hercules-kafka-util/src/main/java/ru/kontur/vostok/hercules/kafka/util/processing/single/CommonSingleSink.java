@@ -3,6 +3,7 @@ package ru.kontur.vostok.hercules.kafka.util.processing.single;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
 import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.StreamsConfig;
@@ -12,9 +13,8 @@ import org.slf4j.LoggerFactory;
 import ru.kontur.vostok.hercules.health.MetricsCollector;
 import ru.kontur.vostok.hercules.kafka.util.processing.ServicePinger;
 import ru.kontur.vostok.hercules.kafka.util.processing.SinkStatusFsm;
+import ru.kontur.vostok.hercules.kafka.util.serialization.EventBatchDeserializer;
 import ru.kontur.vostok.hercules.kafka.util.serialization.EventDeserializer;
-import ru.kontur.vostok.hercules.kafka.util.serialization.EventSerde;
-import ru.kontur.vostok.hercules.kafka.util.serialization.EventSerializer;
 import ru.kontur.vostok.hercules.kafka.util.serialization.UuidSerde;
 import ru.kontur.vostok.hercules.protocol.Event;
 import ru.kontur.vostok.hercules.util.PatternMatcher;
@@ -24,6 +24,7 @@ import ru.kontur.vostok.hercules.util.properties.PropertyDescriptions;
 import ru.kontur.vostok.hercules.util.validation.Validators;
 
 import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -78,6 +79,7 @@ public class CommonSingleSink {
             Properties sinkProperties,
             Supplier<SingleSender<UUID, Event>> senderSupplier,
             Supplier<ServicePinger> pingerSupplier,
+            Set<String> tags,
             MetricsCollector metricsCollector
     ) {
         final PatternMatcher patternMatcher = StreamProps.PATTERN.extract(streamProperties);
@@ -85,9 +87,9 @@ public class CommonSingleSink {
         streamProperties.put(StreamsConfig.APPLICATION_ID_CONFIG, String.format(GROUP_ID_PATTERN, daemonId, patternMatcher.toString()));
 
         Serde<UUID> keySerde = new UuidSerde();
-        EventSerializer serializer = new EventSerializer();
-        EventDeserializer deserializer = EventDeserializer.parseAllTags();
-        Serde<Event> valueSerde = new EventSerde(serializer, deserializer);
+        Serde<byte[]> valueSerde = Serdes.ByteArray();
+        EventBatchDeserializer deserializer = new EventBatchDeserializer(
+                EventDeserializer.parseTags(tags).withErrorsMeter(metricsCollector.meter("deserializationErrors")));
 
         final Meter receivedEventsMeter = metricsCollector.meter("receivedEvents");
         final Meter receivedEventsSizeMeter = metricsCollector.meter("receivedEventsSizeBytes");
@@ -101,6 +103,7 @@ public class CommonSingleSink {
             new CommonSingleSinkProcessor(
                     status,
                     senderSupplier.get(),
+                    deserializer,
                     receivedEventsMeter,
                     receivedEventsSizeMeter,
                     processedEventsMeter,
@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 import ru.kontur.vostok.hercules.kafka.util.processing.BackendServiceFailedException;
 import ru.kontur.vostok.hercules.kafka.util.processing.SinkStatus;
 import ru.kontur.vostok.hercules.kafka.util.processing.SinkStatusFsm;
+import ru.kontur.vostok.hercules.kafka.util.serialization.EventBatchDeserializer;
 import ru.kontur.vostok.hercules.protocol.Event;
 import ru.kontur.vostok.hercules.util.logging.LoggingConstants;
 
@@ -17,10 +18,13 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * CommonSingleSinkProcessor
+ * <p>
+ * Records are deserialized by the processor itself, since the packed record should be expanded into multiple events,
+ * see {@link ru.kontur.vostok.hercules.kafka.util.serialization.PackedRecord}.
  *
  * @author Kirill Sulim
  */
-public class CommonSingleSinkProcessor extends AbstractProcessor<UUID, Event> {
+public class CommonSingleSinkProcessor extends AbstractProcessor<UUID, byte[]> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CommonSingleSinkProcessor.class);
 
@@ -31,6 +35,7 @@ public class CommonSingleSinkProcessor extends AbstractProcessor<UUID, Event> {
 
     private final SinkStatusFsm status;
     private final SingleSender<UUID, Event> sender;
+    private final EventBatchDeserializer deserializer;
 
     private final Meter receivedEventsMeter;
     private final Meter receivedEventsSizeMeter;
@@ -41,6 +46,7 @@ public class CommonSingleSinkProcessor extends AbstractProcessor<UUID, Event> {
     public CommonSingleSinkProcessor(
             SinkStatusFsm status,
             SingleSender<UUID, Event> sender,
+            EventBatchDeserializer deserializer,
             Meter receivedEventsMeter,
             Meter receivedEventsSizeMeter,
             Meter processedEventsMeter,
@@ -49,6 +55,7 @@ public class CommonSingleSinkProcessor extends AbstractProcessor<UUID, Event> {
     ) {
         this.status = status;
         this.sender = sender;
+        this.deserializer = deserializer;
 
         this.receivedEventsMeter = receivedEventsMeter;
         this.receivedEventsSizeMeter = receivedEventsSizeMeter;
@@ -58,7 +65,18 @@ public class CommonSingleSinkProcessor extends AbstractProcessor<UUID, Event> {
     }
 
     @Override
-    public void process(UUID key, Event value) {
+    public void process(UUID key, byte[] value) {
+        Event[] events = deserializer.deserialize(context().topic(), context().headers(), value);
+        if (events == null) {
+            return;
+        }
+        for (Event event : events) {
+            // Packed record has no key, thus event id is used as it is for the single event
+            process(key != null ? key : event.getUuid(), event);
+        }
+    }
+
+    private void process(UUID key, Event value) {
         markReceivedEvent(value);
         boolean dataSent = false;
         do {
@@ -97,7 +115,7 @@ public class CommonSingleSinkProcessor extends AbstractProcessor<UUID, Event> {
             RECEIVED_EVENTS_LOGGER.trace("{}", event.getUuid());
         }
         receivedEventsMeter.mark();
-        receivedEventsSizeMeter.mark(event.getBytes().length);
+        receivedEventsSizeMeter.mark(event.getSize());
     }
 
     private void markDroppedEvent(Event event) {
@@ -0,0 +1,44 @@
+package ru.kontur.vostok.hercules.kafka.util.serialization;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.ExtendedDeserializer;
+import ru.kontur.vostok.hercules.protocol.Event;
+
+import java.util.Map;
+
+/**
+ * Deserializer of the record which contains either the single event or packed events, see {@link PackedRecord}.
+ * <p>
+ * Record is deserialized into array of events, broken record is deserialized into {@code null}.
+ */
+public class EventBatchDeserializer implements ExtendedDeserializer<Event[]> {
+    private final EventDeserializer eventDeserializer;
+
+    public EventBatchDeserializer(EventDeserializer eventDeserializer) {
+        this.eventDeserializer = eventDeserializer;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+
+    }
+
+    @Override
+    public Event[] deserialize(String topic, Headers headers, byte[] data) {
+        if (PackedRecord.isPacked(headers)) {
+            return eventDeserializer.deserializePacked(topic, data);
+        }
+        return deserialize(topic, data);
+    }
+
+    @Override
+    public Event[] deserialize(String topic, byte[] data) {
+        Event event = eventDeserializer.deserialize(topic, data);
+        return (event != null) ? new Event[]{event} : null;
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
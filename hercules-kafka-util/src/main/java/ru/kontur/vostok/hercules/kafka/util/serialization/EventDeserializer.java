@@ -1,29 +1,78 @@
 package ru.kontur.vostok.hercules.kafka.util.serialization;
 
-import org.apache.kafka.common.serialization.Deserializer;
+import com.codahale.metrics.Meter;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.ExtendedDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.decoder.ContainerReader;
 import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
 import ru.kontur.vostok.hercules.protocol.decoder.EventReader;
+import ru.kontur.vostok.hercules.protocol.decoder.EventStreamContentReader;
+import ru.kontur.vostok.hercules.protocol.decoder.StringInterner;
 import ru.kontur.vostok.hercules.util.bytes.ByteUtil;
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Event deserializer reuses the reader which is built once. Readers are immutable, thus deserializer is thread-safe.
+ * <p>
+ * Deserialization errors are counted. Diagnostics of broken events are logged at most once per 10 seconds
+ * and contain the only first 256 bytes of the event.
+ * <p>
+ * Packed record cannot be deserialized into the single event, thus it is treated as broken.
+ * Use {@link EventBatchDeserializer} to expand packed records, see {@link PackedRecord}.
+ *
  * @author Gregory Koshelev
  */
-public class EventDeserializer implements Deserializer<Event> {
+public class EventDeserializer implements ExtendedDeserializer<Event> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EventDeserializer.class);
 
-    private final Set<String> tags;
+    private static final long DIAGNOSTICS_INTERVAL_MS = 10_000L;
+    private static final int MAX_DIAGNOSTIC_BYTES = 256;
 
-    private EventDeserializer(Set<String> tags) {
-        this.tags = tags;
+    private static final EventReader NO_TAGS_READER = EventReader.readNoTags();
+    private static final EventReader ALL_TAGS_READER = EventReader.readAllTags();
+
+    private final EventReader reader;
+    private final EventStreamContentReader packedReader;
+    private final Meter errorsMeter;
+
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong suppressedErrorCount = new AtomicLong();
+    private final AtomicLong nextDiagnosticsMs = new AtomicLong();
+
+    private EventDeserializer(EventReader reader, Meter errorsMeter) {
+        this.reader = reader;
+        this.packedReader = new EventStreamContentReader(reader);
+        this.errorsMeter = errorsMeter;
+    }
+
+    private EventDeserializer(EventReader reader) {
+        this(reader, null);
+    }
+
+    /**
+     * Create deserializer with the same reader which marks the meter on each deserialization error
+     *
+     * @param errorsMeter is the meter of deserialization errors
+     * @return event deserializer
+     */
+    public EventDeserializer withErrorsMeter(Meter errorsMeter) {
+        return new EventDeserializer(reader, Objects.requireNonNull(errorsMeter));
+    }
+
+    /**
+     * @return total count of deserialization errors
+     */
+    public long getErrorCount() {
+        return errorCount.get();
     }
 
     @Override
@@ -31,13 +80,43 @@ public class EventDeserializer implements Deserializer<Event> {
 
     }
 
+    @Override
+    public Event deserialize(String topic, Headers headers, byte[] data) {
+        if (data != null && PackedRecord.isPacked(headers)) {
+            onError(topic, data, new IllegalArgumentException("Packed record cannot be deserialized into the single event"));
+            return null;
+        }
+        return deserialize(topic, data);
+    }
+
     @Override
     public Event deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
         try {
-            EventReader reader = EventReader.readTags(tags);
             return reader.read(new Decoder(data));
         } catch (Exception e) {
-            LOGGER.warn("Error on deserialize bytes '{}'", ByteUtil.bytesToHexString(data), e);
+            onError(topic, data, e);
+            return null;
+        }
+    }
+
+    /**
+     * Deserialize events of packed record, see {@link PackedRecord}
+     *
+     * @param topic the topic
+     * @param data  the value of packed record
+     * @return events or {@code null} if record is broken
+     */
+    public Event[] deserializePacked(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return packedReader.read(new Decoder(data)).getEvents();
+        } catch (Exception e) {
+            onError(topic, data, e);
             return null;
         }
     }
@@ -47,16 +126,67 @@ public class EventDeserializer implements Deserializer<Event> {
 
     }
 
+    private void onError(String topic, byte[] data, Exception e) {
+        errorCount.incrementAndGet();
+        if (errorsMeter != null) {
+            errorsMeter.mark();
+        }
+
+        long now = System.currentTimeMillis();
+        long next = nextDiagnosticsMs.get();
+        if (now < next || !nextDiagnosticsMs.compareAndSet(next, now + DIAGNOSTICS_INTERVAL_MS)) {
+            suppressedErrorCount.incrementAndGet();
+            return;
+        }
+
+        byte[] head = (data.length > MAX_DIAGNOSTIC_BYTES) ? Arrays.copyOf(data, MAX_DIAGNOSTIC_BYTES) : data;
+        LOGGER.warn(
+                "Error on deserialize event of {} bytes from topic '{}', first bytes are '{}', {} more errors since last report",
+                data.length,
+                topic,
+                ByteUtil.bytesToHexString(head),
+                suppressedErrorCount.getAndSet(0),
+                e);
+    }
+
     public static EventDeserializer parseNoTags() {
-        return new EventDeserializer(Collections.emptySet());
+        return new EventDeserializer(NO_TAGS_READER);
     }
 
     public static EventDeserializer parseAllTags() {
-        return new EventDeserializer(null);
+        return new EventDeserializer(ALL_TAGS_READER);
     }
 
+    /**
+     * Parse all tags and intern string values of specified tags. Nested tags can be specified by dotted paths
+     *
+     * @param internedTags are tag paths which values should be interned
+     * @param interner     is the interner of string values
+     * @return event deserializer
+     */
+    public static EventDeserializer parseAllTags(Set<String> internedTags, StringInterner interner) {
+        return new EventDeserializer(new EventReader(ContainerReader.readAllTags().interning(internedTags, interner)));
+    }
+
+    /**
+     * Parse specified tags only. Nested tags can be specified by dotted paths (e.g. {@code properties.project})
+     *
+     * @param tags are tag paths to be parsed or {@code null} to parse all tags
+     * @return event deserializer
+     */
     public static EventDeserializer parseTags(Set<String> tags) {
-        Objects.requireNonNull(tags);
-        return new EventDeserializer(tags);
+        return new EventDeserializer(EventReader.readTags(tags));
+    }
+
+    /**
+     * Parse specified tags only and intern string values of specified tags
+     *
+     * @param tags         are tag paths to be parsed or {@code null} to parse all tags
+     * @param internedTags are tag paths which values should be interned
+     * @param interner     is the interner of string values
+     * @return event deserializer
+     */
+    public static EventDeserializer parseTags(Set<String> tags, Set<String> internedTags, StringInterner interner) {
+        return new EventDeserializer(new EventReader(ContainerReader.readTags(tags).interning(internedTags, interner)));
     }
 }
@@ -0,0 +1,71 @@
+package ru.kontur.vostok.hercules.kafka.util.serialization;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.EventStreamContent;
+import ru.kontur.vostok.hercules.protocol.StreamReadState;
+import ru.kontur.vostok.hercules.protocol.StreamShardReadState;
+import ru.kontur.vostok.hercules.protocol.decoder.SizeOf;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+import ru.kontur.vostok.hercules.protocol.encoder.EventStreamContentWriter;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Packed record contains multiple events of the same partition in {@link EventStreamContent} framing with empty read state.
+ * <p>
+ * Packed record is marked by the header, thus it is distinguished from the record of the single event.
+ * Packed record has no key.
+ */
+public final class PackedRecord {
+    public static final String HEADER_NAME = "packed";
+
+    private static final List<Header> HEADERS = Collections.singletonList(new RecordHeader(HEADER_NAME, new byte[0]));
+
+    private static final StreamReadState EMPTY_STATE = new StreamReadState(new StreamShardReadState[0]);
+    private static final EventStreamContentWriter CONTENT_WRITER = new EventStreamContentWriter();
+
+    /**
+     * Size in bytes of packed record without events
+     */
+    public static final int OVERHEAD_SIZE = SizeOf.INTEGER + SizeOf.INTEGER;
+
+    /**
+     * @return headers of packed record
+     */
+    public static Iterable<Header> headers() {
+        return HEADERS;
+    }
+
+    /**
+     * @param headers are headers of the record
+     * @return {@code true} if the record is packed, otherwise {@code false}
+     */
+    public static boolean isPacked(Headers headers) {
+        return headers != null && headers.lastHeader(HEADER_NAME) != null;
+    }
+
+    /**
+     * Pack events into the record value
+     *
+     * @param events the events
+     * @return byte buffer over the record value
+     */
+    public static ByteBuffer pack(Event[] events) {
+        int size = OVERHEAD_SIZE;
+        for (Event event : events) {
+            size += event.getSize();
+        }
+        ByteArrayEncoder encoder = new ByteArrayEncoder(size);
+        CONTENT_WRITER.write(encoder, new EventStreamContent(EMPTY_STATE, events));
+        return encoder.toByteBuffer();
+    }
+
+    private PackedRecord() {
+        /* static class */
+    }
+}
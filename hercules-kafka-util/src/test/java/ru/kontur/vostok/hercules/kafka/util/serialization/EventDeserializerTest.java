@@ -1,15 +1,21 @@
 package ru.kontur.vostok.hercules.kafka.util.serialization;
 
+import com.codahale.metrics.Meter;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.junit.Test;
 import ru.kontur.vostok.hercules.protocol.Event;
 import ru.kontur.vostok.hercules.protocol.Variant;
 import ru.kontur.vostok.hercules.protocol.util.EventBuilder;
 import ru.kontur.vostok.hercules.uuid.UuidGenerator;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collections;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 public class EventDeserializerTest {
 
@@ -45,6 +51,64 @@ public class EventDeserializerTest {
         assertEquals(123, (int) deserialized.getPayload().get("int-tag").getValue());
     }
 
+    @Test
+    public void shouldCountErrors() {
+        Meter errorsMeter = new Meter();
+        EventDeserializer eventDeserializer = EventDeserializer.parseAllTags().withErrorsMeter(errorsMeter);
+
+        byte[] bytes = createEvent().getBytes();
+        byte[] broken = Arrays.copyOf(bytes, bytes.length - 1);
+
+        assertNull(eventDeserializer.deserialize(TOPIC_STUB, broken));
+        assertNull(eventDeserializer.deserialize(TOPIC_STUB, broken));
+        assertNotNull(eventDeserializer.deserialize(TOPIC_STUB, bytes));
+        assertNull(eventDeserializer.deserialize(TOPIC_STUB, null));
+
+        assertEquals(2, eventDeserializer.getErrorCount());
+        assertEquals(2, errorsMeter.getCount());
+    }
+
+    @Test
+    public void shouldExpandPackedRecord() {
+        EventBatchDeserializer deserializer = new EventBatchDeserializer(EventDeserializer.parseAllTags());
+
+        Event first = createEvent();
+        Event second = createEvent();
+        ByteBuffer packed = PackedRecord.pack(new Event[]{first, second});
+        byte[] data = Arrays.copyOf(packed.array(), packed.limit());
+
+        RecordHeaders headers = new RecordHeaders(PackedRecord.headers());
+        Event[] events = deserializer.deserialize(TOPIC_STUB, headers, data);
+
+        assertEquals(2, events.length);
+        assertEquals(first.getUuid(), events[0].getUuid());
+        assertEquals(second.getUuid(), events[1].getUuid());
+        assertArrayEquals(second.getBytes(), events[1].getBytes());
+        assertEquals(123, events[1].getPayload().get("int-tag").getInt());
+    }
+
+    @Test
+    public void shouldDeserializeSingleEventRecord() {
+        EventBatchDeserializer deserializer = new EventBatchDeserializer(EventDeserializer.parseAllTags());
+
+        Event event = createEvent();
+        Event[] events = deserializer.deserialize(TOPIC_STUB, new RecordHeaders(), event.getBytes());
+
+        assertEquals(1, events.length);
+        assertArrayEquals(event.getBytes(), events[0].getBytes());
+    }
+
+    @Test
+    public void shouldRejectPackedRecord() {
+        EventDeserializer deserializer = EventDeserializer.parseAllTags();
+
+        ByteBuffer packed = PackedRecord.pack(new Event[]{createEvent(), createEvent()});
+        byte[] data = Arrays.copyOf(packed.array(), packed.limit());
+
+        assertNull(deserializer.deserialize(TOPIC_STUB, new RecordHeaders(PackedRecord.headers()), data));
+        assertEquals(1, deserializer.getErrorCount());
+    }
+
     private static Event createEvent() {
         return EventBuilder.create(0, UuidGenerator.getClientInstance().next())
                 .tag("string-tag", Variant.ofString("tag content"))
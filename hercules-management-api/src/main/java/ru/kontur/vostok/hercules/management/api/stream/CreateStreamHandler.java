@@ -8,6 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.kontur.vostok.hercules.auth.AuthManager;
 import ru.kontur.vostok.hercules.auth.AuthResult;
+import ru.kontur.vostok.hercules.meta.stream.BaseStream;
 import ru.kontur.vostok.hercules.meta.stream.DerivedStream;
 import ru.kontur.vostok.hercules.meta.stream.Stream;
 import ru.kontur.vostok.hercules.meta.stream.StreamRepository;
@@ -109,6 +110,14 @@ public class CreateStreamHandler implements HttpHandler {
                             return;
                         }
                     }
+                    // Derived streams are built by Kafka Streams which does not expand packed records
+                    for (String sourceStream : streams) {
+                        Optional<Stream> source = streamRepository.read(sourceStream);
+                        if (source.isPresent() && source.get() instanceof BaseStream && ((BaseStream) source.get()).isPacked()) {
+                            ResponseUtil.badRequest(exch, "Packed stream '" + sourceStream + "' cannot be used as source stream");
+                            return;
+                        }
+                    }
                 }
 
                 TaskFuture taskFuture =
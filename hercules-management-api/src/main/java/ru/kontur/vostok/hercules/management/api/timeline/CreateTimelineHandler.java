@@ -8,6 +8,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.kontur.vostok.hercules.auth.AuthManager;
 import ru.kontur.vostok.hercules.auth.AuthResult;
+import ru.kontur.vostok.hercules.meta.stream.BaseStream;
+import ru.kontur.vostok.hercules.meta.stream.Stream;
+import ru.kontur.vostok.hercules.meta.stream.StreamRepository;
 import ru.kontur.vostok.hercules.meta.task.TaskFuture;
 import ru.kontur.vostok.hercules.meta.task.TaskQueue;
 import ru.kontur.vostok.hercules.meta.task.timeline.TimelineTask;
@@ -31,13 +34,19 @@ public class CreateTimelineHandler implements HttpHandler {
     private final AuthManager authManager;
     private final TaskQueue<TimelineTask> taskQueue;
     private final TimelineRepository repository;
+    private final StreamRepository streamRepository;
 
     private final ObjectReader deserializer;
 
-    public CreateTimelineHandler(AuthManager authManager, TaskQueue<TimelineTask> taskQueue, TimelineRepository repository) {
+    public CreateTimelineHandler(
+            AuthManager authManager,
+            TaskQueue<TimelineTask> taskQueue,
+            TimelineRepository repository,
+            StreamRepository streamRepository) {
         this.authManager = authManager;
         this.taskQueue = taskQueue;
         this.repository = repository;
+        this.streamRepository = streamRepository;
 
         ObjectMapper objectMapper = new ObjectMapper();
         this.deserializer = objectMapper.readerFor(Timeline.class);
@@ -94,6 +103,14 @@ public class CreateTimelineHandler implements HttpHandler {
                         return;
                     }
                 }
+                // Timeline sink reads raw records, thus it does not expand packed records
+                for (String stream : streams) {
+                    Optional<Stream> source = streamRepository.read(stream);
+                    if (source.isPresent() && source.get() instanceof BaseStream && ((BaseStream) source.get()).isPacked()) {
+                        ResponseUtil.badRequest(exch, "Packed stream '" + stream + "' cannot be used as source stream");
+                        return;
+                    }
+                }
 
                 TaskFuture taskFuture =
                         taskQueue.submit(
@@ -77,11 +77,11 @@ public class Conditions {
 
         @Override
         public boolean test(Variant variant) {
-           if (!isAssignableToLong(variant)) {
+           if (variant == null || !isAssignableToLong(variant)) {
                return false;
            }
            long value = toLong(variant);
-           return variant != null && (inclusiveLeft ? left <= value : left < value) && (inclusiveRight ? right >= value : right > value);
+           return (inclusiveLeft ? left <= value : left < value) && (inclusiveRight ? right >= value : right > value);
         }
     }
 
@@ -106,6 +106,11 @@ public class Conditions {
         private String value;
         @JsonIgnore
         private byte[] bytes;
+        /**
+         * Last matched value. Interned values are shared between events, thus they are matched by identity
+         */
+        @JsonIgnore
+        private volatile byte[] matched;
 
         public String getValue() {
             return value;
@@ -114,11 +119,23 @@ public class Conditions {
         public void setValue(String value) {
             this.value = value;
             this.bytes = value.getBytes(StandardCharsets.UTF_8);
+            this.matched = null;
         }
 
         @Override
         public boolean test(Variant variant) {
-            return variant != null && variant.getType() == Type.STRING && Arrays.equals(bytes, (byte[]) variant.getValue());
+            if (variant == null || variant.getType() != Type.STRING) {
+                return false;
+            }
+            byte[] actual = (byte[]) variant.getValue();
+            if (actual == matched) {
+                return true;
+            }
+            if (Arrays.equals(bytes, actual)) {
+                matched = actual;
+                return true;
+            }
+            return false;
         }
     }
 
@@ -143,11 +160,10 @@ public class Conditions {
     }
 
     private static boolean isAssignableToLong(Variant variant) {
-        Type type = variant.getType();
-        return type == Type.BYTE || type == Type.SHORT || type == Type.INTEGER || type == Type.LONG;
+        return variant.isIntegral();
     }
 
     private static long toLong(Variant variant) {
-        return (long) variant.getValue();
+        return variant.getLong();
     }
 }
@@ -0,0 +1,55 @@
+package ru.kontur.vostok.hercules.meta.quota;
+
+/**
+ * Ingestion quota of the API key or the stream
+ * <p>
+ * Non-positive rate means the dimension is unlimited.
+ * Weight is used to share the gate capacity between API keys when it is contended.
+ */
+public class Quota {
+    private String name;
+    private long bytesPerSecond;
+    private long requestsPerSecond;
+    private int weight = 1;
+
+    public Quota() {
+    }
+
+    public Quota(String name, long bytesPerSecond, long requestsPerSecond, int weight) {
+        this.name = name;
+        this.bytesPerSecond = bytesPerSecond;
+        this.requestsPerSecond = requestsPerSecond;
+        this.weight = weight;
+    }
+
+    /**
+     * @return API key or stream name which the quota is applied to
+     */
+    public String getName() {
+        return name;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+    public void setBytesPerSecond(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    public long getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+    public void setRequestsPerSecond(long requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+}
@@ -0,0 +1,67 @@
+package ru.kontur.vostok.hercules.meta.quota;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Demand of the single gate on quotas. It is published by each gate to lease shares of cluster-wide quotas
+ */
+public class QuotaDemand {
+    private Map<String, Rate> apiKeys = new HashMap<>();
+    private Map<String, Rate> streams = new HashMap<>();
+
+    public QuotaDemand() {
+    }
+
+    public QuotaDemand(Map<String, Rate> apiKeys, Map<String, Rate> streams) {
+        this.apiKeys = apiKeys;
+        this.streams = streams;
+    }
+
+    /**
+     * @return demand rates by API keys
+     */
+    public Map<String, Rate> getApiKeys() {
+        return apiKeys;
+    }
+    public void setApiKeys(Map<String, Rate> apiKeys) {
+        this.apiKeys = apiKeys;
+    }
+
+    /**
+     * @return demand rates by streams
+     */
+    public Map<String, Rate> getStreams() {
+        return streams;
+    }
+    public void setStreams(Map<String, Rate> streams) {
+        this.streams = streams;
+    }
+
+    public static class Rate {
+        private long bytesPerSecond;
+        private long requestsPerSecond;
+
+        public Rate() {
+        }
+
+        public Rate(long bytesPerSecond, long requestsPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+            this.requestsPerSecond = requestsPerSecond;
+        }
+
+        public long getBytesPerSecond() {
+            return bytesPerSecond;
+        }
+        public void setBytesPerSecond(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        public long getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+        public void setRequestsPerSecond(long requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+        }
+    }
+}
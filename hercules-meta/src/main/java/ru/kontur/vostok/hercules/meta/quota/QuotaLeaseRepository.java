@@ -0,0 +1,64 @@
+package ru.kontur.vostok.hercules.meta.quota;
+
+import org.apache.zookeeper.CreateMode;
+import ru.kontur.vostok.hercules.curator.CuratorClient;
+import ru.kontur.vostok.hercules.curator.exception.CuratorInternalException;
+import ru.kontur.vostok.hercules.curator.exception.CuratorUnknownException;
+import ru.kontur.vostok.hercules.curator.result.CreationResult;
+import ru.kontur.vostok.hercules.curator.result.DeletionResult;
+import ru.kontur.vostok.hercules.curator.result.ReadResult;
+import ru.kontur.vostok.hercules.curator.result.UpdateResult;
+import ru.kontur.vostok.hercules.meta.serialization.DeserializationException;
+import ru.kontur.vostok.hercules.meta.serialization.Deserializer;
+import ru.kontur.vostok.hercules.meta.serialization.SerializationException;
+import ru.kontur.vostok.hercules.meta.serialization.Serializer;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Each gate holds the ephemeral lease node with its {@link QuotaDemand}.
+ * Lease node is removed by ZooKeeper when the gate session expires, thus the share of the gate is returned to others.
+ */
+public class QuotaLeaseRepository {
+    private final CuratorClient curatorClient;
+    private final Deserializer deserializer;
+    private final Serializer serializer;
+
+    public QuotaLeaseRepository(CuratorClient curatorClient) {
+        this.curatorClient = curatorClient;
+
+        this.deserializer = Deserializer.forClass(QuotaDemand.class);
+        this.serializer = Serializer.forClass(QuotaDemand.class);
+    }
+
+    /**
+     * Create the lease node
+     *
+     * @param demand is the demand of the gate
+     * @return creation result with the name of created node
+     */
+    public CreationResult register(QuotaDemand demand) throws SerializationException, CuratorUnknownException, CuratorInternalException {
+        return curatorClient.createWithMode(zPrefix + "/gate-", serializer.serialize(demand), CreateMode.EPHEMERAL_SEQUENTIAL);
+    }
+
+    public UpdateResult update(String node, QuotaDemand demand) throws SerializationException, CuratorUnknownException, CuratorInternalException {
+        return curatorClient.update(zPrefix + '/' + node, serializer.serialize(demand));
+    }
+
+    public Optional<QuotaDemand> read(String node) throws CuratorUnknownException, CuratorInternalException, DeserializationException {
+        ReadResult readResult = curatorClient.read(zPrefix + '/' + node);
+        Optional<byte[]> jsonBytes = readResult.getData();
+        return jsonBytes.isPresent() ? Optional.of(deserializer.deserialize(jsonBytes.get())) : Optional.empty();
+    }
+
+    public List<String> list() throws Exception {
+        return curatorClient.children(zPrefix);
+    }
+
+    public DeletionResult delete(String node) throws CuratorUnknownException, CuratorInternalException {
+        return curatorClient.delete(zPrefix + '/' + node);
+    }
+
+    private static String zPrefix = "/hercules/quotas/leases";
+}
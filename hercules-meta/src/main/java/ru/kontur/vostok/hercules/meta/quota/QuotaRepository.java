@@ -0,0 +1,64 @@
+package ru.kontur.vostok.hercules.meta.quota;
+
+import ru.kontur.vostok.hercules.curator.CuratorClient;
+import ru.kontur.vostok.hercules.curator.exception.CuratorInternalException;
+import ru.kontur.vostok.hercules.curator.exception.CuratorUnknownException;
+import ru.kontur.vostok.hercules.curator.result.CreationResult;
+import ru.kontur.vostok.hercules.curator.result.DeletionResult;
+import ru.kontur.vostok.hercules.curator.result.ReadResult;
+import ru.kontur.vostok.hercules.curator.result.UpdateResult;
+import ru.kontur.vostok.hercules.meta.serialization.DeserializationException;
+import ru.kontur.vostok.hercules.meta.serialization.Deserializer;
+import ru.kontur.vostok.hercules.meta.serialization.SerializationException;
+import ru.kontur.vostok.hercules.meta.serialization.Serializer;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Quotas are stored separately for API keys and streams, see {@link #forApiKeys(CuratorClient)} and {@link #forStreams(CuratorClient)}
+ */
+public class QuotaRepository {
+    private final CuratorClient curatorClient;
+    private final String zPrefix;
+    private final Deserializer deserializer;
+    private final Serializer serializer;
+
+    private QuotaRepository(CuratorClient curatorClient, String zPrefix) {
+        this.curatorClient = curatorClient;
+        this.zPrefix = zPrefix;
+
+        this.deserializer = Deserializer.forClass(Quota.class);
+        this.serializer = Serializer.forClass(Quota.class);
+    }
+
+    public static QuotaRepository forApiKeys(CuratorClient curatorClient) {
+        return new QuotaRepository(curatorClient, "/hercules/quotas/apiKeys");
+    }
+
+    public static QuotaRepository forStreams(CuratorClient curatorClient) {
+        return new QuotaRepository(curatorClient, "/hercules/quotas/streams");
+    }
+
+    public Optional<Quota> read(String name) throws CuratorUnknownException, CuratorInternalException, DeserializationException {
+        ReadResult readResult = curatorClient.read(zPrefix + '/' + name);
+        Optional<byte[]> jsonBytes = readResult.getData();
+        return jsonBytes.isPresent() ? Optional.of(deserializer.deserialize(jsonBytes.get())) : Optional.empty();
+    }
+
+    public CreationResult create(Quota quota) throws SerializationException, CuratorUnknownException, CuratorInternalException {
+        return curatorClient.create(zPrefix + '/' + quota.getName(), serializer.serialize(quota));
+    }
+
+    public UpdateResult update(Quota quota) throws SerializationException, CuratorUnknownException, CuratorInternalException {
+        return curatorClient.update(zPrefix + '/' + quota.getName(), serializer.serialize(quota));
+    }
+
+    public List<String> list() throws Exception {
+        return curatorClient.children(zPrefix);
+    }
+
+    public DeletionResult delete(String name) throws CuratorUnknownException, CuratorInternalException {
+        return curatorClient.delete(zPrefix + '/' + name);
+    }
+}
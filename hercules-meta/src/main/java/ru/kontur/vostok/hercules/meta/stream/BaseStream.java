@@ -4,4 +4,33 @@ package ru.kontur.vostok.hercules.meta.stream;
  * @author Gregory Koshelev
  */
 public class BaseStream extends Stream {
+    private boolean packed;
+    private boolean deduplicated;
+
+    /**
+     * Events of packed stream are written to Kafka in batches: each record contains multiple events of the same partition.
+     * Packed records are expanded by sinks which are based on {@code Sink} and by the stream API.
+     * Packed stream cannot be the source of derived streams and timelines, since they do not support packed records.
+     *
+     * @return {@code true} if stream is packed, otherwise {@code false}
+     */
+    public boolean isPacked() {
+        return packed;
+    }
+    public void setPacked(boolean packed) {
+        this.packed = packed;
+    }
+
+    /**
+     * Events of deduplicated stream are dropped by the gate if the same event has been recently sent,
+     * e.g. when client retries the request after the timeout. Deduplication should be enabled on gates.
+     *
+     * @return {@code true} if stream is deduplicated, otherwise {@code false}
+     */
+    public boolean isDeduplicated() {
+        return deduplicated;
+    }
+    public void setDeduplicated(boolean deduplicated) {
+        this.deduplicated = deduplicated;
+    }
 }
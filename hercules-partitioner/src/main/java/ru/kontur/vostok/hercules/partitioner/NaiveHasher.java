@@ -13,29 +13,29 @@ import java.util.UUID;
  * @author Gregory Koshelev
  */
 public class NaiveHasher implements Hasher {
-    private static final HashFunction[] TYPE_HASH_FUNCTIONS = new HashFunction[256];
+    private static final VariantHashFunction[] TYPE_HASH_FUNCTIONS = new VariantHashFunction[256];
     private static final HashFunction[] TYPE_OF_VECTOR_HASH_FUNCTIONS = new HashFunction[256];
 
     static {
-        Arrays.setAll(TYPE_HASH_FUNCTIONS, idx -> value -> {
+        Arrays.setAll(TYPE_HASH_FUNCTIONS, idx -> variant -> {
             throw new IllegalArgumentException("Unknown type with code " + idx);
         });
 
-        TYPE_HASH_FUNCTIONS[Type.CONTAINER.code] = value -> 0;
-        TYPE_HASH_FUNCTIONS[Type.BYTE.code] = value -> (Byte) value;
-        TYPE_HASH_FUNCTIONS[Type.SHORT.code] = value -> (Short) value;
-        TYPE_HASH_FUNCTIONS[Type.INTEGER.code] = value -> (Integer) value;
-        TYPE_HASH_FUNCTIONS[Type.LONG.code] = value -> hash((Long) value);
-        TYPE_HASH_FUNCTIONS[Type.FLAG.code] = value -> ((Boolean) value) ? 2029 : 2027;
-        TYPE_HASH_FUNCTIONS[Type.FLOAT.code] = value -> Float.floatToIntBits((Float) value);
-        TYPE_HASH_FUNCTIONS[Type.DOUBLE.code] = value -> hash(Double.doubleToLongBits((Double) value));
-        TYPE_HASH_FUNCTIONS[Type.STRING.code] = NaiveHasher::hashOfByteArray;
-        TYPE_HASH_FUNCTIONS[Type.UUID.code] = value -> {
-            UUID uuid = (UUID) value;
+        TYPE_HASH_FUNCTIONS[Type.CONTAINER.code] = variant -> 0;
+        TYPE_HASH_FUNCTIONS[Type.BYTE.code] = Variant::getByte;
+        TYPE_HASH_FUNCTIONS[Type.SHORT.code] = Variant::getShort;
+        TYPE_HASH_FUNCTIONS[Type.INTEGER.code] = Variant::getInt;
+        TYPE_HASH_FUNCTIONS[Type.LONG.code] = variant -> hash(variant.getLong());
+        TYPE_HASH_FUNCTIONS[Type.FLAG.code] = variant -> variant.getFlag() ? 2029 : 2027;
+        TYPE_HASH_FUNCTIONS[Type.FLOAT.code] = variant -> Float.floatToIntBits(variant.getFloat());
+        TYPE_HASH_FUNCTIONS[Type.DOUBLE.code] = variant -> hash(Double.doubleToLongBits(variant.getDouble()));
+        TYPE_HASH_FUNCTIONS[Type.STRING.code] = variant -> hashOfByteArray(variant.getValue());
+        TYPE_HASH_FUNCTIONS[Type.UUID.code] = variant -> {
+            UUID uuid = (UUID) variant.getValue();
             return hash(uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits());
         };
-        TYPE_HASH_FUNCTIONS[Type.NULL.code] = value -> 0;
-        TYPE_HASH_FUNCTIONS[Type.VECTOR.code] = NaiveHasher::hashOfVector;
+        TYPE_HASH_FUNCTIONS[Type.NULL.code] = variant -> 0;
+        TYPE_HASH_FUNCTIONS[Type.VECTOR.code] = variant -> hashOfVector(variant.getValue());
     }
 
     static {
@@ -58,7 +58,11 @@ public class NaiveHasher implements Hasher {
     }
 
     public static int hash(Type type, Object value) {
-        return TYPE_HASH_FUNCTIONS[type.code].hash(value);
+        return hash(new Variant(type, value));
+    }
+
+    public static int hash(Variant variant) {
+        return TYPE_HASH_FUNCTIONS[variant.getType().code].hash(variant);
     }
 
     public static int hashOfByteArray(Object value) {
@@ -99,7 +103,7 @@ public class NaiveHasher implements Hasher {
 
             tagValue = container.get(key[size - 1]);
 
-            hash = 31 * hash + ((tagValue != null) ? hash(tagValue.getType(), tagValue.getValue()) : 0);
+            hash = 31 * hash + ((tagValue != null) ? hash(tagValue) : 0);
         }
         return hash;
     }
@@ -107,4 +111,8 @@ public class NaiveHasher implements Hasher {
     private interface HashFunction {
         int hash(Object value);
     }
+
+    private interface VariantHashFunction {
+        int hash(Variant variant);
+    }
 }
@@ -0,0 +1,73 @@
+package ru.kontur.vostok.hercules.partitioner;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sticky partitioner is used for events without sharding key.
+ * <p>
+ * Partitioner chooses the same partition for events of the topic until enough bytes are sent to fill the producer batch
+ * or the time window is elapsed. Then another partition is chosen randomly.
+ * Thus, producer batches are larger than if each event is sent to the random partition.
+ */
+public class StickyPartitioner {
+    private final long batchSize;
+    private final long windowMs;
+
+    private final ConcurrentHashMap<String, Sticky> topics = new ConcurrentHashMap<>();
+
+    /**
+     * @param batchSize is the size in bytes of the producer batch
+     * @param windowMs  is the time window to stick to the partition, {@code 0} means the partition is changed by size only
+     */
+    public StickyPartitioner(long batchSize, long windowMs) {
+        this.batchSize = batchSize;
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Choose the partition for the event
+     *
+     * @param topic      the topic
+     * @param partitions the count of topic partitions
+     * @param size       the size of the event in bytes
+     * @return partition
+     */
+    public int partition(String topic, int partitions, int size) {
+        Sticky sticky = topics.get(topic);
+        if (sticky == null) {
+            sticky = topics.computeIfAbsent(topic, t -> new Sticky());
+        }
+        return sticky.partition(partitions, size, System.currentTimeMillis());
+    }
+
+    private final class Sticky {
+        private int partition = -1;
+        private long bytes;
+        private long deadlineMs;
+
+        synchronized int partition(int partitions, int size, long nowMs) {
+            if (partition < 0 || partition >= partitions || bytes >= batchSize || (windowMs > 0 && nowMs >= deadlineMs)) {
+                partition = next(partitions);
+                bytes = 0;
+                deadlineMs = nowMs + windowMs;
+            }
+            bytes += size;
+            return partition;
+        }
+
+        /**
+         * Choose random partition which differs from the current one if possible
+         */
+        private int next(int partitions) {
+            if (partitions == 1) {
+                return 0;
+            }
+            if (partition < 0 || partition >= partitions) {
+                return ThreadLocalRandom.current().nextInt(partitions);
+            }
+            int next = ThreadLocalRandom.current().nextInt(partitions - 1);
+            return (next >= partition) ? next + 1 : next;
+        }
+    }
+}
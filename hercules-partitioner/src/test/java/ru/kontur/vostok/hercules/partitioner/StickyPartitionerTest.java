@@ -0,0 +1,30 @@
+package ru.kontur.vostok.hercules.partitioner;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StickyPartitionerTest {
+    @Test
+    public void shouldStickToPartitionUntilBatchIsFilled() {
+        StickyPartitioner partitioner = new StickyPartitioner(100, 0);
+
+        int partition = partitioner.partition("topic", 8, 40);
+        Assert.assertEquals(partition, partitioner.partition("topic", 8, 40));
+        Assert.assertEquals(partition, partitioner.partition("topic", 8, 40));
+
+        int next = partitioner.partition("topic", 8, 40);
+        Assert.assertNotEquals(partition, next);
+        Assert.assertEquals(next, partitioner.partition("topic", 8, 40));
+    }
+
+    @Test
+    public void shouldChoosePartitionInRange() {
+        StickyPartitioner partitioner = new StickyPartitioner(1, 0);
+
+        for (int i = 0; i < 1000; i++) {
+            int partition = partitioner.partition("topic", 3, 1);
+            Assert.assertTrue(0 <= partition && partition < 3);
+        }
+        Assert.assertEquals(0, partitioner.partition("single", 1, 1));
+    }
+}
@@ -9,6 +9,19 @@ public final class CommonConstants {
      * Serialized batch contains at least event count (32 bit integer)
      */
     public static final int MIN_EVENT_BATCH_SIZE_IN_BYTES = 4;
+    /**
+     * Version of the compact event batch format, see {@link ru.kontur.vostok.hercules.protocol.encoder.CompactBatchWriter}
+     */
+    public static final int COMPACT_EVENT_BATCH_FORMAT = 2;
+    /**
+     * Content type of the compact event batch. Default event batch is sent as {@code application/octet-stream}
+     */
+    public static final String COMPACT_EVENT_BATCH_CONTENT_TYPE = "application/vnd.hercules.events.v2";
+    /**
+     * Content type of the response body with indices of events which have not been sent,
+     * see {@link ru.kontur.vostok.hercules.protocol.encoder.FailedEventsWriter}
+     */
+    public static final String FAILED_EVENTS_CONTENT_TYPE = "application/vnd.hercules.failed-events.v1";
 
     private CommonConstants() {
     }
@@ -2,6 +2,7 @@ package ru.kontur.vostok.hercules.protocol;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 public class Container implements Iterable<Map.Entry<String, Variant>> {
 
@@ -23,4 +24,13 @@ public class Container implements Iterable<Map.Entry<String, Variant>> {
     public Iterator<Map.Entry<String, Variant>> iterator() {
         return tags.entrySet().iterator();
     }
+
+    /**
+     * Walk over tags. Unlike {@link #iterator()}, containers which are read from the data do not create entries
+     *
+     * @param action is the action to be performed for each tag
+     */
+    public void forEach(BiConsumer<String, Variant> action) {
+        tags.forEach(action);
+    }
 }
@@ -1,30 +1,80 @@
 package ru.kontur.vostok.hercules.protocol;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.UUID;
 
 /**
+ * Event keeps reference to the bytes it has been read from. Bytes can be shared with other events (e.g. the whole batch),
+ * thus the event occupies the slice {@code [offset, offset + size)} of them.
+ *
  * @author Gregory Koshelev
  */
 public class Event {
 
     private final byte[] bytes;
+    private final int offset;
+    private final int size;
     private final int version;
     private final long timestamp;
     private final UUID uuid;
     private final Container payload;
 
     public Event(byte[] bytes, int version, long timestamp, UUID uuid, Container payload) {
+        this(bytes, 0, bytes.length, version, timestamp, uuid, payload);
+    }
+
+    public Event(byte[] bytes, int offset, int size, int version, long timestamp, UUID uuid, Container payload) {
         this.bytes = bytes;
+        this.offset = offset;
+        this.size = size;
         this.version = version;
         this.timestamp = timestamp;
         this.uuid = uuid;
         this.payload = payload;
     }
 
+    /**
+     * Bytes of the event. Copy is made if event is a slice of larger array,
+     * thus prefer {@link #getSize()} and {@link #toByteBuffer()} if possible.
+     *
+     * @return bytes of the event
+     */
     public byte[] getBytes() {
+        if (offset == 0 && size == bytes.length) {
+            return bytes;
+        }
+        return Arrays.copyOfRange(bytes, offset, offset + size);
+    }
+
+    /**
+     * Byte buffer over bytes of the event without copying. Buffer must not be modified.
+     *
+     * @return byte buffer over bytes of the event
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(bytes, offset, size).slice();
+    }
+
+    /**
+     * Array which contains bytes of the event. Event occupies {@link #getSize()} bytes from {@link #getOffset()}.
+     * <p>
+     * Array must not be modified.
+     *
+     * @return backing array
+     */
+    public byte[] array() {
         return bytes;
     }
 
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
     public int getVersion() {
         return version;
     }
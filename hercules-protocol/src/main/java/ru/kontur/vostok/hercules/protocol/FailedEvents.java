@@ -0,0 +1,29 @@
+package ru.kontur.vostok.hercules.protocol;
+
+/**
+ * Indices of events in the batch which have not been sent
+ * <p>
+ * Rejected events are invalid, thus they should not be resent. Failed events have not been sent due to temporary error
+ * and can be resent.
+ */
+public class FailedEvents {
+    private final int[] rejected;
+    private final int[] failed;
+
+    /**
+     * @param rejected is ascending indices of invalid events
+     * @param failed   is ascending indices of events which have not been sent due to temporary error
+     */
+    public FailedEvents(int[] rejected, int[] failed) {
+        this.rejected = rejected;
+        this.failed = failed;
+    }
+
+    public int[] getRejected() {
+        return rejected;
+    }
+
+    public int[] getFailed() {
+        return failed;
+    }
+}
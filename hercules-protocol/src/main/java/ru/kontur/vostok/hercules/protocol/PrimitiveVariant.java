@@ -0,0 +1,64 @@
+package ru.kontur.vostok.hercules.protocol;
+
+/**
+ * Variant of primitive type which stores value without boxing.
+ * <p>
+ * Integral value is stored as is, floating point value is stored as bits of {@code double}, flag is stored as {@code 0} or {@code 1}.
+ * Boxed value is created on demand by {@link #getValue()}.
+ */
+final class PrimitiveVariant extends Variant {
+
+    private final long bits;
+    private Object boxed;
+
+    PrimitiveVariant(Type type, long bits) {
+        super(type);
+        this.bits = bits;
+    }
+
+    @Override
+    public Object getValue() {
+        Object value = boxed;
+        if (value == null) {
+            value = box();
+            boxed = value;
+        }
+        return value;
+    }
+
+    @Override
+    long integralValue() {
+        return bits;
+    }
+
+    @Override
+    double floatingPointValue() {
+        return Double.longBitsToDouble(bits);
+    }
+
+    @Override
+    boolean flagValue() {
+        return bits != 0;
+    }
+
+    private Object box() {
+        switch (getType()) {
+            case BYTE:
+                return (byte) bits;
+            case SHORT:
+                return (short) bits;
+            case INTEGER:
+                return (int) bits;
+            case LONG:
+                return bits;
+            case FLOAT:
+                return (float) floatingPointValue();
+            case DOUBLE:
+                return floatingPointValue();
+            case FLAG:
+                return flagValue();
+            default:
+                throw new IllegalStateException("Unsupported type " + getType());
+        }
+    }
+}
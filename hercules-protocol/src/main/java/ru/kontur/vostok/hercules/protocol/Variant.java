@@ -13,44 +13,155 @@ public class Variant {
         this.value = value;
     }
 
+    /**
+     * Constructor for variants which store value in other way than {@link #value}
+     *
+     * @param type is the type of variant
+     * @see PrimitiveVariant
+     */
+    Variant(Type type) {
+        this.type = type;
+        this.value = null;
+    }
+
     public Type getType() {
         return type;
     }
 
+    /**
+     * Value of variant. Value of primitive type is boxed, thus prefer typed accessors like {@link #getLong()}
+     *
+     * @return value of variant
+     */
     public Object getValue() {
         return value;
     }
 
+    /**
+     * @return value of {@link Type#BYTE} variant
+     */
+    public byte getByte() {
+        requireType(Type.BYTE);
+        return (byte) integralValue();
+    }
+
+    /**
+     * @return value of {@link Type#BYTE} or {@link Type#SHORT} variant
+     */
+    public short getShort() {
+        requireIntegral(Type.SHORT);
+        return (short) integralValue();
+    }
+
+    /**
+     * @return value of {@link Type#BYTE}, {@link Type#SHORT} or {@link Type#INTEGER} variant
+     */
+    public int getInt() {
+        requireIntegral(Type.INTEGER);
+        return (int) integralValue();
+    }
+
+    /**
+     * @return value of {@link Type#BYTE}, {@link Type#SHORT}, {@link Type#INTEGER} or {@link Type#LONG} variant
+     */
+    public long getLong() {
+        requireIntegral(Type.LONG);
+        return integralValue();
+    }
+
+    /**
+     * @return value of {@link Type#FLOAT} variant
+     */
+    public float getFloat() {
+        requireType(Type.FLOAT);
+        return (float) floatingPointValue();
+    }
+
+    /**
+     * @return value of {@link Type#FLOAT} or {@link Type#DOUBLE} variant
+     */
+    public double getDouble() {
+        if (type != Type.FLOAT && type != Type.DOUBLE) {
+            throw typeMismatch("floating point");
+        }
+        return floatingPointValue();
+    }
+
+    /**
+     * @return value of {@link Type#FLAG} variant
+     */
+    public boolean getFlag() {
+        requireType(Type.FLAG);
+        return flagValue();
+    }
+
+    /**
+     * Check if variant is of integral type: {@link Type#BYTE}, {@link Type#SHORT}, {@link Type#INTEGER} or {@link Type#LONG}
+     *
+     * @return {@code true} if variant is of integral type, otherwise return {@code false}
+     */
+    public boolean isIntegral() {
+        return Type.BYTE.code <= type.code && type.code <= Type.LONG.code;
+    }
+
+    long integralValue() {
+        return ((Number) value).longValue();
+    }
+
+    double floatingPointValue() {
+        return ((Number) value).doubleValue();
+    }
+
+    boolean flagValue() {
+        return (Boolean) value;
+    }
+
+    private void requireType(Type expected) {
+        if (type != expected) {
+            throw typeMismatch(expected.name());
+        }
+    }
+
+    private void requireIntegral(Type widest) {
+        if (!(Type.BYTE.code <= type.code && type.code <= widest.code)) {
+            throw typeMismatch(widest.name());
+        }
+    }
+
+    private IllegalStateException typeMismatch(String expected) {
+        return new IllegalStateException("Variant of type " + type + " cannot be accessed as " + expected);
+    }
+
     public static Variant ofContainer(Container container) {
         return new Variant(Type.CONTAINER, container);
     }
 
     public static Variant ofByte(byte b) {
-        return new Variant(Type.BYTE, b);
+        return new PrimitiveVariant(Type.BYTE, b);
     }
 
     public static Variant ofShort(short s) {
-        return new Variant(Type.SHORT, s);
+        return new PrimitiveVariant(Type.SHORT, s);
     }
 
     public static Variant ofInteger(int i) {
-        return new Variant(Type.INTEGER, i);
+        return new PrimitiveVariant(Type.INTEGER, i);
     }
 
     public static Variant ofLong(long l) {
-        return new Variant(Type.LONG, l);
+        return new PrimitiveVariant(Type.LONG, l);
     }
 
     public static Variant ofFloat(float f) {
-        return new Variant(Type.FLOAT, f);
+        return new PrimitiveVariant(Type.FLOAT, Double.doubleToRawLongBits(f));
     }
 
     public static Variant ofDouble(double d) {
-        return new Variant(Type.DOUBLE, d);
+        return new PrimitiveVariant(Type.DOUBLE, Double.doubleToRawLongBits(d));
     }
 
     public static Variant ofFlag(boolean b) {
-        return new Variant(Type.FLAG, b);
+        return new PrimitiveVariant(Type.FLAG, b ? 1L : 0L);
     }
 
     public static Variant ofString(String s) {
@@ -76,7 +187,7 @@ public class Variant {
         if (Type.STRING == type) {
             stringValue = new String((byte[]) value, StandardCharsets.UTF_8);
         } else {
-            stringValue = String.valueOf(value);
+            stringValue = String.valueOf(getValue());
         }
         return String.format("(%s) %s", type.name(), stringValue);
     }
@@ -0,0 +1,122 @@
+package ru.kontur.vostok.hercules.protocol.decoder;
+
+import ru.kontur.vostok.hercules.protocol.Variant;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-only tag map for small containers. Tag names and values are kept in parallel arrays and are looked up by linear search.
+ * <p>
+ * Iterator returns immutable entries which can be safely kept after the iteration.
+ * Use {@link #forEach(BiConsumer)} to walk over tags without allocation of entries.
+ */
+final class ArrayTagMap extends AbstractMap<String, Variant> {
+
+    private final String[] tagNames;
+    private final Variant[] variants;
+    private int size;
+
+    /**
+     * @param capacity is the maximum count of tags
+     */
+    ArrayTagMap(int capacity) {
+        this.tagNames = new String[capacity];
+        this.variants = new Variant[capacity];
+    }
+
+    @Override
+    public Variant get(Object key) {
+        int index = indexOf(key);
+        return (index >= 0) ? variants[index] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Variant>> entrySet() {
+        return new AbstractSet<Entry<String, Variant>>() {
+            @Override
+            public Iterator<Entry<String, Variant>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Walk over tags without creating entries
+     *
+     * @param action is the action to be performed for each tag
+     */
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Variant> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(tagNames[i], variants[i]);
+        }
+    }
+
+    /**
+     * Add tag to the map while reading the container. Duplicated tag replaces the previous one as it does for {@link java.util.HashMap}
+     *
+     * @param tagName is the tag name
+     * @param variant is the tag value
+     */
+    void add(String tagName, Variant variant) {
+        int index = indexOf(tagName);
+        if (index >= 0) {
+            variants[index] = variant;
+            return;
+        }
+        tagNames[size] = tagName;
+        variants[size] = variant;
+        size++;
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < size; i++) {
+            if (tagNames[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Iterator over tags
+     */
+    private final class EntryIterator implements Iterator<Entry<String, Variant>> {
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public Entry<String, Variant> next() {
+            if (index >= size) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, Variant> entry = new SimpleImmutableEntry<>(tagNames[index], variants[index]);
+            index++;
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package ru.kontur.vostok.hercules.protocol.decoder;
+
+import ru.kontur.vostok.hercules.protocol.CommonConstants;
+import ru.kontur.vostok.hercules.protocol.Type;
+import ru.kontur.vostok.hercules.protocol.decoder.exceptions.InvalidDataException;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+
+/**
+ * Expand the compact batch (format v2) into the default event batch, thus it can be read with {@code ArrayReader<Event>}.
+ * See {@link ru.kontur.vostok.hercules.protocol.encoder.CompactBatchWriter} for details of the format.
+ * <p>
+ * Compact batch is expanded by transcoding, thus size of the event batch is limited explicitly.
+ * <p>
+ * Thread-safe
+ */
+public class CompactBatchTranscoder {
+
+    private static final int MAX_CONTAINER_SIZE = 0xFFFF;
+    private static final int MAX_DICTIONARY_SIZE = 0xFFFF;
+
+    private final int maxBatchSize;
+
+    /**
+     * @param maxBatchSize is the max size in bytes of the event batch
+     */
+    public CompactBatchTranscoder(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Transcode the compact batch into the default event batch
+     *
+     * @param decoder is the decoder over the compact batch
+     * @return bytes of the event batch
+     * @throws InvalidDataException if the compact batch is malformed or the event batch exceeds the max size
+     */
+    public byte[] transcode(Decoder decoder) throws InvalidDataException {
+        int format = decoder.readUnsignedByte();
+        if (format != CommonConstants.COMPACT_EVENT_BATCH_FORMAT) {
+            throw new InvalidDataException("Unsupported format of the compact batch " + format);
+        }
+
+        int dictionarySize = readNonNegative(decoder, "Dictionary size");
+        if (dictionarySize > MAX_DICTIONARY_SIZE) {
+            throw new InvalidDataException("Dictionary size exceeds " + MAX_DICTIONARY_SIZE + " but got " + dictionarySize);
+        }
+        byte[][] dictionary = new byte[dictionarySize][];
+        for (int i = 0; i < dictionarySize; i++) {
+            int position = decoder.position();
+            int length = decoder.readUnsignedByte();
+            decoder.skip(length);
+            dictionary[i] = decoder.subarray(position, position + SizeOf.BYTE + length);
+        }
+
+        int count = readNonNegative(decoder, "Event count");
+        ByteArrayEncoder encoder = new ByteArrayEncoder((int) Math.min(2L * decoder.array().length, maxBatchSize));
+        encoder.writeInteger(count);
+        while (0 <= --count) {
+            encoder.writeUnsignedByte(decoder.readUnsignedByte());
+            encoder.writeLong(decoder.readLong());
+            encoder.writeUuid(decoder.readUuid());
+            transcodeContainer(decoder, encoder, dictionary);
+        }
+        return (encoder.size() == encoder.array().length) ? encoder.array() : encoder.toByteArray();
+    }
+
+    /**
+     * Event batch is checked after each tag and each vector element, thus it can exceed the limit by the single tag name
+     * or the single value until the check. The single value cannot be larger than the compact batch itself
+     */
+    private void checkSize(ByteArrayEncoder encoder) throws InvalidDataException {
+        if (encoder.size() > maxBatchSize) {
+            throw new InvalidDataException("Event batch exceeds " + maxBatchSize + " bytes");
+        }
+    }
+
+    private void transcodeContainer(Decoder decoder, ByteArrayEncoder encoder, byte[][] dictionary) throws InvalidDataException {
+        int size = readNonNegative(decoder, "Container size");
+        if (size > MAX_CONTAINER_SIZE) {
+            throw new InvalidDataException("Container size exceeds " + MAX_CONTAINER_SIZE + " but got " + size);
+        }
+        encoder.writeContainerSize(size);
+        while (0 <= --size) {
+            int index = readNonNegative(decoder, "Tag index");
+            if (index >= dictionary.length) {
+                throw new InvalidDataException("Tag index " + index + " is out of dictionary of size " + dictionary.length);
+            }
+            encoder.writeRawBytes(dictionary[index]);
+            Type type = Type.valueOf(decoder.readByte());
+            encoder.writeType(type);
+            transcodeValue(decoder, encoder, type, dictionary);
+            checkSize(encoder);
+        }
+    }
+
+    private void transcodeValue(Decoder decoder, ByteArrayEncoder encoder, Type type, byte[][] dictionary) throws InvalidDataException {
+        switch (type) {
+            case CONTAINER:
+                transcodeContainer(decoder, encoder, dictionary);
+                break;
+            case BYTE:
+            case FLAG:
+                encoder.writeByte(decoder.readByte());
+                break;
+            case SHORT:
+                long s = decoder.readZigZagVarLong();
+                if (s != (short) s) {
+                    throw new InvalidDataException("Short value is out of range " + s);
+                }
+                encoder.writeShort((short) s);
+                break;
+            case INTEGER:
+                long i = decoder.readZigZagVarLong();
+                if (i != (int) i) {
+                    throw new InvalidDataException("Integer value is out of range " + i);
+                }
+                encoder.writeInteger((int) i);
+                break;
+            case LONG:
+                encoder.writeLong(decoder.readZigZagVarLong());
+                break;
+            case FLOAT:
+                encoder.writeInteger(decoder.readInteger());
+                break;
+            case DOUBLE:
+                encoder.writeLong(decoder.readLong());
+                break;
+            case STRING:
+                int length = readNonNegative(decoder, "String length");
+                encoder.writeStringLength(length);
+                transcodeRawBytes(decoder, encoder, length);
+                break;
+            case UUID:
+                encoder.writeLong(decoder.readLong());
+                encoder.writeLong(decoder.readLong());
+                break;
+            case NULL:
+                break;
+            case VECTOR:
+                transcodeVector(decoder, encoder, dictionary);
+                break;
+            default:
+                throw new InvalidDataException("Unknown type with code " + type.code);
+        }
+    }
+
+    private void transcodeVector(Decoder decoder, ByteArrayEncoder encoder, byte[][] dictionary) throws InvalidDataException {
+        Type type = Type.valueOf(decoder.readByte());
+        encoder.writeType(type);
+        int length = readNonNegative(decoder, "Vector length");
+        encoder.writeVectorLength(length);
+        if (type == Type.BYTE || type == Type.FLAG) {
+            transcodeRawBytes(decoder, encoder, length);
+            return;
+        }
+        if (type == Type.NULL) {
+            return;
+        }
+        while (0 <= --length) {
+            transcodeValue(decoder, encoder, type, dictionary);
+            checkSize(encoder);
+        }
+    }
+
+    /**
+     * Variable-length value can overflow int, thus it is checked before it is written into the event batch
+     */
+    private static int readNonNegative(Decoder decoder, String name) throws InvalidDataException {
+        int value = decoder.readVarLen();
+        if (value < 0) {
+            throw new InvalidDataException(name + " should be non-negative but got " + value);
+        }
+        return value;
+    }
+
+    private static void transcodeRawBytes(Decoder decoder, ByteArrayEncoder encoder, int length) {
+        int position = decoder.position();
+        decoder.skip(length);
+        encoder.writeRawBytes(decoder.array(), position, length);
+    }
+}
@@ -1,10 +1,13 @@
 package ru.kontur.vostok.hercules.protocol.decoder;
 
 import ru.kontur.vostok.hercules.protocol.Container;
+import ru.kontur.vostok.hercules.protocol.Type;
 import ru.kontur.vostok.hercules.protocol.Variant;
 import ru.kontur.vostok.hercules.util.Maps;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -13,31 +16,132 @@ public class ContainerReader implements Reader<Container> {
 
     public static final ContainerReader INSTANCE = readAllTags();
 
+    /**
+     * Containers of at most this count of tags are backed by arrays instead of {@link HashMap}
+     */
+    static final int MAX_ARRAY_BACKED_SIZE = 16;
+
     private static final VariantReader VARIANT_READER = VariantReader.INSTANCE;
 
-    private final Set<String> tags;
+    private final TagSelector selector;
+    private final Set<String> tagNames;
+    private final Map<String, ContainerReader> projections;
+    private final Set<String> internedTags;
+    private final StringInterner interner;
 
-    private ContainerReader(Set<String> tags) {
-        this.tags = tags;
+    private ContainerReader(
+            TagSelector selector,
+            Set<String> tagNames,
+            Map<String, ContainerReader> projections,
+            Set<String> internedTags,
+            StringInterner interner) {
+        this.selector = selector;
+        this.tagNames = tagNames;
+        this.projections = projections;
+        this.internedTags = internedTags;
+        this.interner = interner;
     }
 
     public static ContainerReader readAllTags() {
-        return new ContainerReader(null);
+        return new ContainerReader(null, null, Collections.emptyMap(), Collections.emptySet(), null);
     }
 
+    /**
+     * Read specified tags only. Tag selector is compiled once, thus reuse created reader for multiple containers.
+     * <p>
+     * Tag can be specified by the dotted path (e.g. {@code properties.project}) to read the nested tag.
+     * In this case, the nested container is decoded only as deep as the paths require.
+     * If tag is specified by the path and by the name itself as well, then the tag is read entirely.
+     *
+     * @param tags are tag paths to be read or {@code null} to read all tags
+     * @return container reader
+     */
     public static ContainerReader readTags(Set<String> tags) {
-        return new ContainerReader(tags);
+        if (Objects.isNull(tags)) {
+            return readAllTags();
+        }
+
+        Set<String> tagNames = new HashSet<>();
+        Map<String, Set<String>> nestedPaths = new HashMap<>();
+        for (String tag : tags) {
+            int dot = tag.indexOf('.');
+            if (dot < 0) {
+                tagNames.add(tag);
+                continue;
+            }
+            String tagName = tag.substring(0, dot);
+            tagNames.add(tagName);
+            nestedPaths.computeIfAbsent(tagName, k -> new HashSet<>()).add(tag.substring(dot + 1));
+        }
+
+        Map<String, ContainerReader> projections = new HashMap<>(Maps.effectiveHashMapCapacity(nestedPaths.size()));
+        for (Map.Entry<String, Set<String>> entry : nestedPaths.entrySet()) {
+            if (!tags.contains(entry.getKey())) {
+                projections.put(entry.getKey(), readTags(entry.getValue()));
+            }
+        }
+
+        return new ContainerReader(TagSelector.of(tagNames), tagNames, projections, Collections.emptySet(), null);
+    }
+
+    /**
+     * Create reader which interns string values of specified tags, see {@link StringInterner}.
+     * <p>
+     * Tag can be specified by the dotted path (e.g. {@code properties.project}) to intern values of nested tag.
+     * Tags which are not read by this reader are ignored.
+     *
+     * @param tags     are tag paths which values should be interned
+     * @param interner is the interner of string values
+     * @return container reader
+     */
+    public ContainerReader interning(Set<String> tags, StringInterner interner) {
+        Set<String> interned = new HashSet<>(internedTags);
+        Map<String, Set<String>> nestedPaths = new HashMap<>();
+        for (String tag : tags) {
+            int dot = tag.indexOf('.');
+            if (dot < 0) {
+                if (isRead(tag)) {
+                    interned.add(tag);
+                }
+                continue;
+            }
+            String tagName = tag.substring(0, dot);
+            if (isRead(tagName)) {
+                nestedPaths.computeIfAbsent(tagName, k -> new HashSet<>()).add(tag.substring(dot + 1));
+            }
+        }
+
+        Map<String, ContainerReader> interningProjections = new HashMap<>(projections);
+        for (Map.Entry<String, Set<String>> entry : nestedPaths.entrySet()) {
+            ContainerReader projection = projections.getOrDefault(entry.getKey(), INSTANCE);
+            interningProjections.put(entry.getKey(), projection.interning(entry.getValue(), interner));
+        }
+
+        return new ContainerReader(selector, tagNames, interningProjections, interned, interner);
     }
 
     @Override
     public Container read(Decoder decoder) {
         int length = decoder.readContainerSize();
-        Map<String, Variant> variantMap = new HashMap<>(Maps.effectiveHashMapCapacity(length));
+        int capacity = Objects.isNull(selector) ? length : Math.min(length, selector.size());
+        if (capacity <= MAX_ARRAY_BACKED_SIZE) {
+            ArrayTagMap tagMap = new ArrayTagMap(capacity);
+            while (0 <= --length) {
+                String tagName = readTagName(decoder);
+                if (Objects.nonNull(tagName)) {
+                    tagMap.add(tagName, readVariant(decoder, tagName));
+                } else {
+                    VARIANT_READER.skip(decoder);
+                }
+            }
+            return new Container(tagMap);
+        }
+
+        Map<String, Variant> variantMap = new HashMap<>(Maps.effectiveHashMapCapacity(capacity));
         while (0 <= --length) {
-            String tagName = decoder.readTinyString();
-            if (Objects.isNull(tags) || tags.contains(tagName)) {
-                Variant variant = VARIANT_READER.read(decoder);
-                variantMap.put(tagName, variant);
+            String tagName = readTagName(decoder);
+            if (Objects.nonNull(tagName)) {
+                variantMap.put(tagName, readVariant(decoder, tagName));
             } else {
                 VARIANT_READER.skip(decoder);
             }
@@ -45,6 +149,53 @@ public class ContainerReader implements Reader<Container> {
         return new Container(variantMap);
     }
 
+    /**
+     * Read tag name
+     *
+     * @return tag name or {@code null} if tag is not selected
+     */
+    private String readTagName(Decoder decoder) {
+        return Objects.isNull(selector) ? decoder.readTinyString() : selector.select(decoder);
+    }
+
+    private Variant readVariant(Decoder decoder, String tagName) {
+        if (!internedTags.isEmpty() && internedTags.contains(tagName)) {
+            return readInterned(decoder);
+        }
+        ContainerReader projection = projections.isEmpty() ? null : projections.get(tagName);
+        return Objects.isNull(projection) ? VARIANT_READER.read(decoder) : readProjected(decoder, projection);
+    }
+
+    /**
+     * Read nested container with projection. If tag is not a container, then it is read entirely
+     */
+    private static Variant readProjected(Decoder decoder, ContainerReader projection) {
+        int position = decoder.position();
+        Type type = Type.valueOf(decoder.readByte());
+        if (type == Type.CONTAINER) {
+            return Variant.ofContainer(projection.read(decoder));
+        }
+        decoder.position(position);
+        return VARIANT_READER.read(decoder);
+    }
+
+    /**
+     * Read string using the interner. If tag is not a string, then it is read as usual
+     */
+    private Variant readInterned(Decoder decoder) {
+        int position = decoder.position();
+        Type type = Type.valueOf(decoder.readByte());
+        if (type == Type.STRING) {
+            return interner.read(decoder);
+        }
+        decoder.position(position);
+        return VARIANT_READER.read(decoder);
+    }
+
+    private boolean isRead(String tagName) {
+        return Objects.isNull(tagNames) || tagNames.contains(tagName);
+    }
+
     @Override
     public int skip(Decoder decoder) {
         int position = decoder.position();
@@ -1,5 +1,6 @@
 package ru.kontur.vostok.hercules.protocol.decoder;
 
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
@@ -17,6 +18,19 @@ public class Decoder {
         this.buffer = ByteBuffer.wrap(data);
     }
 
+    /**
+     * Create decoder over the range of data. Positions are absolute, thus decoder is positioned on {@code offset}
+     * and cannot read beyond {@code offset + length}.
+     *
+     * @param data   the data
+     * @param offset the offset of the range
+     * @param length the length of the range
+     */
+    public Decoder(byte[] data, int offset, int length) {
+        this.data = data;
+        this.buffer = ByteBuffer.wrap(data, offset, length);
+    }
+
     /* --- Read data types --- */
 
     public byte readByte() {
@@ -388,6 +402,25 @@ public class Decoder {
         return length + SizeOf.BYTE;
     }
 
+    /**
+     * Test if next bytes are equal to the specified ones. Position of decoder is not changed
+     *
+     * @param bytes are expected bytes
+     * @return {@code true} if next bytes are equal to the specified ones, otherwise return {@code false}
+     */
+    public boolean matches(byte[] bytes) {
+        int position = buffer.position();
+        if (buffer.limit() - position < bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (data[position + i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public int readVarLen() {
         byte b = buffer.get();
         int value = b & 0x7F;
@@ -399,6 +432,32 @@ public class Decoder {
         return value;
     }
 
+    /**
+     * Read unsigned long value written by {@link ru.kontur.vostok.hercules.protocol.encoder.Encoder#writeVarLong(long)}
+     *
+     * @return unsigned long value
+     */
+    public long readVarLong() {
+        byte b = buffer.get();
+        long value = b & 0x7F;
+        while ((b & 0x80) == 0x80) {
+            value = (value << 7);
+            b = buffer.get();
+            value |= (b & 0x7F);
+        }
+        return value;
+    }
+
+    /**
+     * Read signed long value written by {@link ru.kontur.vostok.hercules.protocol.encoder.Encoder#writeZigZagVarLong(long)}
+     *
+     * @return signed long value
+     */
+    public long readZigZagVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
     public int readVectorLength() {
         return readInteger();
     }
@@ -415,13 +474,53 @@ public class Decoder {
         return buffer.position();
     }
 
+    public void position(int position) {
+        buffer.position(position);
+    }
+
+    /**
+     * @return the absolute position after the last byte of data which can be read
+     */
+    public int limit() {
+        return buffer.limit();
+    }
+
+    /**
+     * Skip bytes
+     *
+     * @param bytesToSkip count of bytes to skip
+     * @throws BufferUnderflowException if there are fewer bytes remaining
+     * @throws IllegalArgumentException if count of bytes is negative
+     */
     public void skip(int bytesToSkip) {
+        if (bytesToSkip < 0) {
+            throw new IllegalArgumentException("Cannot skip negative count of bytes " + bytesToSkip);
+        }
+        if (bytesToSkip > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
         buffer.position(buffer.position() + bytesToSkip);
     }
 
+    /**
+     * Underlying data without copying. Data must not be modified.
+     *
+     * @return underlying data
+     */
+    public byte[] array() {
+        return data;
+    }
+
     public byte[] subarray(int from, int toExclusive) {
         return Arrays.copyOfRange(data, from, toExclusive);
     }
 
-
+    /**
+     * Create decoder over the same data. Position of created decoder is independent of this one
+     *
+     * @return decoder over the same data
+     */
+    public Decoder duplicate() {
+        return new Decoder(data, 0, buffer.limit());
+    }
 }
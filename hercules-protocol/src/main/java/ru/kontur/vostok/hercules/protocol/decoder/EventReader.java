@@ -11,10 +11,11 @@ import java.util.UUID;
 public class EventReader implements Reader<Event> {
 
     private static final ContainerReader CONTAINER_READER = ContainerReader.readTags(Collections.emptySet());
+    private static final Container EMPTY_CONTAINER = new Container(Collections.emptyMap());
 
-    private final ContainerReader containerReader;
+    private final Reader<Container> containerReader;
 
-    public EventReader(ContainerReader containerReader) {
+    public EventReader(Reader<Container> containerReader) {
         this.containerReader = containerReader;
     }
 
@@ -28,9 +29,20 @@ public class EventReader implements Reader<Event> {
         Container container = processContainer(decoder);
 
         int to = decoder.position();
-        byte[] bytes = decoder.subarray(from, to);
 
-        return new Event(bytes, version, timestamp, random, container);
+        return new Event(decoder.array(), from, to - from, version, timestamp, random, container);
+    }
+
+    @Override
+    public int skip(Decoder decoder) {
+        int position = decoder.position();
+
+        decoder.skipByte();
+        decoder.skipLong();
+        decoder.skipUuid();
+        CONTAINER_READER.skip(decoder);
+
+        return decoder.position() - position;
     }
 
     private Container processContainer(Decoder decoder) {
@@ -38,10 +50,15 @@ public class EventReader implements Reader<Event> {
             return containerReader.read(decoder);
         } else {
             CONTAINER_READER.skip(decoder);
-            return new Container(Collections.emptyMap());
+            return EMPTY_CONTAINER;
         }
     }
 
+    /**
+     * Read event header only. Payload is skipped and shared empty container is used instead
+     *
+     * @return event reader
+     */
     public static EventReader readNoTags() {
         return new EventReader(null);
     }
@@ -50,7 +67,22 @@ public class EventReader implements Reader<Event> {
         return new EventReader(ContainerReader.readAllTags());
     }
 
+    /**
+     * Read specified tags only. Nested tags can be specified by dotted paths, see {@link ContainerReader#readTags(Set)}
+     *
+     * @param tags are tag paths to be read
+     * @return event reader
+     */
     public static EventReader readTags(Set<String> tags) {
         return new EventReader(ContainerReader.readTags(tags));
     }
+
+    /**
+     * Read event with payload which decodes tag values on demand. See {@link LazyContainerReader}
+     *
+     * @return event reader
+     */
+    public static EventReader readLazily() {
+        return new EventReader(LazyContainerReader.INSTANCE);
+    }
 }
@@ -6,13 +6,25 @@ import ru.kontur.vostok.hercules.protocol.EventStreamContent;
 public class EventStreamContentReader implements Reader<EventStreamContent> {
 
     private static final StreamReadStateReader STATE_READER = new StreamReadStateReader();
-    private static final ArrayReader<Event> ARRAY_READER = new ArrayReader<>(EventReader.readAllTags(), Event.class);
+
+    private final ArrayReader<Event> arrayReader;
+
+    public EventStreamContentReader() {
+        this(EventReader.readAllTags());
+    }
+
+    /**
+     * @param eventReader is the reader of events
+     */
+    public EventStreamContentReader(EventReader eventReader) {
+        this.arrayReader = new ArrayReader<>(eventReader, Event.class);
+    }
 
     @Override
     public EventStreamContent read(Decoder decoder) {
         return new EventStreamContent(
                 STATE_READER.read(decoder),
-                ARRAY_READER.read(decoder)
+                arrayReader.read(decoder)
         );
     }
 }
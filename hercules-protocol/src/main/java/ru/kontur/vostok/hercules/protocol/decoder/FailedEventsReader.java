@@ -0,0 +1,16 @@
+package ru.kontur.vostok.hercules.protocol.decoder;
+
+import ru.kontur.vostok.hercules.protocol.FailedEvents;
+
+/**
+ * Read indices of events written by {@link ru.kontur.vostok.hercules.protocol.encoder.FailedEventsWriter}
+ */
+public class FailedEventsReader implements Reader<FailedEvents> {
+
+    @Override
+    public FailedEvents read(Decoder decoder) {
+        int[] rejected = decoder.readIntegerVector();
+        int[] failed = decoder.readIntegerVector();
+        return new FailedEvents(rejected, failed);
+    }
+}
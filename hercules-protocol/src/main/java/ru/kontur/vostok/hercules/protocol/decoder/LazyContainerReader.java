@@ -0,0 +1,39 @@
+package ru.kontur.vostok.hercules.protocol.decoder;
+
+import ru.kontur.vostok.hercules.protocol.Container;
+
+/**
+ * Hercules Protocol Reader for container which decodes tag values on demand
+ * <p>
+ * Reader scans the encoded container once and records offsets of tag values.
+ * Tag value is decoded on the first access through {@link Container#get(String)} or on iteration.
+ * Resulting container references the source data and is NOT thread-safe.
+ */
+public class LazyContainerReader implements Reader<Container> {
+
+    public static final LazyContainerReader INSTANCE = new LazyContainerReader();
+
+    private static final VariantReader VARIANT_READER = VariantReader.INSTANCE;
+    private static final ContainerReader CONTAINER_READER = ContainerReader.INSTANCE;
+
+    private LazyContainerReader() {
+    }
+
+    @Override
+    public Container read(Decoder decoder) {
+        int size = decoder.readContainerSize();
+        String[] tagNames = new String[size];
+        int[] offsets = new int[size];
+        for (int i = 0; i < size; i++) {
+            tagNames[i] = decoder.readTinyString();
+            offsets[i] = decoder.position();
+            VARIANT_READER.skip(decoder);
+        }
+        return new Container(new LazyTagMap(decoder, tagNames, offsets));
+    }
+
+    @Override
+    public int skip(Decoder decoder) {
+        return CONTAINER_READER.skip(decoder);
+    }
+}
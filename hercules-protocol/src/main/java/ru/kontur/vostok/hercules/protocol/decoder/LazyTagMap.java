@@ -0,0 +1,128 @@
+package ru.kontur.vostok.hercules.protocol.decoder;
+
+import ru.kontur.vostok.hercules.protocol.Variant;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-only tag map over encoded container. Tag value is decoded on the first access and is cached then.
+ * <p>
+ * NOT thread-safe
+ */
+final class LazyTagMap extends AbstractMap<String, Variant> {
+
+    private static final VariantReader VARIANT_READER = VariantReader.INSTANCE;
+
+    private final Decoder source;
+    private final String[] tagNames;
+    private final int[] offsets;
+    private final Variant[] variants;
+
+    private Decoder decoder;
+
+    /**
+     * @param source   is the decoder over the data of container
+     * @param tagNames are names of tags in order of encoding
+     * @param offsets  are absolute offsets of tag values in the data
+     */
+    LazyTagMap(Decoder source, String[] tagNames, int[] offsets) {
+        this.source = source;
+        this.tagNames = tagNames;
+        this.offsets = offsets;
+        this.variants = new Variant[tagNames.length];
+    }
+
+    @Override
+    public Variant get(Object key) {
+        int index = indexOf(key);
+        return (index >= 0) ? variantAt(index) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return tagNames.length;
+    }
+
+    @Override
+    public Set<Entry<String, Variant>> entrySet() {
+        return new AbstractSet<Entry<String, Variant>>() {
+            @Override
+            public Iterator<Entry<String, Variant>> iterator() {
+                return new Iterator<Entry<String, Variant>>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < tagNames.length;
+                    }
+
+                    @Override
+                    public Entry<String, Variant> next() {
+                        if (index >= tagNames.length) {
+                            throw new NoSuchElementException();
+                        }
+                        Map.Entry<String, Variant> entry = new SimpleImmutableEntry<>(tagNames[index], variantAt(index));
+                        index++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return tagNames.length;
+            }
+        };
+    }
+
+    /**
+     * Walk over tags without creating entries
+     *
+     * @param action is the action to be performed for each tag
+     */
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Variant> action) {
+        for (int i = 0; i < tagNames.length; i++) {
+            action.accept(tagNames[i], variantAt(i));
+        }
+    }
+
+    /**
+     * Find index of the tag. Search from the end, thus the last of duplicated tags wins as it does for {@link java.util.HashMap}
+     *
+     * @param key is the tag name
+     * @return index of the tag or {@code -1} if tag is absent
+     */
+    private int indexOf(Object key) {
+        for (int i = tagNames.length - 1; i >= 0; i--) {
+            if (tagNames[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Variant variantAt(int index) {
+        Variant variant = variants[index];
+        if (variant == null) {
+            if (decoder == null) {
+                decoder = source.duplicate();
+            }
+            decoder.position(offsets[index]);
+            variant = VARIANT_READER.read(decoder);
+            variants[index] = variant;
+        }
+        return variant;
+    }
+}
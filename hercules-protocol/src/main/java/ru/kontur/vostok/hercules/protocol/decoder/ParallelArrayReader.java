@@ -0,0 +1,94 @@
+package ru.kontur.vostok.hercules.protocol.decoder;
+
+import java.lang.reflect.Array;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Hercules Protocol Reader for array which reads large arrays in parallel.
+ * <p>
+ * Reading consists of two phases. First, element boundaries are found by skipping elements with {@link Reader#skip(Decoder)}.
+ * Second, ranges of elements are read in parallel using fork-join pool.
+ * Small arrays are read sequentially in the caller thread.
+ *
+ * @param <T> Type of array element
+ */
+public class ParallelArrayReader<T> implements Reader<T[]> {
+    private final Reader<T> elementReader;
+    private final Class<T> clazz;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * @param elementReader is element reader, it should support {@link Reader#skip(Decoder)}
+     * @param clazz         is element class
+     * @param pool          is fork-join pool to read elements
+     * @param chunkSize     is the size in bytes of the range of elements read by single task
+     */
+    public ParallelArrayReader(Reader<T> elementReader, Class<T> clazz, ForkJoinPool pool, int chunkSize) {
+        this.elementReader = elementReader;
+        this.clazz = clazz;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T[] read(Decoder decoder) {
+        int count = decoder.readInteger();
+        int remaining = decoder.limit() - decoder.position();
+        if (count < 0 || count > remaining) {
+            throw new IllegalArgumentException("Invalid element count " + count);
+        }
+
+        T[] result = (T[]) Array.newInstance(clazz, count);
+        if (remaining <= chunkSize) {
+            for (int i = 0; i < count; i++) {
+                result[i] = elementReader.read(decoder);
+            }
+            return result;
+        }
+
+        int[] offsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = decoder.position();
+            elementReader.skip(decoder);
+        }
+        offsets[count] = decoder.position();
+
+        pool.invoke(new ReadTask(decoder.array(), offsets, result, 0, count));
+        return result;
+    }
+
+    private class ReadTask extends RecursiveAction {
+        private final byte[] data;
+        private final int[] offsets;
+        private final T[] result;
+        private final int from;
+        private final int to;
+
+        ReadTask(byte[] data, int[] offsets, T[] result, int from, int to) {
+            this.data = data;
+            this.offsets = offsets;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1 || offsets[to] - offsets[from] <= chunkSize) {
+                Decoder decoder = new Decoder(data, offsets[from], offsets[to] - offsets[from]);
+                for (int i = from; i < to; i++) {
+                    result[i] = elementReader.read(decoder);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new ReadTask(data, offsets, result, from, middle),
+                    new ReadTask(data, offsets, result, middle, to));
+        }
+    }
+}
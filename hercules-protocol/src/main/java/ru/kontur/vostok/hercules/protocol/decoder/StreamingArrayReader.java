@@ -0,0 +1,138 @@
+package ru.kontur.vostok.hercules.protocol.decoder;
+
+import ru.kontur.vostok.hercules.protocol.decoder.exceptions.InvalidDataException;
+
+import java.nio.BufferUnderflowException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Hercules Protocol Reader for array which is received in chunks.
+ * <p>
+ * Elements are passed to the consumer as soon as they are received completely, thus only incomplete tail of the array is buffered.
+ * Element boundaries are found by {@link Reader#skip(Decoder)}: the element is incomplete if skipping runs out of buffered bytes
+ * ({@link BufferUnderflowException}), any other error means the array is malformed. Each element is read from its own copy of bytes,
+ * so it remains valid after the buffer is reused.
+ * <p>
+ * Incomplete element is not re-scanned until the buffered tail is doubled, thus large elements which span many chunks
+ * are scanned the linear number of times.
+ * <p>
+ * NOT thread-safe
+ *
+ * @param <T> Type of array element
+ */
+public class StreamingArrayReader<T> {
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final Reader<T> elementReader;
+    private final Consumer<? super T> consumer;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int size;
+    private int nextAttemptSize;
+
+    private int total = -1;
+    private int count;
+
+    /**
+     * @param elementReader is element reader, it should support {@link Reader#skip(Decoder)}
+     * @param consumer      is consumer of read elements
+     */
+    public StreamingArrayReader(Reader<T> elementReader, Consumer<? super T> consumer) {
+        this.elementReader = elementReader;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Feed the next chunk of the array. Completely received elements are read and passed to the consumer.
+     *
+     * @param chunk the chunk of bytes
+     * @throws InvalidDataException if the array is malformed
+     */
+    public void feed(byte[] chunk) throws InvalidDataException {
+        feed(chunk, 0, chunk.length);
+    }
+
+    public void feed(byte[] chunk, int offset, int length) throws InvalidDataException {
+        if (isCompleted()) {
+            return;
+        }
+        append(chunk, offset, length);
+        if (size >= nextAttemptSize) {
+            readAvailable(false);
+        }
+    }
+
+    /**
+     * Finish reading when the last chunk is fed
+     *
+     * @throws InvalidDataException if the array is incomplete or malformed
+     */
+    public void finish() throws InvalidDataException {
+        readAvailable(true);
+        if (!isCompleted()) {
+            throw new InvalidDataException("Array is incomplete, expected " + total + " elements but got " + count);
+        }
+    }
+
+    /**
+     * @return count of read elements
+     */
+    public int count() {
+        return count;
+    }
+
+    private boolean isCompleted() {
+        return total >= 0 && count == total;
+    }
+
+    private void readAvailable(boolean last) throws InvalidDataException {
+        int position = 0;
+        if (total < 0) {
+            if (size < SizeOf.INTEGER) {
+                return;
+            }
+            total = new Decoder(buffer, 0, size).readInteger();
+            if (total < 0) {
+                throw new InvalidDataException("Invalid element count " + total);
+            }
+            position = SizeOf.INTEGER;
+        }
+
+        while (count < total) {
+            int length;
+            try {
+                length = elementReader.skip(new Decoder(buffer, position, size - position));
+            } catch (BufferUnderflowException ex) {
+                if (last) {
+                    throw new InvalidDataException("Cannot read element #" + count, ex);
+                }
+                break;
+            } catch (RuntimeException ex) {
+                throw new InvalidDataException("Cannot read element #" + count, ex);
+            }
+
+            T element;
+            try {
+                element = elementReader.read(new Decoder(Arrays.copyOfRange(buffer, position, position + length)));
+            } catch (RuntimeException ex) {
+                throw new InvalidDataException("Cannot read element #" + count, ex);
+            }
+            position += length;
+            count++;
+            consumer.accept(element);
+        }
+
+        size -= position;
+        System.arraycopy(buffer, position, buffer, 0, size);
+        nextAttemptSize = 2 * size;
+    }
+
+    private void append(byte[] chunk, int offset, int length) {
+        if (buffer.length - size < length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, size + length));
+        }
+        System.arraycopy(chunk, offset, buffer, size, length);
+        size += length;
+    }
+}
@@ -0,0 +1,94 @@
+package ru.kontur.vostok.hercules.protocol.decoder;
+
+import ru.kontur.vostok.hercules.protocol.Type;
+import ru.kontur.vostok.hercules.protocol.Variant;
+
+/**
+ * Bounded cache of string variants keyed by their UTF-8 bytes
+ * <p>
+ * Interner shares the same {@link Variant} between all occurrences of the string value,
+ * thus repeated low-cardinality values (e.g. project, environment or log level) are not allocated on each decoding.
+ * <p>
+ * Cache is direct-mapped: each value has the single slot which is replaced on collision,
+ * so memory footprint is bounded by {@code capacity} entries. Values longer than {@code maxLength} bytes are never interned.
+ * <p>
+ * Cache entries are immutable, thus interner is thread-safe: a race can only lead to the extra cache miss.
+ * Shared variants must not be modified.
+ */
+public class StringInterner {
+    private final Entry[] entries;
+    private final int mask;
+    private final int maxLength;
+
+    /**
+     * @param capacity  is the maximum count of cached values, is rounded up to the power of two
+     * @param maxLength is the maximum length in bytes of interned values
+     */
+    public StringInterner(int capacity, int maxLength) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity should be positive but got " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.entries = new Entry[size];
+        this.mask = size - 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Read string and return the shared variant if the same value has been read before
+     *
+     * @param decoder is the decoder positioned on the string length (type is already read)
+     * @return string variant
+     */
+    public Variant read(Decoder decoder) {
+        int length = decoder.readStringLength();
+        if (length > maxLength) {
+            return new Variant(Type.STRING, decoder.readBytes(length));
+        }
+
+        byte[] data = decoder.array();
+        int offset = decoder.position();
+
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + data[i];
+        }
+        int index = (hash ^ (hash >>> 16)) & mask;
+
+        Entry entry = entries[index];
+        if (entry != null && entry.matches(data, offset, length)) {
+            decoder.skip(length);
+            return entry.variant;
+        }
+
+        byte[] bytes = decoder.readBytes(length);
+        Variant variant = new Variant(Type.STRING, bytes);
+        entries[index] = new Entry(bytes, variant);
+        return variant;
+    }
+
+    private static final class Entry {
+        private final byte[] bytes;
+        private final Variant variant;
+
+        Entry(byte[] bytes, Variant variant) {
+            this.bytes = bytes;
+            this.variant = variant;
+        }
+
+        boolean matches(byte[] data, int offset, int length) {
+            if (bytes.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] != data[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
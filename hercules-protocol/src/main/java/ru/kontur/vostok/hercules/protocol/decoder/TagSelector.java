@@ -0,0 +1,80 @@
+package ru.kontur.vostok.hercules.protocol.decoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Selects tags by name without decoding tag names into strings
+ * <p>
+ * Selector is compiled once from the set of tag names. Names are grouped by the length of their UTF-8 representation,
+ * thus the encoded tag name is compared byte-by-byte only with names of the same length.
+ * Selector returns the preallocated tag name if tag is selected, so no strings are created on the decoding.
+ * <p>
+ * Selector is immutable and thread-safe.
+ */
+public class TagSelector {
+
+    private static final int MAX_TINY_STRING_LENGTH = 255;
+
+    private final byte[][][] bytesByLength = new byte[MAX_TINY_STRING_LENGTH + 1][][];
+    private final String[][] namesByLength = new String[MAX_TINY_STRING_LENGTH + 1][];
+    private final int size;
+
+    private TagSelector(Set<String> tags) {
+        this.size = tags.size();
+        for (String tag : tags) {
+            byte[] bytes = tag.getBytes(StandardCharsets.UTF_8);
+            int length = bytes.length;
+            if (length > MAX_TINY_STRING_LENGTH) {
+                continue; // Tag name cannot be encoded as tiny string, thus it is never met
+            }
+            bytesByLength[length] = append(bytesByLength[length], bytes, byte[][]::new);
+            namesByLength[length] = append(namesByLength[length], tag, String[]::new);
+        }
+    }
+
+    /**
+     * Read tiny string of tag name and test if tag is selected
+     *
+     * @param decoder is the decoder positioned on the tag name
+     * @return tag name if tag is selected or {@code null} otherwise
+     */
+    public String select(Decoder decoder) {
+        int length = decoder.readUnsignedByte();
+        byte[][] candidates = bytesByLength[length];
+        if (candidates != null) {
+            for (int i = 0; i < candidates.length; i++) {
+                if (decoder.matches(candidates[i])) {
+                    decoder.skip(length);
+                    return namesByLength[length][i];
+                }
+            }
+        }
+        decoder.skip(length);
+        return null;
+    }
+
+    /**
+     * @return count of selected tags
+     */
+    public int size() {
+        return size;
+    }
+
+    public static TagSelector of(Set<String> tags) {
+        return new TagSelector(tags);
+    }
+
+    private static <T> T[] append(T[] array, T element, IntFunction<T[]> generator) {
+        if (array == null) {
+            T[] result = generator.apply(1);
+            result[0] = element;
+            return result;
+        }
+        T[] result = generator.apply(array.length + 1);
+        System.arraycopy(array, 0, result, 0, array.length);
+        result[array.length] = element;
+        return result;
+    }
+}
@@ -15,7 +15,7 @@ public class VariantReader implements Reader<Variant> {
     private static final ContainerReader CONTAINER_READER = ContainerReader.INSTANCE;
     private static final ContainerVectorReader CONTAINER_VECTOR_READER = ContainerVectorReader.INSTANCE;
 
-    private static final ObjectReader[] TYPE_DECODERS = new ObjectReader[256];
+    private static final VariantDecoder[] TYPE_DECODERS = new VariantDecoder[256];
     private static final ObjectReader[] VECTOR_OF_TYPE_DECODERS = new ObjectReader[256];
     private static final ObjectSkipper[] TYPE_SKIPPERS = new ObjectSkipper[256];
     private static final ObjectSkipper[] VECTOR_OF_TYPE_SKIPPERS = new ObjectSkipper[256];
@@ -25,18 +25,18 @@ public class VariantReader implements Reader<Variant> {
             throw new IllegalArgumentException("Unknown type with code " + String.valueOf(idx));
         });
 
-        TYPE_DECODERS[Type.CONTAINER.code] = VariantReader::readContainer;
-        TYPE_DECODERS[Type.BYTE.code] = Decoder::readByte;
-        TYPE_DECODERS[Type.SHORT.code] = Decoder::readShort;
-        TYPE_DECODERS[Type.INTEGER.code] = Decoder::readInteger;
-        TYPE_DECODERS[Type.LONG.code] = Decoder::readLong;
-        TYPE_DECODERS[Type.FLAG.code] = Decoder::readFlag;
-        TYPE_DECODERS[Type.FLOAT.code] = Decoder::readFloat;
-        TYPE_DECODERS[Type.DOUBLE.code] = Decoder::readDouble;
-        TYPE_DECODERS[Type.STRING.code] = Decoder::readStringAsBytes;
-        TYPE_DECODERS[Type.UUID.code] = Decoder::readUuid;
-        TYPE_DECODERS[Type.NULL.code] = Decoder::readNull;
-        TYPE_DECODERS[Type.VECTOR.code] = VariantReader::readVector;
+        TYPE_DECODERS[Type.CONTAINER.code] = decoder -> Variant.ofContainer(readContainer(decoder));
+        TYPE_DECODERS[Type.BYTE.code] = decoder -> Variant.ofByte(decoder.readByte());
+        TYPE_DECODERS[Type.SHORT.code] = decoder -> Variant.ofShort(decoder.readShort());
+        TYPE_DECODERS[Type.INTEGER.code] = decoder -> Variant.ofInteger(decoder.readInteger());
+        TYPE_DECODERS[Type.LONG.code] = decoder -> Variant.ofLong(decoder.readLong());
+        TYPE_DECODERS[Type.FLAG.code] = decoder -> Variant.ofFlag(decoder.readFlag());
+        TYPE_DECODERS[Type.FLOAT.code] = decoder -> Variant.ofFloat(decoder.readFloat());
+        TYPE_DECODERS[Type.DOUBLE.code] = decoder -> Variant.ofDouble(decoder.readDouble());
+        TYPE_DECODERS[Type.STRING.code] = decoder -> new Variant(Type.STRING, decoder.readStringAsBytes());
+        TYPE_DECODERS[Type.UUID.code] = decoder -> Variant.ofUuid(decoder.readUuid());
+        TYPE_DECODERS[Type.NULL.code] = decoder -> Variant.ofNull();
+        TYPE_DECODERS[Type.VECTOR.code] = decoder -> Variant.ofVector(readVector(decoder));
     }
 
     static {
@@ -100,7 +100,7 @@ public class VariantReader implements Reader<Variant> {
         return Type.valueOf(decoder.readByte());
     }
 
-    private static Object readValue(Decoder decoder, Type type) {
+    private static Variant readVariant(Decoder decoder, Type type) {
         return TYPE_DECODERS[type.code].apply(decoder);
     }
 
@@ -157,8 +157,7 @@ public class VariantReader implements Reader<Variant> {
     @Override
     public Variant read(Decoder decoder) {
         Type type = readType(decoder);
-        Object value = readValue(decoder, type);
-        return new Variant(type, value);
+        return readVariant(decoder, type);
     }
 
     @Override
@@ -173,6 +172,9 @@ public class VariantReader implements Reader<Variant> {
     private interface ObjectReader extends Function<Decoder, Object> {
     }
 
+    private interface VariantDecoder extends Function<Decoder, Variant> {
+    }
+
     private interface ObjectSkipper extends ToIntFunction<Decoder> {
     }
 }
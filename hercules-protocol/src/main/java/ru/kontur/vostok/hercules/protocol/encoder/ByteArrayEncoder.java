@@ -0,0 +1,288 @@
+package ru.kontur.vostok.hercules.protocol.encoder;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Encoder writes data directly into growable byte array.
+ * <p>
+ * Encoder can be reused with {@link #reset()}, thus the same buffer is used to encode multiple values.
+ * Use {@link CountingEncoder#sizeOf(Writer, Object)} to allocate buffer of exact size in advance.
+ * <p>
+ * NOT thread-safe
+ */
+public class ByteArrayEncoder extends Encoder {
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private byte[] buffer;
+    private int position;
+
+    public ByteArrayEncoder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity is initial capacity of the buffer in bytes
+     */
+    public ByteArrayEncoder(int capacity) {
+        this(new byte[capacity]);
+    }
+
+    /**
+     * Encoder over the provided (e.g. pooled) buffer. The buffer is replaced with larger one if it has not enough space.
+     *
+     * @param buffer is initial buffer
+     */
+    public ByteArrayEncoder(byte[] buffer) {
+        super();
+        this.buffer = buffer;
+        this.position = 0;
+    }
+
+    @Override
+    public void writeByte(byte b) {
+        ensureCapacity(1);
+        buffer[position++] = b;
+    }
+
+    @Override
+    public void writeUnsignedByte(int b) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) b;
+    }
+
+    @Override
+    public void writeShort(short s) {
+        ensureCapacity(2);
+        putShort(s);
+    }
+
+    @Override
+    public void writeUnsignedShort(int s) {
+        ensureCapacity(2);
+        putShort(s);
+    }
+
+    @Override
+    public void writeInteger(int i) {
+        ensureCapacity(4);
+        putInt(i);
+    }
+
+    @Override
+    public void writeLong(long l) {
+        ensureCapacity(8);
+        putLong(l);
+    }
+
+    @Override
+    public void writeFlag(boolean flag) {
+        writeByte(flag ? (byte) 1 : (byte) 0);
+    }
+
+    @Override
+    public void writeFloat(float f) {
+        writeInteger(Float.floatToIntBits(f));
+    }
+
+    @Override
+    public void writeDouble(double d) {
+        writeLong(Double.doubleToLongBits(d));
+    }
+
+    @Override
+    public void writeString(String s) {
+        int length = Utf8.length(s);
+        ensureCapacity(4 + length);
+        putInt(length);
+        position = Utf8.encode(s, buffer, position);
+    }
+
+    @Override
+    public void writeBytesAsString(byte[] bytes) {
+        ensureCapacity(4 + bytes.length);
+        putInt(bytes.length);
+        putBytes(bytes);
+    }
+
+    @Override
+    public void writeUuid(UUID uuid) {
+        ensureCapacity(16);
+        putLong(uuid.getMostSignificantBits());
+        putLong(uuid.getLeastSignificantBits());
+    }
+
+    @Override
+    public void writeByteVector(byte[] vector) {
+        ensureCapacity(4 + vector.length);
+        putInt(vector.length);
+        putBytes(vector);
+    }
+
+    @Override
+    public void writeRawBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        putBytes(bytes);
+    }
+
+    @Override
+    public void writeRawBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    @Override
+    public void writeTinyString(String s) {
+        int length = Utf8.length(s);
+        if (length > 255) {
+            throw new IllegalArgumentException("Length of tiny string should be less or equal 255 but got " + length);
+        }
+        ensureCapacity(1 + length);
+        buffer[position++] = (byte) length;
+        position = Utf8.encode(s, buffer, position);
+    }
+
+    @Override
+    public void writeVarLen(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Cannot encode negative value: " + value);
+        }
+
+        int groups = 1;
+        while ((value >>> (7 * groups)) != 0 && groups < 5) {
+            groups++;
+        }
+        ensureCapacity(groups);
+        for (int shift = 7 * (groups - 1); shift > 0; shift -= 7) {
+            buffer[position++] = (byte) (((value >>> shift) & 0x7F) | 0x80);
+        }
+        buffer[position++] = (byte) (value & 0x7F);
+    }
+
+    /**
+     * Count of written bytes
+     *
+     * @return count of written bytes
+     */
+    public int size() {
+        return position;
+    }
+
+    /**
+     * Backing array. Only first {@link #size()} bytes are written.
+     * Array is exposed without copying, thus it is valid until the encoder is reset or written into.
+     *
+     * @return backing array
+     */
+    public byte[] array() {
+        return buffer;
+    }
+
+    /**
+     * Copy of written bytes
+     *
+     * @return copy of written bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Wrap written bytes without copying
+     *
+     * @return byte buffer over written bytes
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(buffer, 0, position);
+    }
+
+    /**
+     * Reset encoder to write from the beginning of the same buffer
+     */
+    public void reset() {
+        position = 0;
+    }
+
+    /**
+     * Discard bytes written after the specified size
+     *
+     * @param size is count of written bytes to keep
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > position) {
+            throw new IllegalArgumentException("Size should be in range [0, " + position + "] but got " + size);
+        }
+        position = size;
+    }
+
+    /**
+     * Overwrite unsigned short value at the specified position of already written bytes (e.g. to write size after the content)
+     *
+     * @param position is the position of value
+     * @param s        is the unsigned short value
+     */
+    public void writeUnsignedShortAt(int position, int s) {
+        checkWritten(position, 2);
+        buffer[position] = (byte) (s >>> 8);
+        buffer[position + 1] = (byte) s;
+    }
+
+    /**
+     * Overwrite integer value at the specified position of already written bytes (e.g. to write count after the content)
+     *
+     * @param position is the position of value
+     * @param i        is the integer value
+     */
+    public void writeIntegerAt(int position, int i) {
+        checkWritten(position, 4);
+        buffer[position] = (byte) (i >>> 24);
+        buffer[position + 1] = (byte) (i >>> 16);
+        buffer[position + 2] = (byte) (i >>> 8);
+        buffer[position + 3] = (byte) i;
+    }
+
+    private void ensureCapacity(int bytes) {
+        int required = position + bytes;
+        if (required < 0) {
+            throw new OutOfMemoryError("Required buffer size is too large");
+        }
+        if (required > buffer.length) {
+            int capacity = Math.max(buffer.length << 1, required);
+            if (capacity < 0) {
+                capacity = required;
+            }
+            buffer = Arrays.copyOf(buffer, capacity);
+        }
+    }
+
+    private void checkWritten(int position, int bytes) {
+        if (position < 0 || position + bytes > this.position) {
+            throw new IndexOutOfBoundsException("Position " + position + " is out of written bytes");
+        }
+    }
+
+    private void putShort(int s) {
+        buffer[position++] = (byte) (s >>> 8);
+        buffer[position++] = (byte) s;
+    }
+
+    private void putInt(int i) {
+        buffer[position++] = (byte) (i >>> 24);
+        buffer[position++] = (byte) (i >>> 16);
+        buffer[position++] = (byte) (i >>> 8);
+        buffer[position++] = (byte) i;
+    }
+
+    private void putLong(long l) {
+        putInt((int) (l >>> 32));
+        putInt((int) l);
+    }
+
+    private void putBytes(byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+}
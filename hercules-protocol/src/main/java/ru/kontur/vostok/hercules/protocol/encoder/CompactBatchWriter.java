@@ -0,0 +1,198 @@
+package ru.kontur.vostok.hercules.protocol.encoder;
+
+import ru.kontur.vostok.hercules.protocol.CommonConstants;
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.Type;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.SizeOf;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Write events as the compact batch (format v2):
+ * <pre>
+ * Batch     := Format(u8 = 2) DictionarySize(VarLen) TagName(TinyString)* Count(VarLen) Event*
+ * Event     := Version(u8) Timestamp(Long) Uuid Container
+ * Container := Size(VarLen) (TagIndex(VarLen) Variant)*
+ * Variant   := Type(u8) Value
+ * Value     := Container
+ *            | Byte | Flag | Float | Double | Uuid | (empty for Null)
+ *            | ZigZagVarLong                      (for Short, Integer and Long)
+ *            | Length(VarLen) Byte*               (for String)
+ *            | Type(u8) Length(VarLen) Value*     (for Vector)
+ * </pre>
+ * Tag names of all containers in the batch are written once into the dictionary,
+ * containers refer to them by index in the dictionary.
+ * <p>
+ * Events are transcoded from their binary representation, thus the batch is expanded to the same events
+ * by {@link ru.kontur.vostok.hercules.protocol.decoder.CompactBatchTranscoder}.
+ */
+public class CompactBatchWriter implements Writer<Event[]> {
+
+    public static final CompactBatchWriter INSTANCE = new CompactBatchWriter();
+
+    @Override
+    public void write(Encoder encoder, Event[] events) {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Event event : events) {
+            Decoder decoder = new Decoder(event.array());
+            decoder.position(event.getOffset() + SizeOf.BYTE + SizeOf.LONG + SizeOf.UUID);// Skip version, timestamp and uuid
+            collectContainer(decoder, dictionary);
+        }
+
+        encoder.writeUnsignedByte(CommonConstants.COMPACT_EVENT_BATCH_FORMAT);
+        encoder.writeVarLen(dictionary.size());
+        for (String tagName : dictionary.keySet()) {
+            encoder.writeTinyString(tagName);
+        }
+
+        encoder.writeVarLen(events.length);
+        for (Event event : events) {
+            Decoder decoder = new Decoder(event.array());
+            decoder.position(event.getOffset());
+
+            encoder.writeUnsignedByte(decoder.readUnsignedByte());
+            encoder.writeLong(decoder.readLong());
+            encoder.writeUuid(decoder.readUuid());
+            writeContainer(decoder, encoder, dictionary);
+        }
+    }
+
+    private static void collectContainer(Decoder decoder, Map<String, Integer> dictionary) {
+        int size = decoder.readContainerSize();
+        while (0 <= --size) {
+            dictionary.putIfAbsent(decoder.readTinyString(), dictionary.size());
+            collectValue(decoder, Type.valueOf(decoder.readByte()), dictionary);
+        }
+    }
+
+    private static void collectValue(Decoder decoder, Type type, Map<String, Integer> dictionary) {
+        switch (type) {
+            case CONTAINER:
+                collectContainer(decoder, dictionary);
+                break;
+            case VECTOR:
+                Type elementType = Type.valueOf(decoder.readByte());
+                int length = decoder.readVectorLength();
+                if (elementType == Type.CONTAINER || elementType == Type.VECTOR) {
+                    while (0 <= --length) {
+                        collectValue(decoder, elementType, dictionary);
+                    }
+                } else {
+                    skipValues(decoder, elementType, length);
+                }
+                break;
+            default:
+                skipValues(decoder, type, 1);
+        }
+    }
+
+    /**
+     * Skip values of primitive type or string
+     */
+    private static void skipValues(Decoder decoder, Type type, int count) {
+        switch (type) {
+            case BYTE:
+            case FLAG:
+                decoder.skip(count * SizeOf.BYTE);
+                break;
+            case SHORT:
+                decoder.skip(count * SizeOf.SHORT);
+                break;
+            case INTEGER:
+            case FLOAT:
+                decoder.skip(count * SizeOf.INTEGER);
+                break;
+            case LONG:
+            case DOUBLE:
+                decoder.skip(count * SizeOf.LONG);
+                break;
+            case UUID:
+                decoder.skip(count * SizeOf.UUID);
+                break;
+            case NULL:
+                break;
+            case STRING:
+                while (0 <= --count) {
+                    decoder.skipString();
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type with code " + type.code);
+        }
+    }
+
+    private static void writeContainer(Decoder decoder, Encoder encoder, Map<String, Integer> dictionary) {
+        int size = decoder.readContainerSize();
+        encoder.writeVarLen(size);
+        while (0 <= --size) {
+            encoder.writeVarLen(dictionary.get(decoder.readTinyString()));
+            Type type = Type.valueOf(decoder.readByte());
+            encoder.writeType(type);
+            writeValue(decoder, encoder, type, dictionary);
+        }
+    }
+
+    private static void writeValue(Decoder decoder, Encoder encoder, Type type, Map<String, Integer> dictionary) {
+        switch (type) {
+            case CONTAINER:
+                writeContainer(decoder, encoder, dictionary);
+                break;
+            case BYTE:
+            case FLAG:
+                encoder.writeByte(decoder.readByte());
+                break;
+            case SHORT:
+                encoder.writeZigZagVarLong(decoder.readShort());
+                break;
+            case INTEGER:
+                encoder.writeZigZagVarLong(decoder.readInteger());
+                break;
+            case LONG:
+                encoder.writeZigZagVarLong(decoder.readLong());
+                break;
+            case FLOAT:
+                encoder.writeInteger(decoder.readInteger());
+                break;
+            case DOUBLE:
+                encoder.writeLong(decoder.readLong());
+                break;
+            case STRING:
+                int length = decoder.readStringLength();
+                encoder.writeVarLen(length);
+                writeRawBytes(decoder, encoder, length);
+                break;
+            case UUID:
+                encoder.writeLong(decoder.readLong());
+                encoder.writeLong(decoder.readLong());
+                break;
+            case NULL:
+                break;
+            case VECTOR:
+                writeVector(decoder, encoder, dictionary);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type with code " + type.code);
+        }
+    }
+
+    private static void writeVector(Decoder decoder, Encoder encoder, Map<String, Integer> dictionary) {
+        Type type = Type.valueOf(decoder.readByte());
+        encoder.writeType(type);
+        int length = decoder.readVectorLength();
+        encoder.writeVarLen(length);
+        if (type == Type.BYTE || type == Type.FLAG) {
+            writeRawBytes(decoder, encoder, length);
+            return;
+        }
+        while (0 <= --length) {
+            writeValue(decoder, encoder, type, dictionary);
+        }
+    }
+
+    private static void writeRawBytes(Decoder decoder, Encoder encoder, int length) {
+        encoder.writeRawBytes(decoder.array(), decoder.position(), length);
+        decoder.skip(length);
+    }
+}
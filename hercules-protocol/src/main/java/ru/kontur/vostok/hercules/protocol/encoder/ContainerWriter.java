@@ -1,9 +1,6 @@
 package ru.kontur.vostok.hercules.protocol.encoder;
 
 import ru.kontur.vostok.hercules.protocol.Container;
-import ru.kontur.vostok.hercules.protocol.Variant;
-
-import java.util.Map;
 
 public class ContainerWriter implements Writer<Container> {
 
@@ -14,9 +11,9 @@ public class ContainerWriter implements Writer<Container> {
     @Override
     public void write(Encoder encoder, Container value) {
         encoder.writeContainerSize((short) value.size());
-        for (Map.Entry<String, Variant> entry : value) {
-            encoder.writeTinyString(entry.getKey());
-            VARIANT_WRITER.write(encoder, entry.getValue());
-        }
+        value.forEach((tagName, variant) -> {
+            encoder.writeTinyString(tagName);
+            VARIANT_WRITER.write(encoder, variant);
+        });
     }
 }
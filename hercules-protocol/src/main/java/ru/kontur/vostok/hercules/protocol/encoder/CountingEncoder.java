@@ -0,0 +1,143 @@
+package ru.kontur.vostok.hercules.protocol.encoder;
+
+import ru.kontur.vostok.hercules.protocol.decoder.SizeOf;
+
+import java.util.UUID;
+
+/**
+ * Encoder counts bytes would be written instead of writing them. Is used to compute exact size of encoded data.
+ * <p>
+ * NOT thread-safe
+ */
+public class CountingEncoder extends Encoder {
+
+    private int size;
+
+    public CountingEncoder() {
+        super();
+    }
+
+    @Override
+    public void writeByte(byte b) {
+        size += SizeOf.BYTE;
+    }
+
+    @Override
+    public void writeUnsignedByte(int b) {
+        size += SizeOf.BYTE;
+    }
+
+    @Override
+    public void writeShort(short s) {
+        size += SizeOf.SHORT;
+    }
+
+    @Override
+    public void writeUnsignedShort(int s) {
+        size += SizeOf.SHORT;
+    }
+
+    @Override
+    public void writeInteger(int i) {
+        size += SizeOf.INTEGER;
+    }
+
+    @Override
+    public void writeLong(long l) {
+        size += SizeOf.LONG;
+    }
+
+    @Override
+    public void writeFlag(boolean flag) {
+        size += SizeOf.FLAG;
+    }
+
+    @Override
+    public void writeFloat(float f) {
+        size += SizeOf.FLOAT;
+    }
+
+    @Override
+    public void writeDouble(double d) {
+        size += SizeOf.DOUBLE;
+    }
+
+    @Override
+    public void writeString(String s) {
+        size += SizeOf.INTEGER + Utf8.length(s);
+    }
+
+    @Override
+    public void writeBytesAsString(byte[] bytes) {
+        size += SizeOf.INTEGER + bytes.length;
+    }
+
+    @Override
+    public void writeUuid(UUID uuid) {
+        size += SizeOf.UUID;
+    }
+
+    @Override
+    public void writeByteVector(byte[] vector) {
+        size += SizeOf.INTEGER + vector.length;
+    }
+
+    @Override
+    public void writeRawBytes(byte[] bytes) {
+        size += bytes.length;
+    }
+
+    @Override
+    public void writeRawBytes(byte[] bytes, int offset, int length) {
+        size += length;
+    }
+
+    @Override
+    public void writeTinyString(String s) {
+        int length = Utf8.length(s);
+        if (length > 255) {
+            throw new IllegalArgumentException("Length of tiny string should be less or equal 255 but got " + length);
+        }
+        size += SizeOf.BYTE + length;
+    }
+
+    @Override
+    public void writeVarLen(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Cannot encode negative value: " + value);
+        }
+
+        int groups = 1;
+        while ((value >>> (7 * groups)) != 0 && groups < 5) {
+            groups++;
+        }
+        size += groups;
+    }
+
+    /**
+     * Count of bytes would be written
+     *
+     * @return count of bytes
+     */
+    public int size() {
+        return size;
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Compute exact size of encoded value
+     *
+     * @param writer is the writer of value
+     * @param value  is the value
+     * @param <T>    is the type of value
+     * @return size of encoded value in bytes
+     */
+    public static <T> int sizeOf(Writer<T> writer, T value) {
+        CountingEncoder encoder = new CountingEncoder();
+        writer.write(encoder, value);
+        return encoder.size();
+    }
+}
@@ -17,6 +17,16 @@ public class Encoder {
         this.stream = new DataOutputStream(stream);
     }
 
+    /**
+     * Constructor for encoders which write data without {@link OutputStream}.
+     * Such encoders should override all the methods which write to the stream.
+     *
+     * @see ByteArrayEncoder
+     */
+    protected Encoder() {
+        this.stream = null;
+    }
+
     public void writeByte(byte b) {
         try {
             stream.writeByte(b);
@@ -209,6 +219,14 @@ public class Encoder {
         }
     }
 
+    public void writeRawBytes(byte[] bytes, int offset, int length) {
+        try {
+            stream.write(bytes, offset, length);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /* --- Utility methods --- */
 
     /**
@@ -280,6 +298,31 @@ public class Encoder {
         }
     }
 
+    /**
+     * Write unsigned long value using 7-bit groups. Most significant group is written first as in {@link #writeVarLen(int)}
+     *
+     * @param value is unsigned long value
+     */
+    public void writeVarLong(long value) {
+        int groups = 1;
+        while (groups < 10 && (value >>> (7 * groups)) != 0) {
+            groups++;
+        }
+        for (int shift = 7 * (groups - 1); shift > 0; shift -= 7) {
+            writeByte((byte) (((value >>> shift) & 0x7F) | 0x80));
+        }
+        writeByte((byte) (value & 0x7F));
+    }
+
+    /**
+     * Write signed long value with ZigZag encoding, thus small absolute values take few bytes
+     *
+     * @param value is signed long value
+     */
+    public void writeZigZagVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
     public void writeVectorLength(int length) {
         writeInteger(length);
     }
@@ -6,6 +6,6 @@ public class EventWriter implements Writer<Event> {
 
     @Override
     public void write(Encoder encoder, Event event) {
-        encoder.writeRawBytes(event.getBytes());
+        encoder.writeRawBytes(event.array(), event.getOffset(), event.getSize());
     }
 }
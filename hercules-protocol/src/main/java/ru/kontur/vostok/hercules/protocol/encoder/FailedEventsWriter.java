@@ -0,0 +1,15 @@
+package ru.kontur.vostok.hercules.protocol.encoder;
+
+import ru.kontur.vostok.hercules.protocol.FailedEvents;
+
+/**
+ * Write indices of rejected events and indices of failed events as two vectors of integers
+ */
+public class FailedEventsWriter implements Writer<FailedEvents> {
+
+    @Override
+    public void write(Encoder encoder, FailedEvents failedEvents) {
+        encoder.writeIntegerVector(failedEvents.getRejected());
+        encoder.writeIntegerVector(failedEvents.getFailed());
+    }
+}
@@ -0,0 +1,77 @@
+package ru.kontur.vostok.hercules.protocol.encoder;
+
+/**
+ * UTF-8 encoding of strings without intermediate byte arrays.
+ * <p>
+ * Encoding is compatible with {@link String#getBytes(java.nio.charset.Charset)}: unpaired surrogate is replaced with {@code '?'}
+ */
+final class Utf8 {
+
+    private static final byte REPLACEMENT = (byte) '?';
+
+    /**
+     * Compute length of UTF-8 representation of the string
+     *
+     * @param s is the string
+     * @return length in bytes
+     */
+    static int length(String s) {
+        int length = s.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                bytes += 2; // 4 bytes for 2 chars
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate is replaced with 1 byte
+            } else {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Encode the string into the byte array. Array should have enough space
+     *
+     * @param s      is the string
+     * @param bytes  is the destination array
+     * @param offset is the offset in the destination array
+     * @return offset right after the last written byte
+     */
+    static int encode(String s, byte[] bytes, int offset) {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes[offset++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[offset++] = (byte) (0xC0 | (c >> 6));
+                bytes[offset++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                bytes[offset++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[offset++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[offset++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[offset++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                bytes[offset++] = REPLACEMENT;
+            } else {
+                bytes[offset++] = (byte) (0xE0 | (c >> 12));
+                bytes[offset++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[offset++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return offset;
+    }
+
+    private Utf8() {
+        /* static class */
+    }
+}
@@ -18,7 +18,7 @@ public class VariantWriter implements Writer<Variant> {
     public static final ContainerWriter CONTAINER_WRITER = ContainerWriter.INSTANCE;
     public static final ContainerVectorWriter CONTAINER_VECTOR_WRITER = ContainerVectorWriter.INSTANCE;
 
-    private static final ObjectWriter[] TYPE_WRITERS = new ObjectWriter[256];
+    private static final VariantValueWriter[] TYPE_WRITERS = new VariantValueWriter[256];
     private static final ObjectWriter[] VECTOR_OF_TYPE_WRITERS = new ObjectWriter[256];
 
     static {
@@ -37,7 +37,7 @@ public class VariantWriter implements Writer<Variant> {
         TYPE_WRITERS[Type.STRING.code] = VariantWriter::writeString;
         TYPE_WRITERS[Type.UUID.code] = VariantWriter::writeUuid;
         TYPE_WRITERS[Type.NULL.code] = VariantWriter::writeNull;
-        TYPE_WRITERS[Type.VECTOR.code] = VariantWriter::writeVector;
+        TYPE_WRITERS[Type.VECTOR.code] = (encoder, variant) -> writeVector(encoder, variant.getValue());
     }
 
     static {
@@ -59,48 +59,47 @@ public class VariantWriter implements Writer<Variant> {
         VECTOR_OF_TYPE_WRITERS[Type.VECTOR.code] = VariantWriter::writeVectorOfVectors;
     }
 
-    private static void writeContainer(Encoder encoder, Object value) {
-        Container container = (Container) value;
-        CONTAINER_WRITER.write(encoder, container);
+    private static void writeContainer(Encoder encoder, Variant variant) {
+        CONTAINER_WRITER.write(encoder, (Container) variant.getValue());
     }
 
-    private static void writeByte(Encoder encoder, Object value) {
-        encoder.writeByte((byte) value);
+    private static void writeByte(Encoder encoder, Variant variant) {
+        encoder.writeByte(variant.getByte());
     }
 
-    private static void writeShort(Encoder encoder, Object value) {
-        encoder.writeShort((short) value);
+    private static void writeShort(Encoder encoder, Variant variant) {
+        encoder.writeShort(variant.getShort());
     }
 
-    private static void writeInteger(Encoder encoder, Object value) {
-        encoder.writeInteger((int) value);
+    private static void writeInteger(Encoder encoder, Variant variant) {
+        encoder.writeInteger(variant.getInt());
     }
 
-    private static void writeLong(Encoder encoder, Object value) {
-        encoder.writeLong((long) value);
+    private static void writeLong(Encoder encoder, Variant variant) {
+        encoder.writeLong(variant.getLong());
     }
 
-    private static void writeFlag(Encoder encoder, Object value) {
-        encoder.writeFlag((boolean) value);
+    private static void writeFlag(Encoder encoder, Variant variant) {
+        encoder.writeFlag(variant.getFlag());
     }
 
-    private static void writeFloat(Encoder encoder, Object value) {
-        encoder.writeFloat((float) value);
+    private static void writeFloat(Encoder encoder, Variant variant) {
+        encoder.writeFloat(variant.getFloat());
     }
 
-    private static void writeDouble(Encoder encoder, Object value) {
-        encoder.writeDouble((double) value);
+    private static void writeDouble(Encoder encoder, Variant variant) {
+        encoder.writeDouble(variant.getDouble());
     }
 
-    private static void writeString(Encoder encoder, Object value) {
-        encoder.writeBytesAsString((byte[]) value);
+    private static void writeString(Encoder encoder, Variant variant) {
+        encoder.writeBytesAsString((byte[]) variant.getValue());
     }
 
-    private static void writeUuid(Encoder encoder, Object value) {
-        encoder.writeUuid((UUID) value);
+    private static void writeUuid(Encoder encoder, Variant variant) {
+        encoder.writeUuid((UUID) variant.getValue());
     }
 
-    private static void writeNull(Encoder encoder, Object value) {
+    private static void writeNull(Encoder encoder, Variant variant) {
         encoder.writeNull();
     }
 
@@ -174,9 +173,12 @@ public class VariantWriter implements Writer<Variant> {
     @Override
     public void write(Encoder encoder, Variant variant) {
         encoder.writeType(variant.getType());
-        TYPE_WRITERS[variant.getType().code].accept(encoder, variant.getValue());
+        TYPE_WRITERS[variant.getType().code].accept(encoder, variant);
     }
 
     private interface ObjectWriter extends BiConsumer<Encoder, Object> {
     }
+
+    private interface VariantValueWriter extends BiConsumer<Encoder, Variant> {
+    }
 }
@@ -28,7 +28,7 @@ public final class EventFormatter {
      * @return formatted event
      */
     public static String format(final Event event, final boolean pretty) {
-        final StringBuilder sb = new StringBuilder(event.getBytes().length * 2);
+        final StringBuilder sb = new StringBuilder(event.getSize() * 2);
 
         final String line = pretty ? System.lineSeparator() : "";
         final String separator = "," + line;
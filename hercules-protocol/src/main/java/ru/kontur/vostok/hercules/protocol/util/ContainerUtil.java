@@ -30,6 +30,35 @@ public class ContainerUtil {
         }
     }
 
+    /**
+     * Split the dotted tag path (e.g. {@code properties.project}) into tag names
+     *
+     * @param path the dotted tag path
+     * @return tag names
+     */
+    public static String[] splitPath(String path) {
+        return path.split("\\.");
+    }
+
+    /**
+     * Get value of the nested tag. Path is resolved the same way as it is projected by {@code ContainerReader}
+     *
+     * @param container the container
+     * @param path      tag names from the outer container to the nested tag, see {@link #splitPath(String)}
+     * @return value of the tag or {@code null} if the tag is absent or some outer tag is not container
+     */
+    public static Variant get(Container container, String[] path) {
+        int last = path.length - 1;
+        for (int i = 0; i < last; i++) {
+            Variant value = container.get(path[i]);
+            if (value == null || value.getType() != Type.CONTAINER) {
+                return null;
+            }
+            container = (Container) value.getValue();
+        }
+        return container.get(path[last]);
+    }
+
     private ContainerUtil() {
         /* static class */
     }
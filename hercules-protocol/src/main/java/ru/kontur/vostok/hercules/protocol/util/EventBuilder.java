@@ -3,10 +3,11 @@ package ru.kontur.vostok.hercules.protocol.util;
 import ru.kontur.vostok.hercules.protocol.Container;
 import ru.kontur.vostok.hercules.protocol.Event;
 import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.decoder.SizeOf;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
 import ru.kontur.vostok.hercules.protocol.encoder.ContainerWriter;
-import ru.kontur.vostok.hercules.protocol.encoder.Encoder;
+import ru.kontur.vostok.hercules.protocol.encoder.CountingEncoder;
 
-import java.io.ByteArrayOutputStream;
 import java.util.UUID;
 
 /**
@@ -102,17 +103,18 @@ public class EventBuilder {
             wasBuild = true;
         }
 
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        Encoder encoder = new Encoder(stream);
+        Container container = containerBuilder.build();
+
+        int size = SizeOf.BYTE + SizeOf.LONG + SizeOf.UUID + CountingEncoder.sizeOf(CONTAINER_WRITER, container);
+        ByteArrayEncoder encoder = new ByteArrayEncoder(size);
 
         encoder.writeUnsignedByte(version);
         encoder.writeLong(timestamp);
         encoder.writeUuid(random);
 
-        Container container = containerBuilder.build();
         CONTAINER_WRITER.write(encoder, container);
 
-        return new Event(stream.toByteArray(), version, timestamp, random, container);
+        return new Event(encoder.array(), version, timestamp, random, container);
     }
 
     public static EventBuilder create() {
@@ -0,0 +1,157 @@
+package ru.kontur.vostok.hercules.protocol.util;
+
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.EventReader;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+import ru.kontur.vostok.hercules.protocol.encoder.VariantWriter;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Event builder which writes tags directly into the buffer and can be reused for multiple events.
+ * <p>
+ * Unlike {@link EventBuilder}, no intermediate container is built. Events are appended one after another into the encoder,
+ * thus the builder can fill the batch buffer directly:
+ * <pre>{@code
+ * ByteArrayEncoder encoder = new ByteArrayEncoder();
+ * encoder.writeInteger(0);// Placeholder for count of events
+ * ReusableEventBuilder builder = new ReusableEventBuilder(encoder);
+ * builder.begin(timestamp, random).tag("message", Variant.ofString("text")).end();
+ * ...
+ * encoder.writeIntegerAt(0, builder.count());
+ * }</pre>
+ * Since tags are written as is, the same tag should not be written twice into the event.
+ * <p>
+ * NOT thread-safe
+ */
+public class ReusableEventBuilder {
+
+    private static final int MAX_CONTAINER_SIZE = 0xFFFF;
+    private static final int VERSION = 1;
+
+    private static final VariantWriter VARIANT_WRITER = VariantWriter.INSTANCE;
+    private static final EventReader LAZY_EVENT_READER = EventReader.readLazily();
+
+    private final ByteArrayEncoder encoder;
+    private final int initialSize;
+
+    private int eventOffset = -1;
+    private int containerSizeOffset;
+    private int tagCount;
+    private int count;
+
+    public ReusableEventBuilder() {
+        this(new ByteArrayEncoder());
+    }
+
+    /**
+     * @param encoder is the encoder to append events into, already written bytes are kept untouched
+     */
+    public ReusableEventBuilder(ByteArrayEncoder encoder) {
+        this.encoder = encoder;
+        this.initialSize = encoder.size();
+    }
+
+    /**
+     * Begin the new event
+     *
+     * @param timestamp is the event timestamp
+     * @param random    is the event random
+     * @return this builder
+     */
+    public ReusableEventBuilder begin(long timestamp, UUID random) {
+        if (eventOffset >= 0) {
+            throw new IllegalStateException("Previous event is not ended");
+        }
+        eventOffset = encoder.size();
+        encoder.writeUnsignedByte(VERSION);
+        encoder.writeLong(timestamp);
+        encoder.writeUuid(random);
+        containerSizeOffset = encoder.size();
+        encoder.writeContainerSize(0);
+        tagCount = 0;
+        return this;
+    }
+
+    public ReusableEventBuilder tag(String key, Variant value) {
+        if (eventOffset < 0) {
+            throw new IllegalStateException("Event is not begun");
+        }
+        if (tagCount == MAX_CONTAINER_SIZE) {
+            throw new IllegalStateException("Event cannot contain more than " + MAX_CONTAINER_SIZE + " tags");
+        }
+        encoder.writeTinyString(key);
+        VARIANT_WRITER.write(encoder, value);
+        tagCount++;
+        return this;
+    }
+
+    public <T> ReusableEventBuilder tag(TagDescription<T> tag, Variant value) {
+        if (!tag.getExtractors().containsKey(value.getType())) {
+            throw new IllegalArgumentException(
+                    String.format("Value type mismatch, expected one of %s, actual: %s", tag.getExtractors().keySet(), value.getType())
+            );
+        }
+        return tag(tag.getName(), value);
+    }
+
+    /**
+     * End the event. Event remains in the encoder.
+     *
+     * @return size of the event in bytes
+     */
+    public int end() {
+        if (eventOffset < 0) {
+            throw new IllegalStateException("Event is not begun");
+        }
+        encoder.writeUnsignedShortAt(containerSizeOffset, tagCount);
+        int size = encoder.size() - eventOffset;
+        eventOffset = -1;
+        count++;
+        return size;
+    }
+
+    /**
+     * End the event and take it from the encoder. Event is copied, thus it remains valid after the builder is reused.
+     * Payload of the event is decoded lazily.
+     *
+     * @return built event
+     */
+    public Event build() {
+        int offset = eventOffset;
+        int size = end();
+        byte[] bytes = Arrays.copyOfRange(encoder.array(), offset, offset + size);
+        encoder.truncate(offset);
+        count--;
+        return LAZY_EVENT_READER.read(new Decoder(bytes));
+    }
+
+    /**
+     * Discard all events appended by the builder, thus the encoder is reused for new events
+     *
+     * @return this builder
+     */
+    public ReusableEventBuilder reset() {
+        encoder.truncate(initialSize);
+        eventOffset = -1;
+        count = 0;
+        return this;
+    }
+
+    /**
+     * @return count of ended events in the encoder
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return encoder which events are appended into
+     */
+    public ByteArrayEncoder encoder() {
+        return encoder;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.kontur.vostok.hercules.protocol.util;
+
+import ru.kontur.vostok.hercules.protocol.Container;
+import ru.kontur.vostok.hercules.protocol.Type;
+import ru.kontur.vostok.hercules.protocol.Variant;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Accessor to the tag value which is compiled from {@link TagDescription}
+ * <p>
+ * Unlike {@link ContainerUtil#extract(Container, TagDescription)}, accessor neither wraps values into {@link java.util.Optional}
+ * nor boxes primitives: absent tag is replaced with the default value provided by the caller.
+ * Accepted types are checked against the table indexed by type code, so no map lookup is needed.
+ * <p>
+ * Accessor reads the raw tag value, thus converters of the tag description (e.g. enum parsing) are not applied.
+ */
+public final class TagAccessor {
+    private final String name;
+    private final boolean[] acceptedTypes = new boolean[256];
+
+    TagAccessor(String name, Set<Type> types) {
+        this.name = name;
+        for (Type type : types) {
+            if (type != null) {
+                acceptedTypes[type.code] = true;
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param container the container
+     * @return {@code true} if container has the tag, otherwise {@code false}
+     * @throws IllegalArgumentException if the tag has unexpected type
+     */
+    public boolean isPresent(Container container) {
+        return get(container) != null;
+    }
+
+    /**
+     * @param container the container
+     * @return variant of the tag or {@code null} if container has no tag
+     * @throws IllegalArgumentException if the tag has unexpected type
+     */
+    public Variant get(Container container) {
+        Variant variant = container.get(name);
+        if (variant != null && !acceptedTypes[variant.getType().code]) {
+            throw new IllegalArgumentException(String.format("Tag '%s' cannot contain value of type '%s'", name, variant.getType()));
+        }
+        return variant;
+    }
+
+    public String getString(Container container, String defaultValue) {
+        Variant variant = get(container);
+        return (variant != null) ? new String((byte[]) variant.getValue(), StandardCharsets.UTF_8) : defaultValue;
+    }
+
+    public Container getContainer(Container container, Container defaultValue) {
+        Variant variant = get(container);
+        return (variant != null) ? (Container) variant.getValue() : defaultValue;
+    }
+
+    public UUID getUuid(Container container, UUID defaultValue) {
+        Variant variant = get(container);
+        return (variant != null) ? (UUID) variant.getValue() : defaultValue;
+    }
+
+    public int getInt(Container container, int defaultValue) {
+        Variant variant = get(container);
+        return (variant != null) ? variant.getInt() : defaultValue;
+    }
+
+    public long getLong(Container container, long defaultValue) {
+        Variant variant = get(container);
+        return (variant != null) ? variant.getLong() : defaultValue;
+    }
+
+    public double getDouble(Container container, double defaultValue) {
+        Variant variant = get(container);
+        return (variant != null) ? variant.getDouble() : defaultValue;
+    }
+
+    public boolean getFlag(Container container, boolean defaultValue) {
+        Variant variant = get(container);
+        return (variant != null) ? variant.getFlag() : defaultValue;
+    }
+}
@@ -15,10 +15,12 @@ public class TagDescription<T> {
 
     private final String name;
     private final Map<Type, Function<Object, ? extends T>> extractors;
+    private final TagAccessor accessor;
 
     public TagDescription(String name, Map<Type, Function<Object, ? extends T>> extractors) {
         this.name = name;
         this.extractors = Collections.unmodifiableMap(extractors);
+        this.accessor = new TagAccessor(name, extractors.keySet());
     }
 
     public String getName() {
@@ -28,4 +30,15 @@ public class TagDescription<T> {
     public Map<Type, Function<Object, ? extends T>> getExtractors() {
         return extractors;
     }
+
+    /**
+     * Accessor is untyped: it checks the tag type only and reads the raw value,
+     * so the caller chooses the getter which matches the tag type.
+     * Extractors of the tag description (e.g. default values or enum parsing) are not applied.
+     *
+     * @return accessor to the tag value
+     */
+    public TagAccessor accessor() {
+        return accessor;
+    }
 }
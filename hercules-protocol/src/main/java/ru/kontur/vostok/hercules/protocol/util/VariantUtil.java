@@ -18,10 +18,13 @@ public final class VariantUtil {
             case SHORT:
             case INTEGER:
             case LONG:
+                return Optional.of(String.valueOf(variant.getLong()));
             case FLAG:
+                return Optional.of(String.valueOf(variant.getFlag()));
             case FLOAT:
+                return Optional.of(String.valueOf(variant.getFloat()));
             case DOUBLE:
-                return Optional.of(String.valueOf(variant.getValue()));
+                return Optional.of(String.valueOf(variant.getDouble()));
             case STRING:
                 return Optional.of(new String((byte[]) variant.getValue(), StandardCharsets.UTF_8));
             default:
@@ -0,0 +1,210 @@
+package ru.kontur.vostok.hercules.protocol;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.kontur.vostok.hercules.protocol.decoder.ArrayReader;
+import ru.kontur.vostok.hercules.protocol.decoder.CompactBatchTranscoder;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.EventReader;
+import ru.kontur.vostok.hercules.protocol.decoder.exceptions.InvalidDataException;
+import ru.kontur.vostok.hercules.protocol.encoder.ArrayWriter;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+import ru.kontur.vostok.hercules.protocol.encoder.CompactBatchWriter;
+import ru.kontur.vostok.hercules.protocol.encoder.EventWriter;
+import ru.kontur.vostok.hercules.protocol.util.ContainerBuilder;
+import ru.kontur.vostok.hercules.protocol.util.EventBuilder;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public class CompactBatchWriteReadTest {
+    private static final CompactBatchTranscoder TRANSCODER = new CompactBatchTranscoder(64 * 1024);
+    /**
+     * Overflowed variable-length value, it is decoded as {@code -1}
+     */
+    private static final byte[] NEGATIVE_VAR_LEN = new byte[]{(byte) 0x8F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F};
+
+    @Test
+    public void shouldExpandCompactBatchToSameEvents() throws InvalidDataException {
+        Container inner = ContainerBuilder.create()
+                .tag("project", Variant.ofString("hercules"))
+                .tag("int", Variant.ofInteger(Integer.MIN_VALUE))
+                .build();
+        Event first = EventBuilder.create(123_456_789L, UUID.randomUUID())
+                .tag("byte", Variant.ofByte((byte) -1))
+                .tag("short", Variant.ofShort(Short.MIN_VALUE))
+                .tag("int", Variant.ofInteger(-42))
+                .tag("long", Variant.ofLong(Long.MAX_VALUE))
+                .tag("flag", Variant.ofFlag(true))
+                .tag("float", Variant.ofFloat(1.5f))
+                .tag("double", Variant.ofDouble(-0.25))
+                .tag("string", Variant.ofString("Abc ЕЁЮ"))
+                .tag("uuid", Variant.ofUuid(UUID.randomUUID()))
+                .tag("null", Variant.ofNull())
+                .tag("properties", Variant.ofContainer(inner))
+                .build();
+        Event second = EventBuilder.create(987_654_321L, UUID.randomUUID())
+                .tag("int", Variant.ofInteger(7))
+                .tag("bytes", Variant.ofVector(Vector.ofBytes((byte) 1, (byte) 2)))
+                .tag("longs", Variant.ofVector(Vector.ofLongs(0L, -1L, Long.MIN_VALUE)))
+                .tag("strings", Variant.ofVector(Vector.ofStrings("a", "бв")))
+                .tag("containers", Variant.ofVector(Vector.ofContainers(inner, inner)))
+                .tag("vectors", Variant.ofVector(Vector.ofVectors(
+                        Vector.ofContainers(inner),
+                        Vector.ofFlags(true, false),
+                        Vector.ofNulls(null, null))))
+                .build();
+        Event[] events = new Event[]{first, second};
+
+        ByteArrayEncoder compactEncoder = new ByteArrayEncoder();
+        CompactBatchWriter.INSTANCE.write(compactEncoder, events);
+
+        byte[] transcoded = TRANSCODER.transcode(new Decoder(compactEncoder.toByteArray()));
+        Event[] expanded = new ArrayReader<>(EventReader.readAllTags(), Event.class).read(new Decoder(transcoded));
+
+        Assert.assertEquals(events.length, expanded.length);
+        for (int i = 0; i < events.length; i++) {
+            HerculesProtocolAssert.assertEquals(events[i], expanded[i]);
+        }
+
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        new ArrayWriter<>(new EventWriter()).write(encoder, events);
+        Assert.assertArrayEquals(encoder.toByteArray(), transcoded);
+    }
+
+    @Test
+    public void shouldWriteRepeatedTagNamesOnce() {
+        Event[] events = new Event[100];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = EventBuilder.create(123_456_789L, UUID.randomUUID())
+                    .tag("message", Variant.ofString("Message"))
+                    .tag("level", Variant.ofString("INFO"))
+                    .tag("count", Variant.ofLong(i))
+                    .build();
+        }
+
+        ByteArrayEncoder compactEncoder = new ByteArrayEncoder();
+        CompactBatchWriter.INSTANCE.write(compactEncoder, events);
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        new ArrayWriter<>(new EventWriter()).write(encoder, events);
+
+        // Compact event takes 47 bytes at most instead of 77 bytes
+        Assert.assertTrue(compactEncoder.size() < encoder.size() * 2 / 3);
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void shouldFailOnUnknownTagIndex() throws InvalidDataException {
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        encoder.writeUnsignedByte(CommonConstants.COMPACT_EVENT_BATCH_FORMAT);
+        encoder.writeVarLen(0);// Empty dictionary
+        encoder.writeVarLen(1);
+        encoder.writeUnsignedByte(1);
+        encoder.writeLong(0L);
+        encoder.writeUuid(UUID.randomUUID());
+        encoder.writeVarLen(1);
+        encoder.writeVarLen(0);// Tag index is out of dictionary
+
+        TRANSCODER.transcode(new Decoder(encoder.toByteArray()));
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void shouldFailOnUnsupportedFormat() throws InvalidDataException {
+        TRANSCODER.transcode(new Decoder(new byte[]{1, 0, 0}));
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void shouldFailOnTooLargeDictionary() throws InvalidDataException {
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        encoder.writeUnsignedByte(CommonConstants.COMPACT_EVENT_BATCH_FORMAT);
+        encoder.writeVarLen(Integer.MAX_VALUE);
+
+        TRANSCODER.transcode(new Decoder(encoder.toByteArray()));
+    }
+
+    @Test
+    public void shouldFailOnNegativeVarLen() {
+        assertInvalid(encoder -> encoder.writeRawBytes(NEGATIVE_VAR_LEN));// Dictionary size
+        assertInvalid(encoder -> {
+            encoder.writeVarLen(0);
+            encoder.writeRawBytes(NEGATIVE_VAR_LEN);// Event count
+        });
+        assertInvalid(encoder -> {
+            writeEventHeader(encoder);
+            encoder.writeRawBytes(NEGATIVE_VAR_LEN);// Container size
+        });
+        assertInvalid(encoder -> {
+            writeEventHeader(encoder);
+            encoder.writeVarLen(1);
+            encoder.writeRawBytes(NEGATIVE_VAR_LEN);// Tag index
+        });
+        assertInvalid(encoder -> {
+            writeEventHeader(encoder);
+            encoder.writeVarLen(1);
+            encoder.writeVarLen(0);
+            encoder.writeType(Type.STRING);
+            encoder.writeRawBytes(NEGATIVE_VAR_LEN);// String length
+        });
+        assertInvalid(encoder -> {
+            writeEventHeader(encoder);
+            encoder.writeVarLen(1);
+            encoder.writeVarLen(0);
+            encoder.writeType(Type.VECTOR);
+            encoder.writeType(Type.INTEGER);
+            encoder.writeRawBytes(NEGATIVE_VAR_LEN);// Vector length
+        });
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void shouldFailIfExpandedBatchExceedsMaxSize() throws InvalidDataException {
+        StringBuilder longTagName = new StringBuilder();
+        for (int i = 0; i < 255; i++) {
+            longTagName.append('a');
+        }
+
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        encoder.writeUnsignedByte(CommonConstants.COMPACT_EVENT_BATCH_FORMAT);
+        encoder.writeVarLen(1);
+        encoder.writeTinyString(longTagName.toString());
+        encoder.writeVarLen(1);
+        encoder.writeUnsignedByte(1);
+        encoder.writeLong(0L);
+        encoder.writeUuid(UUID.randomUUID());
+        encoder.writeVarLen(1);
+        encoder.writeVarLen(0);
+        encoder.writeType(Type.VECTOR);
+        encoder.writeType(Type.CONTAINER);
+        encoder.writeVarLen(1_000);
+        for (int i = 0; i < 1_000; i++) {
+            // Each 3-byte container is expanded into 261 bytes
+            encoder.writeVarLen(1);
+            encoder.writeVarLen(0);
+            encoder.writeType(Type.NULL);
+        }
+
+        TRANSCODER.transcode(new Decoder(encoder.toByteArray()));
+    }
+
+    /**
+     * Write format, dictionary with the single tag and the single event without tags
+     */
+    private static void writeEventHeader(ByteArrayEncoder encoder) {
+        encoder.writeVarLen(1);
+        encoder.writeTinyString("tag");
+        encoder.writeVarLen(1);
+        encoder.writeUnsignedByte(1);
+        encoder.writeLong(0L);
+        encoder.writeUuid(UUID.randomUUID());
+    }
+
+    private static void assertInvalid(Consumer<ByteArrayEncoder> body) {
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        encoder.writeUnsignedByte(CommonConstants.COMPACT_EVENT_BATCH_FORMAT);
+        body.accept(encoder);
+        try {
+            TRANSCODER.transcode(new Decoder(encoder.toByteArray()));
+            Assert.fail("InvalidDataException is expected");
+        } catch (InvalidDataException ignored) {
+            /* expected */
+        }
+    }
+}
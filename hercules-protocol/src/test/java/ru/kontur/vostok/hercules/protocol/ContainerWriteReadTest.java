@@ -1,12 +1,22 @@
 package ru.kontur.vostok.hercules.protocol;
 
+import org.junit.Assert;
 import org.junit.Test;
 import ru.kontur.vostok.hercules.protocol.decoder.ContainerReader;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.LazyContainerReader;
+import ru.kontur.vostok.hercules.protocol.decoder.StringInterner;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
 import ru.kontur.vostok.hercules.protocol.encoder.ContainerWriter;
+import ru.kontur.vostok.hercules.protocol.encoder.VariantWriter;
+import ru.kontur.vostok.hercules.protocol.util.ContainerUtil;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 public class ContainerWriteReadTest {
 
@@ -64,4 +74,158 @@ public class ContainerWriteReadTest {
 
         pipe.process(container).assertEquals(HerculesProtocolAssert::assertEquals);
     }
+
+    @Test
+    public void shouldReadLazily() throws Exception {
+        Map<String, Variant> innerVariantMap = new HashMap<>();
+        innerVariantMap.put("first", Variant.ofInteger(1));
+        innerVariantMap.put("second", Variant.ofVector(Vector.ofStrings(new String[]{"a", "b", "c"})));
+        Container innerContainer = new Container(innerVariantMap);
+
+        Map<String, Variant> variantMap = new HashMap<>();
+        variantMap.put("inner", Variant.ofContainer(innerContainer));
+        variantMap.put("text-sample", Variant.ofString("Abc еёю"));
+        variantMap.put("long-sample", Variant.ofLong(123L));
+        Container container = new Container(variantMap);
+
+        WriteReadPipe<Container> lazyPipe = WriteReadPipe.init(new ContainerWriter(), LazyContainerReader.INSTANCE);
+        Container processed = lazyPipe.process(container).getProcessed();
+
+        Assert.assertEquals(3, processed.size());
+        HerculesProtocolAssert.assertEquals(Variant.ofLong(123L), processed.get("long-sample"));
+        Assert.assertSame(processed.get("long-sample"), processed.get("long-sample"));
+        Assert.assertNull(processed.get("absent"));
+        HerculesProtocolAssert.assertEquals(container, processed);
+    }
+
+    @Test
+    public void shouldReadNestedTagsByPaths() throws Exception {
+        Map<String, Variant> deepVariantMap = new HashMap<>();
+        deepVariantMap.put("keep", Variant.ofInteger(1));
+        deepVariantMap.put("skip", Variant.ofInteger(2));
+
+        Map<String, Variant> innerVariantMap = new HashMap<>();
+        innerVariantMap.put("project", Variant.ofString("hercules"));
+        innerVariantMap.put("environment", Variant.ofString("production"));
+        innerVariantMap.put("deep", Variant.ofContainer(new Container(deepVariantMap)));
+
+        Map<String, Variant> variantMap = new HashMap<>();
+        variantMap.put("properties", Variant.ofContainer(new Container(innerVariantMap)));
+        variantMap.put("whole", Variant.ofContainer(new Container(deepVariantMap)));
+        variantMap.put("scalar", Variant.ofInteger(42));
+        variantMap.put("skip", Variant.ofInteger(0));
+        Container container = new Container(variantMap);
+
+        WriteReadPipe<Container> projectionPipe = WriteReadPipe.init(
+                new ContainerWriter(),
+                ContainerReader.readTags(new HashSet<>(Arrays.asList(
+                        "properties.project",
+                        "properties.deep.keep",
+                        "properties.absent",
+                        "whole",
+                        "whole.keep",
+                        "scalar.nested"))));
+        Container processed = projectionPipe.process(container).getProcessed();
+
+        Map<String, Variant> expectedDeep = Collections.singletonMap("keep", Variant.ofInteger(1));
+        Map<String, Variant> expectedInner = new HashMap<>();
+        expectedInner.put("project", Variant.ofString("hercules"));
+        expectedInner.put("deep", Variant.ofContainer(new Container(expectedDeep)));
+        Map<String, Variant> expected = new HashMap<>();
+        expected.put("properties", Variant.ofContainer(new Container(expectedInner)));
+        expected.put("whole", Variant.ofContainer(new Container(deepVariantMap)));
+        expected.put("scalar", Variant.ofInteger(42));
+
+        HerculesProtocolAssert.assertEquals(new Container(expected), processed);
+    }
+
+    @Test
+    public void shouldGetProjectedTagsByPaths() throws Exception {
+        Map<String, Variant> innerVariantMap = new HashMap<>();
+        innerVariantMap.put("project", Variant.ofString("hercules"));
+        innerVariantMap.put("environment", Variant.ofString("production"));
+
+        Map<String, Variant> variantMap = new HashMap<>();
+        variantMap.put("properties", Variant.ofContainer(new Container(innerVariantMap)));
+        variantMap.put("scalar", Variant.ofInteger(42));
+        Container container = new Container(variantMap);
+
+        WriteReadPipe<Container> projectionPipe = WriteReadPipe.init(
+                new ContainerWriter(),
+                ContainerReader.readTags(new HashSet<>(Arrays.asList("properties.project", "scalar.nested"))));
+        Container processed = projectionPipe.process(container).getProcessed();
+
+        HerculesProtocolAssert.assertEquals(
+                Variant.ofString("hercules"),
+                ContainerUtil.get(processed, ContainerUtil.splitPath("properties.project")));
+        Assert.assertNull(ContainerUtil.get(processed, ContainerUtil.splitPath("properties.environment")));
+        Assert.assertNull(ContainerUtil.get(processed, ContainerUtil.splitPath("scalar.nested")));
+        HerculesProtocolAssert.assertEquals(Variant.ofInteger(42), ContainerUtil.get(processed, ContainerUtil.splitPath("scalar")));
+    }
+
+    @Test
+    public void shouldReadSmallContainer() throws Exception {
+        Map<String, Variant> variantMap = new HashMap<>();
+        variantMap.put("int-sample", Variant.ofInteger(123));
+        variantMap.put("text-sample", Variant.ofString("Abc еёю"));
+        variantMap.put("null-sample", Variant.ofNull());
+        Container container = new Container(variantMap);
+
+        Container processed = pipe.process(container).getProcessed();
+
+        Assert.assertEquals(3, processed.size());
+        Assert.assertNull(processed.get("absent"));
+        Set<String> tagNames = new HashSet<>();
+        for (Map.Entry<String, Variant> tag : processed) {
+            tagNames.add(tag.getKey());
+            HerculesProtocolAssert.assertEquals(variantMap.get(tag.getKey()), tag.getValue());
+        }
+        Assert.assertEquals(variantMap.keySet(), tagNames);
+        HerculesProtocolAssert.assertEquals(container, processed);
+    }
+
+    @Test
+    public void shouldKeepLastOfDuplicatedTags() throws Exception {
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        encoder.writeContainerSize(2);
+        encoder.writeTinyString("tag");
+        VariantWriter.INSTANCE.write(encoder, Variant.ofInteger(1));
+        encoder.writeTinyString("tag");
+        VariantWriter.INSTANCE.write(encoder, Variant.ofInteger(2));
+
+        Container processed = ContainerReader.readAllTags().read(new Decoder(encoder.toByteArray()));
+
+        Assert.assertEquals(1, processed.size());
+        HerculesProtocolAssert.assertEquals(Variant.ofInteger(2), processed.get("tag"));
+    }
+
+    @Test
+    public void shouldInternStringValues() throws Exception {
+        Map<String, Variant> innerVariantMap = new HashMap<>();
+        innerVariantMap.put("project", Variant.ofString("hercules"));
+        innerVariantMap.put("host", Variant.ofString("localhost"));
+
+        Map<String, Variant> variantMap = new HashMap<>();
+        variantMap.put("properties", Variant.ofContainer(new Container(innerVariantMap)));
+        variantMap.put("level", Variant.ofString("INFO"));
+        variantMap.put("message", Variant.ofString("INFO"));
+        variantMap.put("code", Variant.ofInteger(42));
+        Container container = new Container(variantMap);
+
+        ContainerReader reader = ContainerReader.readAllTags().interning(
+                new HashSet<>(Arrays.asList("level", "code", "properties.project")),
+                new StringInterner(16, 64));
+        WriteReadPipe<Container> interningPipe = WriteReadPipe.init(new ContainerWriter(), reader);
+        Container first = interningPipe.process(container).getProcessed();
+        Container second = interningPipe.process(container).getProcessed();
+
+        HerculesProtocolAssert.assertEquals(container, first);
+        HerculesProtocolAssert.assertEquals(container, second);
+        Assert.assertSame(first.get("level"), second.get("level"));
+        Assert.assertNotSame(first.get("message"), second.get("message"));
+        Container firstProperties = (Container) first.get("properties").getValue();
+        Container secondProperties = (Container) second.get("properties").getValue();
+        Assert.assertSame(firstProperties.get("project"), secondProperties.get("project"));
+        Assert.assertNotSame(firstProperties.get("host"), secondProperties.get("host"));
+    }
 }
@@ -2,12 +2,17 @@ package ru.kontur.vostok.hercules.protocol;
 
 import org.junit.Assert;
 import org.junit.Test;
+import ru.kontur.vostok.hercules.protocol.decoder.ArrayReader;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
 import ru.kontur.vostok.hercules.protocol.decoder.EventReader;
+import ru.kontur.vostok.hercules.protocol.encoder.ArrayWriter;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
 import ru.kontur.vostok.hercules.protocol.util.EventBuilder;
 import ru.kontur.vostok.hercules.protocol.encoder.EventWriter;
 import ru.kontur.vostok.hercules.util.time.TimeUtil;
 import ru.kontur.vostok.hercules.uuid.UuidGenerator;
 
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.UUID;
 
@@ -77,4 +82,33 @@ public class EventReaderWriteReadTest {
 
         Assert.assertArrayEquals(original.getBytes(), processed.getBytes());
     }
+
+    @Test
+    public void shouldReadEventsAsSlicesOfSourceBytes() {
+        Event first = EventBuilder.create(TimeUtil.millisToTicks(123_456_789L), UUID.randomUUID())
+                .tag("string-tag", Variant.ofString("first"))
+                .build();
+        Event second = EventBuilder.create(TimeUtil.millisToTicks(123_456_789L), UUID.randomUUID())
+                .tag("string-tag", Variant.ofString("second"))
+                .build();
+
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        new ArrayWriter<>(new EventWriter()).write(encoder, new Event[]{first, second});
+        byte[] bytes = encoder.toByteArray();
+
+        Event[] events = new ArrayReader<>(EventReader.readAllTags(), Event.class).read(new Decoder(bytes));
+
+        Assert.assertEquals(2, events.length);
+        Assert.assertSame(bytes, events[0].array());
+        Assert.assertSame(bytes, events[1].array());
+        Assert.assertEquals(events[0].getOffset() + events[0].getSize(), events[1].getOffset());
+
+        Assert.assertArrayEquals(first.getBytes(), events[0].getBytes());
+        Assert.assertArrayEquals(second.getBytes(), events[1].getBytes());
+        Assert.assertEquals(ByteBuffer.wrap(second.getBytes()), events[1].toByteBuffer());
+
+        ByteArrayEncoder reencoder = new ByteArrayEncoder();
+        new EventWriter().write(reencoder, events[1]);
+        Assert.assertArrayEquals(second.getBytes(), reencoder.toByteArray());
+    }
 }
@@ -0,0 +1,31 @@
+package ru.kontur.vostok.hercules.protocol;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.kontur.vostok.hercules.protocol.decoder.FailedEventsReader;
+import ru.kontur.vostok.hercules.protocol.encoder.FailedEventsWriter;
+
+public class FailedEventsWriteReadTest {
+
+    @Test
+    public void shouldWriteReadFailedEvents() {
+        WriteReadPipe
+                .init(new FailedEventsWriter(), new FailedEventsReader())
+                .process(new FailedEvents(new int[]{1, 5}, new int[]{0, 2, 3}))
+                .assertEquals((expected, actual) -> {
+                    Assert.assertArrayEquals(expected.getRejected(), actual.getRejected());
+                    Assert.assertArrayEquals(expected.getFailed(), actual.getFailed());
+                });
+    }
+
+    @Test
+    public void shouldWriteReadEmptyFailedEvents() {
+        WriteReadPipe
+                .init(new FailedEventsWriter(), new FailedEventsReader())
+                .process(new FailedEvents(new int[0], new int[0]))
+                .assertEquals((expected, actual) -> {
+                    Assert.assertEquals(0, actual.getRejected().length);
+                    Assert.assertEquals(0, actual.getFailed().length);
+                });
+    }
+}
@@ -0,0 +1,50 @@
+package ru.kontur.vostok.hercules.protocol;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VariantTest {
+
+    @Test
+    public void shouldAccessPrimitivesWithoutBoxing() {
+        Assert.assertEquals((byte) -1, Variant.ofByte((byte) -1).getByte());
+        Assert.assertEquals(-1L, Variant.ofByte((byte) -1).getLong());
+        Assert.assertEquals((short) 1024, Variant.ofShort((short) 1024).getShort());
+        Assert.assertEquals(42, Variant.ofInteger(42).getInt());
+        Assert.assertEquals(Long.MIN_VALUE, Variant.ofLong(Long.MIN_VALUE).getLong());
+        Assert.assertEquals(0.125f, Variant.ofFloat(0.125f).getFloat(), 0);
+        Assert.assertEquals(0.125, Variant.ofFloat(0.125f).getDouble(), 0);
+        Assert.assertEquals(-0.0625, Variant.ofDouble(-0.0625).getDouble(), 0);
+        Assert.assertTrue(Variant.ofFlag(true).getFlag());
+        Assert.assertFalse(Variant.ofFlag(false).getFlag());
+    }
+
+    @Test
+    public void shouldBoxPrimitivesOnDemand() {
+        Assert.assertEquals((byte) 1, Variant.ofByte((byte) 1).getValue());
+        Assert.assertEquals((short) 2, Variant.ofShort((short) 2).getValue());
+        Assert.assertEquals(3, Variant.ofInteger(3).getValue());
+        Assert.assertEquals(4L, Variant.ofLong(4L).getValue());
+        Assert.assertEquals(5.0f, Variant.ofFloat(5.0f).getValue());
+        Assert.assertEquals(6.0, Variant.ofDouble(6.0).getValue());
+        Assert.assertEquals(true, Variant.ofFlag(true).getValue());
+        Assert.assertEquals("(LONG) 4", Variant.ofLong(4L).toString());
+    }
+
+    @Test
+    public void shouldAccessBoxedPrimitives() {
+        Assert.assertEquals(42L, new Variant(Type.INTEGER, 42).getLong());
+        Assert.assertEquals(1.5, new Variant(Type.DOUBLE, 1.5).getDouble(), 0);
+        Assert.assertTrue(new Variant(Type.FLAG, true).getFlag());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotAccessLongAsInteger() {
+        Variant.ofLong(1L).getInt();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotAccessStringAsLong() {
+        Variant.ofString("1").getLong();
+    }
+}
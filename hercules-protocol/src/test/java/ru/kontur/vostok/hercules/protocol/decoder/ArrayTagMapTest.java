@@ -0,0 +1,61 @@
+package ru.kontur.vostok.hercules.protocol.decoder;
+
+import org.junit.Test;
+import ru.kontur.vostok.hercules.protocol.Variant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class ArrayTagMapTest {
+
+    @Test
+    public void shouldKeepEntriesAfterIteration() {
+        Variant first = Variant.ofInteger(1);
+        Variant second = Variant.ofInteger(2);
+        ArrayTagMap map = new ArrayTagMap(2);
+        map.add("first", first);
+        map.add("second", second);
+
+        List<Map.Entry<String, Variant>> entries = new ArrayList<>(map.entrySet());
+
+        assertEquals(2, entries.size());
+        assertEquals("first", entries.get(0).getKey());
+        assertEquals(first, entries.get(0).getValue());
+        assertEquals("second", entries.get(1).getKey());
+        assertEquals(second, entries.get(1).getValue());
+    }
+
+    @Test
+    public void shouldWalkOverTagsInOrder() {
+        Variant first = Variant.ofInteger(1);
+        Variant second = Variant.ofInteger(2);
+        ArrayTagMap map = new ArrayTagMap(2);
+        map.add("first", first);
+        map.add("second", second);
+
+        List<String> tagNames = new ArrayList<>();
+        List<Variant> variants = new ArrayList<>();
+        map.forEach((tagName, variant) -> {
+            tagNames.add(tagName);
+            variants.add(variant);
+        });
+
+        assertEquals(Arrays.asList("first", "second"), tagNames);
+        assertEquals(Arrays.asList(first, second), variants);
+    }
+
+    @Test
+    public void shouldReplaceDuplicatedTag() {
+        Variant value = Variant.ofInteger(2);
+        ArrayTagMap map = new ArrayTagMap(2);
+        map.add("tag", Variant.ofInteger(1));
+        map.add("tag", value);
+
+        assertEquals(1, map.size());
+        assertEquals(value, map.get("tag"));
+    }
+}
@@ -0,0 +1,76 @@
+package ru.kontur.vostok.hercules.protocol.decoder;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.HerculesProtocolAssert;
+import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.encoder.ArrayWriter;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+import ru.kontur.vostok.hercules.protocol.encoder.EventWriter;
+import ru.kontur.vostok.hercules.protocol.util.EventBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelArrayReaderTest {
+
+    @Test
+    public void shouldReadEventsInParallel() {
+        Event[] events = new Event[1000];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = EventBuilder.create(i, UUID.randomUUID())
+                    .tag("message", Variant.ofString("Message #" + i))
+                    .tag("index", Variant.ofInteger(i))
+                    .build();
+        }
+        byte[] bytes = write(events);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Event[] read = new ParallelArrayReader<>(EventReader.readAllTags(), Event.class, pool, 1024).read(new Decoder(bytes));
+
+            Assert.assertEquals(events.length, read.length);
+            for (int i = 0; i < events.length; i++) {
+                HerculesProtocolAssert.assertEquals(events[i], read[i]);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldReadSmallArraySequentially() {
+        Event event = EventBuilder.create(0, UUID.randomUUID())
+                .tag("message", Variant.ofString("Message"))
+                .build();
+        byte[] bytes = write(new Event[]{event});
+
+        Event[] read = new ParallelArrayReader<>(EventReader.readAllTags(), Event.class, null, 1024).read(new Decoder(bytes));
+
+        Assert.assertEquals(1, read.length);
+        HerculesProtocolAssert.assertEquals(event, read[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailOnInvalidCount() {
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        encoder.writeInteger(Integer.MAX_VALUE);
+
+        new ParallelArrayReader<>(EventReader.readAllTags(), Event.class, null, 1024).read(new Decoder(encoder.toByteArray()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCountBytesBeyondDecoderLimit() {
+        byte[] bytes = new byte[1024];
+        bytes[3] = 100;
+
+        new ParallelArrayReader<>(EventReader.readAllTags(), Event.class, null, 1024).read(new Decoder(bytes, 0, 4));
+    }
+
+    private static byte[] write(Event[] events) {
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        new ArrayWriter<>(new EventWriter()).write(encoder, events);
+        return encoder.toByteArray();
+    }
+}
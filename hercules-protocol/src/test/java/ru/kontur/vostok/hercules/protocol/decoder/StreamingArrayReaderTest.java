@@ -0,0 +1,103 @@
+package ru.kontur.vostok.hercules.protocol.decoder;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.HerculesProtocolAssert;
+import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.decoder.exceptions.InvalidDataException;
+import ru.kontur.vostok.hercules.protocol.encoder.ArrayWriter;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+import ru.kontur.vostok.hercules.protocol.encoder.EventWriter;
+import ru.kontur.vostok.hercules.protocol.util.EventBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class StreamingArrayReaderTest {
+
+    @Test
+    public void shouldReadEventsFromChunks() throws Exception {
+        Event[] events = new Event[100];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = EventBuilder.create(i, UUID.randomUUID())
+                    .tag("message", Variant.ofString("Message #" + i))
+                    .tag("index", Variant.ofInteger(i))
+                    .build();
+        }
+        byte[] bytes = write(events);
+
+        for (int chunkSize : new int[]{1, 7, 100, bytes.length}) {
+            List<Event> read = new ArrayList<>();
+            StreamingArrayReader<Event> reader = new StreamingArrayReader<>(EventReader.readAllTags(), read::add);
+            for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+                reader.feed(bytes, offset, Math.min(chunkSize, bytes.length - offset));
+            }
+            reader.finish();
+
+            Assert.assertEquals(events.length, reader.count());
+            Assert.assertEquals(events.length, read.size());
+            for (int i = 0; i < events.length; i++) {
+                HerculesProtocolAssert.assertEquals(events[i], read.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void shouldPassEventAsSoonAsItIsReceived() throws Exception {
+        Event event = EventBuilder.create(0, UUID.randomUUID())
+                .tag("message", Variant.ofString("Message"))
+                .build();
+        byte[] bytes = write(new Event[]{event, event});
+        int firstEventEnd = SizeOf.INTEGER + event.getBytes().length;
+
+        List<Event> read = new ArrayList<>();
+        StreamingArrayReader<Event> reader = new StreamingArrayReader<>(EventReader.readAllTags(), read::add);
+        reader.feed(bytes, 0, firstEventEnd);
+
+        Assert.assertEquals(1, read.size());
+        HerculesProtocolAssert.assertEquals(event, read.get(0));
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void shouldFailOnIncompleteArray() throws Exception {
+        Event event = EventBuilder.create(0, UUID.randomUUID())
+                .tag("message", Variant.ofString("Message"))
+                .build();
+        byte[] bytes = write(new Event[]{event});
+
+        StreamingArrayReader<Event> reader = new StreamingArrayReader<>(EventReader.readAllTags(), e -> {});
+        reader.feed(bytes, 0, bytes.length - 1);
+        reader.finish();
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void shouldFailOnMalformedElementBeforeFinish() throws Exception {
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        encoder.writeInteger(1);
+        encoder.writeUnsignedByte(1);
+        encoder.writeLong(0);
+        encoder.writeUuid(UUID.randomUUID());
+        encoder.writeContainerSize(1);
+        encoder.writeTinyString("tag");
+        encoder.writeUnsignedByte(0xFE);// Unknown type
+        encoder.writeRawBytes(new byte[64]);
+
+        new StreamingArrayReader<>(EventReader.readAllTags(), e -> {}).feed(encoder.toByteArray());
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void shouldFailOnInvalidCount() throws Exception {
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        encoder.writeInteger(-1);
+
+        new StreamingArrayReader<>(EventReader.readAllTags(), e -> {}).feed(encoder.toByteArray());
+    }
+
+    private static byte[] write(Event[] events) {
+        ByteArrayEncoder encoder = new ByteArrayEncoder();
+        new ArrayWriter<>(new EventWriter()).write(encoder, events);
+        return encoder.toByteArray();
+    }
+}
@@ -0,0 +1,41 @@
+package ru.kontur.vostok.hercules.protocol.decoder;
+
+import org.junit.Test;
+import ru.kontur.vostok.hercules.protocol.encoder.Encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TagSelectorTest {
+
+    @Test
+    public void shouldSelectTagsByName() {
+        String project = "project";
+        String tagWithSameLength = "service";
+        String unicodeTag = "тег";
+        TagSelector selector = TagSelector.of(new HashSet<>(Arrays.asList(project, tagWithSameLength, unicodeTag)));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        Encoder encoder = new Encoder(stream);
+        encoder.writeTinyString("project");
+        encoder.writeTinyString("projecT");
+        encoder.writeTinyString("service");
+        encoder.writeTinyString("тег");
+        encoder.writeTinyString("env");
+        encoder.writeTinyString("");
+
+        Decoder decoder = new Decoder(stream.toByteArray());
+        assertSame(project, selector.select(decoder));
+        assertNull(selector.select(decoder));
+        assertSame(tagWithSameLength, selector.select(decoder));
+        assertSame(unicodeTag, selector.select(decoder));
+        assertNull(selector.select(decoder));
+        assertNull(selector.select(decoder));
+        assertEquals(stream.size(), decoder.position());
+    }
+}
@@ -0,0 +1,80 @@
+package ru.kontur.vostok.hercules.protocol.encoder;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.kontur.vostok.hercules.protocol.Container;
+import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.Vector;
+import ru.kontur.vostok.hercules.protocol.util.ContainerBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public class ByteArrayEncoderTest {
+
+    @Test
+    public void shouldEncodeContainerAsStreamEncoder() {
+        Container inner = ContainerBuilder.create()
+                .tag("int", Variant.ofInteger(-42))
+                .tag("strings", Variant.ofVector(Vector.ofStrings("a", "бв", "😀")))
+                .build();
+        Container container = ContainerBuilder.create()
+                .tag("byte", Variant.ofByte((byte) -1))
+                .tag("short", Variant.ofShort((short) 12345))
+                .tag("long", Variant.ofLong(Long.MIN_VALUE))
+                .tag("flag", Variant.ofFlag(true))
+                .tag("float", Variant.ofFloat(1.5f))
+                .tag("double", Variant.ofDouble(-0.25))
+                .tag("строка", Variant.ofString("Abc ЕЁЮ"))
+                .tag("uuid", Variant.ofUuid(UUID.randomUUID()))
+                .tag("null", Variant.ofNull())
+                .tag("inner", Variant.ofContainer(inner))
+                .tag("bytes", Variant.ofVector(Vector.ofBytes((byte) 1, (byte) 2)))
+                .tag("doubles", Variant.ofVector(Vector.ofDoubles(1.0, 2.0)))
+                .build();
+
+        assertEncodedEquals(encoder -> ContainerWriter.INSTANCE.write(encoder, container));
+    }
+
+    @Test
+    public void shouldEncodeUtilityTypesAsStreamEncoder() {
+        assertEncodedEquals(encoder -> {
+            encoder.writeVarLen(0);
+            encoder.writeVarLen(127);
+            encoder.writeVarLen(128);
+            encoder.writeVarLen(Integer.MAX_VALUE);
+            encoder.writeString("\uD800 unpaired surrogate");
+            encoder.writeTinyString("tiny");
+            encoder.writeRawBytes(new byte[]{1, 2, 3});
+        });
+    }
+
+    @Test
+    public void shouldGrowBuffer() {
+        ByteArrayEncoder encoder = new ByteArrayEncoder(1);
+        encoder.writeLong(1L);
+        encoder.writeString("string");
+
+        Assert.assertEquals(8 + 4 + 6, encoder.size());
+        Assert.assertEquals(encoder.size(), encoder.toByteArray().length);
+        Assert.assertEquals(encoder.size(), encoder.toByteBuffer().remaining());
+
+        encoder.reset();
+        Assert.assertEquals(0, encoder.size());
+    }
+
+    private static void assertEncodedEquals(Consumer<Encoder> writer) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        writer.accept(new Encoder(stream));
+        byte[] expected = stream.toByteArray();
+
+        ByteArrayEncoder byteArrayEncoder = new ByteArrayEncoder(0);
+        writer.accept(byteArrayEncoder);
+        Assert.assertArrayEquals(expected, byteArrayEncoder.toByteArray());
+
+        CountingEncoder countingEncoder = new CountingEncoder();
+        writer.accept(countingEncoder);
+        Assert.assertEquals(expected.length, countingEncoder.size());
+    }
+}
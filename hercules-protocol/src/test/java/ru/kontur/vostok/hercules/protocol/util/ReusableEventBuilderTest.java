@@ -0,0 +1,72 @@
+package ru.kontur.vostok.hercules.protocol.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.HerculesProtocolAssert;
+import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.decoder.ArrayReader;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.EventReader;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+import ru.kontur.vostok.hercules.util.time.TimeUtil;
+
+import java.util.UUID;
+
+public class ReusableEventBuilderTest {
+
+    private static final UUID UUID_SAMPLE = UUID.fromString("11203800-63FD-11E8-83E2-3A587D902000");
+    private static final long TIMESTAMP_SAMPLE = TimeUtil.gregorianToUnixTicks(UUID_SAMPLE.timestamp());
+
+    @Test
+    public void shouldBuildSameEventAsEventBuilder() {
+        Event expected = EventBuilder.create(TIMESTAMP_SAMPLE, UUID_SAMPLE)
+                .tag("host", Variant.ofString("localhost"))
+                .tag("timestamp", Variant.ofLong(1527679920000000L))
+                .build();
+
+        ReusableEventBuilder builder = new ReusableEventBuilder();
+        for (int i = 0; i < 3; i++) {
+            Event event = builder.begin(TIMESTAMP_SAMPLE, UUID_SAMPLE)
+                    .tag("host", Variant.ofString("localhost"))
+                    .tag("timestamp", Variant.ofLong(1527679920000000L))
+                    .build();
+
+            Assert.assertArrayEquals(expected.getBytes(), event.getBytes());
+            HerculesProtocolAssert.assertEquals(expected, event);
+            Assert.assertEquals(0, builder.encoder().size());
+        }
+    }
+
+    @Test
+    public void shouldAppendEventsIntoBatch() {
+        ByteArrayEncoder encoder = new ByteArrayEncoder(16);
+        encoder.writeInteger(0);
+        ReusableEventBuilder builder = new ReusableEventBuilder(encoder);
+
+        for (int round = 0; round < 2; round++) {
+            builder.reset();
+            for (int i = 0; i < 10; i++) {
+                builder.begin(TIMESTAMP_SAMPLE, UUID_SAMPLE)
+                        .tag("index", Variant.ofInteger(i))
+                        .tag("round", Variant.ofInteger(round))
+                        .end();
+            }
+            encoder.writeIntegerAt(0, builder.count());
+
+            Event[] events = new ArrayReader<>(EventReader.readAllTags(), Event.class).read(new Decoder(encoder.toByteArray()));
+
+            Assert.assertEquals(10, events.length);
+            for (int i = 0; i < events.length; i++) {
+                Assert.assertEquals(UUID_SAMPLE, events[i].getUuid());
+                HerculesProtocolAssert.assertEquals(Variant.ofInteger(i), events[i].getPayload().get("index"));
+                HerculesProtocolAssert.assertEquals(Variant.ofInteger(round), events[i].getPayload().get("round"));
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailIfEventIsNotBegun() {
+        new ReusableEventBuilder().tag("host", Variant.ofString("localhost"));
+    }
+}
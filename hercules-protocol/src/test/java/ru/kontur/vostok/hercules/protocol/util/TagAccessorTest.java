@@ -0,0 +1,64 @@
+package ru.kontur.vostok.hercules.protocol.util;
+
+import org.junit.Test;
+import ru.kontur.vostok.hercules.protocol.Container;
+import ru.kontur.vostok.hercules.protocol.Variant;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TagAccessorTest {
+
+    private static final TagDescription<Optional<String>> STRING_TAG = TagDescriptionBuilder.string("string").optional().build();
+    private static final TagDescription<Optional<Long>> LONG_TAG = TagDescriptionBuilder.longTag("long").optional().build();
+    private static final TagDescription<Optional<UUID>> UUID_TAG = TagDescriptionBuilder.uuid("uuid").optional().build();
+    private static final TagDescription<Optional<Container>> CONTAINER_TAG = TagDescriptionBuilder.container("container").optional().build();
+
+    @Test
+    public void shouldReturnTagValues() {
+        UUID uuid = UUID.randomUUID();
+        Container inner = ContainerBuilder.create().tag("a", Variant.ofInteger(1)).build();
+        Container container = ContainerBuilder.create()
+                .tag("string", Variant.ofString("value"))
+                .tag("long", Variant.ofLong(42L))
+                .tag("uuid", Variant.ofUuid(uuid))
+                .tag("container", Variant.ofContainer(inner))
+                .build();
+
+        assertTrue(STRING_TAG.accessor().isPresent(container));
+        assertEquals("value", STRING_TAG.accessor().getString(container, null));
+        assertEquals(42L, LONG_TAG.accessor().getLong(container, 0L));
+        assertEquals(uuid, UUID_TAG.accessor().getUuid(container, null));
+        assertSame(inner, CONTAINER_TAG.accessor().getContainer(container, null));
+    }
+
+    @Test
+    public void shouldReturnDefaultValueIfTagIsAbsent() {
+        Container container = ContainerBuilder.create().build();
+
+        assertFalse(STRING_TAG.accessor().isPresent(container));
+        assertNull(STRING_TAG.accessor().getString(container, null));
+        assertEquals(-1L, LONG_TAG.accessor().getLong(container, -1L));
+        assertNull(UUID_TAG.accessor().getUuid(container, null));
+    }
+
+    @Test
+    public void shouldAcceptNarrowerIntegralTypes() {
+        Container container = ContainerBuilder.create().tag("long", Variant.ofInteger(7)).build();
+
+        assertEquals(7L, LONG_TAG.accessor().getLong(container, 0L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowIllegalArgumentExceptionOnUnexpectedType() {
+        Container container = ContainerBuilder.create().tag("string", Variant.ofInteger(1)).build();
+
+        STRING_TAG.accessor().getString(container, null);
+    }
+}
@@ -16,6 +16,7 @@ import ru.kontur.vostok.hercules.util.properties.PropertyDescriptions;
 
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -59,6 +60,11 @@ public class SentrySinkDaemon extends AbstractSingleSinkDaemon {
         );
     }
 
+    @Override
+    protected Set<String> tags() {
+        return SentrySyncProcessor.TAGS;
+    }
+
     @Override
     protected ServicePinger createPinger(Properties sinkProperties) {
         final String sentryUrl = Props.SENTRY_URL.extract(sinkProperties);
@@ -8,7 +8,9 @@ import ru.kontur.vostok.hercules.kafka.util.processing.BackendServiceFailedExcep
 import ru.kontur.vostok.hercules.kafka.util.processing.single.SingleSender;
 import ru.kontur.vostok.hercules.protocol.Container;
 import ru.kontur.vostok.hercules.protocol.Event;
-import ru.kontur.vostok.hercules.protocol.util.ContainerUtil;
+import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
+import ru.kontur.vostok.hercules.protocol.decoder.EventReader;
+import ru.kontur.vostok.hercules.protocol.util.TagAccessor;
 import ru.kontur.vostok.hercules.sentry.sink.converters.SentryEventConverter;
 import ru.kontur.vostok.hercules.sentry.sink.converters.SentryLevelEnumParser;
 import ru.kontur.vostok.hercules.tags.CommonTags;
@@ -16,8 +18,12 @@ import ru.kontur.vostok.hercules.tags.LogEventTags;
 import ru.kontur.vostok.hercules.util.properties.PropertyDescription;
 import ru.kontur.vostok.hercules.util.properties.PropertyDescriptions;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -35,6 +41,22 @@ public class SentrySyncProcessor implements SingleSender<UUID, Event> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SentrySyncProcessor.class);
 
+    private static final TagAccessor PROPERTIES = CommonTags.PROPERTIES_TAG.accessor();
+    private static final TagAccessor PROJECT = CommonTags.PROJECT_TAG.accessor();
+    private static final TagAccessor SERVICE = CommonTags.SERVICE_TAG.accessor();
+    private static final TagAccessor LEVEL = LogEventTags.LEVEL_TAG.accessor();
+
+    /**
+     * Tag paths which are used to filter events and to find the Sentry project.
+     * Events are deserialized partially, thus event is read entirely only if it should be sent to Sentry
+     */
+    static final Set<String> TAGS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            CommonTags.PROPERTIES_TAG.getName() + '.' + CommonTags.PROJECT_TAG.getName(),
+            CommonTags.PROPERTIES_TAG.getName() + '.' + CommonTags.SERVICE_TAG.getName(),
+            LogEventTags.LEVEL_TAG.getName())));
+
+    private static final EventReader FULL_EVENT_READER = EventReader.readAllTags();
+
     private final Level requiredLevel;
     private final SentryClientHolder sentryClientHolder;
     private final SentryProjectRegistry sentryProjectRegistry;
@@ -51,40 +73,43 @@ public class SentrySyncProcessor implements SingleSender<UUID, Event> {
 
     @Override
     public boolean process(UUID key, Event event) throws BackendServiceFailedException {
-        final Optional<Container> properties = ContainerUtil.extract(event.getPayload(), CommonTags.PROPERTIES_TAG);
-        if (!properties.isPresent()) {
-            LOGGER.warn("Missing required tag '{}'", CommonTags.PROPERTIES_TAG.getName());
+        final Container properties = PROPERTIES.getContainer(event.getPayload(), null);
+        if (properties == null) {
+            LOGGER.warn("Missing required tag '{}'", PROPERTIES.getName());
             return false;
         }
 
-        Optional<String> project = ContainerUtil.extract(properties.get(), CommonTags.PROJECT_TAG);
-        if (!project.isPresent()) {
-            LOGGER.warn("Missing required tag '{}'", CommonTags.PROJECT_TAG.getName());
+        final String project = PROJECT.getString(properties, null);
+        if (project == null) {
+            LOGGER.warn("Missing required tag '{}'", PROJECT.getName());
             return false;
         }
 
-        Optional<String> service = ContainerUtil.extract(properties.get(), CommonTags.SERVICE_TAG);
+        final String service = SERVICE.getString(properties, null);
 
-        Optional<Level> level = ContainerUtil.extract(event.getPayload(), LogEventTags.LEVEL_TAG)
-                .flatMap(SentryLevelEnumParser::parse);
+        final String levelName = LEVEL.getString(event.getPayload(), null);
+        if (levelName == null) {
+            return false;
+        }
+        Optional<Level> level = SentryLevelEnumParser.parse(levelName);
         if (!level.isPresent() || requiredLevel.compareTo(level.get()) < 0) {
             return false;
         }
 
-        Optional<String> sentryProjectName = sentryProjectRegistry.getSentryProjectName(project.get(), service.orElse(null));
+        Optional<String> sentryProjectName = sentryProjectRegistry.getSentryProjectName(project, service);
         if (!sentryProjectName.isPresent()) {
-            LOGGER.warn("Project '{}' not found in registry", project.get());
+            LOGGER.warn("Project '{}' not found in registry", project);
             return false;
         }
 
         Optional<SentryClient> sentryClient = sentryClientHolder.getClient(sentryProjectName.get());
         if (!sentryClient.isPresent()) {
-            LOGGER.warn("Missing client for project '{}'", project.get());
+            LOGGER.warn("Missing client for project '{}'", project);
             return false;
         }
 
         try {
-            io.sentry.event.Event sentryEvent = SentryEventConverter.convert(event);
+            io.sentry.event.Event sentryEvent = SentryEventConverter.convert(FULL_EVENT_READER.read(new Decoder(event.getBytes())));
             sentryClient.get().sendEvent(sentryEvent);
             return true;
         } catch (Exception e) {
@@ -73,6 +73,7 @@ public abstract class AbstractSinkDaemon {
             Meter processedEventsMeter = metricsCollector.meter("processedEvents");
             Meter rejectedEventsMeter = metricsCollector.meter("rejectedEvents");
             Meter totalEventsMeter = metricsCollector.meter("totalEvents");
+            Meter deserializationErrorsMeter = metricsCollector.meter("deserializationErrors");
 
             this.sinkPool =
                     new SinkPool(
@@ -85,7 +86,8 @@ public abstract class AbstractSinkDaemon {
                                     droppedEventsMeter,
                                     processedEventsMeter,
                                     rejectedEventsMeter,
-                                    totalEventsMeter));
+                                    totalEventsMeter,
+                                    deserializationErrorsMeter));
             sinkPool.start();
         } catch (Throwable throwable) {
             LOGGER.error("Cannot start application due to error", throwable);
@@ -8,6 +8,7 @@ import ru.kontur.vostok.hercules.util.properties.PropertyDescriptions;
 
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -61,6 +62,17 @@ public abstract class Sender {
         }
     }
 
+    /**
+     * Tags of events which are used by the sender. Other tags are skipped when events are deserialized.
+     * <p>
+     * Nested tags can be specified by dotted paths (e.g. {@code properties.project}).
+     *
+     * @return tag paths or {@code null} if sender uses all tags
+     */
+    public Set<String> tags() {
+        return null;
+    }
+
     /**
      * Process batch of events.
      *
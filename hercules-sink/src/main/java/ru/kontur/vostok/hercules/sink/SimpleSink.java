@@ -14,6 +14,7 @@ import ru.kontur.vostok.hercules.util.properties.PropertyDescription;
 import ru.kontur.vostok.hercules.util.properties.PropertyDescriptions;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
@@ -42,8 +43,9 @@ public class SimpleSink extends Sink {
             String applicationId,
             Properties properties,
 
-            Sender sender, Meter droppedEventsMeter, Meter processedEventsMeter, Meter rejectedEventsMeter, Meter totalEventsMeter) {
-        super(executor, applicationId, properties);
+            Sender sender, Meter droppedEventsMeter, Meter processedEventsMeter, Meter rejectedEventsMeter, Meter totalEventsMeter,
+            Meter deserializationErrorsMeter) {
+        super(executor, applicationId, properties, sender.tags(), deserializationErrorsMeter);
 
         this.sender = sender;
 
@@ -64,7 +66,7 @@ public class SimpleSink extends Sink {
                     subscribe();
 
                     while (sender.isAvailable()) {
-                        ConsumerRecords<UUID, Event> pollResult;
+                        ConsumerRecords<UUID, Event[]> pollResult;
                         try {
                             pollResult = poll();
                         } catch (WakeupException ex) {
@@ -83,17 +85,17 @@ public class SimpleSink extends Sink {
                         int droppedEvents = 0;
 
                         for (TopicPartition partition : partitions) {
-                            List<ConsumerRecord<UUID, Event>> records = pollResult.records(partition);
-                            for (ConsumerRecord<UUID, Event> record : records) {
-                                Event event = record.value();
-                                if (event == null) {// Received non-deserializable data, should be ignored
+                            List<ConsumerRecord<UUID, Event[]>> records = pollResult.records(partition);
+                            for (ConsumerRecord<UUID, Event[]> record : records) {
+                                Event[] recordEvents = record.value();
+                                if (recordEvents == null) {// Received non-deserializable data, should be ignored
                                     droppedEvents++;
                                     if (DROPPED_EVENTS_LOGGER.isDebugEnabled()) {
                                         DROPPED_EVENTS_LOGGER.trace("{}", record.key());
                                     }
                                     continue;
                                 }
-                                events.add(event);
+                                Collections.addAll(events, recordEvents);// Packed record contains multiple events
                             }
                         }
 
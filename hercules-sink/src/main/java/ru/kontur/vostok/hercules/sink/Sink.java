@@ -1,5 +1,6 @@
 package ru.kontur.vostok.hercules.sink;
 
+import com.codahale.metrics.Meter;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
@@ -11,17 +12,22 @@ import org.slf4j.LoggerFactory;
 import ru.kontur.vostok.hercules.configuration.Scopes;
 import ru.kontur.vostok.hercules.configuration.util.PropertiesUtil;
 import ru.kontur.vostok.hercules.kafka.util.processing.bulk.ConsumerUtil;
+import ru.kontur.vostok.hercules.kafka.util.serialization.EventBatchDeserializer;
 import ru.kontur.vostok.hercules.kafka.util.serialization.EventDeserializer;
 import ru.kontur.vostok.hercules.kafka.util.serialization.UuidDeserializer;
 import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.decoder.StringInterner;
 import ru.kontur.vostok.hercules.util.PatternMatcher;
 import ru.kontur.vostok.hercules.util.properties.PropertyDescription;
 import ru.kontur.vostok.hercules.util.properties.PropertyDescriptions;
+import ru.kontur.vostok.hercules.util.validation.IntegerValidators;
 
 import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.regex.Pattern;
@@ -44,9 +50,21 @@ public abstract class Sink {
     private final int batchSize;
 
     private final Pattern pattern;
-    private final KafkaConsumer<UUID, Event> consumer;
+    private final KafkaConsumer<UUID, Event[]> consumer;
 
-    protected Sink(ExecutorService executor, String applicationId, Properties properties) {
+    protected Sink(ExecutorService executor, String applicationId, Properties properties, Meter deserializationErrorsMeter) {
+        this(executor, applicationId, properties, null, deserializationErrorsMeter);
+    }
+
+    /**
+     * @param tags are tag paths to be deserialized or {@code null} to deserialize all tags
+     */
+    protected Sink(
+            ExecutorService executor,
+            String applicationId,
+            Properties properties,
+            Set<String> tags,
+            Meter deserializationErrorsMeter) {
         this.executor = executor;
         this.application = applicationId;
         this.properties = properties;
@@ -66,9 +84,16 @@ public abstract class Sink {
         consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
 
         UuidDeserializer keyDeserializer = new UuidDeserializer();
-        EventDeserializer valueDeserializer = EventDeserializer.parseAllTags();
+        Set<String> internedTags = Props.INTERNED_TAGS.extract(properties);
+        EventDeserializer valueDeserializer = (internedTags.isEmpty()
+                ? EventDeserializer.parseTags(tags)
+                : EventDeserializer.parseTags(
+                        tags,
+                        internedTags,
+                        new StringInterner(Props.INTERNING_CACHE_SIZE.extract(properties), Props.INTERNING_MAX_LENGTH.extract(properties)))
+        ).withErrorsMeter(deserializationErrorsMeter);
 
-        this.consumer = new KafkaConsumer<>(consumerProperties, keyDeserializer, valueDeserializer);
+        this.consumer = new KafkaConsumer<>(consumerProperties, keyDeserializer, new EventBatchDeserializer(valueDeserializer));
 
     }
 
@@ -144,11 +169,14 @@ public abstract class Sink {
 
     /**
      * Poll Events from Kafka. Should be called when Sink subscribed.
+     * <p>
+     * Each record is deserialized into array of events, since packed record contains multiple events.
+     * Record which cannot be deserialized has {@code null} value.
      *
      * @return polled Events
      * @throws WakeupException if poll terminated due to shutdown
      */
-    protected final ConsumerRecords<UUID, Event> poll() throws WakeupException {
+    protected final ConsumerRecords<UUID, Event[]> poll() throws WakeupException {
         return consumer.poll(pollTimeout);
     }
 
@@ -170,5 +198,22 @@ public abstract class Sink {
         static final PropertyDescription<List<String>> PATTERN = PropertyDescriptions
                 .listOfStringsProperty("pattern")
                 .build();
+
+        static final PropertyDescription<Set<String>> INTERNED_TAGS = PropertyDescriptions
+                .setOfStringsProperty("interning.tags")
+                .withDefaultValue(Collections.emptySet())
+                .build();
+
+        static final PropertyDescription<Integer> INTERNING_CACHE_SIZE = PropertyDescriptions
+                .integerProperty("interning.cacheSize")
+                .withDefaultValue(4_096)
+                .withValidator(IntegerValidators.positive())
+                .build();
+
+        static final PropertyDescription<Integer> INTERNING_MAX_LENGTH = PropertyDescriptions
+                .integerProperty("interning.maxLength")
+                .withDefaultValue(64)
+                .withValidator(IntegerValidators.positive())
+                .build();
     }
 }
@@ -10,16 +10,15 @@ import ru.kontur.vostok.hercules.auth.AuthResult;
 import ru.kontur.vostok.hercules.protocol.ByteStreamContent;
 import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
 import ru.kontur.vostok.hercules.protocol.decoder.StreamReadStateReader;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
 import ru.kontur.vostok.hercules.protocol.encoder.ByteStreamContentWriter;
-import ru.kontur.vostok.hercules.protocol.encoder.Encoder;
+import ru.kontur.vostok.hercules.protocol.encoder.CountingEncoder;
 import ru.kontur.vostok.hercules.undertow.util.ContentTypes;
 import ru.kontur.vostok.hercules.undertow.util.ExchangeUtil;
 import ru.kontur.vostok.hercules.undertow.util.ResponseUtil;
 import ru.kontur.vostok.hercules.util.functional.Result;
 import ru.kontur.vostok.hercules.util.parsing.Parsers;
 
-import java.io.ByteArrayOutputStream;
-import java.nio.ByteBuffer;
 import java.util.Optional;
 
 public class ReadStreamHandler implements HttpHandler {
@@ -132,10 +131,9 @@ public class ReadStreamHandler implements HttpHandler {
 
                     exchange.getResponseHeaders().add(Headers.CONTENT_TYPE, ContentTypes.APPLICATION_OCTET_STREAM);
 
-                    ByteArrayOutputStream stream = new ByteArrayOutputStream();
-                    Encoder encoder = new Encoder(stream);
+                    ByteArrayEncoder encoder = new ByteArrayEncoder(CountingEncoder.sizeOf(CONTENT_WRITER, streamContent));
                     CONTENT_WRITER.write(encoder, streamContent);
-                    exchange.getResponseSender().send(ByteBuffer.wrap(stream.toByteArray()));
+                    exchange.getResponseSender().send(encoder.toByteBuffer());
                 } catch (IllegalArgumentException e) {
                     ResponseUtil.badRequest(exchange);
                 } catch (Exception e) {
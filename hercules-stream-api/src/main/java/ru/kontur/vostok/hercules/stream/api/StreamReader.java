@@ -10,10 +10,13 @@ import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.kontur.vostok.hercules.kafka.util.processing.bulk.RecordStorage;
+import ru.kontur.vostok.hercules.kafka.util.serialization.EventDeserializer;
+import ru.kontur.vostok.hercules.kafka.util.serialization.PackedRecord;
 import ru.kontur.vostok.hercules.kafka.util.serialization.VoidDeserializer;
 import ru.kontur.vostok.hercules.meta.stream.Stream;
 import ru.kontur.vostok.hercules.meta.stream.StreamRepository;
 import ru.kontur.vostok.hercules.partitioner.LogicalPartitioner;
+import ru.kontur.vostok.hercules.protocol.Event;
 import ru.kontur.vostok.hercules.protocol.ByteStreamContent;
 import ru.kontur.vostok.hercules.protocol.StreamReadState;
 import ru.kontur.vostok.hercules.protocol.StreamShardReadState;
@@ -24,9 +27,11 @@ import ru.kontur.vostok.hercules.util.time.Timer;
 import ru.kontur.vostok.hercules.util.validation.Validators;
 
 import java.net.InetAddress;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
@@ -55,6 +60,8 @@ public class StreamReader {
 
     private static final Object DUMMY = new Object();
 
+    private static final EventDeserializer PACKED_DESERIALIZER = EventDeserializer.parseNoTags();
+
     private final StreamRepository streamRepository;
     private final ConcurrentMap<KafkaConsumer, Object> activeConsumers = new ConcurrentHashMap<>();
 
@@ -67,6 +74,10 @@ public class StreamReader {
         this.pollTimeout = Props.POLL_TIMEOUT_MS.extract(properties);
     }
 
+    /**
+     * Read events of the stream. Packed records are expanded into events, thus up to {@code take} records are read,
+     * but more events may be returned.
+     */
     // TODO: Probably we can use output streams to reduce memory consumption
     public ByteStreamContent getStreamContent(String streamName, StreamReadState readState, int k, int n, int take) {
 
@@ -118,7 +129,7 @@ public class StreamReader {
                     }
                 }
 
-                RecordStorage<Void, byte[]> poll;
+                RecordStorage<Void, byte[][]> poll;
 
                 Set<TopicPartition> partitionsToRequest = offsetsToRequest.keySet();
                 if (!partitionsToRequest.isEmpty()) {
@@ -141,7 +152,7 @@ public class StreamReader {
 
                 return new ByteStreamContent(
                         stateFromMap(streamName, offsetsToRequest),
-                        poll.getRecords().toArray(new byte[][]{})
+                        flatten(poll.getRecords())
                 );
             } finally {
                 consumer.close();
@@ -160,8 +171,8 @@ public class StreamReader {
         });
     }
 
-    private RecordStorage<Void, byte[]> pollRecords(KafkaConsumer<Void, byte[]> consumer, int maxCount) {
-        RecordStorage<Void, byte[]> result = new RecordStorage<>(maxCount);
+    private RecordStorage<Void, byte[][]> pollRecords(KafkaConsumer<Void, byte[]> consumer, int maxCount) {
+        RecordStorage<Void, byte[][]> result = new RecordStorage<>(maxCount);
 
         TimeUnit unit = TimeUnit.MILLISECONDS;
         Timer timer = new Timer(unit, pollTimeout);
@@ -172,7 +183,11 @@ public class StreamReader {
             ConsumerRecords<Void, byte[]> poll = consumer.poll(timeLeft);
             for (ConsumerRecord<Void, byte[]> record : poll) {
                 if (result.available()) {
-                    result.add(record);
+                    if (PackedRecord.isPacked(record.headers())) {
+                        result.add(record, value -> unpack(record.topic(), value));
+                    } else {
+                        result.add(record, value -> new byte[][]{value});
+                    }
                 } else {
                     return result;
                 }
@@ -186,6 +201,33 @@ public class StreamReader {
         return result;
     }
 
+    /**
+     * Unpack events of packed record, broken record is skipped
+     *
+     * @param topic the topic
+     * @param value the value of packed record
+     * @return bytes of events
+     */
+    private static byte[][] unpack(String topic, byte[] value) {
+        Event[] events = PACKED_DESERIALIZER.deserializePacked(topic, value);
+        if (events == null) {
+            return new byte[0][];
+        }
+        byte[][] bytes = new byte[events.length][];
+        for (int i = 0; i < events.length; i++) {
+            bytes[i] = events[i].getBytes();
+        }
+        return bytes;
+    }
+
+    private static byte[][] flatten(List<byte[][]> records) {
+        List<byte[]> events = new ArrayList<>(records.size());
+        for (byte[][] record : records) {
+            events.addAll(Arrays.asList(record));
+        }
+        return events.toArray(new byte[0][]);
+    }
+
     private static Map<TopicPartition, Long> stateToMap(String streamName, StreamReadState state) {
         return Arrays.stream(state.getShardStates())
                 .collect(Collectors.toMap(
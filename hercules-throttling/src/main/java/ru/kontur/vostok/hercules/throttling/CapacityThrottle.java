@@ -1,16 +1,34 @@
 package ru.kontur.vostok.hercules.throttling;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.kontur.vostok.hercules.health.MetricsCollector;
 import ru.kontur.vostok.hercules.util.properties.PropertyDescription;
 import ru.kontur.vostok.hercules.util.properties.PropertyDescriptions;
+import ru.kontur.vostok.hercules.util.validation.IntegerValidators;
 import ru.kontur.vostok.hercules.util.validation.Validators;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
+ * Capacity throttle limits total weight of requests are processed simultaneously
+ * <p>
+ * If there is not enough capacity, then request is parked in the admission queue without holding the calling thread.
+ * Parked requests are resumed in the thread which releases capacity. Queue is scanned in FIFO order and
+ * any request which fits into the available capacity is admitted, thus light requests are not stuck behind heavy ones.
+ * If the request has been parked longer than starvation timeout, then it reserves released capacity:
+ * requests behind it in the queue and new requests are not admitted until it is. Thus heavy requests are not starved.
+ * Request is expired by the timer if it has been parked longer than request timeout.
+ *
  * @author Gregory Koshelev
  */
 public class CapacityThrottle<R, C> implements Throttle<R, C> {
@@ -27,43 +45,83 @@ public class CapacityThrottle<R, C> implements Throttle<R, C> {
                 .withDefaultValue(ThrottlingDefaults.DEFAULT_REQUEST_TIMEOUT)
                 .withValidator(Validators.greaterThan(0L))
                 .build();
+
+        static final PropertyDescription<Integer> QUEUE_SIZE = PropertyDescriptions
+                .integerProperty(ThrottlingProperties.QUEUE_SIZE)
+                .withDefaultValue(ThrottlingDefaults.DEFAULT_QUEUE_SIZE)
+                .withValidator(IntegerValidators.positive())
+                .build();
+
+        static final PropertyDescription<Long> STARVATION_TIMEOUT_MS = PropertyDescriptions
+                .longProperty(ThrottlingProperties.STARVATION_TIMEOUT)
+                .withDefaultValue(ThrottlingDefaults.DEFAULT_STARVATION_TIMEOUT)
+                .withValidator(Validators.greaterOrEquals(0L))
+                .build();
     }
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CapacityThrottle.class);
 
     private final long capacity;
     private final long requestTimeout;
+    private final int queueSize;
+    private final long starvationTimeout;
 
     private final RequestWeigher<R> weigher;
     private final RequestProcessor<R, C> requestProcessor;
     private final ThrottledRequestProcessor<R> throttledRequestProcessor;
 
-    private final Semaphore semaphore;
+    private final Object lock = new Object();
+    private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+    private long available;
+    private boolean stopped;
+
+    private final ScheduledThreadPoolExecutor timer;
+
+    private final Histogram waitTimeMsHistogram;
+    private final Meter expiredRequestsMeter;
+    private final Meter overflowedRequestsMeter;
 
     /**
      * @param properties                configuration properties
      * @param weigher                   request's weigher to weigh resources are used to process request
      * @param requestProcessor          processes requests
      * @param throttledRequestProcessor processes throttled (discarded by some reasons) requests
+     * @param metricsCollector          metrics collector
      */
     public CapacityThrottle(
             Properties properties,
             RequestWeigher<R> weigher,
             RequestProcessor<R, C> requestProcessor,
-            ThrottledRequestProcessor<R> throttledRequestProcessor
+            ThrottledRequestProcessor<R> throttledRequestProcessor,
+            MetricsCollector metricsCollector
     ) {
         this.capacity = Props.CAPACITY.extract(properties);
         this.requestTimeout = Props.REQUEST_TIMEOUT_MS.extract(properties);
+        this.queueSize = Props.QUEUE_SIZE.extract(properties);
+        this.starvationTimeout = Props.STARVATION_TIMEOUT_MS.extract(properties);
 
         this.weigher = weigher;
         this.requestProcessor = requestProcessor;
         this.throttledRequestProcessor = throttledRequestProcessor;
 
-        this.semaphore = new Semaphore(capacity > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) capacity);
+        this.available = capacity;
+
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "capacity-throttle-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+
+        metricsCollector.gauge("throttling.queueSize", this::queueSize);
+        metricsCollector.gauge("throttling.availableCapacity", this::availableCapacity);
+        this.waitTimeMsHistogram = metricsCollector.histogram("throttling.waitTimeMs");
+        this.expiredRequestsMeter = metricsCollector.meter("throttling.expiredRequests");
+        this.overflowedRequestsMeter = metricsCollector.meter("throttling.overflowedRequests");
     }
 
     /**
-     * Asynchronously throttle request
+     * Asynchronously throttle request. Method never blocks the calling thread
      *
      * @param request to be throttled
      * @param context is additional request's data
@@ -74,25 +132,154 @@ public class CapacityThrottle<R, C> implements Throttle<R, C> {
         if (weight < 0) {
             throw new IllegalStateException("Request is invalid");
         }
-        if (semaphore.tryAcquire(weight)) {
-            requestProcessor.processAsync(request, context, () -> semaphore.release(weight));
-            return;
+
+        ThrottledBy throttledBy = null;
+        boolean admitted = false;
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            if (stopped) {
+                throttledBy = ThrottledBy.INTERRUPTION;
+            } else if (weight <= available && !isStarving(queue.peekFirst(), now)) {
+                available -= weight;
+                admitted = true;
+            } else if (weight > capacity || queue.size() >= queueSize) {
+                throttledBy = ThrottledBy.QUEUE_OVERFLOW;
+            } else {
+                Waiter waiter = new Waiter(request, context, weight, now);
+                queue.addLast(waiter);
+                waiter.expiration = timer.schedule(() -> expire(waiter), requestTimeout, TimeUnit.MILLISECONDS);
+            }
         }
-        boolean acquired;
-        try {
-            acquired = semaphore.tryAcquire(weight, requestTimeout, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            throttledRequestProcessor.processAsync(request, ThrottledBy.INTERRUPTION);
+
+        if (admitted) {
+            process(request, context, weight);
             return;
         }
-        if (acquired) {
-            requestProcessor.processAsync(request, context, () -> semaphore.release(weight));
-        } else {
-            throttledRequestProcessor.processAsync(request, ThrottledBy.EXPIRATION);
+        if (throttledBy == ThrottledBy.QUEUE_OVERFLOW) {
+            overflowedRequestsMeter.mark();
+        }
+        if (throttledBy != null) {
+            throttledRequestProcessor.processAsync(request, throttledBy);
         }
     }
 
+    /**
+     * Shutdown throttle. Parked requests are discarded
+     *
+     * @param timeout is unused since requests are not waited for
+     * @param unit    time unit of the timeout
+     */
     @Override
     public void shutdown(long timeout, TimeUnit unit) {
+        List<Waiter> discarded;
+        synchronized (lock) {
+            stopped = true;
+            discarded = new ArrayList<>(queue);
+            queue.clear();
+        }
+        timer.shutdownNow();
+        for (Waiter waiter : discarded) {
+            throttledRequestProcessor.processAsync(waiter.request, ThrottledBy.INTERRUPTION);
+        }
+    }
+
+    private void process(R request, C context, int weight) {
+        requestProcessor.processAsync(request, context, () -> release(weight));
+    }
+
+    /**
+     * Release capacity and resume parked requests which fit into the available capacity.
+     * The starving request which does not fit reserves the capacity, thus requests behind it are not resumed
+     *
+     * @param weight is the weight of processed request
+     */
+    private void release(int weight) {
+        List<Waiter> admitted = null;
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            available += weight;
+            Iterator<Waiter> it = queue.iterator();
+            while (it.hasNext() && available > 0) {
+                Waiter waiter = it.next();
+                if (waiter.weight <= available) {
+                    available -= waiter.weight;
+                    it.remove();
+                    if (admitted == null) {
+                        admitted = new ArrayList<>();
+                    }
+                    admitted.add(waiter);
+                } else if (isStarving(waiter, now)) {
+                    break;
+                }
+            }
+        }
+
+        if (admitted == null) {
+            return;
+        }
+        for (Waiter waiter : admitted) {
+            waiter.expiration.cancel(false);
+            waitTimeMsHistogram.update(now - waiter.enqueuedAtMs);
+            try {
+                process(waiter.request, waiter.context, waiter.weight);
+            } catch (RuntimeException ex) {
+                LOGGER.error("Cannot process resumed request", ex);
+            }
+        }
+    }
+
+    private void expire(Waiter waiter) {
+        synchronized (lock) {
+            if (!queue.remove(waiter)) {
+                return;// Request has been already admitted
+            }
+        }
+        expiredRequestsMeter.mark();
+        waitTimeMsHistogram.update(System.currentTimeMillis() - waiter.enqueuedAtMs);
+        throttledRequestProcessor.processAsync(waiter.request, ThrottledBy.EXPIRATION);
+
+        // Expired request might reserve the capacity, thus requests behind it should be resumed
+        release(0);
+    }
+
+    /**
+     * Requests are parked in FIFO order, thus the head of the queue is starving if any parked request is
+     *
+     * @param waiter the parked request or {@code null}
+     * @param now    current time in millis
+     * @return {@code true} if the request has been parked longer than starvation timeout
+     */
+    private boolean isStarving(Waiter waiter, long now) {
+        return waiter != null && now - waiter.enqueuedAtMs >= starvationTimeout;
+    }
+
+    private int queueSize() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    private long availableCapacity() {
+        synchronized (lock) {
+            return available;
+        }
+    }
+
+    /**
+     * Request is parked in the admission queue
+     */
+    private class Waiter {
+        private final R request;
+        private final C context;
+        private final int weight;
+        private final long enqueuedAtMs;
+        private volatile ScheduledFuture<?> expiration;
+
+        Waiter(R request, C context, int weight, long enqueuedAtMs) {
+            this.request = request;
+            this.context = context;
+            this.weight = weight;
+            this.enqueuedAtMs = enqueuedAtMs;
+        }
     }
 }
@@ -0,0 +1,289 @@
+package ru.kontur.vostok.hercules.throttling;
+
+import com.codahale.metrics.Meter;
+import ru.kontur.vostok.hercules.health.MetricsCollector;
+import ru.kontur.vostok.hercules.util.properties.PropertyDescription;
+import ru.kontur.vostok.hercules.util.properties.PropertyDescriptions;
+import ru.kontur.vostok.hercules.util.validation.LongValidators;
+import ru.kontur.vostok.hercules.util.validation.Validators;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quota throttle isolates API keys from each other
+ * <p>
+ * Request is checked against token buckets of its API key and its stream for both bytes per second and requests per second.
+ * Then the request is admitted if there is enough capacity. When usage of the capacity exceeds the fair sharing threshold,
+ * each active API key is limited by its weighted share of the capacity, where active API key is the one with requests in progress.
+ * Thus, a single noisy API key cannot take all the capacity.
+ * <p>
+ * Unlike {@link CapacityThrottle}, requests are never parked: request which exceeds the quota is throttled immediately.
+ */
+public class QuotaThrottle<R, C> implements Throttle<R, C> {
+
+    private static class Props {
+        static final PropertyDescription<Long> CAPACITY = PropertyDescriptions
+                .longProperty(ThrottlingProperties.CAPACITY)
+                .withDefaultValue(ThrottlingDefaults.DEFAULT_CAPACITY)
+                .withValidator(Validators.greaterThan(0L))
+                .build();
+
+        static final PropertyDescription<Long> QUOTA_BURST_MS = PropertyDescriptions
+                .longProperty(ThrottlingProperties.QUOTA_BURST)
+                .withDefaultValue(ThrottlingDefaults.DEFAULT_QUOTA_BURST)
+                .withValidator(LongValidators.positive())
+                .build();
+
+        static final PropertyDescription<Integer> FAIR_SHARING_THRESHOLD = PropertyDescriptions
+                .integerProperty(ThrottlingProperties.FAIR_SHARING_THRESHOLD)
+                .withDefaultValue(ThrottlingDefaults.DEFAULT_FAIR_SHARING_THRESHOLD)
+                .withValidator(Validators.interval(0, 101))
+                .build();
+    }
+
+    private final long capacity;
+    private final long burstMs;
+    private final long fairSharingThreshold;
+
+    private final RequestWeigher<R> weigher;
+    private final RequestClassifier<C> classifier;
+    private final RateLimitProvider rateLimitProvider;
+    private final RequestProcessor<R, C> requestProcessor;
+    private final ThrottledRequestProcessor<R> throttledRequestProcessor;
+
+    private final ConcurrentHashMap<String, Buckets> apiKeyBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Buckets> streamBuckets = new ConcurrentHashMap<>();
+
+    private final Object lock = new Object();
+    private final Map<String, Tenant> activeTenants = new HashMap<>();
+    private long activeWeight;
+    private long used;
+
+    private final Meter rateLimitedRequestsMeter;
+    private final Meter fairShareLimitedRequestsMeter;
+    private final Meter overflowedRequestsMeter;
+
+    /**
+     * @param properties                configuration properties
+     * @param weigher                   request's weigher to weigh resources are used to process request
+     * @param classifier                extracts API key and stream from the request's context
+     * @param rateLimitProvider         provides rate limits of API keys and streams
+     * @param requestProcessor          processes requests
+     * @param throttledRequestProcessor processes throttled (discarded by some reasons) requests
+     * @param metricsCollector          metrics collector
+     */
+    public QuotaThrottle(
+            Properties properties,
+            RequestWeigher<R> weigher,
+            RequestClassifier<C> classifier,
+            RateLimitProvider rateLimitProvider,
+            RequestProcessor<R, C> requestProcessor,
+            ThrottledRequestProcessor<R> throttledRequestProcessor,
+            MetricsCollector metricsCollector
+    ) {
+        this.capacity = Props.CAPACITY.extract(properties);
+        this.burstMs = Props.QUOTA_BURST_MS.extract(properties);
+        this.fairSharingThreshold = capacity * Props.FAIR_SHARING_THRESHOLD.extract(properties) / 100;
+
+        this.weigher = weigher;
+        this.classifier = classifier;
+        this.rateLimitProvider = rateLimitProvider;
+        this.requestProcessor = requestProcessor;
+        this.throttledRequestProcessor = throttledRequestProcessor;
+
+        metricsCollector.gauge("throttling.usedCapacity", this::usedCapacity);
+        metricsCollector.gauge("throttling.activeApiKeys", this::activeApiKeys);
+        this.rateLimitedRequestsMeter = metricsCollector.meter("throttling.rateLimitedRequests");
+        this.fairShareLimitedRequestsMeter = metricsCollector.meter("throttling.fairShareLimitedRequests");
+        this.overflowedRequestsMeter = metricsCollector.meter("throttling.overflowedRequests");
+    }
+
+    @Override
+    public void throttleAsync(R request, C context) {
+        int weight = weigher.weigh(request);
+        if (weight < 0) {
+            throw new IllegalStateException("Request is invalid");
+        }
+
+        String apiKey = classifier.apiKey(context);
+        String stream = classifier.stream(context);
+        RateLimit apiKeyLimit = rateLimitProvider.apiKeyLimit(apiKey);
+        RateLimit streamLimit = rateLimitProvider.streamLimit(stream);
+        rateLimitProvider.observe(apiKey, stream, weight);
+
+        long now = System.nanoTime();
+        Buckets apiKeyBucket = buckets(apiKeyBuckets, apiKey, apiKeyLimit, now);
+        if (apiKeyBucket != null && !apiKeyBucket.tryAcquire(weight, now)) {
+            rateLimitedRequestsMeter.mark();
+            throttledRequestProcessor.processAsync(request, ThrottledBy.QUOTA);
+            return;
+        }
+        Buckets streamBucket = buckets(streamBuckets, stream, streamLimit, now);
+        if (streamBucket != null && !streamBucket.tryAcquire(weight, now)) {
+            refund(apiKeyBucket, weight);
+            rateLimitedRequestsMeter.mark();
+            throttledRequestProcessor.processAsync(request, ThrottledBy.QUOTA);
+            return;
+        }
+
+        ThrottledBy throttledBy = null;
+        Tenant tenant;
+        synchronized (lock) {
+            tenant = activeTenants.get(apiKey);
+            if (used + weight > capacity) {
+                throttledBy = ThrottledBy.QUEUE_OVERFLOW;
+            } else if (used + weight > fairSharingThreshold) {
+                long tenantWeight = (tenant != null) ? tenant.weight : apiKeyLimit.getWeight();
+                long totalWeight = activeWeight + ((tenant != null) ? 0 : tenantWeight);
+                long share = capacity * tenantWeight / totalWeight;
+                long inProgress = (tenant != null) ? tenant.inProgress : 0;
+                if (inProgress + weight > share) {
+                    throttledBy = ThrottledBy.QUOTA;
+                }
+            }
+
+            if (throttledBy == null) {
+                if (tenant == null) {
+                    tenant = new Tenant(apiKey, apiKeyLimit.getWeight());
+                    activeTenants.put(apiKey, tenant);
+                    activeWeight += tenant.weight;
+                }
+                tenant.inProgress += weight;
+                used += weight;
+            }
+        }
+
+        if (throttledBy != null) {
+            refund(apiKeyBucket, weight);
+            refund(streamBucket, weight);
+            if (throttledBy == ThrottledBy.QUOTA) {
+                fairShareLimitedRequestsMeter.mark();
+            } else {
+                overflowedRequestsMeter.mark();
+            }
+            throttledRequestProcessor.processAsync(request, throttledBy);
+            return;
+        }
+
+        Tenant admitted = tenant;
+        requestProcessor.processAsync(request, context, () -> release(admitted, weight));
+    }
+
+    @Override
+    public void shutdown(long timeout, TimeUnit unit) {
+    }
+
+    private void release(Tenant tenant, int weight) {
+        synchronized (lock) {
+            used -= weight;
+            tenant.inProgress -= weight;
+            if (tenant.inProgress == 0) {
+                activeTenants.remove(tenant.apiKey);
+                activeWeight -= tenant.weight;
+            }
+        }
+    }
+
+    /**
+     * Get buckets for the key. Buckets are resized if the rate limit has been changed
+     *
+     * @return buckets or {@code null} if the key is unlimited
+     */
+    private Buckets buckets(ConcurrentHashMap<String, Buckets> bucketsByKey, String key, RateLimit limit, long now) {
+        if (limit.isUnlimited()) {
+            bucketsByKey.remove(key);
+            return null;
+        }
+        Buckets buckets = bucketsByKey.get(key);
+        if (buckets == null || !buckets.limit.equals(limit)) {
+            buckets = new Buckets(limit, burstMs, now, buckets);
+            bucketsByKey.put(key, buckets);
+        }
+        return buckets;
+    }
+
+    private static void refund(Buckets buckets, int weight) {
+        if (buckets != null) {
+            buckets.refund(weight);
+        }
+    }
+
+    private long usedCapacity() {
+        synchronized (lock) {
+            return used;
+        }
+    }
+
+    private int activeApiKeys() {
+        synchronized (lock) {
+            return activeTenants.size();
+        }
+    }
+
+    /**
+     * Token buckets for bytes and requests of the single key
+     */
+    private static final class Buckets {
+        private final RateLimit limit;
+        private final TokenBucket bytes;
+        private final TokenBucket requests;
+
+        /**
+         * @param previous is the buckets of the previous limit, available tokens are carried over from them
+         */
+        Buckets(RateLimit limit, long burstMs, long now, Buckets previous) {
+            this.limit = limit;
+            this.bytes = limit.isBytesLimited()
+                    ? bucket(limit.getBytesPerSecond(), burstMs, now, previous != null ? previous.bytes : null)
+                    : null;
+            this.requests = limit.isRequestsLimited()
+                    ? bucket(limit.getRequestsPerSecond(), burstMs, now, previous != null ? previous.requests : null)
+                    : null;
+        }
+
+        boolean tryAcquire(int weight, long now) {
+            if (requests != null && !requests.tryAcquire(1, now)) {
+                return false;
+            }
+            if (bytes != null && !bytes.tryAcquire(weight, now)) {
+                if (requests != null) {
+                    requests.refund(1);
+                }
+                return false;
+            }
+            return true;
+        }
+
+        void refund(int weight) {
+            if (requests != null) {
+                requests.refund(1);
+            }
+            if (bytes != null) {
+                bytes.refund(weight);
+            }
+        }
+
+        private static TokenBucket bucket(long rate, long burstMs, long now, TokenBucket previous) {
+            long burst = Math.max(1L, rate * burstMs / 1_000L);
+            return previous != null ? previous.resize(rate, burst, now) : new TokenBucket(rate, burst, now);
+        }
+    }
+
+    /**
+     * API key with requests in progress
+     */
+    private static final class Tenant {
+        private final String apiKey;
+        private final long weight;
+        private long inProgress;
+
+        Tenant(String apiKey, long weight) {
+            this.apiKey = apiKey;
+            this.weight = weight;
+        }
+    }
+}
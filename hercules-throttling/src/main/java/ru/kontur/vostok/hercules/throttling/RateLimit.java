@@ -0,0 +1,82 @@
+package ru.kontur.vostok.hercules.throttling;
+
+/**
+ * Rate limit of requests for the single key (API key or stream)
+ * <p>
+ * Non-positive rate means the dimension is unlimited.
+ * Weight is used to share the throttle capacity between API keys when it is contended.
+ */
+public final class RateLimit {
+    public static final RateLimit UNLIMITED = new RateLimit(0L, 0L, 1);
+
+    private final long bytesPerSecond;
+    private final long requestsPerSecond;
+    private final int weight;
+
+    /**
+     * @param bytesPerSecond    is the max rate of request bytes
+     * @param requestsPerSecond is the max rate of requests
+     * @param weight            is the weight of the key in the fair sharing, should be positive
+     */
+    public RateLimit(long bytesPerSecond, long requestsPerSecond, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight should be positive but got " + weight);
+        }
+        this.bytesPerSecond = bytesPerSecond;
+        this.requestsPerSecond = requestsPerSecond;
+        this.weight = weight;
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    public long getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public boolean isBytesLimited() {
+        return bytesPerSecond > 0;
+    }
+
+    public boolean isRequestsLimited() {
+        return requestsPerSecond > 0;
+    }
+
+    public boolean isUnlimited() {
+        return !isBytesLimited() && !isRequestsLimited();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RateLimit)) {
+            return false;
+        }
+        RateLimit other = (RateLimit) o;
+        return bytesPerSecond == other.bytesPerSecond
+                && requestsPerSecond == other.requestsPerSecond
+                && weight == other.weight;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(bytesPerSecond);
+        result = 31 * result + Long.hashCode(requestsPerSecond);
+        result = 31 * result + weight;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimit{bytesPerSecond=" + bytesPerSecond
+                + ", requestsPerSecond=" + requestsPerSecond
+                + ", weight=" + weight + '}';
+    }
+}
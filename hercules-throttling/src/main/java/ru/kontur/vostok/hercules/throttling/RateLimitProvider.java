@@ -0,0 +1,28 @@
+package ru.kontur.vostok.hercules.throttling;
+
+/**
+ * Provides rate limits for API keys and streams
+ */
+public interface RateLimitProvider {
+    /**
+     * @param apiKey is the API key
+     * @return rate limit of the API key or {@link RateLimit#UNLIMITED} if there is no limit
+     */
+    RateLimit apiKeyLimit(String apiKey);
+
+    /**
+     * @param stream is the stream name
+     * @return rate limit of the stream or {@link RateLimit#UNLIMITED} if there is no limit
+     */
+    RateLimit streamLimit(String stream);
+
+    /**
+     * Observe the request before it is throttled. It is used to measure demand on limits
+     *
+     * @param apiKey is the API key
+     * @param stream is the stream name
+     * @param weight is the weight of the request
+     */
+    default void observe(String apiKey, String stream, int weight) {
+    }
+}
@@ -0,0 +1,18 @@
+package ru.kontur.vostok.hercules.throttling;
+
+/**
+ * Classify request by its context to find out which rate limits should be applied
+ */
+public interface RequestClassifier<C> {
+    /**
+     * @param context is additional request's data
+     * @return API key of the request
+     */
+    String apiKey(C context);
+
+    /**
+     * @param context is additional request's data
+     * @return stream of the request
+     */
+    String stream(C context);
+}
@@ -6,5 +6,6 @@ package ru.kontur.vostok.hercules.throttling;
 public enum ThrottledBy {
     EXPIRATION,
     QUEUE_OVERFLOW,
-    INTERRUPTION;
+    INTERRUPTION,
+    QUOTA;
 }
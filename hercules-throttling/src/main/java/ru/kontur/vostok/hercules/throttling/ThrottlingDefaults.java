@@ -9,6 +9,10 @@ public final class ThrottlingDefaults {
     public static final long DEFAULT_CAPACITY = 100_000_000L;
     public static final SizeUnit DEFAULT_CAPACITY_UNIT = SizeUnit.BYTES;
     public static final long DEFAULT_REQUEST_TIMEOUT = 5_000L;
+    public static final int DEFAULT_QUEUE_SIZE = 10_000;
+    public static final long DEFAULT_STARVATION_TIMEOUT = 1_000L;
+    public static final long DEFAULT_QUOTA_BURST = 1_000L;
+    public static final int DEFAULT_FAIR_SHARING_THRESHOLD = 80;
 
     private ThrottlingDefaults() {}
 }
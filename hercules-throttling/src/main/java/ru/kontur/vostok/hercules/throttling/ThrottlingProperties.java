@@ -12,4 +12,20 @@ public final class ThrottlingProperties {
      * request's timeout. Timeout is measured in milliseconds
      */
     public static final String REQUEST_TIMEOUT = "requestTimeout";
+    /**
+     * max count of requests are waiting for free resources
+     */
+    public static final String QUEUE_SIZE = "queueSize";
+    /**
+     * wait time of the parked request after which the request reserves released resources. Time is measured in milliseconds
+     */
+    public static final String STARVATION_TIMEOUT = "starvationTimeout";
+    /**
+     * max burst of rate limits. Burst is measured in milliseconds of the rate
+     */
+    public static final String QUOTA_BURST = "quota.burstMs";
+    /**
+     * percent of used capacity when API keys are limited by their fair shares
+     */
+    public static final String FAIR_SHARING_THRESHOLD = "fairSharing.threshold";
 }
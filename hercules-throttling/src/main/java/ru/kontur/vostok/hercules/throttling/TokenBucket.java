@@ -0,0 +1,103 @@
+package ru.kontur.vostok.hercules.throttling;
+
+/**
+ * Token bucket is refilled with {@code rate} tokens per second and holds at most {@code burst} tokens
+ * <p>
+ * Acquisition of more tokens than the burst is allowed if the bucket is full, thus the bucket goes into debt
+ * and the large request is not rejected forever.
+ * <p>
+ * Time is passed explicitly in nanoseconds, see {@link System#nanoTime()}.
+ */
+public final class TokenBucket {
+    private static final double NANOS_IN_SECOND = 1_000_000_000.0;
+
+    private final long rate;
+    private final long burst;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param rate      is the count of tokens per second
+     * @param burst     is the max count of tokens in the bucket
+     * @param nowNanos  is the current time in nanoseconds
+     */
+    public TokenBucket(long rate, long burst, long nowNanos) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Rate should be positive but got " + rate);
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("Burst should be positive but got " + burst);
+        }
+        this.rate = rate;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * Try to acquire tokens
+     *
+     * @param amount   is the count of tokens
+     * @param nowNanos is the current time in nanoseconds
+     * @return {@code true} if tokens has been acquired, otherwise {@code false}
+     */
+    public synchronized boolean tryAcquire(long amount, long nowNanos) {
+        refill(nowNanos);
+        if (tokens < Math.min(amount, burst)) {
+            return false;
+        }
+        tokens -= amount;
+        return true;
+    }
+
+    /**
+     * Return previously acquired tokens back to the bucket
+     *
+     * @param amount is the count of tokens
+     */
+    public synchronized void refund(long amount) {
+        tokens = Math.min(burst, tokens + amount);
+    }
+
+    /**
+     * @param nowNanos is the current time in nanoseconds
+     * @return count of available tokens, it is negative if the bucket is in debt
+     */
+    public synchronized long available(long nowNanos) {
+        refill(nowNanos);
+        return (long) tokens;
+    }
+
+    /**
+     * Create the bucket with new rate and burst. Available tokens are carried over to the new bucket
+     *
+     * @param rate     is the count of tokens per second
+     * @param burst    is the max count of tokens in the bucket
+     * @param nowNanos is the current time in nanoseconds
+     * @return new bucket
+     */
+    public synchronized TokenBucket resize(long rate, long burst, long nowNanos) {
+        refill(nowNanos);
+        TokenBucket bucket = new TokenBucket(rate, burst, nowNanos);
+        bucket.tokens = Math.min(burst, tokens);
+        return bucket;
+    }
+
+    public long getRate() {
+        return rate;
+    }
+
+    public long getBurst() {
+        return burst;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsedNanos = nowNanos - lastRefillNanos;
+        if (elapsedNanos <= 0) {
+            return;
+        }
+        tokens = Math.min(burst, tokens + elapsedNanos * rate / NANOS_IN_SECOND);
+        lastRefillNanos = nowNanos;
+    }
+}
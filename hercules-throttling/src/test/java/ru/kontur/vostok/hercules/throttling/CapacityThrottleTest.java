@@ -0,0 +1,176 @@
+package ru.kontur.vostok.hercules.throttling;
+
+import org.junit.Test;
+import ru.kontur.vostok.hercules.throttling.ThrottleRecorder.Request;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static ru.kontur.vostok.hercules.throttling.ThrottleRecorder.await;
+
+public class CapacityThrottleTest {
+
+    @Test
+    public void shouldAdmitParkAndResumeOnRelease() {
+        ThrottleRecorder<Void> recorder = new ThrottleRecorder<>();
+        CapacityThrottle<Request, Void> throttle = throttle(recorder, 10_000L, 10_000L);
+
+        Request first = new Request(6);
+        Request heavy = new Request(6);
+        Request light = new Request(4);
+        throttle.throttleAsync(first, null);
+        throttle.throttleAsync(heavy, null);
+        throttle.throttleAsync(light, null);
+
+        assertTrue(recorder.isProcessed(first));
+        assertFalse(recorder.isProcessed(heavy));
+        assertTrue("Light request bypasses parked heavy request", recorder.isProcessed(light));
+
+        recorder.complete(first);
+        assertTrue(recorder.isProcessed(heavy));
+
+        throttle.shutdown(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void shouldRejectRequestHeavierThanCapacity() {
+        ThrottleRecorder<Void> recorder = new ThrottleRecorder<>();
+        CapacityThrottle<Request, Void> throttle = throttle(recorder, 10_000L, 10_000L);
+
+        Request request = new Request(11);
+        throttle.throttleAsync(request, null);
+
+        assertEquals(ThrottledBy.QUEUE_OVERFLOW, recorder.throttledBy(request));
+
+        throttle.shutdown(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void shouldReserveCapacityForStarvingRequest() {
+        ThrottleRecorder<Void> recorder = new ThrottleRecorder<>();
+        CapacityThrottle<Request, Void> throttle = throttle(recorder, 10_000L, 0L);
+
+        Request first = new Request(5);
+        Request second = new Request(5);
+        Request heavy = new Request(8);
+        Request light = new Request(2);
+        throttle.throttleAsync(first, null);
+        throttle.throttleAsync(second, null);
+        throttle.throttleAsync(heavy, null);
+        throttle.throttleAsync(light, null);
+
+        recorder.complete(second);
+        assertFalse(recorder.isProcessed(heavy));
+        assertFalse("Released capacity is reserved for starving request", recorder.isProcessed(light));
+
+        Request newcomer = new Request(1);
+        throttle.throttleAsync(newcomer, null);
+        assertFalse("New request does not bypass starving request", recorder.isProcessed(newcomer));
+
+        recorder.complete(first);
+        assertTrue(recorder.isProcessed(heavy));
+        assertTrue(recorder.isProcessed(light));
+
+        throttle.shutdown(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void shouldExpireParkedRequest() throws Exception {
+        ThrottleRecorder<Void> recorder = new ThrottleRecorder<>();
+        CapacityThrottle<Request, Void> throttle = throttle(recorder, 50L, 10_000L);
+
+        Request first = new Request(10);
+        Request parked = new Request(5);
+        throttle.throttleAsync(first, null);
+        throttle.throttleAsync(parked, null);
+
+        await(() -> recorder.throttledBy(parked) != null);
+        assertEquals(ThrottledBy.EXPIRATION, recorder.throttledBy(parked));
+
+        recorder.complete(first);
+        assertFalse(recorder.isProcessed(parked));
+
+        throttle.shutdown(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void shouldResumeRequestsBehindExpiredStarvingRequest() throws Exception {
+        ThrottleRecorder<Void> recorder = new ThrottleRecorder<>();
+        CapacityThrottle<Request, Void> throttle = throttle(recorder, 50L, 0L);
+
+        Request first = new Request(5);
+        Request heavy = new Request(8);
+        throttle.throttleAsync(first, null);
+        throttle.throttleAsync(heavy, null);
+        Request light = new Request(2);
+        throttle.throttleAsync(light, null);
+        assertFalse(recorder.isProcessed(light));
+
+        await(() -> recorder.throttledBy(heavy) != null);
+        await(() -> recorder.isProcessed(light));
+
+        throttle.shutdown(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void shouldEitherResumeOrExpireWhenExpirationRacesWithRelease() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            ThrottleRecorder<Void> recorder = new ThrottleRecorder<>();
+            CapacityThrottle<Request, Void> throttle = throttle(recorder, 1L, 10_000L);
+
+            Request first = new Request(10);
+            Request parked = new Request(5);
+            throttle.throttleAsync(first, null);
+            throttle.throttleAsync(parked, null);
+
+            recorder.complete(first);
+            await(() -> recorder.isProcessed(parked) || recorder.throttledBy(parked) != null);
+            Thread.sleep(2);
+
+            assertTrue(recorder.isProcessed(parked) ^ recorder.throttledBy(parked) != null);
+            if (recorder.isProcessed(parked)) {
+                recorder.complete(parked);
+            }
+            Request next = new Request(10);
+            throttle.throttleAsync(next, null);
+            assertTrue("Capacity is not leaked", recorder.isProcessed(next));
+
+            throttle.shutdown(0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    public void shouldDiscardParkedRequestsOnShutdown() {
+        ThrottleRecorder<Void> recorder = new ThrottleRecorder<>();
+        CapacityThrottle<Request, Void> throttle = throttle(recorder, 10_000L, 10_000L);
+
+        Request first = new Request(10);
+        Request parked = new Request(5);
+        throttle.throttleAsync(first, null);
+        throttle.throttleAsync(parked, null);
+
+        throttle.shutdown(0, TimeUnit.MILLISECONDS);
+        assertEquals(ThrottledBy.INTERRUPTION, recorder.throttledBy(parked));
+
+        Request late = new Request(1);
+        throttle.throttleAsync(late, null);
+        assertEquals(ThrottledBy.INTERRUPTION, recorder.throttledBy(late));
+
+        recorder.complete(first);
+        assertEquals(1, recorder.processedCount());
+        assertNull(recorder.throttledBy(first));
+    }
+
+    private static CapacityThrottle<Request, Void> throttle(ThrottleRecorder<Void> recorder, long requestTimeoutMs, long starvationTimeoutMs) {
+        Properties properties = new Properties();
+        properties.setProperty(ThrottlingProperties.CAPACITY, "10");
+        properties.setProperty(ThrottlingProperties.REQUEST_TIMEOUT, String.valueOf(requestTimeoutMs));
+        properties.setProperty(ThrottlingProperties.QUEUE_SIZE, "10");
+        properties.setProperty(ThrottlingProperties.STARVATION_TIMEOUT, String.valueOf(starvationTimeoutMs));
+        return new CapacityThrottle<>(properties, recorder, recorder, recorder, ThrottleRecorder.metricsCollector());
+    }
+}
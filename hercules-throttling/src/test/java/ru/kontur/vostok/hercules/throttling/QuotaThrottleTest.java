@@ -0,0 +1,195 @@
+package ru.kontur.vostok.hercules.throttling;
+
+import org.junit.Test;
+import ru.kontur.vostok.hercules.throttling.ThrottleRecorder.Request;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QuotaThrottleTest {
+    private static final String[] A = {"a", "stream"};
+    private static final String[] B = {"b", "stream"};
+
+    @Test
+    public void shouldThrottleByApiKeyRate() {
+        ThrottleRecorder<String[]> recorder = new ThrottleRecorder<>();
+        Limits limits = new Limits().apiKey("a", new RateLimit(100, 0, 1));
+        QuotaThrottle<Request, String[]> throttle = throttle(recorder, limits, 1_000, 80);
+
+        Request first = new Request(60);
+        Request second = new Request(60);
+        throttle.throttleAsync(first, A);
+        throttle.throttleAsync(second, A);
+
+        assertTrue(recorder.isProcessed(first));
+        assertEquals(ThrottledBy.QUOTA, recorder.throttledBy(second));
+    }
+
+    @Test
+    public void shouldRefundApiKeyQuotaIfStreamQuotaIsExceeded() {
+        ThrottleRecorder<String[]> recorder = new ThrottleRecorder<>();
+        Limits limits = new Limits()
+                .apiKey("a", new RateLimit(100, 0, 1))
+                .stream("limited", new RateLimit(50, 0, 1));
+        QuotaThrottle<Request, String[]> throttle = throttle(recorder, limits, 1_000, 80);
+
+        Request drainingStream = new Request(50);
+        throttle.throttleAsync(drainingStream, new String[]{"c", "limited"});
+        assertTrue(recorder.isProcessed(drainingStream));
+
+        Request throttled = new Request(30);
+        throttle.throttleAsync(throttled, new String[]{"a", "limited"});
+        assertEquals(ThrottledBy.QUOTA, recorder.throttledBy(throttled));
+
+        Request full = new Request(100);
+        throttle.throttleAsync(full, A);
+        assertTrue("API key quota is refunded", recorder.isProcessed(full));
+    }
+
+    @Test
+    public void shouldRefundQuotasIfCapacityIsExceeded() {
+        ThrottleRecorder<String[]> recorder = new ThrottleRecorder<>();
+        Limits limits = new Limits().apiKey("b", new RateLimit(100, 0, 1));
+        QuotaThrottle<Request, String[]> throttle = throttle(recorder, limits, 100, 100);
+
+        Request heavy = new Request(100);
+        throttle.throttleAsync(heavy, A);
+        Request overflowed = new Request(50);
+        throttle.throttleAsync(overflowed, B);
+        assertEquals(ThrottledBy.QUEUE_OVERFLOW, recorder.throttledBy(overflowed));
+
+        recorder.complete(heavy);
+        Request full = new Request(100);
+        throttle.throttleAsync(full, B);
+        assertTrue("API key quota is refunded", recorder.isProcessed(full));
+    }
+
+    @Test
+    public void shouldLimitApiKeysByWeightedSharesAboveThreshold() {
+        ThrottleRecorder<String[]> recorder = new ThrottleRecorder<>();
+        Limits limits = new Limits().apiKey("b", new RateLimit(0, 1_000, 3));
+        QuotaThrottle<Request, String[]> throttle = throttle(recorder, limits, 100, 50);
+
+        Request a1 = new Request(40);
+        Request b1 = new Request(40);
+        Request a2 = new Request(20);
+        Request b2 = new Request(20);
+        throttle.throttleAsync(a1, A);
+        throttle.throttleAsync(b1, B);
+        throttle.throttleAsync(a2, A);
+        throttle.throttleAsync(b2, B);
+
+        assertTrue(recorder.isProcessed(a1));
+        assertTrue(recorder.isProcessed(b1));
+        assertEquals("Share of 'a' is 100 * 1 / 4", ThrottledBy.QUOTA, recorder.throttledBy(a2));
+        assertTrue("Share of 'b' is 100 * 3 / 4", recorder.isProcessed(b2));
+    }
+
+    @Test
+    public void shouldMultiplyCapacityBeforeDivisionByTotalWeight() {
+        ThrottleRecorder<String[]> recorder = new ThrottleRecorder<>();
+        Limits limits = new Limits().apiKey("b", new RateLimit(0, 1_000, 3));
+        QuotaThrottle<Request, String[]> throttle = throttle(recorder, limits, 10, 0);
+
+        Request a = new Request(1);
+        Request b = new Request(7);
+        throttle.throttleAsync(a, A);
+        throttle.throttleAsync(b, B);
+
+        assertTrue(recorder.isProcessed(a));
+        assertTrue("Share of 'b' is 10 * 3 / 4 = 7", recorder.isProcessed(b));
+    }
+
+    @Test
+    public void shouldNotShareCapacityBelowThreshold() {
+        ThrottleRecorder<String[]> recorder = new ThrottleRecorder<>();
+        QuotaThrottle<Request, String[]> throttle = throttle(recorder, new Limits(), 150, 80);
+
+        Request a1 = new Request(60);
+        Request b = new Request(30);
+        Request a2 = new Request(20);
+        throttle.throttleAsync(a1, A);
+        throttle.throttleAsync(b, B);
+        throttle.throttleAsync(a2, A);
+
+        assertTrue(recorder.isProcessed(a1));
+        assertTrue(recorder.isProcessed(b));
+        assertTrue("Threshold is 150 * 80 / 100 = 120", recorder.isProcessed(a2));
+    }
+
+    @Test
+    public void shouldFreeShareOfInactiveApiKey() {
+        ThrottleRecorder<String[]> recorder = new ThrottleRecorder<>();
+        QuotaThrottle<Request, String[]> throttle = throttle(recorder, new Limits(), 200, 0);
+
+        Request a = new Request(50);
+        Request b1 = new Request(110);
+        throttle.throttleAsync(a, A);
+        throttle.throttleAsync(b1, B);
+        assertEquals(ThrottledBy.QUOTA, recorder.throttledBy(b1));
+
+        recorder.complete(a);
+        Request b2 = new Request(110);
+        throttle.throttleAsync(b2, B);
+        assertTrue(recorder.isProcessed(b2));
+        assertNull(recorder.throttledBy(b2));
+    }
+
+    private static QuotaThrottle<Request, String[]> throttle(
+            ThrottleRecorder<String[]> recorder,
+            Limits limits,
+            long capacity,
+            int fairSharingThreshold) {
+        Properties properties = new Properties();
+        properties.setProperty(ThrottlingProperties.CAPACITY, String.valueOf(capacity));
+        properties.setProperty(ThrottlingProperties.FAIR_SHARING_THRESHOLD, String.valueOf(fairSharingThreshold));
+        return new QuotaThrottle<>(
+                properties,
+                recorder,
+                new RequestClassifier<String[]>() {
+                    @Override
+                    public String apiKey(String[] context) {
+                        return context[0];
+                    }
+
+                    @Override
+                    public String stream(String[] context) {
+                        return context[1];
+                    }
+                },
+                limits,
+                recorder,
+                recorder,
+                ThrottleRecorder.metricsCollector());
+    }
+
+    private static final class Limits implements RateLimitProvider {
+        private final Map<String, RateLimit> apiKeyLimits = new HashMap<>();
+        private final Map<String, RateLimit> streamLimits = new HashMap<>();
+
+        Limits apiKey(String apiKey, RateLimit limit) {
+            apiKeyLimits.put(apiKey, limit);
+            return this;
+        }
+
+        Limits stream(String stream, RateLimit limit) {
+            streamLimits.put(stream, limit);
+            return this;
+        }
+
+        @Override
+        public RateLimit apiKeyLimit(String apiKey) {
+            return apiKeyLimits.getOrDefault(apiKey, RateLimit.UNLIMITED);
+        }
+
+        @Override
+        public RateLimit streamLimit(String stream) {
+            return streamLimits.getOrDefault(stream, RateLimit.UNLIMITED);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.kontur.vostok.hercules.throttling;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.UniformReservoir;
+import org.mockito.Mockito;
+import ru.kontur.vostok.hercules.health.MetricsCollector;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * Records processed and throttled requests of the throttle under test
+ */
+class ThrottleRecorder<C> implements
+        RequestWeigher<ThrottleRecorder.Request>,
+        RequestProcessor<ThrottleRecorder.Request, C>,
+        ThrottledRequestProcessor<ThrottleRecorder.Request> {
+    private final Map<Request, ThrottleCallback> inProgress = new ConcurrentHashMap<>();
+    private final Map<Request, Boolean> processed = new ConcurrentHashMap<>();
+    private final Map<Request, ThrottledBy> throttled = new ConcurrentHashMap<>();
+
+    static MetricsCollector metricsCollector() {
+        MetricsCollector metricsCollector = Mockito.mock(MetricsCollector.class);
+        Mockito.when(metricsCollector.meter(anyString())).thenAnswer(invocation -> new Meter());
+        Mockito.when(metricsCollector.histogram(anyString())).thenAnswer(invocation -> new Histogram(new UniformReservoir()));
+        return metricsCollector;
+    }
+
+    static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue("Condition is not met in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    @Override
+    public int weigh(Request request) {
+        return request.weight;
+    }
+
+    @Override
+    public void processAsync(Request request, C context, ThrottleCallback callback) {
+        inProgress.put(request, callback);
+        processed.put(request, Boolean.TRUE);
+    }
+
+    @Override
+    public void processAsync(Request request, ThrottledBy throttledBy) {
+        throttled.put(request, throttledBy);
+    }
+
+    /**
+     * Signal the throttle that the request is completed
+     */
+    void complete(Request request) {
+        inProgress.remove(request).call();
+    }
+
+    boolean isProcessed(Request request) {
+        return processed.containsKey(request);
+    }
+
+    int processedCount() {
+        return processed.size();
+    }
+
+    ThrottledBy throttledBy(Request request) {
+        return throttled.get(request);
+    }
+
+    static final class Request {
+        private final int weight;
+
+        Request(int weight) {
+            this.weight = weight;
+        }
+    }
+}
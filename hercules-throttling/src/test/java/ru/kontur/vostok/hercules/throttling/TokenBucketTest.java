@@ -0,0 +1,65 @@
+package ru.kontur.vostok.hercules.throttling;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void shouldAcquireUpToBurst() {
+        TokenBucket bucket = new TokenBucket(100, 200, 0);
+
+        assertTrue(bucket.tryAcquire(150, 0));
+        assertTrue(bucket.tryAcquire(50, 0));
+        assertFalse(bucket.tryAcquire(1, 0));
+    }
+
+    @Test
+    public void shouldRefillWithRate() {
+        TokenBucket bucket = new TokenBucket(100, 200, 0);
+        assertTrue(bucket.tryAcquire(200, 0));
+
+        assertFalse(bucket.tryAcquire(60, SECOND / 2));
+        assertTrue(bucket.tryAcquire(50, SECOND / 2));
+        assertEquals(200, bucket.available(10 * SECOND));
+    }
+
+    @Test
+    public void shouldAllowRequestLargerThanBurstIfBucketIsFull() {
+        TokenBucket bucket = new TokenBucket(100, 200, 0);
+
+        assertTrue(bucket.tryAcquire(500, 0));
+        assertEquals(-300, bucket.available(0));
+        assertFalse(bucket.tryAcquire(1, 2 * SECOND));
+        assertTrue(bucket.tryAcquire(1, 3 * SECOND + 10_000_000L));
+    }
+
+    @Test
+    public void shouldRefundTokens() {
+        TokenBucket bucket = new TokenBucket(100, 200, 0);
+        assertTrue(bucket.tryAcquire(200, 0));
+
+        bucket.refund(120);
+        assertTrue(bucket.tryAcquire(120, 0));
+
+        bucket.refund(1_000);
+        assertEquals(200, bucket.available(0));
+    }
+
+    @Test
+    public void shouldCarryOverTokensOnResize() {
+        TokenBucket bucket = new TokenBucket(100, 200, 0);
+        assertTrue(bucket.tryAcquire(150, 0));
+
+        TokenBucket resized = bucket.resize(1_000, 2_000, 0);
+        assertEquals(50, resized.available(0));
+        assertEquals(1_050, resized.available(SECOND));
+
+        TokenBucket shrunk = resized.resize(10, 20, SECOND);
+        assertEquals(20, shrunk.available(SECOND));
+    }
+}
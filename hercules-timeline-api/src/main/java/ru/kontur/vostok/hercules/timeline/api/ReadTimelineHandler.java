@@ -12,13 +12,12 @@ import ru.kontur.vostok.hercules.protocol.TimelineByteContent;
 import ru.kontur.vostok.hercules.protocol.TimelineState;
 import ru.kontur.vostok.hercules.protocol.decoder.Decoder;
 import ru.kontur.vostok.hercules.protocol.decoder.TimelineStateReader;
-import ru.kontur.vostok.hercules.protocol.encoder.Encoder;
+import ru.kontur.vostok.hercules.protocol.encoder.ByteArrayEncoder;
+import ru.kontur.vostok.hercules.protocol.encoder.CountingEncoder;
 import ru.kontur.vostok.hercules.protocol.encoder.TimelineByteContentWriter;
 import ru.kontur.vostok.hercules.undertow.util.ExchangeUtil;
 import ru.kontur.vostok.hercules.undertow.util.ResponseUtil;
 
-import java.io.ByteArrayOutputStream;
-import java.nio.ByteBuffer;
 import java.util.Deque;
 import java.util.Map;
 import java.util.Optional;
@@ -93,11 +92,10 @@ public class ReadTimelineHandler implements HttpHandler {
 
                     TimelineByteContent byteContent = timelineReader.readTimeline(timeline.get(), readState, shardIndex, shardCount, take, from, to);
 
-                    ByteArrayOutputStream stream = new ByteArrayOutputStream();
-                    Encoder encoder = new Encoder(stream);
+                    ByteArrayEncoder encoder = new ByteArrayEncoder(CountingEncoder.sizeOf(CONTENT_WRITER, byteContent));
                     CONTENT_WRITER.write(encoder, byteContent);
 
-                    exchange.getResponseSender().send(ByteBuffer.wrap(stream.toByteArray()));
+                    exchange.getResponseSender().send(encoder.toByteBuffer());
                 } catch (Exception e) {
                     LOGGER.error("Error on processing request", e);
                     exchange.setStatusCode(500);
@@ -42,8 +42,7 @@ public class SyncTimelineProcessor extends AbstractProcessor<UUID, Event> {
         int slice = slicer.slice(value);
         long ttOffset = TimeTrapUtil.toTimeTrapOffset(timeline.getTimetrapSize(), value.getTimestamp());
         ByteBuffer eventId = EventUtil.eventIdAsByteBuffer(value.getTimestamp(), value.getUuid());
-        byte[] payload = value.getBytes();
-        BoundStatement statement = prepared.bind(slice, ttOffset, eventId, ByteBuffer.wrap(payload));
+        BoundStatement statement = prepared.bind(slice, ttOffset, eventId, value.toByteBuffer());
         try {
             ResultSet result = session.execute(statement);
         } catch (Exception e) {
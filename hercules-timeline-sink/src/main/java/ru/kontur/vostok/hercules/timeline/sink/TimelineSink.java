@@ -21,6 +21,7 @@ import ru.kontur.vostok.hercules.partitioner.RandomPartitioner;
 import ru.kontur.vostok.hercules.partitioner.ShardingKey;
 import ru.kontur.vostok.hercules.protocol.Event;
 import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.util.ContainerUtil;
 
 import java.util.Arrays;
 import java.util.HashSet;
@@ -47,10 +48,15 @@ public class TimelineSink {
         }
         tags.addAll(Arrays.asList(timeline.getShardingKey()));
 
+        final String[][] filterPaths = new String[filters.length][];
+        for (int i = 0; i < filters.length; i++) {
+            filterPaths[i] = ContainerUtil.splitPath(filters[i].getTag());
+        }
+
         Predicate<UUID, Event> predicate = (k, v) -> {
-            for (Filter filter : filters) {
-                Variant value = v.getPayload().get(filter.getTag());
-                if (!filter.getCondition().test(value)) {
+            for (int i = 0; i < filters.length; i++) {
+                Variant value = ContainerUtil.get(v.getPayload(), filterPaths[i]);
+                if (!filters[i].getCondition().test(value)) {
                     return false;
                 }
             }
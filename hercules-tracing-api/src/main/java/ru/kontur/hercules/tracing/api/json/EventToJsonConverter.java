@@ -3,7 +3,7 @@ package ru.kontur.hercules.tracing.api.json;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import ru.kontur.hercules.tracing.api.cassandra.PagedResult;
-import ru.kontur.vostok.hercules.json.EventToJsonWriter;
+import ru.kontur.vostok.hercules.json.EventToJsonTranscoder;
 import ru.kontur.vostok.hercules.protocol.Event;
 
 import java.io.IOException;
@@ -53,6 +53,6 @@ public final class EventToJsonConverter {
     }
 
     public static void writeEventAsJson(final JsonGenerator jsonGenerator, final Event event) throws IOException {
-        EventToJsonWriter.writeContainer(jsonGenerator, event.getPayload());
+        EventToJsonTranscoder.transcodePayload(jsonGenerator, event);
     }
 }
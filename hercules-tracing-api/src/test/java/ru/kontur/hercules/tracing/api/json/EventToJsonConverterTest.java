@@ -0,0 +1,26 @@
+package ru.kontur.hercules.tracing.api.json;
+
+import org.junit.Test;
+import ru.kontur.hercules.tracing.api.cassandra.PagedResult;
+import ru.kontur.vostok.hercules.protocol.Event;
+import ru.kontur.vostok.hercules.protocol.Variant;
+import ru.kontur.vostok.hercules.protocol.util.EventBuilder;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class EventToJsonConverterTest {
+
+    @Test
+    public void shouldConvertEventWithStringTag() {
+        Event event = EventBuilder.create(0, "11203800-63fd-11e8-83e2-3a587d902000")
+                .tag("operation", Variant.ofString("GET /api"))
+                .tag("host", Variant.ofString("Хост"))
+                .build();
+
+        String json = EventToJsonConverter.pagedResultAsString(new PagedResult<>(Collections.singletonList(event), "state"));
+
+        assertEquals("{\"pagingState\":\"state\",\"result\":[{\"operation\":\"GET /api\",\"host\":\"Хост\"}]}", json);
+    }
+}
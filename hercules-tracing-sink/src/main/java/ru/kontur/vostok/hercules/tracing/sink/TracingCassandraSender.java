@@ -2,8 +2,9 @@ package ru.kontur.vostok.hercules.tracing.sink;
 
 import com.datastax.driver.core.Session;
 import ru.kontur.vostok.hercules.cassandra.common.sink.AbstractCassandraSender;
+import ru.kontur.vostok.hercules.protocol.Container;
 import ru.kontur.vostok.hercules.protocol.Event;
-import ru.kontur.vostok.hercules.protocol.util.ContainerUtil;
+import ru.kontur.vostok.hercules.protocol.util.TagAccessor;
 import ru.kontur.vostok.hercules.tags.TraceSpanTags;
 import ru.kontur.vostok.hercules.util.ObjectUtil;
 
@@ -20,26 +21,31 @@ public class TracingCassandraSender extends AbstractCassandraSender {
 
     private static final String TABLE_NAME = "tracing_spans";
 
+    private static final TagAccessor TRACE_ID = TraceSpanTags.TRACE_ID_TAG.accessor();
+    private static final TagAccessor SPAN_ID = TraceSpanTags.SPAN_ID_TAG.accessor();
+    private static final TagAccessor PARENT_SPAN_ID = TraceSpanTags.PARENT_SPAN_ID_TAG.accessor();
+
     public TracingCassandraSender(Session session) {
         super(session);
     }
 
     @Override
     protected Optional<Object[]> convert(Event event) {
-        final Optional<UUID> traceId = ContainerUtil.extract(event.getPayload(), TraceSpanTags.TRACE_ID_TAG);
-        final Optional<UUID> spanId = ContainerUtil.extract(event.getPayload(), TraceSpanTags.SPAN_ID_TAG);
+        final Container container = event.getPayload();
+        final UUID traceId = TRACE_ID.getUuid(container, null);
+        final UUID spanId = SPAN_ID.getUuid(container, null);
 
-        if (!(traceId.isPresent() && spanId.isPresent())) {
+        if (traceId == null || spanId == null) {
             return Optional.empty();
         }
 
-        final Optional<UUID> parentSpanId = ContainerUtil.extract(event.getPayload(), TraceSpanTags.PARENT_SPAN_ID_TAG);
-        final ByteBuffer payload = ByteBuffer.wrap(event.getBytes());
+        final UUID parentSpanId = PARENT_SPAN_ID.getUuid(container, null);
+        final ByteBuffer payload = event.toByteBuffer();
 
         return Optional.of(new Object[]{
-            traceId.get(),
-            ObjectUtil.nullToNilUuidValue(parentSpanId.orElse(null)),
-            spanId.get(),
+            traceId,
+            ObjectUtil.nullToNilUuidValue(parentSpanId),
+            spanId,
             payload
         });
     }
@@ -15,6 +15,10 @@ public class DefaultUndertowThrottledRequestProcessor implements ThrottledReques
     @Override
     public void processAsync(HttpServerExchange request, ThrottledBy throttledBy) {
         LOGGER.warn("Throttle request by " + throttledBy);
+        if (throttledBy == ThrottledBy.QUOTA) {
+            ResponseUtil.tooManyRequests(request);
+            return;
+        }
         ResponseUtil.serviceUnavailable(request);
     }
 }
@@ -3,6 +3,7 @@ package ru.kontur.vostok.hercules.undertow.util;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.util.Headers;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -69,11 +70,28 @@ public class ResponseUtil {
         exchange.endExchange();
     }
 
+    public static void unsupportedMediaType(HttpServerExchange exchange) {
+        exchange.setStatusCode(415);
+        exchange.endExchange();
+    }
+
     public static void unprocessableEntity(HttpServerExchange exchange) {
         exchange.setStatusCode(422);
         exchange.endExchange();
     }
 
+    public static void unprocessableEntity(HttpServerExchange exchange, String contentType, ByteBuffer body) {
+        exchange.setStatusCode(422);
+        exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, contentType);
+        exchange.getResponseSender().send(body);
+        exchange.endExchange();
+    }
+
+    public static void tooManyRequests(HttpServerExchange exchange) {
+        exchange.setStatusCode(429);
+        exchange.endExchange();
+    }
+
     public static void internalServerError(HttpServerExchange exchange) {
         exchange.setStatusCode(500);
         exchange.endExchange();
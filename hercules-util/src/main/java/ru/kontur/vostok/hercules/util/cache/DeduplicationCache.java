@@ -0,0 +1,239 @@
+package ru.kontur.vostok.hercules.util.cache;
+
+import java.util.Arrays;
+
+/**
+ * Memory-bounded cache of recently seen 64-bit fingerprints which is used to drop repeated items
+ * <p>
+ * Cache is split into shards to reduce lock contention. Each shard keeps two generations of fingerprints
+ * in open-addressing tables with linear probing. New fingerprints are added into the current generation.
+ * Generations are rotated when the current one is older than the window or is full, thus the oldest generation is discarded.
+ * So, fingerprint is remembered at least for the window unless the cache is overflowed, and at most for the two windows.
+ * <p>
+ * Different items may have the same fingerprint, thus the item is falsely treated as repeated with probability about {@code size / 2^64}.
+ * <p>
+ * Thread-safe
+ */
+public class DeduplicationCache {
+    private static final long EMPTY = 0L;
+    private static final long REMOVED = 1L;
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final long windowMs;
+
+    /**
+     * @param capacity is the max count of fingerprints in the single generation
+     * @param windowMs is the min time to remember fingerprint if the cache is not overflowed
+     * @param shards   is the count of shards, is rounded up to the power of two
+     */
+    public DeduplicationCache(int capacity, long windowMs, int shards) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity should be positive but got " + capacity);
+        }
+        if (windowMs <= 0) {
+            throw new IllegalArgumentException("Window should be positive but got " + windowMs);
+        }
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Count of shards should be positive but got " + shards);
+        }
+        int shardCount = ceilingPowerOfTwo(shards);
+        int shardCapacity = Math.max(1, capacity / shardCount);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new Shard(shardCapacity);
+        }
+        this.shardMask = shardCount - 1;
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Add fingerprint into the cache
+     *
+     * @param fingerprint is the fingerprint of the item
+     * @param nowMs       is the current time in millis
+     * @return {@code true} if the fingerprint has been added, or {@code false} if it has been already seen
+     */
+    public boolean add(long fingerprint, long nowMs) {
+        long value = normalize(fingerprint);
+        return shard(value).add(value, nowMs, windowMs);
+    }
+
+    /**
+     * Check if fingerprint has been already seen without adding it into the cache
+     *
+     * @param fingerprint is the fingerprint of the item
+     * @param nowMs       is the current time in millis
+     * @return {@code true} if the fingerprint has been already seen, otherwise {@code false}
+     */
+    public boolean contains(long fingerprint, long nowMs) {
+        long value = normalize(fingerprint);
+        return shard(value).contains(value, nowMs, windowMs);
+    }
+
+    /**
+     * Remove fingerprint from the cache, thus the item with the same fingerprint will not be treated as repeated
+     *
+     * @param fingerprint is the fingerprint of the item
+     */
+    public void remove(long fingerprint) {
+        long value = normalize(fingerprint);
+        shard(value).remove(value);
+    }
+
+    /**
+     * @return approximate count of fingerprints in the cache
+     */
+    public long size() {
+        long size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * Mix the key bits into the fingerprint
+     *
+     * @param key is the key
+     * @return fingerprint
+     */
+    public static long fingerprint(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private Shard shard(long value) {
+        return shards[(int) (value >>> 32) & shardMask];
+    }
+
+    /**
+     * Reserved values cannot be stored as is, thus they are shifted
+     */
+    private static long normalize(long fingerprint) {
+        return (fingerprint == EMPTY || fingerprint == REMOVED) ? fingerprint + 2 : fingerprint;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        int power = Integer.highestOneBit(value);
+        return (power < value) ? power << 1 : power;
+    }
+
+    private static final class Shard {
+        private final int capacity;
+        private final int mask;
+
+        private long[] current;
+        private long[] previous;
+        private int currentSize;
+        private int previousSize;
+        private long generationStartedAtMs = Long.MIN_VALUE;
+
+        Shard(int capacity) {
+            this.capacity = capacity;
+            int tableSize = ceilingPowerOfTwo(capacity * 2);
+            this.mask = tableSize - 1;
+            this.current = new long[tableSize];
+            this.previous = new long[tableSize];
+        }
+
+        synchronized boolean add(long value, long nowMs, long windowMs) {
+            rotateIfExpired(nowMs, windowMs);
+
+            if (contains(current, value) || contains(previous, value)) {
+                return false;
+            }
+            if (currentSize >= capacity) {
+                rotate(nowMs, false);
+            }
+            insert(current, value);
+            currentSize++;
+            return true;
+        }
+
+        synchronized boolean contains(long value, long nowMs, long windowMs) {
+            rotateIfExpired(nowMs, windowMs);
+
+            return contains(current, value) || contains(previous, value);
+        }
+
+        synchronized void remove(long value) {
+            remove(current, value);
+            remove(previous, value);
+        }
+
+        synchronized long size() {
+            return currentSize + previousSize;
+        }
+
+        private void rotateIfExpired(long nowMs, long windowMs) {
+            if (generationStartedAtMs == Long.MIN_VALUE) {
+                generationStartedAtMs = nowMs;
+            } else if (nowMs - generationStartedAtMs >= windowMs) {
+                rotate(nowMs, nowMs - generationStartedAtMs >= 2 * windowMs);
+            }
+        }
+
+        /**
+         * Discard the previous generation and start the new one
+         *
+         * @param discardAll is {@code true} if the current generation is expired too
+         */
+        private void rotate(long nowMs, boolean discardAll) {
+            long[] table = previous;
+            previous = current;
+            previousSize = currentSize;
+            Arrays.fill(table, EMPTY);
+            current = table;
+            currentSize = 0;
+            if (discardAll) {
+                Arrays.fill(previous, EMPTY);
+                previousSize = 0;
+            }
+            generationStartedAtMs = nowMs;
+        }
+
+        private boolean contains(long[] table, long value) {
+            int index = index(value);
+            long slot;
+            while ((slot = table[index]) != EMPTY) {
+                if (slot == value) {
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+            return false;
+        }
+
+        private void insert(long[] table, long value) {
+            int index = index(value);
+            while (table[index] != EMPTY && table[index] != REMOVED) {
+                index = (index + 1) & mask;
+            }
+            table[index] = value;
+        }
+
+        /**
+         * Removed slot is marked, thus probing is not broken. Marked slots are reused on insertion
+         */
+        private void remove(long[] table, long value) {
+            int index = index(value);
+            long slot;
+            while ((slot = table[index]) != EMPTY) {
+                if (slot == value) {
+                    table[index] = REMOVED;
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        private int index(long value) {
+            return (int) value & mask;
+        }
+    }
+}
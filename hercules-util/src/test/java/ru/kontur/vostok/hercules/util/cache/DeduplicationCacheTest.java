@@ -0,0 +1,77 @@
+package ru.kontur.vostok.hercules.util.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DeduplicationCacheTest {
+    @Test
+    public void shouldDetectRepeatedFingerprints() {
+        DeduplicationCache cache = new DeduplicationCache(1_000, 60_000, 4);
+
+        for (long i = 0; i < 500; i++) {
+            assertTrue(cache.add(DeduplicationCache.fingerprint(i), 0));
+        }
+        for (long i = 0; i < 500; i++) {
+            assertFalse(cache.add(DeduplicationCache.fingerprint(i), 1_000));
+        }
+        assertEquals(500, cache.size());
+    }
+
+    @Test
+    public void shouldAcceptReservedValues() {
+        DeduplicationCache cache = new DeduplicationCache(16, 60_000, 1);
+
+        assertTrue(cache.add(0L, 0));
+        assertTrue(cache.add(1L, 0));
+        assertFalse(cache.add(0L, 0));
+        assertFalse(cache.add(1L, 0));
+    }
+
+    @Test
+    public void shouldForgetFingerprintsAfterTwoWindows() {
+        DeduplicationCache cache = new DeduplicationCache(100, 1_000, 1);
+
+        assertTrue(cache.add(42L, 0));
+        assertFalse(cache.add(42L, 999));
+        assertFalse(cache.add(42L, 1_500));
+        assertTrue(cache.add(42L, 3_000));
+    }
+
+    @Test
+    public void shouldNotAddCheckedFingerprint() {
+        DeduplicationCache cache = new DeduplicationCache(100, 1_000, 1);
+
+        assertFalse(cache.contains(42L, 0));
+        assertFalse(cache.contains(42L, 0));
+        assertTrue(cache.add(42L, 0));
+        assertTrue(cache.contains(42L, 999));
+        assertFalse(cache.contains(42L, 3_000));
+    }
+
+    @Test
+    public void shouldForgetRemovedFingerprint() {
+        DeduplicationCache cache = new DeduplicationCache(100, 60_000, 1);
+
+        assertTrue(cache.add(42L, 0));
+        assertTrue(cache.add(42L + 128, 0));// Collides with the first one in the table
+
+        cache.remove(42L);
+        assertFalse(cache.add(42L + 128, 0));
+        assertTrue(cache.add(42L, 0));
+        assertFalse(cache.add(42L, 0));
+    }
+
+    @Test
+    public void shouldBeBoundedByCapacity() {
+        DeduplicationCache cache = new DeduplicationCache(100, 60_000, 1);
+
+        for (long i = 0; i < 10_000; i++) {
+            assertTrue(cache.add(DeduplicationCache.fingerprint(i), 0));
+        }
+        assertTrue(cache.size() <= 200);
+        assertFalse(cache.add(DeduplicationCache.fingerprint(9_999), 0));
+    }
+}